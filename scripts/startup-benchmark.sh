@@ -0,0 +1,61 @@
+#!/usr/bin/env bash
+# Measures time-to-ready of the service container: from `docker run` until /actuator/health reports UP.
+# Compares plain jar (before) with AOT + AppCDS image and Liquibase skip (after).
+#
+# Usage: scripts/startup-benchmark.sh [runs]
+# Requires docker, curl and PostgreSQL of docker-compose.yml on localhost:5432.
+set -euo pipefail
+
+RUNS=${1:-5}
+PORT=${PORT:-8080}
+TIMEOUT_SECONDS=120
+ENV_ARGS=(-e SPRING_LIQUIBASE_URL=jdbc:postgresql://localhost:5432/postgres -e PORT="$PORT")
+
+cd "$(dirname "$0")/.."
+
+docker compose up -d
+docker build -q -t slideshow-service:baseline --build-arg AOT=false --build-arg CDS=false . > /dev/null
+docker build -q -t slideshow-service:optimized . > /dev/null
+
+now_millis() {
+  date +%s%3N
+}
+
+# prints time-to-ready of one start in milliseconds
+measure() {
+  local image=$1
+  shift
+  local started ready container
+  started=$(now_millis)
+  container=$(docker run -d --network host "${ENV_ARGS[@]}" "$@" "$image")
+  while ! curl -fs "http://localhost:$PORT/actuator/health" | grep -q '"status":"UP"'; do
+    if (( $(now_millis) - started > TIMEOUT_SECONDS * 1000 )); then
+      echo "$image didn't become ready in ${TIMEOUT_SECONDS}s" >&2
+      docker logs "$container" >&2
+      docker rm -f "$container" > /dev/null
+      exit 1
+    fi
+    sleep 0.05
+  done
+  ready=$(now_millis)
+  docker rm -f "$container" > /dev/null
+  echo $((ready - started))
+}
+
+# prints median of RUNS starts, the first start also applies pending migrations, so it isn't counted
+benchmark() {
+  local label=$1
+  shift
+  local results=()
+  measure "$@" > /dev/null
+  for ((i = 0; i < RUNS; i++)); do
+    results+=("$(measure "$@")")
+  done
+  local median
+  median=$(printf '%s\n' "${results[@]}" | sort -n | awk '{ values[NR] = $1 } END { print values[int((NR + 1) / 2)] }')
+  printf '%-40s median %6d ms  runs: %s\n' "$label" "$median" "${results[*]}"
+}
+
+benchmark "plain jar" slideshow-service:baseline
+benchmark "AOT + AppCDS" slideshow-service:optimized
+benchmark "AOT + AppCDS + Liquibase skip" slideshow-service:optimized -e LIQUIBASE_SKIP_WHEN_CURRENT=true
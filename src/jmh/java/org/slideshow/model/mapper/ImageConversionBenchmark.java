@@ -0,0 +1,77 @@
+package org.slideshow.model.mapper;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.slideshow.model.domain.ImageEntity;
+import org.slideshow.model.dto.request.ImageDetailsRequestDTO;
+import org.slideshow.model.dto.response.ImageResponseDTO;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Conversions made by controllers: explicit mappers compared with objectMapper.convertValue used before them.
+ */
+@State(Scope.Benchmark)
+public class ImageConversionBenchmark {
+
+  @Param({"10", "100"})
+  public int images;
+
+  //same defaults as ObjectMapper configured by spring boot
+  private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+  private List<ImageDetailsRequestDTO> requestImages;
+  private List<ImageEntity> slideshowImages;
+
+  @Setup
+  public void setUp() {
+    LocalDateTime addedAt = LocalDateTime.now();
+    requestImages = new ArrayList<>(images);
+    slideshowImages = new ArrayList<>(images);
+    for (int i = 0; i < images; i++) {
+      String url = "https://cdn.example.com/images/" + i + ".png";
+      requestImages.add(new ImageDetailsRequestDTO(null, url, (short) 10));
+      slideshowImages.add(new ImageEntity((long) i, url, (short) 10, addedAt));
+    }
+  }
+
+  //request images to entities, before mappers
+  @Benchmark
+  public List<ImageEntity> requestToEntitiesWithObjectMapper() {
+    List<ImageEntity> entities = new ArrayList<>(requestImages.size());
+    for (ImageDetailsRequestDTO image : requestImages) {
+      entities.add(objectMapper.convertValue(image, ImageEntity.class));
+    }
+    return entities;
+  }
+
+  //slideshow images to response, before mappers
+  @Benchmark
+  public List<ImageResponseDTO> entitiesToResponseWithObjectMapper() {
+    return objectMapper.convertValue(slideshowImages, new TypeReference<>() {
+    });
+  }
+
+  @Benchmark
+  public List<ImageEntity> requestToEntitiesWithMapper() {
+    List<ImageEntity> entities = new ArrayList<>(requestImages.size());
+    for (ImageDetailsRequestDTO image : requestImages) {
+      entities.add(ImageMapper.toEntity(image));
+    }
+    return entities;
+  }
+
+  @Benchmark
+  public List<ImageResponseDTO> entitiesToResponseWithMapper() {
+    return ImageMapper.toResponses(slideshowImages);
+  }
+
+}
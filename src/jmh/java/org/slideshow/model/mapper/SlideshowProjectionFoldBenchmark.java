@@ -0,0 +1,38 @@
+package org.slideshow.model.mapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.slideshow.model.projection.SlideshowDBProjection;
+import org.slideshow.model.projection.SlideshowProjection;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@State(Scope.Benchmark)
+public class SlideshowProjectionFoldBenchmark {
+
+  @Param({"10", "100", "1000"})
+  public int images;
+
+  private List<SlideshowDBProjection> rows;
+
+  @Setup
+  public void setUp() {
+    LocalDateTime addedAt = LocalDateTime.now();
+    rows = new ArrayList<>(images);
+    for (int i = 0; i < images; i++) {
+      rows.add(new SlideshowDBProjection(1L, 1L, (long) i, "https://cdn.example.com/images/" + i + ".png", (short) 10,
+              addedAt.minusSeconds(i), "image/png", 150_000L, "\"" + i + "\"", addedAt, 1920, 1080));
+    }
+  }
+
+  @Benchmark
+  public SlideshowProjection toProjection() {
+    return SlideshowMapper.toProjection(1L, rows);
+  }
+
+}
@@ -0,0 +1,87 @@
+package org.slideshow.validation;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.slideshow.model.domain.ImageEntity;
+import org.slideshow.model.dto.request.ImageDetailsRequestDTO;
+import org.slideshow.model.dto.request.SlideshowRequestDTO;
+import org.slideshow.model.projection.ImageMetadata;
+import org.slideshow.service.ImageService;
+import org.slideshow.validation.validators.ImageContentTypeValidator;
+import org.slideshow.validation.validators.ImageValidationService;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Validation of slideshow request and split of valid images from errors, as SlideshowController does it.
+ * Database lookup and remote content type check are stubbed with prepared results.
+ */
+@State(Scope.Benchmark)
+public class ImagesValidationFacadeBenchmark {
+
+  //slideshow request sizes, from typical to large
+  @Param({"10", "100", "500"})
+  public int images;
+
+  private ImagesValidationFacade validationFacade;
+  private SlideshowRequestDTO request;
+
+  @Setup
+  public void setUp() {
+    List<ImageDetailsRequestDTO> requestImages = new ArrayList<>(images);
+    List<ImageEntity> existingImages = new ArrayList<>();
+    for (int i = 0; i < images; i++) {
+      String url = "https://cdn.example.com/images/" + i + ".png";
+      //half of images reference existing ones, every tenth image is invalid
+      if (i % 2 == 0) {
+        requestImages.add(new ImageDetailsRequestDTO((long) i, null, null));
+        if (i % 10 != 0) {
+          existingImages.add(new ImageEntity((long) i, url, (short) 10, LocalDateTime.now()));
+        }
+      } else {
+        requestImages.add(new ImageDetailsRequestDTO(null, url, (short) (i % 10 == 5 ? 0 : 10)));
+      }
+    }
+    request = new SlideshowRequestDTO(requestImages);
+
+    //stub-only mocks don't record invocations, so they don't grow during benchmark
+    ImageService imageService = mock(ImageService.class, withSettings().stubOnly());
+    when(imageService.findImagesById(anyList())).thenReturn(Flux.fromIterable(existingImages));
+    ImageContentTypeValidator contentTypeValidator = mock(ImageContentTypeValidator.class, withSettings().stubOnly());
+    when(contentTypeValidator.validateImageUrl(anyString())).thenReturn(Mono.just(true));
+    when(contentTypeValidator.findMetadata(anyString())).thenReturn(Mono.just(ImageMetadata.UNKNOWN));
+
+    validationFacade = new ImagesValidationFacade(new ImageValidationService(imageService, contentTypeValidator,
+            new SimpleMeterRegistry()));
+  }
+
+  @Benchmark
+  public List<ImageDetailsRequestDTO> validateAndSplit() {
+    List<ImageValidationResult> results = validationFacade.validateSlideshowImages(request).block();
+    List<ImageDetailsRequestDTO> validImages = new ArrayList<>(results.size());
+    List<ValidationError> errors = new ArrayList<>();
+    for (ImageValidationResult result : results) {
+      if (result.isValid()) {
+        validImages.add(result.image());
+      } else {
+        errors.addAll(result.errors());
+      }
+    }
+    return validImages;
+  }
+
+}
@@ -0,0 +1,20 @@
+package org.slideshow.validation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+public class SupportedImageTypeBenchmark {
+
+  //first and last declared types, type that is not supported, and header with parameters
+  @Param({"image/jpeg", "image/jp2", "text/html", "image/png; charset=binary"})
+  public String contentType;
+
+  @Benchmark
+  public boolean isTypeSupported() {
+    return SupportedImageType.isTypeSupported(contentType);
+  }
+
+}
@@ -0,0 +1,62 @@
+package org.slideshow.validation.validators;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.slideshow.model.dto.request.ImageDetailsRequestDTO;
+import org.slideshow.service.ImageService;
+import org.slideshow.validation.ValidationError;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Measures checks of a single image DTO. Remote content type check is stubbed with prepared result,
+ * whole slideshow requests are measured by ImagesValidationFacadeBenchmark.
+ */
+@State(Scope.Benchmark)
+public class ImageValidationServiceBenchmark {
+
+  private ImageValidationService validationService;
+  private ImageDetailsRequestDTO validImage;
+  private ImageDetailsRequestDTO invalidDurationImage;
+  private ImageDetailsRequestDTO longUrlImage;
+
+  @Setup
+  public void setUp() {
+    String url = "https://cdn.example.com/1.png";
+    validImage = new ImageDetailsRequestDTO(null, url, (short) 10);
+    invalidDurationImage = new ImageDetailsRequestDTO(null, url, (short) 0);
+    longUrlImage = new ImageDetailsRequestDTO(null, url + "x".repeat(300), (short) 10);
+
+    ImageContentTypeValidator contentTypeValidator = mock(ImageContentTypeValidator.class, withSettings().stubOnly());
+    when(contentTypeValidator.validateImageUrl(anyString())).thenReturn(Mono.just(true));
+
+    validationService = new ImageValidationService(mock(ImageService.class, withSettings().stubOnly()),
+            contentTypeValidator, new SimpleMeterRegistry());
+  }
+
+  @Benchmark
+  public List<ValidationError> validateValidImageIntegrity() {
+    return validationService.validateImageIntegrity(Mono.just(validImage)).collectList().block();
+  }
+
+  @Benchmark
+  public List<ValidationError> validateInvalidDurationImageIntegrity() {
+    return validationService.validateImageIntegrity(Mono.just(invalidDurationImage)).collectList().block();
+  }
+
+  //url check fails before content type is checked
+  @Benchmark
+  public List<ValidationError> validateLongUrlImageIntegrity() {
+    return validationService.validateImageIntegrity(Mono.just(longUrlImage)).collectList().block();
+  }
+
+}
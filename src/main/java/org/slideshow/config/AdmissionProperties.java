@@ -0,0 +1,31 @@
+package org.slideshow.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of adaptive concurrency limit of database bound requests.
+ * Limit is increased by one on every timely ingest call made under load and multiplied by
+ * {@code backoffRatio} on every slow or overloaded one (AIMD).
+ *
+ * @param initialLimit     concurrent requests allowed at startup
+ * @param minLimit         limit is never decreased below it
+ * @param maxLimit         limit is never increased above it, in batched ingest mode it's raised to fit
+ *                         all batches in flight
+ * @param latencyThreshold ingest call slower than it is treated as overload
+ * @param backoffRatio     multiplier of limit on overload
+ * @param readReserve      share of limit which ingest can't take, it's kept for slideshow reads
+ * @param retryAfter       value of Retry-After header of rejected requests
+ */
+@ConfigurationProperties(prefix = "slideshow.admission")
+public record AdmissionProperties(
+        @DefaultValue("20") int initialLimit,
+        @DefaultValue("4") int minLimit,
+        @DefaultValue("200") int maxLimit,
+        @DefaultValue("500ms") Duration latencyThreshold,
+        @DefaultValue("0.9") double backoffRatio,
+        @DefaultValue("0.25") double readReserve,
+        @DefaultValue("1s") Duration retryAfter) {
+}
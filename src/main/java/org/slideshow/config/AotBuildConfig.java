@@ -0,0 +1,15 @@
+package org.slideshow.config;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class AotBuildConfig {
+
+  @Bean
+  SmartInitializingSingleton proofOfPlayAotModeGuard(ProofOfPlayIngestProperties properties) {
+    return new ProofOfPlayAotModeGuard(properties);
+  }
+
+}
@@ -0,0 +1,26 @@
+package org.slideshow.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class DatabasePoolConfig {
+
+  //pool itself is configured by spring.r2dbc.pool, static so post processor doesn't initialize this configuration
+  @Bean
+  static BeanPostProcessor connectionPoolGuard(ObjectProvider<DatabasePoolProperties> properties) {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof ConnectionPool pool) {
+          return new GuardedConnectionPool(pool, properties.getObject().maxPendingAcquires());
+        }
+        return bean;
+      }
+    };
+  }
+
+}
@@ -0,0 +1,11 @@
+package org.slideshow.config;
+
+import io.r2dbc.spi.R2dbcTransientResourceException;
+
+public class DatabasePoolExhaustedException extends R2dbcTransientResourceException {
+
+  public DatabasePoolExhaustedException(String message) {
+    super(message);
+  }
+
+}
@@ -0,0 +1,16 @@
+package org.slideshow.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Limits of R2DBC connection pool on top of spring.r2dbc.pool settings.
+ *
+ * @param maxPendingAcquires max requests waiting for connection, requests above it fail at once
+ *                           with {@link DatabasePoolExhaustedException} instead of queueing up
+ *                           until spring.r2dbc.pool.max-acquire-time
+ */
+@ConfigurationProperties(prefix = "slideshow.database-pool")
+public record DatabasePoolProperties(
+        @DefaultValue("512") int maxPendingAcquires) {
+}
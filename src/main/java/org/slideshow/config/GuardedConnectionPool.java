@@ -0,0 +1,82 @@
+package org.slideshow.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.PoolMetrics;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.R2dbcTimeoutException;
+import io.r2dbc.spi.Wrapped;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Connection pool which fails fast with {@link DatabasePoolExhaustedException} once all connections are in use:
+ * - when too many requests already wait for connection;
+ * - when connection isn't acquired within spring.r2dbc.pool.max-acquire-time.
+ * Exposes wrapped pool, so pool metrics are still published.
+ */
+class GuardedConnectionPool implements ConnectionFactory, Wrapped<ConnectionFactory>, Disposable {
+
+  private final ConnectionPool pool;
+  private final int maxPendingAcquires;
+
+  GuardedConnectionPool(ConnectionPool pool, int maxPendingAcquires) {
+    this.pool = pool;
+    this.maxPendingAcquires = maxPendingAcquires;
+  }
+
+  @Override
+  public Mono<Connection> create() {
+    return Mono.defer(() -> {
+      PoolMetrics metrics = pool.getMetrics().orElse(null);
+      if (metrics != null && metrics.pendingAcquireSize() >= maxPendingAcquires) {
+        return Mono.error(exhausted(metrics, maxPendingAcquires + " requests already wait for connection"));
+      }
+      return pool.create()
+              .onErrorMap(this::isAcquireTimeout,
+                      e -> exhausted(pool.getMetrics().orElse(null), "connection wasn't acquired in time"));
+    });
+  }
+
+  //acquire timeout with free connections means database doesn't accept new connections, not exhausted pool
+  private boolean isAcquireTimeout(Throwable error) {
+    PoolMetrics metrics = pool.getMetrics().orElse(null);
+    return (error instanceof R2dbcTimeoutException || error instanceof TimeoutException)
+            && metrics != null
+            && metrics.acquiredSize() >= metrics.getMaxAllocatedSize();
+  }
+
+  private static DatabasePoolExhaustedException exhausted(PoolMetrics metrics, String reason) {
+    if (metrics == null) {
+      return new DatabasePoolExhaustedException("Database connection pool is exhausted: " + reason);
+    }
+    return new DatabasePoolExhaustedException(
+            "Database connection pool is exhausted: %s (%d of %d connections in use, %d requests waiting)"
+                    .formatted(reason, metrics.acquiredSize(), metrics.getMaxAllocatedSize(),
+                            metrics.pendingAcquireSize()));
+  }
+
+  @Override
+  public ConnectionFactoryMetadata getMetadata() {
+    return pool.getMetadata();
+  }
+
+  @Override
+  public ConnectionFactory unwrap() {
+    return pool;
+  }
+
+  @Override
+  public void dispose() {
+    pool.dispose();
+  }
+
+  @Override
+  public boolean isDisposed() {
+    return pool.isDisposed();
+  }
+
+}
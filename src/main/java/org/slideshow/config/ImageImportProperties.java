@@ -0,0 +1,21 @@
+package org.slideshow.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of bulk image import.
+ *
+ * @param batchSize             max valid images per multi-row INSERT
+ * @param linger                max time the first image of a batch waits for the batch to fill up,
+ *                              bounds delay of results of slow uploads
+ * @param validationConcurrency max images of one upload validated at once
+ */
+@ConfigurationProperties(prefix = "slideshow.image-import")
+public record ImageImportProperties(
+        @DefaultValue("1000") int batchSize,
+        @DefaultValue("200ms") Duration linger,
+        @DefaultValue("32") int validationConcurrency) {
+}
@@ -0,0 +1,18 @@
+package org.slideshow.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of background removal of deleted images from slideshows.
+ *
+ * @param batchSize max deleted images removed from slideshows with one statement and transaction
+ * @param interval  delay between compactions, batches are compacted one after another while full batches remain
+ */
+@ConfigurationProperties(prefix = "slideshow.image-tombstones")
+public record ImageTombstoneProperties(
+        @DefaultValue("500") int batchSize,
+        @DefaultValue("1s") Duration interval) {
+}
@@ -0,0 +1,65 @@
+package org.slideshow.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of remote image validation.
+ *
+ * @param contentTypeCache cache of content type validation results by image url
+ * @param outbound         limits of outbound requests to image origins
+ */
+@ConfigurationProperties(prefix = "slideshow.validation")
+public record ImageValidationProperties(
+        @DefaultValue ContentTypeCache contentTypeCache,
+        @DefaultValue Outbound outbound) {
+
+  /**
+   * @param maximumSize max cached urls, least recently used are evicted above it
+   * @param positiveTtl how long supported content type result is trusted
+   * @param negativeTtl how long unsupported or unreachable result is trusted,
+   *                    kept short because origin may be fixed or temporary down
+   */
+  public record ContentTypeCache(
+          @DefaultValue("10000") long maximumSize,
+          @DefaultValue("10m") Duration positiveTtl,
+          @DefaultValue("30s") Duration negativeTtl) {
+  }
+
+  /**
+   * @param connectTimeout         max time to establish connection to origin
+   * @param responseTimeout        max time to wait for response headers once request is sent
+   * @param deadline               max total time of single probe, including waiting for a free slot
+   * @param globalConcurrency      max probes in flight across all origins
+   * @param maxConnectionsPerHost  max connections, hence max probes in flight, to one origin
+   * @param pendingAcquireMaxCount max probes waiting for connection to one origin
+   * @param pendingAcquireTimeout  max time probe waits for connection to one origin
+   * @param maxIdleTime            idle connections are closed after it
+   * @param circuitBreaker         per origin circuit breaker
+   */
+  public record Outbound(
+          @DefaultValue("2s") Duration connectTimeout,
+          @DefaultValue("3s") Duration responseTimeout,
+          @DefaultValue("5s") Duration deadline,
+          @DefaultValue("64") int globalConcurrency,
+          @DefaultValue("8") int maxConnectionsPerHost,
+          @DefaultValue("64") int pendingAcquireMaxCount,
+          @DefaultValue("2s") Duration pendingAcquireTimeout,
+          @DefaultValue("30s") Duration maxIdleTime,
+          @DefaultValue CircuitBreaker circuitBreaker) {
+  }
+
+  /**
+   * @param failureThreshold consecutive failures (timeouts, connection errors, 5xx) which open the circuit
+   * @param openDuration     how long probes to open origin fail fast before single trial probe is allowed
+   * @param maximumHosts     max tracked origins, least recently used are forgotten above it
+   */
+  public record CircuitBreaker(
+          @DefaultValue("5") int failureThreshold,
+          @DefaultValue("30s") Duration openDuration,
+          @DefaultValue("10000") long maximumHosts) {
+  }
+
+}
@@ -0,0 +1,131 @@
+package org.slideshow.config;
+
+import liquibase.integration.spring.SpringLiquibase;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Skips Liquibase migrations when changelog files of this build are already applied.
+ * Checksum of all changelog files is stored after every successful migration and compared with the stored one
+ * before the next migration. Any change of changelog files, or missing stored checksum, runs migrations as usual.
+ */
+@Slf4j
+class LiquibaseChecksumGuard implements BeanPostProcessor {
+
+  static final String CHANGELOG_DIRECTORY = "config/liquibase/";
+
+  private static final String CHANGELOG_FILES = "classpath*:" + CHANGELOG_DIRECTORY + "**/*.y*ml";
+
+  private static final String FIND_CHECKSUM = "SELECT checksum FROM schema_changelog_checksum WHERE id = 1";
+
+  private static final String SAVE_CHECKSUM = """
+              INSERT INTO schema_changelog_checksum (id, checksum, updated_at)
+              VALUES (1, ?, CURRENT_TIMESTAMP)
+              ON CONFLICT (id) DO UPDATE SET checksum = EXCLUDED.checksum, updated_at = EXCLUDED.updated_at
+          """;
+
+  private final BooleanSupplier skipWhenCurrent;
+  private final ResourcePatternResolver resourceResolver;
+
+  private String checksum;
+
+  LiquibaseChecksumGuard(BooleanSupplier skipWhenCurrent, ResourcePatternResolver resourceResolver) {
+    this.skipWhenCurrent = skipWhenCurrent;
+    this.resourceResolver = resourceResolver;
+  }
+
+  LiquibaseChecksumGuard(BooleanSupplier skipWhenCurrent) {
+    this(skipWhenCurrent, new PathMatchingResourcePatternResolver());
+  }
+
+  @Override
+  public Object postProcessBeforeInitialization(Object bean, String beanName) {
+    if (bean instanceof SpringLiquibase liquibase && liquibase.isShouldRun() && skipWhenCurrent.getAsBoolean()
+            && checksum().equals(findStoredChecksum(liquibase))) {
+      log.info("Liquibase changelog {} is already applied, migrations are skipped", checksum());
+      liquibase.setShouldRun(false);
+    }
+    return bean;
+  }
+
+  //migrations have run without error, otherwise context fails before this point
+  @Override
+  public Object postProcessAfterInitialization(Object bean, String beanName) {
+    if (bean instanceof SpringLiquibase liquibase && liquibase.isShouldRun()) {
+      try {
+        new JdbcTemplate(liquibase.getDataSource()).update(SAVE_CHECKSUM, checksum());
+      } catch (DataAccessException e) {
+        //next start runs migrations again, they are no-op when applied
+        log.warn("Failed to save checksum of Liquibase changelog", e);
+      }
+    }
+    return bean;
+  }
+
+  private String findStoredChecksum(SpringLiquibase liquibase) {
+    try {
+      return new JdbcTemplate(liquibase.getDataSource()).queryForObject(FIND_CHECKSUM, String.class);
+    } catch (DataAccessException e) {
+      //table isn't created yet or checksum isn't saved
+      log.debug("Checksum of Liquibase changelog isn't found: {}", e.getMessage());
+      return null;
+    }
+  }
+
+  String checksum() {
+    if (checksum == null) {
+      checksum = computeChecksum();
+    }
+    return checksum;
+  }
+
+  //files are hashed with their paths relative to changelog directory in path order,
+  //so checksum doesn't depend on location of the jar or order of classpath scanning
+  private String computeChecksum() {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      List<Resource> files = Arrays.stream(resourceResolver.getResources(CHANGELOG_FILES))
+              .sorted(Comparator.comparing(LiquibaseChecksumGuard::relativePath))
+              .toList();
+      for (Resource file : files) {
+        digest.update(relativePath(file).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        try (InputStream content = file.getInputStream()) {
+          digest.update(content.readAllBytes());
+        }
+      }
+      return HexFormat.of().formatHex(digest.digest());
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to read Liquibase changelog", e);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static String relativePath(Resource file) {
+    try {
+      String path = file.getURL().toString();
+      return path.substring(path.lastIndexOf(CHANGELOG_DIRECTORY) + CHANGELOG_DIRECTORY.length());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+}
@@ -0,0 +1,18 @@
+package org.slideshow.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class LiquibaseConfig {
+
+  //static so post processor doesn't initialize this configuration, checksum is saved even when skipping is off,
+  //so instances switched to skipping don't migrate once more
+  @Bean
+  static BeanPostProcessor liquibaseChecksumGuard(ObjectProvider<SchemaMigrationProperties> properties) {
+    return new LiquibaseChecksumGuard(() -> properties.getObject().skipWhenCurrent());
+  }
+
+}
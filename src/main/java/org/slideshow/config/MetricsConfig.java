@@ -0,0 +1,21 @@
+package org.slideshow.config;
+
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.slideshow.validation.probe.ImageProbeClient;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+  //image urls come from clients, so number of hosts is unbounded. Probes of hosts above the cap
+  //are still made, only their latency isn't published
+  private static final int MAX_PROBED_HOSTS = 200;
+
+  @Bean
+  public MeterFilter imageProbeHostsLimit() {
+    return MeterFilter.maximumAllowableTags(ImageProbeClient.PROBE_TIMER, "host", MAX_PROBED_HOSTS,
+            MeterFilter.deny());
+  }
+
+}
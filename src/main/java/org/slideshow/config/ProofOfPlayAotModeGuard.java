@@ -0,0 +1,68 @@
+package org.slideshow.config;
+
+import org.springframework.aot.AotDetector;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Fails startup when proof-of-play mode differs from the mode AOT bean definitions were generated for.
+ * Kafka beans are conditional on the mode and AOT evaluates conditions at build time, so with another mode
+ * events would be accepted and never written. Build mode is recorded by {@code -Paot} build in
+ * {@link #BUILD_PROPERTIES}.
+ */
+class ProofOfPlayAotModeGuard implements SmartInitializingSingleton {
+
+  static final String BUILD_PROPERTIES = "META-INF/slideshow-aot.properties";
+  static final String MODE_PROPERTY = "slideshow.proof-of-play.mode";
+
+  private final ProofOfPlayIngestProperties properties;
+  private final Resource buildProperties;
+  private final BooleanSupplier aotEnabled;
+
+  ProofOfPlayAotModeGuard(ProofOfPlayIngestProperties properties, Resource buildProperties,
+                          BooleanSupplier aotEnabled) {
+    this.properties = properties;
+    this.buildProperties = buildProperties;
+    this.aotEnabled = aotEnabled;
+  }
+
+  ProofOfPlayAotModeGuard(ProofOfPlayIngestProperties properties) {
+    this(properties, new ClassPathResource(BUILD_PROPERTIES), AotDetector::useGeneratedArtifacts);
+  }
+
+  @Override
+  public void afterSingletonsInstantiated() {
+    //without generated artifacts conditions are evaluated at startup, any mode works
+    if (!aotEnabled.getAsBoolean()) {
+      return;
+    }
+    if (!buildProperties.exists()) {
+      throw new IllegalStateException("AOT is enabled, but " + BUILD_PROPERTIES
+              + " with proof-of-play mode of the build is missing");
+    }
+
+    String buildMode = loadBuildMode();
+    String mode = properties.mode().name();
+    if (!mode.equals(buildMode)) {
+      throw new IllegalStateException(String.format(
+              "Proof-of-play mode %s differs from mode %s this AOT build was generated for, "
+                      + "start with PROOF_OF_PLAY_MODE=%s or rebuild with -PproofOfPlayMode=%s",
+              mode, buildMode, buildMode, mode));
+    }
+  }
+
+  private String loadBuildMode() {
+    try {
+      return PropertiesLoaderUtils.loadProperties(buildProperties).getProperty(MODE_PROPERTY);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+}
@@ -0,0 +1,97 @@
+package org.slideshow.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.time.Period;
+
+/**
+ * Settings of proof-of-play ingestion path.
+ *
+ * @param mode         how accepted events reach the database
+ * @param batch        micro-batching settings, used in {@link IngestMode#BATCHED} mode
+ * @param kafka        event log settings, used in {@link IngestMode#KAFKA} mode
+ * @param rollup       hourly rollups maintained from written events
+ * @param partitioning lifecycle of time range partitions of events table
+ */
+@ConfigurationProperties(prefix = "slideshow.proof-of-play")
+public record ProofOfPlayIngestProperties(
+        @DefaultValue("BATCHED") IngestMode mode,
+        @DefaultValue Batch batch,
+        @DefaultValue Kafka kafka,
+        @DefaultValue Rollup rollup,
+        @DefaultValue Partitioning partitioning) {
+
+  public enum IngestMode {
+    //one INSERT and one transaction per event
+    DIRECT,
+    //events are collected by count or time window and flushed as one multi-row INSERT
+    BATCHED,
+    //events are only published to kafka topic, separate batched consumer writes them to the database
+    KAFKA
+  }
+
+  /**
+   * @param size           max events per multi-row INSERT
+   * @param linger         max time the first event of a batch waits for the batch to fill up
+   * @param maxInFlight    max batches written concurrently, each takes one connection
+   * @param bufferCapacity max events waiting for a batch, events above it are rejected
+   */
+  public record Batch(
+          @DefaultValue("500") int size,
+          @DefaultValue("20ms") Duration linger,
+          @DefaultValue("4") int maxInFlight,
+          @DefaultValue("20000") int bufferCapacity) {
+  }
+
+  /**
+   * @param topic             topic of proof-of-play events, keyed by slideshow id
+   * @param partitions        partitions of the topic, upper bound for consumer concurrency
+   * @param replicationFactor replicas of every partition
+   * @param writeTimeout      max time consumer waits for one batch to be written to the database
+   * @param maxRetryTime      max time failed batch is retried, then its events go to dead letter topic
+   */
+  public record Kafka(
+          @DefaultValue("proof-of-play-events") String topic,
+          @DefaultValue("12") int partitions,
+          @DefaultValue("1") short replicationFactor,
+          @DefaultValue("30s") Duration writeTimeout,
+          @DefaultValue("10m") Duration maxRetryTime) {
+  }
+
+  /**
+   * @param flushInterval how often rollups aggregated in memory are added to the database,
+   *                      rollups of this period are lost if the instance crashes
+   */
+  public record Rollup(
+          @DefaultValue("10s") Duration flushInterval) {
+  }
+
+  /**
+   * @param granularity     time range of displayed_at covered by one partition
+   * @param premake         partitions created ahead of the current one
+   * @param retention       partitions which end earlier than retention ago are expired
+   * @param retentionAction what happens with expired partitions
+   * @param checkInterval   how often partitions are created and expired
+   */
+  public record Partitioning(
+          @DefaultValue("DAILY") Granularity granularity,
+          @DefaultValue("7") int premake,
+          @DefaultValue("90d") Period retention,
+          @DefaultValue("DETACH") RetentionAction retentionAction,
+          @DefaultValue("1h") Duration checkInterval) {
+
+    public enum Granularity {
+      DAILY,
+      MONTHLY
+    }
+
+    public enum RetentionAction {
+      //partition becomes standalone table, it can be archived and dropped manually
+      DETACH,
+      DROP
+    }
+  }
+
+}
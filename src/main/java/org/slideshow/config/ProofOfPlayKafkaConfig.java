@@ -0,0 +1,69 @@
+package org.slideshow.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.slideshow.ingest.InvalidProofOfPlayEventException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.CommonErrorHandler;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.ExponentialBackOff;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Configuration
+@ConditionalOnProperty(prefix = "slideshow.proof-of-play", name = "mode", havingValue = "KAFKA")
+public class ProofOfPlayKafkaConfig {
+
+  //suffix used by default destination resolver of DeadLetterPublishingRecoverer
+  public static final String DEAD_LETTER_TOPIC_SUFFIX = ".DLT";
+
+  @Bean
+  public NewTopic proofOfPlayEventsTopic(ProofOfPlayIngestProperties properties) {
+    ProofOfPlayIngestProperties.Kafka kafka = properties.kafka();
+    return TopicBuilder.name(kafka.topic())
+            .partitions(kafka.partitions())
+            .replicas(kafka.replicationFactor())
+            .build();
+  }
+
+  //failed record is published to the same partition of dead letter topic, so partitions match
+  @Bean
+  public NewTopic proofOfPlayEventsDeadLetterTopic(ProofOfPlayIngestProperties properties) {
+    ProofOfPlayIngestProperties.Kafka kafka = properties.kafka();
+    return TopicBuilder.name(kafka.topic() + DEAD_LETTER_TOPIC_SUFFIX)
+            .partitions(kafka.partitions())
+            .replicas(kafka.replicationFactor())
+            .build();
+  }
+
+  //failed batch is retried with growing pauses while database is down, events meanwhile stay in the topic.
+  //After max-retry-time events of the batch go to dead letter topic, so partition isn't stalled forever.
+  //Invalid event isn't retried at all, it goes to dead letter topic alone and events after it are redelivered
+  @Bean
+  public CommonErrorHandler proofOfPlayErrorHandler(ProducerFactory<Object, Object> producerFactory,
+                                                    ProofOfPlayIngestProperties properties) {
+    Map<Class<?>, KafkaOperations<?, ?>> templates = new LinkedHashMap<>();
+    //record which failed deserialization is published with its original bytes
+    templates.put(byte[].class, new KafkaTemplate<>(producerFactory,
+            Map.of(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class)));
+    templates.put(Object.class, new KafkaTemplate<>(producerFactory));
+
+    ExponentialBackOff backOff = new ExponentialBackOff(500, 2);
+    backOff.setMaxInterval(30_000);
+    backOff.setMaxElapsedTime(properties.kafka().maxRetryTime().toMillis());
+
+    DefaultErrorHandler errorHandler = new DefaultErrorHandler(new DeadLetterPublishingRecoverer(templates), backOff);
+    errorHandler.addNotRetryableExceptions(InvalidProofOfPlayEventException.class);
+    return errorHandler;
+  }
+
+}
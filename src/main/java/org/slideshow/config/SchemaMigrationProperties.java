@@ -0,0 +1,16 @@
+package org.slideshow.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of Liquibase migrations on top of spring.liquibase settings.
+ *
+ * @param skipWhenCurrent migrations aren't run when checksum of changelog files stored by the last migration
+ *                        matches checksum of changelog files of this build, so startup costs one query
+ *                        instead of changelog lock, parsing and validation of every change set
+ */
+@ConfigurationProperties(prefix = "slideshow.schema-migration")
+public record SchemaMigrationProperties(
+        @DefaultValue("false") boolean skipWhenCurrent) {
+}
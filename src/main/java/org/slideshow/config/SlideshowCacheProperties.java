@@ -0,0 +1,18 @@
+package org.slideshow.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of in-process cache of slideshows served to players.
+ *
+ * @param maximumSize max cached slideshows, least recently used are evicted above it
+ * @param ttl         max age of cached slideshow, safety net for changes made outside of this service
+ */
+@ConfigurationProperties(prefix = "slideshow.slideshow-cache")
+public record SlideshowCacheProperties(
+        @DefaultValue("10000") long maximumSize,
+        @DefaultValue("5m") Duration ttl) {
+}
@@ -0,0 +1,20 @@
+package org.slideshow.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of slideshow change streams served to players over server-sent events.
+ *
+ * @param heartbeat         interval of comments sent to idle streams, keeps proxies from closing them
+ * @param reconnectDelay    first delay before listening connection to database is opened again after failure
+ * @param maxReconnectDelay max delay between attempts to open listening connection
+ */
+@ConfigurationProperties(prefix = "slideshow.slideshow-events")
+public record SlideshowEventsProperties(
+        @DefaultValue("15s") Duration heartbeat,
+        @DefaultValue("1s") Duration reconnectDelay,
+        @DefaultValue("30s") Duration maxReconnectDelay) {
+}
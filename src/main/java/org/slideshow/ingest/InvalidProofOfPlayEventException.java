@@ -0,0 +1,12 @@
+package org.slideshow.ingest;
+
+/**
+ * Event can't be written whatever the retries, e.g. it isn't deserializable or misses required fields.
+ */
+public class InvalidProofOfPlayEventException extends RuntimeException {
+
+  public InvalidProofOfPlayEventException(String message) {
+    super(message);
+  }
+
+}
@@ -0,0 +1,126 @@
+package org.slideshow.ingest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.slideshow.config.ProofOfPlayIngestProperties;
+import org.slideshow.model.domain.ProofOfPlayEventEntity;
+import org.slideshow.repository.ProofOfPlayEventRepository;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects proof-of-play events into batches by count or linger time and writes every batch
+ * with one multi-row INSERT, so thousands of events per second cost tens of statements instead
+ * of thousands of transactions.
+ * Caller is completed only when the batch containing its event is written. When batch insert fails,
+ * its events are written one by one, so a bad event fails only its own caller.
+ */
+@Slf4j
+@Component
+public class ProofOfPlayEventBatchWriter implements DisposableBean {
+
+  private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(10);
+
+  private final ProofOfPlayEventRepository eventRepository;
+  private final ProofOfPlayIngestMetrics metrics;
+  private final CountDownLatch terminated = new CountDownLatch(1);
+  private final Disposable pipeline;
+
+  private FluxSink<PendingEvent> queue;
+
+  public ProofOfPlayEventBatchWriter(ProofOfPlayEventRepository eventRepository,
+                                     ProofOfPlayIngestMetrics metrics,
+                                     ProofOfPlayIngestProperties properties) {
+    this.eventRepository = eventRepository;
+    this.metrics = metrics;
+
+    ProofOfPlayIngestProperties.Batch batch = properties.batch();
+    this.pipeline = Flux.<PendingEvent>create(sink -> this.queue = sink)
+            //bounded queue, events which don't fit are failed instead of growing memory without limit
+            .onBackpressureBuffer(batch.bufferCapacity(), this::reject, BufferOverflowStrategy.DROP_LATEST)
+            //fair backpressure: batches are pulled only when there is a free in-flight slot
+            .bufferTimeout(batch.size(), batch.linger(), true)
+            .flatMap(this::flush, batch.maxInFlight())
+            .doFinally(signal -> terminated.countDown())
+            .subscribe();
+  }
+
+  public Mono<ProofOfPlayEventEntity> write(ProofOfPlayEventEntity event) {
+    return Mono.defer(() -> {
+      PendingEvent pending = new PendingEvent(event, Sinks.one());
+      queue.next(pending);
+      return pending.result().asMono();
+    });
+  }
+
+  private Mono<Void> flush(List<PendingEvent> batch) {
+    List<ProofOfPlayEventEntity> events = batch.stream().map(PendingEvent::event).toList();
+
+    return eventRepository.insertAll(events)
+            .then()
+            .doOnSuccess(ignored -> {
+              metrics.accepted(batch.size());
+              batch.forEach(p -> p.result().tryEmitValue(p.event()));
+            })
+            .onErrorResume(e -> {
+              if (batch.size() == 1) {
+                fail(batch.get(0), e);
+                return Mono.empty();
+              }
+              //multi-row insert fails as a whole, so rows are retried one by one
+              //and only caller of offending row gets the error, pipeline keeps running
+              log.warn("Failed to write batch of {} proof-of-play events, writing them one by one", batch.size(), e);
+              return Flux.fromIterable(batch)
+                      .concatMap(this::flushOne)
+                      .then();
+            });
+  }
+
+  private Mono<Void> flushOne(PendingEvent pending) {
+    return eventRepository.insertAll(List.of(pending.event()))
+            .then()
+            .doOnSuccess(ignored -> {
+              metrics.accepted(1);
+              pending.result().tryEmitValue(pending.event());
+            })
+            .onErrorResume(e -> {
+              fail(pending, e);
+              return Mono.empty();
+            });
+  }
+
+  private void fail(PendingEvent pending, Throwable e) {
+    log.error("Failed to write proof-of-play event", e);
+    metrics.failed(1);
+    pending.result().tryEmitError(e);
+  }
+
+  private void reject(PendingEvent pending) {
+    metrics.dropped(1);
+    pending.result().tryEmitError(new ProofOfPlayIngestException("Proof-of-play write buffer is full"));
+  }
+
+  @Override
+  public void destroy() throws InterruptedException {
+    //flush what is already buffered before connection factory is closed
+    queue.complete();
+    if (!terminated.await(SHUTDOWN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+      log.warn("Proof-of-play writer didn't drain in {}, pending events are dropped", SHUTDOWN_TIMEOUT);
+      pipeline.dispose();
+    }
+  }
+
+  private record PendingEvent(ProofOfPlayEventEntity event, Sinks.One<ProofOfPlayEventEntity> result) {
+  }
+
+}
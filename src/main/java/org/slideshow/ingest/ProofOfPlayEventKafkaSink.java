@@ -0,0 +1,77 @@
+package org.slideshow.ingest;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slideshow.config.ProofOfPlayIngestProperties;
+import org.slideshow.model.domain.ProofOfPlayEventEntity;
+import org.slideshow.repository.ProofOfPlayEventRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes proof-of-play events consumed from kafka to the database, one multi-row INSERT per polled batch.
+ * Offsets are committed only after the batch is written, so failed batches are redelivered (at-least-once).
+ * Invalid event is reported by its index: events before it are written, it goes to dead letter topic,
+ * and events after it are redelivered.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "slideshow.proof-of-play", name = "mode", havingValue = "KAFKA")
+public class ProofOfPlayEventKafkaSink {
+
+  private final ProofOfPlayEventRepository eventRepository;
+  private final ProofOfPlayRollupAggregator rollupAggregator;
+  private final ProofOfPlayIngestProperties properties;
+
+  @KafkaListener(
+          id = "proof-of-play-sink",
+          topics = "${slideshow.proof-of-play.kafka.topic:proof-of-play-events}",
+          batch = "true")
+  public void consume(List<ConsumerRecord<Long, ProofOfPlayEventEntity>> records, Acknowledgment acknowledgment) {
+    List<ProofOfPlayEventEntity> events = new ArrayList<>(records.size());
+    for (ConsumerRecord<Long, ProofOfPlayEventEntity> record : records) {
+      if (!isValid(record.value())) {
+        break;
+      }
+      events.add(record.value());
+    }
+
+    write(events);
+    if (events.size() < records.size()) {
+      //offsets of written events are committed by error handler
+      throw new BatchListenerFailedException("Invalid proof-of-play event",
+              new InvalidProofOfPlayEventException("Proof-of-play event isn't deserializable or misses userId"),
+              events.size());
+    }
+
+    acknowledgment.acknowledge();
+  }
+
+  private void write(List<ProofOfPlayEventEntity> events) {
+    if (events.isEmpty()) {
+      return;
+    }
+    //listener runs on kafka consumer thread, so blocking here only holds back the next poll
+    eventRepository.insertAll(events)
+            .then()
+            .block(properties.kafka().writeTimeout());
+    //redelivered batch is counted again, same as it is written again
+    rollupAggregator.recordAll(events);
+    log.debug("Written {} proof-of-play events", events.size());
+  }
+
+  //value of record which failed deserialization is null, ErrorHandlingDeserializer keeps the error in headers.
+  //Missing displayedAt is defaulted by INSERT, missing userId would fail the whole batch
+  private static boolean isValid(ProofOfPlayEventEntity event) {
+    return event != null && event.getUserId() != null;
+  }
+
+}
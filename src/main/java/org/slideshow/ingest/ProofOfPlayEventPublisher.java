@@ -0,0 +1,28 @@
+package org.slideshow.ingest;
+
+import lombok.RequiredArgsConstructor;
+import org.slideshow.config.ProofOfPlayIngestProperties;
+import org.slideshow.model.domain.ProofOfPlayEventEntity;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+@Component
+@RequiredArgsConstructor
+public class ProofOfPlayEventPublisher {
+
+  private final KafkaTemplate<Long, ProofOfPlayEventEntity> kafkaTemplate;
+  private final ProofOfPlayIngestProperties properties;
+
+  /**
+   * Publishes event keyed by slideshow id, so events of one slideshow keep their order within a partition.
+   *
+   * @param event event to publish
+   * @return same event, once broker acknowledged it
+   */
+  public Mono<ProofOfPlayEventEntity> publish(ProofOfPlayEventEntity event) {
+    return Mono.fromFuture(() -> kafkaTemplate.send(properties.kafka().topic(), event.getSlideshowId(), event))
+            .thenReturn(event);
+  }
+
+}
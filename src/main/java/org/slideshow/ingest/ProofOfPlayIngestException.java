@@ -0,0 +1,9 @@
+package org.slideshow.ingest;
+
+public class ProofOfPlayIngestException extends RuntimeException {
+
+  public ProofOfPlayIngestException(String message) {
+    super(message);
+  }
+
+}
@@ -0,0 +1,49 @@
+package org.slideshow.ingest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slideshow.config.ProofOfPlayIngestProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts proof-of-play events by result as proof.of.play.events{mode, result}:
+ * accepted - written to the database, or acknowledged by kafka broker in KAFKA mode;
+ * dropped - rejected because write buffer is full;
+ * failed - write or publish failed.
+ */
+@Component
+public class ProofOfPlayIngestMetrics {
+
+  public static final String EVENTS_COUNTER = "proof.of.play.events";
+
+  private final Counter accepted;
+  private final Counter dropped;
+  private final Counter failed;
+
+  public ProofOfPlayIngestMetrics(MeterRegistry meterRegistry, ProofOfPlayIngestProperties properties) {
+    String mode = properties.mode().name();
+    this.accepted = counter(meterRegistry, mode, "accepted");
+    this.dropped = counter(meterRegistry, mode, "dropped");
+    this.failed = counter(meterRegistry, mode, "failed");
+  }
+
+  public void accepted(int events) {
+    accepted.increment(events);
+  }
+
+  public void dropped(int events) {
+    dropped.increment(events);
+  }
+
+  public void failed(int events) {
+    failed.increment(events);
+  }
+
+  private static Counter counter(MeterRegistry meterRegistry, String mode, String result) {
+    return Counter.builder(EVENTS_COUNTER)
+            .tag("mode", mode)
+            .tag("result", result)
+            .register(meterRegistry);
+  }
+
+}
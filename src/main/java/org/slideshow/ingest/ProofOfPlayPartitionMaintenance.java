@@ -0,0 +1,243 @@
+package org.slideshow.ingest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.slideshow.config.ProofOfPlayIngestProperties;
+import org.slideshow.config.ProofOfPlayIngestProperties.Partitioning;
+import org.slideshow.service.schedule.PeriodicTask;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps time range partitions of proof_of_play_events: creates partitions of the current and next periods
+ * ahead of time and detaches or drops partitions older than retention.
+ * Runs on every instance, advisory lock lets only one of them change partitions at a time.
+ */
+@Slf4j
+@Component
+public class ProofOfPlayPartitionMaintenance implements DisposableBean {
+
+  static final String EVENTS_TABLE = "proof_of_play_events";
+  static final String DEFAULT_PARTITION = EVENTS_TABLE + "_default";
+
+  private static final String LOCK = "SELECT pg_try_advisory_xact_lock(hashtext('" + EVENTS_TABLE + "_partitions'))";
+
+  private static final String FIND_PARTITIONS = """
+              SELECT c.relname AS name, pg_get_expr(c.relpartbound, c.oid) AS bound
+              FROM pg_inherits i
+              JOIN pg_class c ON c.oid = i.inhrelid
+              WHERE i.inhparent = '%s'::regclass
+          """.formatted(EVENTS_TABLE);
+
+  //e.g. FOR VALUES FROM ('2025-01-13 00:00:00') TO ('2025-01-14 00:00:00'), FROM (MINVALUE) TO (...)
+  private static final Pattern RANGE_BOUND = Pattern.compile("FROM \\((.+?)\\) TO \\((.+?)\\)");
+  private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMddHH");
+  private static final DateTimeFormatter BOUND_LITERAL = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+  private final DatabaseClient databaseClient;
+  private final TransactionalOperator transactionalOperator;
+  private final Partitioning settings;
+
+  private volatile Disposable schedule;
+
+  public ProofOfPlayPartitionMaintenance(DatabaseClient databaseClient,
+                                         ReactiveTransactionManager reactiveTransactionManager,
+                                         ProofOfPlayIngestProperties properties) {
+    this.databaseClient = databaseClient;
+    this.transactionalOperator = TransactionalOperator.create(reactiveTransactionManager);
+    this.settings = properties.partitioning();
+  }
+
+  //started once migrations are applied, events outside of existing partitions meanwhile go to default partition
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    schedule = PeriodicTask.schedule("Maintenance of " + EVENTS_TABLE + " partitions", Duration.ZERO,
+            settings.checkInterval(), this::maintain);
+  }
+
+  /**
+   * Creates missing partitions up to {@link Partitioning#premake()} periods ahead and expires old ones,
+   * in a single transaction.
+   *
+   * @return completes when partitions are changed, or at once when another instance is changing them
+   */
+  public Mono<Void> maintain() {
+    return databaseClient.sql(LOCK)
+            .map(row -> row.get(0, Boolean.class))
+            .one()
+            .filter(Boolean::booleanValue)
+            .flatMap(locked -> currentTime().zipWhen(now -> findPartitions()))
+            .flatMap(state -> {
+              LocalDateTime now = state.getT1();
+              List<PartitionRange> partitions = state.getT2();
+              List<PartitionRange> missing = missingPartitions(partitions, now, settings);
+              List<PartitionRange> expired = expiredPartitions(partitions, now, settings);
+
+              return Flux.fromIterable(missing).concatMap(this::create)
+                      .thenMany(Flux.fromIterable(expired).concatMap(this::expire))
+                      .then(Mono.fromRunnable(() -> {
+                        if (!missing.isEmpty() || !expired.isEmpty()) {
+                          log.info("Partitions of {}: created {}, {} {}", EVENTS_TABLE,
+                                  missing.stream().map(PartitionRange::name).toList(),
+                                  settings.retentionAction(), expired.stream().map(PartitionRange::name).toList());
+                        }
+                      }));
+            })
+            .as(transactionalOperator::transactional)
+            .then();
+  }
+
+  //rows which are already in default partition are moved, otherwise partition can't be attached
+  private Mono<Void> create(PartitionRange partition) {
+    String from = BOUND_LITERAL.format(partition.from());
+    String to = BOUND_LITERAL.format(partition.to());
+
+    return execute("CREATE TABLE %s (LIKE %s INCLUDING DEFAULTS)".formatted(partition.name(), EVENTS_TABLE))
+            .then(execute("""
+                    WITH moved AS (
+                        DELETE FROM %s WHERE displayed_at >= '%s' AND displayed_at < '%s' RETURNING *
+                    )
+                    INSERT INTO %s SELECT * FROM moved
+                    """.formatted(DEFAULT_PARTITION, from, to, partition.name())))
+            .then(execute("ALTER TABLE %s ATTACH PARTITION %s FOR VALUES FROM ('%s') TO ('%s')"
+                    .formatted(EVENTS_TABLE, partition.name(), from, to)));
+  }
+
+  private Mono<Void> expire(PartitionRange partition) {
+    return switch (settings.retentionAction()) {
+      case DETACH -> execute("ALTER TABLE %s DETACH PARTITION %s".formatted(EVENTS_TABLE, partition.name()));
+      case DROP -> execute("DROP TABLE %s".formatted(partition.name()));
+    };
+  }
+
+  private Mono<Void> execute(String sql) {
+    return databaseClient.sql(sql).then();
+  }
+
+  //stored times are local times of database session, so current time is taken from database too
+  private Mono<LocalDateTime> currentTime() {
+    return databaseClient.sql("SELECT LOCALTIMESTAMP")
+            .map(row -> row.get(0, LocalDateTime.class))
+            .one();
+  }
+
+  private Mono<List<PartitionRange>> findPartitions() {
+    return databaseClient.sql(FIND_PARTITIONS)
+            .map(row -> parse(row.get("name", String.class), row.get("bound", String.class)))
+            .all()
+            .filter(partition -> partition.from() != null)
+            .collectList();
+  }
+
+  /**
+   * Ranges of the current and next {@link Partitioning#premake()} periods not covered by existing partitions,
+   * every range lies within single period.
+   */
+  static List<PartitionRange> missingPartitions(List<PartitionRange> partitions, LocalDateTime now,
+                                                Partitioning settings) {
+    List<PartitionRange> sorted = partitions.stream()
+            .sorted(Comparator.comparing(PartitionRange::from))
+            .toList();
+    List<PartitionRange> missing = new ArrayList<>();
+
+    LocalDateTime periodStart = periodStart(now, settings);
+    for (int i = 0; i <= settings.premake(); i++) {
+      LocalDateTime periodEnd = nextPeriod(periodStart, settings);
+      LocalDateTime cursor = periodStart;
+      for (PartitionRange partition : sorted) {
+        if (!partition.to().isAfter(cursor)) {
+          continue;
+        }
+        if (!partition.from().isBefore(periodEnd)) {
+          break;
+        }
+        if (partition.from().isAfter(cursor)) {
+          missing.add(PartitionRange.of(cursor, partition.from()));
+        }
+        cursor = partition.to();
+        if (!cursor.isBefore(periodEnd)) {
+          break;
+        }
+      }
+      if (cursor.isBefore(periodEnd)) {
+        missing.add(PartitionRange.of(cursor, periodEnd));
+      }
+      periodStart = periodEnd;
+    }
+    return missing;
+  }
+
+  //partitions which end before now minus retention, default partition is never expired
+  static List<PartitionRange> expiredPartitions(List<PartitionRange> partitions, LocalDateTime now,
+                                                Partitioning settings) {
+    LocalDateTime threshold = now.minus(settings.retention());
+    return partitions.stream()
+            .filter(partition -> !partition.to().isAfter(threshold))
+            .toList();
+  }
+
+  static PartitionRange parse(String name, String bound) {
+    Matcher matcher = RANGE_BOUND.matcher(bound);
+    if (!matcher.find()) {
+      //default partition
+      return new PartitionRange(name, null, null);
+    }
+    return new PartitionRange(name, parseBound(matcher.group(1)), parseBound(matcher.group(2)));
+  }
+
+  private static LocalDateTime parseBound(String value) {
+    return switch (value) {
+      case "MINVALUE" -> LocalDateTime.MIN;
+      case "MAXVALUE" -> LocalDateTime.MAX;
+      default -> LocalDateTime.parse(value.replace("'", "").replace(' ', 'T'));
+    };
+  }
+
+  private static LocalDateTime periodStart(LocalDateTime time, Partitioning settings) {
+    LocalDateTime day = time.truncatedTo(ChronoUnit.DAYS);
+    return switch (settings.granularity()) {
+      case DAILY -> day;
+      case MONTHLY -> day.withDayOfMonth(1);
+    };
+  }
+
+  private static LocalDateTime nextPeriod(LocalDateTime periodStart, Partitioning settings) {
+    return switch (settings.granularity()) {
+      case DAILY -> periodStart.plusDays(1);
+      case MONTHLY -> periodStart.plusMonths(1);
+    };
+  }
+
+  @Override
+  public void destroy() {
+    if (schedule != null) {
+      schedule.dispose();
+    }
+  }
+
+  record PartitionRange(String name, LocalDateTime from, LocalDateTime to) {
+
+    //partition is named after start of its range
+    static PartitionRange of(LocalDateTime from, LocalDateTime to) {
+      return new PartitionRange(EVENTS_TABLE + "_p" + PARTITION_SUFFIX.format(from), from, to);
+    }
+  }
+
+}
@@ -0,0 +1,132 @@
+package org.slideshow.ingest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.slideshow.config.ProofOfPlayIngestProperties;
+import org.slideshow.model.domain.ProofOfPlayEventEntity;
+import org.slideshow.model.projection.ProofOfPlayHourlyProjection;
+import org.slideshow.repository.ProofOfPlayEventRepository;
+import org.slideshow.service.schedule.PeriodicTask;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Maintains hourly proof-of-play rollups incrementally: written events are aggregated in memory
+ * per slideshow, image and hour, and aggregates are periodically added to stored rollups with one upsert.
+ * Database work depends on number of distinct (slideshow, image, hour) seen in flush interval, not on number of events.
+ */
+@Slf4j
+@Component
+public class ProofOfPlayRollupAggregator implements DisposableBean {
+
+  private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(10);
+
+  private final ProofOfPlayEventRepository eventRepository;
+  //recording threads share read lock, flush takes write lock only to swap pending map
+  private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+  private final Disposable flushing;
+
+  private volatile Map<RollupKey, ProofOfPlayHourlyProjection> pending = new ConcurrentHashMap<>();
+
+  public ProofOfPlayRollupAggregator(ProofOfPlayEventRepository eventRepository,
+                                     ProofOfPlayIngestProperties properties) {
+    this.eventRepository = eventRepository;
+    Duration flushInterval = properties.rollup().flushInterval();
+    this.flushing = PeriodicTask.schedule("Flush of proof-of-play rollups", flushInterval, flushInterval,
+            this::flush);
+  }
+
+  public void record(ProofOfPlayEventEntity event) {
+    add(toRollup(event));
+  }
+
+  public void recordAll(List<ProofOfPlayEventEntity> events) {
+    events.forEach(this::record);
+  }
+
+  /**
+   * Adds aggregated rollups to the database. Rollups of failed flush are kept in memory and retried with next flush.
+   *
+   * @return completes when aggregated rollups are written
+   */
+  public Mono<Void> flush() {
+    return Mono.defer(() -> {
+      Map<RollupKey, ProofOfPlayHourlyProjection> drained;
+      Lock lock = swapLock.writeLock();
+      lock.lock();
+      try {
+        drained = pending;
+        pending = new ConcurrentHashMap<>();
+      } finally {
+        lock.unlock();
+      }
+
+      if (drained.isEmpty()) {
+        return Mono.empty();
+      }
+
+      List<ProofOfPlayHourlyProjection> rollups = new ArrayList<>(drained.values());
+      return Mono.defer(() -> eventRepository.upsertHourlyRollups(rollups))
+              .doOnSuccess(rows -> log.debug("Flushed {} proof-of-play hourly rollups", rows))
+              .onErrorResume(e -> {
+                log.error("Failed to flush {} proof-of-play hourly rollups, retrying with next flush",
+                        rollups.size(), e);
+                rollups.forEach(this::add);
+                return Mono.empty();
+              })
+              .then();
+    });
+  }
+
+  private void add(ProofOfPlayHourlyProjection rollup) {
+    RollupKey key = new RollupKey(rollup.slideshowId(), rollup.hour(), rollup.imageId());
+    Lock lock = swapLock.readLock();
+    lock.lock();
+    try {
+      pending.merge(key, rollup, ProofOfPlayHourlyProjection::merge);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private static ProofOfPlayHourlyProjection toRollup(ProofOfPlayEventEntity event) {
+    //database sets current time when event has no displayed time
+    OffsetDateTime displayedAt = event.getDisplayedAt() != null ? event.getDisplayedAt() : OffsetDateTime.now();
+    LocalDateTime displayedAtUtc = displayedAt.withOffsetSameInstant(ZoneOffset.UTC).toLocalDateTime();
+    Short actualDuration = event.getActualDuration();
+
+    return new ProofOfPlayHourlyProjection(event.getSlideshowId(), event.getImageId(),
+            displayedAtUtc.truncatedTo(ChronoUnit.HOURS),
+            1, actualDuration != null ? actualDuration : 0,
+            displayedAtUtc, displayedAtUtc);
+  }
+
+  @Override
+  public void destroy() {
+    //write what is aggregated before connection factory is closed
+    flushing.dispose();
+    try {
+      flush().block(SHUTDOWN_TIMEOUT);
+    } catch (RuntimeException e) {
+      log.warn("Proof-of-play rollups weren't flushed on shutdown", e);
+    }
+  }
+
+  private record RollupKey(Long slideshowId, LocalDateTime hour, Long imageId) {
+  }
+
+}
@@ -1,6 +1,5 @@
 package org.slideshow.model.domain;
 
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -13,7 +12,6 @@ import java.time.LocalDateTime;
 @Setter
 @Table(name = "images")
 @NoArgsConstructor
-@AllArgsConstructor
 public class ImageEntity {
 
   @Id
@@ -25,4 +23,24 @@ public class ImageEntity {
 
   private LocalDateTime addedAt = LocalDateTime.now();
 
+  //metadata probed from origin when image is created, see ImageMetadata
+  private String contentType;
+
+  private Long contentLength;
+
+  private String etag;
+
+  private LocalDateTime lastModified;
+
+  private Integer width;
+
+  private Integer height;
+
+  public ImageEntity(Long id, String url, Short duration, LocalDateTime addedAt) {
+    this.id = id;
+    this.url = url;
+    this.duration = duration;
+    this.addedAt = addedAt;
+  }
+
 }
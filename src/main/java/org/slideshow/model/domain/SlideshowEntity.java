@@ -25,4 +25,7 @@ public class SlideshowEntity {
 
   private LocalDateTime createdAt = LocalDateTime.now();
 
+  //incremented by every change of slideshow in SQL, so it's not optimistic lock @Version
+  private Long version = 1L;
+
 }
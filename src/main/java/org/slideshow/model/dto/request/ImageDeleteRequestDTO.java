@@ -0,0 +1,6 @@
+package org.slideshow.model.dto.request;
+
+import java.util.List;
+
+public record ImageDeleteRequestDTO(List<Long> ids) {
+}
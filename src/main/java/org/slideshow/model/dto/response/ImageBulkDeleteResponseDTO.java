@@ -0,0 +1,8 @@
+package org.slideshow.model.dto.response;
+
+import java.util.List;
+
+//one result per requested id in request order, updatedSlideshows is number of slideshows images were removed from
+public record ImageBulkDeleteResponseDTO(List<ImageDeleteResultDTO> results,
+                                         int updatedSlideshows) {
+}
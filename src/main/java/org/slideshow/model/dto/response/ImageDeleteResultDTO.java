@@ -0,0 +1,7 @@
+package org.slideshow.model.dto.response;
+
+import org.slideshow.model.projection.ImageDeleteStatus;
+
+public record ImageDeleteResultDTO(Long id,
+                                   ImageDeleteStatus status) {
+}
@@ -0,0 +1,9 @@
+package org.slideshow.model.dto.response;
+
+import java.util.List;
+
+//position is zero-based index of image in uploaded stream, id is set only for imported image
+public record ImageImportResultDTO(long position,
+                                   Long id,
+                                   List<ValidationErrorResponseDTO> errors) {
+}
@@ -1,7 +1,16 @@
 package org.slideshow.model.dto.response;
 
+import java.time.LocalDateTime;
+
+//metadata is probed from origin when image is created, it's null for older images or if origin didn't provide it
 public record ImageResponseDTO(
         Long id,
         String url,
-        Short duration) {
+        Short duration,
+        String contentType,
+        Long contentLength,
+        String etag,
+        LocalDateTime lastModified,
+        Integer width,
+        Integer height) {
 }
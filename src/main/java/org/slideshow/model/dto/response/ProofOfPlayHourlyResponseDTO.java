@@ -0,0 +1,13 @@
+package org.slideshow.model.dto.response;
+
+import java.time.LocalDateTime;
+
+public record ProofOfPlayHourlyResponseDTO(
+        Long slideshowId,
+        Long imageId,
+        LocalDateTime hour,
+        long plays,
+        long totalDuration,
+        LocalDateTime firstDisplayedAt,
+        LocalDateTime lastDisplayedAt) {
+}
@@ -0,0 +1,6 @@
+package org.slideshow.model.dto.response;
+
+public record SlideshowChangeResponseDTO(
+        Long id,
+        Long version) {
+}
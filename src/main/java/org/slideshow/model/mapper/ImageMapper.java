@@ -0,0 +1,110 @@
+package org.slideshow.model.mapper;
+
+import org.slideshow.model.domain.ImageEntity;
+import org.slideshow.model.dto.request.ImageCreateRequestDTO;
+import org.slideshow.model.dto.request.ImageDetailsRequestDTO;
+import org.slideshow.model.dto.response.ImageBulkDeleteResponseDTO;
+import org.slideshow.model.dto.response.ImageCreationResponseDTO;
+import org.slideshow.model.dto.response.ImageDeleteResultDTO;
+import org.slideshow.model.dto.response.ImageResponseDTO;
+import org.slideshow.model.projection.ImageBulkDeleteResult;
+import org.slideshow.model.projection.ImageDeleteStatus;
+import org.slideshow.model.projection.ImageMetadata;
+import org.slideshow.model.projection.ImageProjection;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Explicit mapping of images between API and persistence models.
+ * Used on request paths instead of ObjectMapper.convertValue, which serializes every object to tokens and back.
+ */
+public final class ImageMapper {
+
+  private ImageMapper() {
+  }
+
+  public static ImageEntity toEntity(ImageCreateRequestDTO dto) {
+    return toEntity(dto, null);
+  }
+
+  public static ImageEntity toEntity(ImageCreateRequestDTO dto, ImageMetadata metadata) {
+    if (dto == null) {
+      return null;
+    }
+    return withMetadata(new ImageEntity(null, dto.url(), dto.duration(), LocalDateTime.now()), metadata);
+  }
+
+  //id is set for already existing image
+  public static ImageEntity toEntity(ImageDetailsRequestDTO dto) {
+    return toEntity(dto, null);
+  }
+
+  //metadata is probed for new images only, existing images keep metadata stored at their creation
+  public static ImageEntity toEntity(ImageDetailsRequestDTO dto, ImageMetadata metadata) {
+    if (dto == null) {
+      return null;
+    }
+    return withMetadata(new ImageEntity(dto.id(), dto.url(), dto.duration(), LocalDateTime.now()), metadata);
+  }
+
+  public static ImageResponseDTO toResponse(ImageEntity entity) {
+    if (entity == null) {
+      return null;
+    }
+    return new ImageResponseDTO(entity.getId(), entity.getUrl(), entity.getDuration(),
+            entity.getContentType(), entity.getContentLength(), entity.getEtag(), entity.getLastModified(),
+            entity.getWidth(), entity.getHeight());
+  }
+
+  public static ImageResponseDTO toResponse(ImageProjection projection) {
+    if (projection == null) {
+      return null;
+    }
+    return new ImageResponseDTO(projection.id(), projection.url(), projection.duration(),
+            projection.contentType(), projection.contentLength(), projection.etag(), projection.lastModified(),
+            projection.width(), projection.height());
+  }
+
+  public static List<ImageResponseDTO> toResponses(List<ImageEntity> entities) {
+    if (entities == null) {
+      return null;
+    }
+    List<ImageResponseDTO> responses = new ArrayList<>(entities.size());
+    for (ImageEntity entity : entities) {
+      responses.add(toResponse(entity));
+    }
+    return responses;
+  }
+
+  public static ImageCreationResponseDTO toCreationResponse(ImageEntity entity) {
+    return new ImageCreationResponseDTO(entity.getId(), entity.getUrl(), entity.getDuration(), null);
+  }
+
+  //outcome of every requested id in request order
+  public static ImageBulkDeleteResponseDTO toBulkDeleteResponse(List<Long> requestedIds, ImageBulkDeleteResult result) {
+    Set<Long> deletedIds = new HashSet<>(result.deletedIds());
+    List<ImageDeleteResultDTO> results = new ArrayList<>(requestedIds.size());
+    for (Long id : requestedIds) {
+      results.add(new ImageDeleteResultDTO(id,
+              deletedIds.contains(id) ? ImageDeleteStatus.DELETED : ImageDeleteStatus.NOT_FOUND));
+    }
+    return new ImageBulkDeleteResponseDTO(results, result.updatedSlideshows());
+  }
+
+  private static ImageEntity withMetadata(ImageEntity entity, ImageMetadata metadata) {
+    if (metadata != null) {
+      entity.setContentType(metadata.contentType());
+      entity.setContentLength(metadata.contentLength());
+      entity.setEtag(metadata.etag());
+      entity.setLastModified(metadata.lastModified());
+      entity.setWidth(metadata.width());
+      entity.setHeight(metadata.height());
+    }
+    return entity;
+  }
+
+}
@@ -0,0 +1,26 @@
+package org.slideshow.model.mapper;
+
+import org.slideshow.model.domain.ProofOfPlayEventEntity;
+import org.slideshow.model.dto.request.ProofOfPlayEventDTO;
+import org.slideshow.model.dto.response.ProofOfPlayHourlyResponseDTO;
+import org.slideshow.model.projection.ProofOfPlayHourlyProjection;
+
+/**
+ * Explicit mapping of proof-of-play events and their rollups between API and persistence models.
+ */
+public final class ProofOfPlayEventMapper {
+
+  private ProofOfPlayEventMapper() {
+  }
+
+  public static ProofOfPlayEventEntity toEntity(Long slideshowId, Long imageId, ProofOfPlayEventDTO dto) {
+    return new ProofOfPlayEventEntity(null, imageId, slideshowId, dto.userId(),
+            dto.replacedAt(), dto.displayedAt(), dto.actualDuration());
+  }
+
+  public static ProofOfPlayHourlyResponseDTO toResponse(ProofOfPlayHourlyProjection rollup) {
+    return new ProofOfPlayHourlyResponseDTO(rollup.slideshowId(), rollup.imageId(), rollup.hour(),
+            rollup.plays(), rollup.totalDuration(), rollup.firstDisplayedAt(), rollup.lastDisplayedAt());
+  }
+
+}
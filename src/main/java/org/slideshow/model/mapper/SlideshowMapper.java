@@ -0,0 +1,86 @@
+package org.slideshow.model.mapper;
+
+import org.slideshow.model.domain.ImageEntity;
+import org.slideshow.model.domain.SlideshowEntity;
+import org.slideshow.model.dto.response.SlideshowChangeResponseDTO;
+import org.slideshow.model.dto.response.SlideshowResponseDTO;
+import org.slideshow.model.dto.response.ValidationErrorResponseDTO;
+import org.slideshow.model.projection.SlideshowChange;
+import org.slideshow.model.projection.SlideshowDBProjection;
+import org.slideshow.model.projection.SlideshowProjection;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Explicit mapping of slideshows between API, persistence and query models.
+ */
+public final class SlideshowMapper {
+
+  private SlideshowMapper() {
+  }
+
+  public static SlideshowEntity toEntity(List<Long> imageIds) {
+    SlideshowEntity slideshowEntity = new SlideshowEntity();
+    slideshowEntity.setImagesIds(imageIds);
+    return slideshowEntity;
+  }
+
+  //folds joined slideshow-image rows into single slideshow
+  public static SlideshowProjection toProjection(Long slideshowId, List<SlideshowDBProjection> rows) {
+    List<ImageEntity> images = new ArrayList<>(rows.size());
+    for (SlideshowDBProjection row : rows) {
+      //empty slideshow or image deleted outside of this service
+      if (row.imageId() != null) {
+        images.add(toImageEntity(row));
+      }
+    }
+    //every row carries version of slideshow, there are no rows when slideshow doesn't exist
+    Long version = rows.isEmpty() ? null : rows.get(0).version();
+    return new SlideshowProjection(slideshowId, version, images);
+  }
+
+  //builds just created slideshow in memory in the same order as it's read from database:
+  //newest images first, images added at the same time in slideshow order. Missing existing images are skipped
+  public static SlideshowProjection toProjection(SlideshowEntity slideshow, List<ImageEntity> newImages,
+                                                 List<ImageEntity> existingImages) {
+    Map<Long, ImageEntity> imagesById = new HashMap<>();
+    newImages.forEach(image -> imagesById.put(image.getId(), image));
+    existingImages.forEach(image -> imagesById.put(image.getId(), image));
+
+    List<ImageEntity> images = new ArrayList<>(slideshow.getImagesIds().size());
+    for (Long imageId : slideshow.getImagesIds()) {
+      ImageEntity image = imagesById.get(imageId);
+      if (image != null) {
+        images.add(image);
+      }
+    }
+    //sort is stable, so slideshow order breaks ties
+    images.sort(Comparator.comparing(ImageEntity::getAddedAt, Comparator.nullsLast(Comparator.reverseOrder())));
+    return new SlideshowProjection(slideshow.getId(), slideshow.getVersion(), images);
+  }
+
+  public static ImageEntity toImageEntity(SlideshowDBProjection row) {
+    ImageEntity image = new ImageEntity(row.imageId(), row.url(), row.duration(), row.addedAt());
+    image.setContentType(row.contentType());
+    image.setContentLength(row.contentLength());
+    image.setEtag(row.etag());
+    image.setLastModified(row.lastModified());
+    image.setWidth(row.width());
+    image.setHeight(row.height());
+    return image;
+  }
+
+  public static SlideshowResponseDTO toResponse(SlideshowProjection projection,
+                                                List<ValidationErrorResponseDTO> errors) {
+    return new SlideshowResponseDTO(projection.slideshowId(), ImageMapper.toResponses(projection.images()), errors);
+  }
+
+  public static SlideshowChangeResponseDTO toResponse(SlideshowChange change) {
+    return new SlideshowChangeResponseDTO(change.slideshowId(), change.version());
+  }
+
+}
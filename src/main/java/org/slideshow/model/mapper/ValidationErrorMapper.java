@@ -0,0 +1,18 @@
+package org.slideshow.model.mapper;
+
+import org.slideshow.model.dto.response.ValidationErrorResponseDTO;
+import org.slideshow.validation.ValidationError;
+
+/**
+ * Explicit mapping of validation errors to API model, exchange context is internal and isn't exposed.
+ */
+public final class ValidationErrorMapper {
+
+  private ValidationErrorMapper() {
+  }
+
+  public static ValidationErrorResponseDTO toResponse(ValidationError error) {
+    return new ValidationErrorResponseDTO(error.code(), error.message());
+  }
+
+}
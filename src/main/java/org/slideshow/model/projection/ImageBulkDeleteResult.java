@@ -0,0 +1,7 @@
+package org.slideshow.model.projection;
+
+import java.util.List;
+
+public record ImageBulkDeleteResult(List<Long> deletedIds,
+                                    int updatedSlideshows) {
+}
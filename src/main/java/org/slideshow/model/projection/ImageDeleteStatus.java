@@ -0,0 +1,9 @@
+package org.slideshow.model.projection;
+
+public enum ImageDeleteStatus {
+
+  DELETED,
+  //image didn't exist or was deleted before, its id is still removed from slideshows
+  NOT_FOUND
+
+}
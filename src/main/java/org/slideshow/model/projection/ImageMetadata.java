@@ -0,0 +1,30 @@
+package org.slideshow.model.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Metadata of remote image probed from its origin, every value is null when origin didn't provide it.
+ *
+ * @param contentType   value of Content-Type header
+ * @param contentLength size of image in bytes, from Content-Length header
+ * @param etag          value of ETag header
+ * @param lastModified  value of Last-Modified header in UTC
+ * @param width         width in pixels, read from header of image file
+ * @param height        height in pixels, read from header of image file
+ */
+public record ImageMetadata(
+        String contentType,
+        Long contentLength,
+        String etag,
+        LocalDateTime lastModified,
+        Integer width,
+        Integer height) {
+
+  //image wasn't probed or origin provided nothing
+  public static final ImageMetadata UNKNOWN = new ImageMetadata(null, null, null, null, null, null);
+
+  public ImageMetadata withDimensions(Integer width, Integer height) {
+    return new ImageMetadata(contentType, contentLength, etag, lastModified, width, height);
+  }
+
+}
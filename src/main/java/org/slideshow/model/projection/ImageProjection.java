@@ -1,7 +1,16 @@
 package org.slideshow.model.projection;
 
+import java.time.LocalDateTime;
+
 public record ImageProjection(
         Long id,
         String url,
-        Short duration) {
+        Short duration,
+        LocalDateTime addedAt,
+        String contentType,
+        Long contentLength,
+        String etag,
+        LocalDateTime lastModified,
+        Integer width,
+        Integer height) {
 }
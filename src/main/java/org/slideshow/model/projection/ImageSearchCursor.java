@@ -0,0 +1,44 @@
+package org.slideshow.model.projection;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in image search results ordered by (added_at DESC, id DESC).
+ * Next page starts right after the last returned image, so pages stay consistent while images are added.
+ */
+public record ImageSearchCursor(LocalDateTime addedAt, Long id) {
+
+  private static final String SEPARATOR = "|";
+
+  public static ImageSearchCursor after(ImageProjection image) {
+    return new ImageSearchCursor(image.addedAt(), image.id());
+  }
+
+  /**
+   * @param token value of previously returned cursor
+   * @throws IllegalArgumentException if token wasn't produced by {@link #encode()}
+   */
+  public static ImageSearchCursor decode(String token) {
+    try {
+      String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+      int separator = value.indexOf(SEPARATOR);
+      if (separator < 0) {
+        throw new IllegalArgumentException("Malformed search cursor");
+      }
+      return new ImageSearchCursor(LocalDateTime.parse(value.substring(0, separator)),
+              Long.parseLong(value.substring(separator + 1)));
+    } catch (DateTimeParseException | NumberFormatException e) {
+      throw new IllegalArgumentException("Malformed search cursor", e);
+    }
+  }
+
+  //opaque for clients, so ordering columns can change without breaking API
+  public String encode() {
+    return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString((addedAt + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+  }
+
+}
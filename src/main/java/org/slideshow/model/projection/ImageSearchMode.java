@@ -0,0 +1,10 @@
+package org.slideshow.model.projection;
+
+public enum ImageSearchMode {
+
+  //whole words of url host and path, served by idx_images_search_vector
+  FULLTEXT,
+  //any part of url, case-insensitive, served by trigram index idx_images_url_trgm for keywords of 3+ characters
+  SUBSTRING
+
+}
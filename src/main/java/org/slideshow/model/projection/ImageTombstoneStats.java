@@ -0,0 +1,6 @@
+package org.slideshow.model.projection;
+
+//lag is age of the oldest tombstone, zero when there are none
+public record ImageTombstoneStats(long pending,
+                                  double lagSeconds) {
+}
@@ -0,0 +1,23 @@
+package org.slideshow.model.projection;
+
+import java.time.LocalDateTime;
+
+//plays of one image in one slideshow within one hour, times are UTC
+public record ProofOfPlayHourlyProjection(
+        Long slideshowId,
+        Long imageId,
+        LocalDateTime hour,
+        long plays,
+        long totalDuration,
+        LocalDateTime firstDisplayedAt,
+        LocalDateTime lastDisplayedAt) {
+
+  public ProofOfPlayHourlyProjection merge(ProofOfPlayHourlyProjection other) {
+    return new ProofOfPlayHourlyProjection(slideshowId, imageId, hour,
+            plays + other.plays,
+            totalDuration + other.totalDuration,
+            firstDisplayedAt.isBefore(other.firstDisplayedAt) ? firstDisplayedAt : other.firstDisplayedAt,
+            lastDisplayedAt.isAfter(other.lastDisplayedAt) ? lastDisplayedAt : other.lastDisplayedAt);
+  }
+
+}
@@ -0,0 +1,12 @@
+package org.slideshow.model.projection;
+
+public record SlideshowChange(Long slideshowId,
+                              Long version,
+                              Type type) {
+
+  public enum Type {
+    UPDATED,
+    DELETED
+  }
+
+}
@@ -3,8 +3,15 @@ package org.slideshow.model.projection;
 import java.time.LocalDateTime;
 
 public record SlideshowDBProjection(Long slideshowId,
+                                    Long version,
                                     Long imageId,
                                     String url,
                                     Short duration,
-                                    LocalDateTime addedAt) {
+                                    LocalDateTime addedAt,
+                                    String contentType,
+                                    Long contentLength,
+                                    String etag,
+                                    LocalDateTime lastModified,
+                                    Integer width,
+                                    Integer height) {
 }
@@ -5,5 +5,6 @@ import org.slideshow.model.domain.ImageEntity;
 import java.util.List;
 
 public record SlideshowProjection(Long slideshowId,
+                                  Long version,
                                   List<ImageEntity> images) {
 }
@@ -0,0 +1,18 @@
+package org.slideshow.repository;
+
+import lombok.Getter;
+
+//sequences ids of which are handed out by PooledIdAllocator
+@Getter
+public enum IdSequence {
+  IMAGES("image_id_seq"),
+  SLIDESHOWS("slideshow_id_seq"),
+  PROOF_OF_PLAY_EVENTS("proof_of_play_event_seq");
+
+  private final String sequenceName;
+
+  IdSequence(String sequenceName) {
+    this.sequenceName = sequenceName;
+  }
+
+}
@@ -0,0 +1,26 @@
+package org.slideshow.repository;
+
+import org.slideshow.model.domain.ImageEntity;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+public interface ImageBatchRepository {
+
+  /**
+   * Inserts all images with a single multi-row INSERT statement.
+   *
+   * @param images images to insert, ids are taken from {@link PooledIdAllocator} and assigned in place
+   * @return inserted images in the same order
+   */
+  Flux<ImageEntity> insertAll(List<ImageEntity> images);
+
+  /**
+   * Deletes all images with a single DELETE statement.
+   *
+   * @param imageIds ids of images to delete
+   * @return ids of deleted images, ids of missing images are skipped
+   */
+  Flux<Long> deleteAllByIds(List<Long> imageIds);
+
+}
@@ -0,0 +1,53 @@
+package org.slideshow.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.slideshow.model.domain.ImageEntity;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+class ImageBatchRepositoryImpl implements ImageBatchRepository {
+
+  private static final String DELETE_ALL = """
+              DELETE FROM images WHERE id = ANY(:ids::bigint[]) RETURNING id
+          """;
+
+  private final DatabaseClient databaseClient;
+  private final PooledIdAllocator idAllocator;
+
+  @Override
+  public Flux<ImageEntity> insertAll(List<ImageEntity> images) {
+    if (images.isEmpty()) {
+      return Flux.empty();
+    }
+
+    //ids are known before the statement, so nothing is returned back
+    return idAllocator.allocate(IdSequence.IMAGES, images.size())
+            .flatMapMany(ids -> insertAll(images, ids));
+  }
+
+  //columns are bound as arrays, so statement text is the same for any batch size
+  private Flux<ImageEntity> insertAll(List<ImageEntity> images, long[] ids) {
+    for (int i = 0; i < images.size(); i++) {
+      images.get(i).setId(ids[i]);
+    }
+
+    return ImageInsertColumns.bind(databaseClient.sql(ImageInsertColumns.INSERT_IMAGES), images)
+            .then()
+            .thenMany(Flux.fromIterable(images));
+  }
+
+  @Override
+  public Flux<Long> deleteAllByIds(List<Long> imageIds) {
+    if (imageIds.isEmpty()) {
+      return Flux.empty();
+    }
+    return databaseClient.sql(DELETE_ALL)
+            .bind("ids", imageIds.toArray(Long[]::new))
+            .map(row -> row.get("id", Long.class))
+            .all();
+  }
+
+}
@@ -0,0 +1,71 @@
+package org.slideshow.repository;
+
+import org.slideshow.model.domain.ImageEntity;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Columns of new images bound as one array per column, shared by statements which insert images
+ * from unnest of the arrays. Statement text doesn't depend on number of images.
+ */
+final class ImageInsertColumns {
+
+  static final String INSERT_IMAGES = """
+                  INSERT INTO images (id, url, duration, added_at,
+                                      content_type, content_length, etag, last_modified, width, height)
+                  SELECT t.id, t.url, t.duration, COALESCE(t.added_at, CURRENT_TIMESTAMP),
+                         t.content_type, t.content_length, t.etag, t.last_modified, t.width, t.height
+                  FROM unnest(:ids::bigint[], :urls::text[], :durations::smallint[], :addedAt::timestamp[],
+                              :contentTypes::text[], :contentLengths::bigint[], :etags::text[],
+                              :lastModified::timestamp[], :widths::int[], :heights::int[])
+                           AS t(id, url, duration, added_at,
+                                content_type, content_length, etag, last_modified, width, height)
+          """;
+
+  private ImageInsertColumns() {
+  }
+
+  //images must have ids assigned
+  static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, List<ImageEntity> images) {
+    int size = images.size();
+    Long[] ids = new Long[size];
+    String[] urls = new String[size];
+    Short[] durations = new Short[size];
+    LocalDateTime[] addedAt = new LocalDateTime[size];
+    String[] contentTypes = new String[size];
+    Long[] contentLengths = new Long[size];
+    String[] etags = new String[size];
+    LocalDateTime[] lastModified = new LocalDateTime[size];
+    Integer[] widths = new Integer[size];
+    Integer[] heights = new Integer[size];
+
+    for (int i = 0; i < size; i++) {
+      ImageEntity image = images.get(i);
+      ids[i] = image.getId();
+      urls[i] = image.getUrl();
+      durations[i] = image.getDuration();
+      addedAt[i] = image.getAddedAt();
+      contentTypes[i] = image.getContentType();
+      contentLengths[i] = image.getContentLength();
+      etags[i] = image.getEtag();
+      lastModified[i] = image.getLastModified();
+      widths[i] = image.getWidth();
+      heights[i] = image.getHeight();
+    }
+
+    return spec
+            .bind("ids", ids)
+            .bind("urls", urls)
+            .bind("durations", durations)
+            .bind("addedAt", addedAt)
+            .bind("contentTypes", contentTypes)
+            .bind("contentLengths", contentLengths)
+            .bind("etags", etags)
+            .bind("lastModified", lastModified)
+            .bind("widths", widths)
+            .bind("heights", heights);
+  }
+
+}
@@ -0,0 +1,33 @@
+package org.slideshow.repository;
+
+import org.slideshow.model.projection.ImageProjection;
+import org.slideshow.model.projection.ImageSearchCursor;
+import org.slideshow.model.projection.ImageSearchMode;
+import reactor.core.publisher.Flux;
+
+public interface ImageSearchRepository {
+
+  /**
+   * Finds images ordered by (added_at DESC, id DESC), rows are pulled from database cursor on demand.
+   *
+   * @param keyword  keyword, nullable
+   * @param duration duration, nullable
+   * @param mode     how keyword is matched against url
+   * @param after    position to continue from, null for the first page
+   * @param limit    max number of images, null for unbounded stream
+   * @return matching images
+   */
+  Flux<ImageProjection> search(String keyword, Integer duration, ImageSearchMode mode,
+                               ImageSearchCursor after, Integer limit);
+
+  /**
+   * Finds images matching most words of keyword, ordered by ts_rank.
+   *
+   * @param keyword  full-text keyword
+   * @param duration duration, nullable
+   * @param limit    max number of images
+   * @return best matching images
+   */
+  Flux<ImageProjection> searchTopRanked(String keyword, Integer duration, int limit);
+
+}
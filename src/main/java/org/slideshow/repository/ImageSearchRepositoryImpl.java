@@ -0,0 +1,130 @@
+package org.slideshow.repository;
+
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.slideshow.model.projection.ImageProjection;
+import org.slideshow.model.projection.ImageSearchCursor;
+import org.slideshow.model.projection.ImageSearchMode;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@RequiredArgsConstructor
+class ImageSearchRepositoryImpl implements ImageSearchRepository {
+
+  //rows requested from postgres portal per round trip, bounds memory of unbounded streams
+  static final int FETCH_SIZE = 256;
+
+  private static final String SELECT = "SELECT id, url, duration, added_at,"
+          + " content_type, content_length, etag, last_modified, width, height FROM images";
+
+  //keyword is split into words the same way as url in search_vector column
+  private static final String KEYWORD_QUERY =
+          "plainto_tsquery('simple', regexp_replace(:keyword, '[^[:alnum:]]+', ' ', 'g'))";
+
+  private final DatabaseClient databaseClient;
+
+  @Override
+  public Flux<ImageProjection> search(String keyword, Integer duration, ImageSearchMode mode,
+                                      ImageSearchCursor after, Integer limit) {
+    return prepareSearch("", keyword, duration, mode, after, limit)
+            .map(ImageSearchRepositoryImpl::toProjection)
+            .all();
+  }
+
+  @Override
+  public Flux<ImageProjection> searchTopRanked(String keyword, Integer duration, int limit) {
+    return prepareTopRanked("", keyword, duration, limit)
+            .map(ImageSearchRepositoryImpl::toProjection)
+            .all();
+  }
+
+  //prefix allows to EXPLAIN exactly the statement repository runs
+  DatabaseClient.GenericExecuteSpec prepareSearch(String prefix, String keyword, Integer duration,
+                                                  ImageSearchMode mode, ImageSearchCursor after, Integer limit) {
+    boolean hasKeyword = StringUtils.hasText(keyword);
+
+    //optional conditions are appended instead of ':param IS NULL OR ...', which would hide them from indexes
+    List<String> conditions = new ArrayList<>();
+    if (hasKeyword) {
+      conditions.add(mode == ImageSearchMode.SUBSTRING ? "url ILIKE :pattern" : "search_vector @@ " + KEYWORD_QUERY);
+    }
+    if (duration != null) {
+      conditions.add("duration = :duration");
+    }
+    if (after != null) {
+      //row comparison is served by idx_images_added_at_id as range condition,
+      //so every page costs the same no matter how deep it is
+      conditions.add("(added_at, id) < (:afterAddedAt, :afterId)");
+    }
+
+    StringBuilder sql = new StringBuilder(prefix).append(SELECT);
+    if (!conditions.isEmpty()) {
+      sql.append(" WHERE ").append(String.join(" AND ", conditions));
+    }
+    sql.append(" ORDER BY added_at DESC, id DESC");
+    if (limit != null) {
+      sql.append(" LIMIT :limit");
+    }
+
+    DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString())
+            .filter(statement -> statement.fetchSize(FETCH_SIZE));
+    if (hasKeyword) {
+      spec = mode == ImageSearchMode.SUBSTRING
+              ? spec.bind("pattern", "%" + escapeLikePattern(keyword) + "%")
+              : spec.bind("keyword", keyword);
+    }
+    if (duration != null) {
+      spec = spec.bind("duration", duration.shortValue());
+    }
+    if (after != null) {
+      spec = spec.bind("afterAddedAt", after.addedAt()).bind("afterId", after.id());
+    }
+    if (limit != null) {
+      spec = spec.bind("limit", limit);
+    }
+    return spec;
+  }
+
+  DatabaseClient.GenericExecuteSpec prepareTopRanked(String prefix, String keyword, Integer duration, int limit) {
+    StringBuilder sql = new StringBuilder(prefix).append(SELECT)
+            .append(" WHERE search_vector @@ ").append(KEYWORD_QUERY);
+    if (duration != null) {
+      sql.append(" AND duration = :duration");
+    }
+    //ts_rank is computed only for rows matched by index, newest image wins a tie
+    sql.append(" ORDER BY ts_rank(search_vector, ").append(KEYWORD_QUERY).append(") DESC, added_at DESC, id DESC")
+            .append(" LIMIT :limit");
+
+    DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString())
+            .bind("keyword", keyword)
+            .bind("limit", limit);
+    return duration == null ? spec : spec.bind("duration", duration.shortValue());
+  }
+
+  private static String escapeLikePattern(String keyword) {
+    return keyword
+            .replace("\\", "\\\\")
+            .replace("%", "\\%")
+            .replace("_", "\\_");
+  }
+
+  private static ImageProjection toProjection(Readable row) {
+    return new ImageProjection(
+            row.get("id", Long.class),
+            row.get("url", String.class),
+            row.get("duration", Short.class),
+            row.get("added_at", LocalDateTime.class),
+            row.get("content_type", String.class),
+            row.get("content_length", Long.class),
+            row.get("etag", String.class),
+            row.get("last_modified", LocalDateTime.class),
+            row.get("width", Integer.class),
+            row.get("height", Integer.class));
+  }
+
+}
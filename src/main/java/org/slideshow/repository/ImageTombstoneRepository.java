@@ -0,0 +1,30 @@
+package org.slideshow.repository;
+
+import org.slideshow.model.projection.ImageTombstoneStats;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+public interface ImageTombstoneRepository {
+
+  /**
+   * Deletes images and records tombstones of them with a single statement.
+   * Slideshows keep ids of deleted images until tombstones are compacted.
+   *
+   * @param imageIds ids of images, tombstone is recorded even if image doesn't exist
+   * @return number of deleted images
+   */
+  Mono<Long> deleteWithTombstones(List<Long> imageIds);
+
+  //oldest first
+  Flux<Long> findTombstonedImageIds(int limit);
+
+  Mono<Void> deleteTombstones(List<Long> imageIds);
+
+  //lock of current transaction, lets only one instance compact tombstones at a time
+  Mono<Boolean> tryLockTombstones();
+
+  Mono<ImageTombstoneStats> findTombstoneStats();
+
+}
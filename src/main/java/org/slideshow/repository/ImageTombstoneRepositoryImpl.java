@@ -0,0 +1,87 @@
+package org.slideshow.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.slideshow.model.projection.ImageTombstoneStats;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+class ImageTombstoneRepositoryImpl implements ImageTombstoneRepository {
+
+  private static final String DELETE_WITH_TOMBSTONES = """
+              WITH deleted AS (
+                  DELETE FROM images WHERE id = ANY(:imageIds::bigint[]) RETURNING id
+              ), tombstoned AS (
+                  INSERT INTO image_tombstones (image_id)
+                  SELECT DISTINCT unnest(:imageIds::bigint[])
+                  ON CONFLICT (image_id) DO NOTHING
+              )
+              SELECT count(*) FROM deleted
+          """;
+
+  private static final String FIND_TOMBSTONED = """
+              SELECT image_id FROM image_tombstones ORDER BY deleted_at, image_id LIMIT :limit
+          """;
+
+  private static final String DELETE_TOMBSTONES = """
+              DELETE FROM image_tombstones WHERE image_id = ANY(:imageIds::bigint[])
+          """;
+
+  private static final String LOCK = "SELECT pg_try_advisory_xact_lock(hashtext('image_tombstones'))";
+
+  //stored times are local times of database session, so age is measured by database clock too
+  private static final String STATS = """
+              SELECT count(*) AS pending,
+                     COALESCE(EXTRACT(EPOCH FROM LOCALTIMESTAMP - min(deleted_at)), 0)::float8 AS lag_seconds
+              FROM image_tombstones
+          """;
+
+  private final DatabaseClient databaseClient;
+
+  @Override
+  public Mono<Long> deleteWithTombstones(List<Long> imageIds) {
+    if (imageIds.isEmpty()) {
+      return Mono.just(0L);
+    }
+    return databaseClient.sql(DELETE_WITH_TOMBSTONES)
+            .bind("imageIds", imageIds.toArray(Long[]::new))
+            .map(row -> row.get(0, Long.class))
+            .one();
+  }
+
+  @Override
+  public Flux<Long> findTombstonedImageIds(int limit) {
+    return databaseClient.sql(FIND_TOMBSTONED)
+            .bind("limit", limit)
+            .map(row -> row.get("image_id", Long.class))
+            .all();
+  }
+
+  @Override
+  public Mono<Void> deleteTombstones(List<Long> imageIds) {
+    if (imageIds.isEmpty()) {
+      return Mono.empty();
+    }
+    return databaseClient.sql(DELETE_TOMBSTONES)
+            .bind("imageIds", imageIds.toArray(Long[]::new))
+            .then();
+  }
+
+  @Override
+  public Mono<Boolean> tryLockTombstones() {
+    return databaseClient.sql(LOCK)
+            .map(row -> row.get(0, Boolean.class))
+            .one();
+  }
+
+  @Override
+  public Mono<ImageTombstoneStats> findTombstoneStats() {
+    return databaseClient.sql(STATS)
+            .map(row -> new ImageTombstoneStats(row.get("pending", Long.class), row.get("lag_seconds", Double.class)))
+            .one();
+  }
+
+}
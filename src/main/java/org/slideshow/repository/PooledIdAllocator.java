@@ -0,0 +1,118 @@
+package org.slideshow.repository;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hands out ids of sequences in blocks: sequences are incremented by block size, so one nextval reserves
+ * the whole block [value, value + increment). Ids are assigned to entities in memory before they are written,
+ * so multi-row inserts don't depend on per-row nextval and RETURNING.
+ * Ids are unique across instances, but not ordered by creation and have gaps: rest of block is lost
+ * when instance stops.
+ */
+@Component
+public class PooledIdAllocator {
+
+  private static final String INCREMENT = """
+              SELECT increment_by FROM pg_sequences
+              WHERE schemaname = current_schema() AND sequencename = :sequenceName
+          """;
+
+  private final DatabaseClient databaseClient;
+  private final Map<IdSequence, Pool> pools = new EnumMap<>(IdSequence.class);
+
+  public PooledIdAllocator(DatabaseClient databaseClient) {
+    this.databaseClient = databaseClient;
+    for (IdSequence sequence : IdSequence.values()) {
+      pools.put(sequence, new Pool(sequence));
+    }
+  }
+
+  /**
+   * @param count number of ids
+   * @return unique ids of sequence, taken from reserved block first and from blocks reserved
+   * with a single statement for the rest
+   */
+  public Mono<long[]> allocate(IdSequence sequence, int count) {
+    Pool pool = pools.get(sequence);
+    return Mono.defer(() -> {
+      long[] ids = new long[count];
+      int taken = pool.take(ids, 0);
+      if (taken == count) {
+        return Mono.just(ids);
+      }
+      return pool.increment.flatMap(increment -> reserveBlocks(sequence, (count - taken + increment - 1) / increment)
+              .map(blockStarts -> {
+                int filled = taken;
+                for (long blockStart : blockStarts) {
+                  long blockEnd = blockStart + increment;
+                  long id = blockStart;
+                  while (filled < count && id < blockEnd) {
+                    ids[filled++] = id++;
+                  }
+                  if (id < blockEnd) {
+                    pool.offer(id, blockEnd);
+                  }
+                }
+                return ids;
+              }));
+    });
+  }
+
+  private Mono<List<Long>> reserveBlocks(IdSequence sequence, long blocks) {
+    //sequence name comes from IdSequence only
+    return databaseClient.sql("SELECT nextval('%s') FROM generate_series(1, :blocks)"
+                    .formatted(sequence.getSequenceName()))
+            .bind("blocks", blocks)
+            .map(row -> row.get(0, Long.class))
+            .all()
+            .collectList();
+  }
+
+  private Mono<Long> loadIncrement(IdSequence sequence) {
+    return databaseClient.sql(INCREMENT)
+            .bind("sequenceName", sequence.getSequenceName())
+            .map(row -> row.get(0, Long.class))
+            .one()
+            .switchIfEmpty(Mono.error(() -> new IllegalStateException(
+                    "Sequence " + sequence.getSequenceName() + " not found")));
+  }
+
+  //ids left of the last reserved block, [next, end)
+  private final class Pool {
+
+    //increment is read once, failed read is retried on next allocation
+    private final Mono<Long> increment;
+
+    private long next;
+    private long end;
+
+    private Pool(IdSequence sequence) {
+      this.increment = loadIncrement(sequence)
+              .cache(value -> Duration.ofMillis(Long.MAX_VALUE), e -> Duration.ZERO, () -> Duration.ZERO);
+    }
+
+    private synchronized int take(long[] target, int offset) {
+      int taken = offset;
+      while (taken < target.length && next < end) {
+        target[taken++] = next++;
+      }
+      return taken;
+    }
+
+    //rest of newly reserved block replaces pooled ids only when they are used up, otherwise it is dropped
+    private synchronized void offer(long from, long to) {
+      if (next >= end) {
+        next = from;
+        end = to;
+      }
+    }
+  }
+
+}
@@ -0,0 +1,18 @@
+package org.slideshow.repository;
+
+import org.slideshow.model.domain.ProofOfPlayEventEntity;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+public interface ProofOfPlayEventBatchRepository {
+
+  /**
+   * Inserts all events with a single multi-row INSERT statement.
+   *
+   * @param events events to insert, ids are taken from {@link PooledIdAllocator} and assigned in place
+   * @return inserted events in the same order
+   */
+  Flux<ProofOfPlayEventEntity> insertAll(List<ProofOfPlayEventEntity> events);
+
+}
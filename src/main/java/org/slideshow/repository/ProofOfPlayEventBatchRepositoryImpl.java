@@ -0,0 +1,74 @@
+package org.slideshow.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.slideshow.model.domain.ProofOfPlayEventEntity;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+@RequiredArgsConstructor
+class ProofOfPlayEventBatchRepositoryImpl implements ProofOfPlayEventBatchRepository {
+
+  //columns are bound as arrays, so statement text is the same for any batch size
+  //and postgres keeps single prepared statement for it
+  private static final String INSERT_ALL = """
+              INSERT INTO proof_of_play_events
+                     (id, image_id, slideshow_id, user_id, actual_duration, replaced_at, displayed_at)
+              SELECT t.id, t.image_id, t.slideshow_id, t.user_id, t.actual_duration,
+                     COALESCE(t.replaced_at, CURRENT_TIMESTAMP), COALESCE(t.displayed_at, CURRENT_TIMESTAMP)
+              FROM unnest(:ids::bigint[], :imageIds::bigint[], :slideshowIds::bigint[], :userIds::bigint[],
+                          :actualDurations::smallint[], :replacedAt::timestamptz[], :displayedAt::timestamptz[])
+                       AS t(id, image_id, slideshow_id, user_id, actual_duration, replaced_at, displayed_at)
+          """;
+
+  private final DatabaseClient databaseClient;
+  private final PooledIdAllocator idAllocator;
+
+  @Override
+  public Flux<ProofOfPlayEventEntity> insertAll(List<ProofOfPlayEventEntity> events) {
+    if (events.isEmpty()) {
+      return Flux.empty();
+    }
+
+    //ids are known before the statement, so nothing is returned back
+    return idAllocator.allocate(IdSequence.PROOF_OF_PLAY_EVENTS, events.size())
+            .flatMapMany(ids -> insertAll(events, ids));
+  }
+
+  private Flux<ProofOfPlayEventEntity> insertAll(List<ProofOfPlayEventEntity> events, long[] ids) {
+    int size = events.size();
+    Long[] boxedIds = new Long[size];
+    Long[] imageIds = new Long[size];
+    Long[] slideshowIds = new Long[size];
+    Long[] userIds = new Long[size];
+    Short[] actualDurations = new Short[size];
+    OffsetDateTime[] replacedAt = new OffsetDateTime[size];
+    OffsetDateTime[] displayedAt = new OffsetDateTime[size];
+
+    for (int i = 0; i < size; i++) {
+      ProofOfPlayEventEntity event = events.get(i);
+      event.setId(ids[i]);
+      boxedIds[i] = ids[i];
+      imageIds[i] = event.getImageId();
+      slideshowIds[i] = event.getSlideshowId();
+      userIds[i] = event.getUserId();
+      actualDurations[i] = event.getActualDuration();
+      replacedAt[i] = event.getReplacedAt();
+      displayedAt[i] = event.getDisplayedAt();
+    }
+
+    return databaseClient.sql(INSERT_ALL)
+            .bind("ids", boxedIds)
+            .bind("imageIds", imageIds)
+            .bind("slideshowIds", slideshowIds)
+            .bind("userIds", userIds)
+            .bind("actualDurations", actualDurations)
+            .bind("replacedAt", replacedAt)
+            .bind("displayedAt", displayedAt)
+            .then()
+            .thenMany(Flux.fromIterable(events));
+  }
+
+}
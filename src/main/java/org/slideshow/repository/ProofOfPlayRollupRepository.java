@@ -0,0 +1,26 @@
+package org.slideshow.repository;
+
+import org.slideshow.model.projection.ProofOfPlayHourlyProjection;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ProofOfPlayRollupRepository {
+
+  /**
+   * Adds rollups to stored ones with a single multi-row upsert statement.
+   *
+   * @param rollups rollups to add, at most one per slideshow, image and hour
+   * @return number of inserted or updated rows
+   */
+  Mono<Long> upsertHourlyRollups(List<ProofOfPlayHourlyProjection> rollups);
+
+  //hours in [from, to), ordered by hour and image
+  Flux<ProofOfPlayHourlyProjection> findHourlyBySlideshowId(Long slideshowId, LocalDateTime from, LocalDateTime to);
+
+  //hours in [from, to), ordered by hour and slideshow
+  Flux<ProofOfPlayHourlyProjection> findHourlyByImageId(Long imageId, LocalDateTime from, LocalDateTime to);
+
+}
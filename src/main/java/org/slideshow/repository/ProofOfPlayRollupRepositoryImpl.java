@@ -0,0 +1,124 @@
+package org.slideshow.repository;
+
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.slideshow.model.projection.ProofOfPlayHourlyProjection;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+@RequiredArgsConstructor
+class ProofOfPlayRollupRepositoryImpl implements ProofOfPlayRollupRepository {
+
+  private static final String UPSERT_HOURLY = """
+              INSERT INTO proof_of_play_hourly AS r
+                     (slideshow_id, hour, image_id, plays, total_duration, first_displayed_at, last_displayed_at)
+              SELECT *
+              FROM unnest(:slideshowIds::bigint[], :hours::timestamp[], :imageIds::bigint[], :plays::bigint[],
+                          :totalDurations::bigint[], :firstDisplayedAt::timestamp[], :lastDisplayedAt::timestamp[])
+              ON CONFLICT (slideshow_id, hour, image_id) DO UPDATE
+              SET plays = r.plays + EXCLUDED.plays,
+                  total_duration = r.total_duration + EXCLUDED.total_duration,
+                  first_displayed_at = LEAST(r.first_displayed_at, EXCLUDED.first_displayed_at),
+                  last_displayed_at = GREATEST(r.last_displayed_at, EXCLUDED.last_displayed_at)
+          """;
+
+  private static final String SELECT_HOURLY = """
+              SELECT slideshow_id, hour, image_id, plays, total_duration, first_displayed_at, last_displayed_at
+              FROM proof_of_play_hourly
+          """;
+
+  private static final String FIND_BY_SLIDESHOW_ID = SELECT_HOURLY + """
+              WHERE slideshow_id = :slideshowId AND hour >= :from AND hour < :to
+              ORDER BY hour, image_id
+          """;
+
+  private static final String FIND_BY_IMAGE_ID = SELECT_HOURLY + """
+              WHERE image_id = :imageId AND hour >= :from AND hour < :to
+              ORDER BY hour, slideshow_id
+          """;
+
+  //rows are locked in primary key order, so concurrent upserts from several instances can't deadlock
+  private static final Comparator<ProofOfPlayHourlyProjection> PRIMARY_KEY_ORDER = Comparator
+          .comparing(ProofOfPlayHourlyProjection::slideshowId)
+          .thenComparing(ProofOfPlayHourlyProjection::hour)
+          .thenComparing(ProofOfPlayHourlyProjection::imageId);
+
+  private final DatabaseClient databaseClient;
+
+  @Override
+  public Mono<Long> upsertHourlyRollups(List<ProofOfPlayHourlyProjection> rollups) {
+    if (rollups.isEmpty()) {
+      return Mono.just(0L);
+    }
+
+    List<ProofOfPlayHourlyProjection> sorted = rollups.stream().sorted(PRIMARY_KEY_ORDER).toList();
+    int size = sorted.size();
+    Long[] slideshowIds = new Long[size];
+    LocalDateTime[] hours = new LocalDateTime[size];
+    Long[] imageIds = new Long[size];
+    Long[] plays = new Long[size];
+    Long[] totalDurations = new Long[size];
+    LocalDateTime[] firstDisplayedAt = new LocalDateTime[size];
+    LocalDateTime[] lastDisplayedAt = new LocalDateTime[size];
+
+    for (int i = 0; i < size; i++) {
+      ProofOfPlayHourlyProjection rollup = sorted.get(i);
+      slideshowIds[i] = rollup.slideshowId();
+      hours[i] = rollup.hour();
+      imageIds[i] = rollup.imageId();
+      plays[i] = rollup.plays();
+      totalDurations[i] = rollup.totalDuration();
+      firstDisplayedAt[i] = rollup.firstDisplayedAt();
+      lastDisplayedAt[i] = rollup.lastDisplayedAt();
+    }
+
+    return databaseClient.sql(UPSERT_HOURLY)
+            .bind("slideshowIds", slideshowIds)
+            .bind("hours", hours)
+            .bind("imageIds", imageIds)
+            .bind("plays", plays)
+            .bind("totalDurations", totalDurations)
+            .bind("firstDisplayedAt", firstDisplayedAt)
+            .bind("lastDisplayedAt", lastDisplayedAt)
+            .fetch()
+            .rowsUpdated();
+  }
+
+  @Override
+  public Flux<ProofOfPlayHourlyProjection> findHourlyBySlideshowId(Long slideshowId, LocalDateTime from,
+                                                                  LocalDateTime to) {
+    return databaseClient.sql(FIND_BY_SLIDESHOW_ID)
+            .bind("slideshowId", slideshowId)
+            .bind("from", from)
+            .bind("to", to)
+            .map(ProofOfPlayRollupRepositoryImpl::toProjection)
+            .all();
+  }
+
+  @Override
+  public Flux<ProofOfPlayHourlyProjection> findHourlyByImageId(Long imageId, LocalDateTime from, LocalDateTime to) {
+    return databaseClient.sql(FIND_BY_IMAGE_ID)
+            .bind("imageId", imageId)
+            .bind("from", from)
+            .bind("to", to)
+            .map(ProofOfPlayRollupRepositoryImpl::toProjection)
+            .all();
+  }
+
+  private static ProofOfPlayHourlyProjection toProjection(Readable row) {
+    return new ProofOfPlayHourlyProjection(
+            row.get("slideshow_id", Long.class),
+            row.get("image_id", Long.class),
+            row.get("hour", LocalDateTime.class),
+            row.get("plays", Long.class),
+            row.get("total_duration", Long.class),
+            row.get("first_displayed_at", LocalDateTime.class),
+            row.get("last_displayed_at", LocalDateTime.class));
+  }
+
+}
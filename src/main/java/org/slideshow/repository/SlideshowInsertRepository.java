@@ -0,0 +1,21 @@
+package org.slideshow.repository;
+
+import org.slideshow.model.domain.ImageEntity;
+import org.slideshow.model.projection.SlideshowProjection;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+public interface SlideshowInsertRepository {
+
+  /**
+   * Inserts new images and slideshow of all images and reads existing images with a single statement.
+   * Slideshow id is taken from {@link PooledIdAllocator}.
+   *
+   * @param images images of slideshow in request order, images without id are inserted and get ids in place,
+   *               images with id are existing ones
+   * @return created slideshow, existing images which are not found are skipped
+   */
+  Mono<SlideshowProjection> insertWithImages(List<ImageEntity> images);
+
+}
@@ -0,0 +1,89 @@
+package org.slideshow.repository;
+
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.slideshow.model.domain.ImageEntity;
+import org.slideshow.model.domain.SlideshowEntity;
+import org.slideshow.model.mapper.SlideshowMapper;
+import org.slideshow.model.projection.SlideshowProjection;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@RequiredArgsConstructor
+class SlideshowInsertRepositoryImpl implements SlideshowInsertRepository {
+
+  //data-modifying CTEs run once whether referenced or not, main query sees rows as of statement start,
+  //so it returns existing images only. New images are already known in memory
+  private static final String INSERT_WITH_IMAGES = """
+              WITH new_images AS (
+          """ + ImageInsertColumns.INSERT_IMAGES + """
+              ),
+              new_slideshow AS (
+                  INSERT INTO slideshows (id, images_ids, created_at, version)
+                  VALUES (:slideshowId, :imagesIds::bigint[], :createdAt, :version)
+              )
+              SELECT i.id, i.url, i.duration, i.added_at,
+                     i.content_type, i.content_length, i.etag, i.last_modified, i.width, i.height
+              FROM images i
+              WHERE i.id = ANY(:existingIds::bigint[])
+          """;
+
+  private final DatabaseClient databaseClient;
+  private final PooledIdAllocator idAllocator;
+
+  //ids are allocated one after another, concurrent allocations would share connection of transaction
+  @Override
+  public Mono<SlideshowProjection> insertWithImages(List<ImageEntity> images) {
+    List<ImageEntity> newImages = new ArrayList<>();
+    List<Long> existingIds = new ArrayList<>();
+    for (ImageEntity image : images) {
+      if (image.getId() == null) {
+        newImages.add(image);
+      } else {
+        existingIds.add(image.getId());
+      }
+    }
+
+    return idAllocator.allocate(IdSequence.SLIDESHOWS, 1)
+            .zipWhen(slideshowIds -> idAllocator.allocate(IdSequence.IMAGES, newImages.size()))
+            .flatMap(ids -> {
+              for (int i = 0; i < newImages.size(); i++) {
+                newImages.get(i).setId(ids.getT2()[i]);
+              }
+              SlideshowEntity slideshow = SlideshowMapper.toEntity(images.stream().map(ImageEntity::getId).toList());
+              slideshow.setId(ids.getT1()[0]);
+              return insertWithImages(slideshow, newImages, existingIds);
+            });
+  }
+
+  private Mono<SlideshowProjection> insertWithImages(SlideshowEntity slideshow, List<ImageEntity> newImages,
+                                                     List<Long> existingIds) {
+    return ImageInsertColumns.bind(databaseClient.sql(INSERT_WITH_IMAGES), newImages)
+            .bind("slideshowId", slideshow.getId())
+            .bind("imagesIds", slideshow.getImagesIds().toArray(Long[]::new))
+            .bind("createdAt", slideshow.getCreatedAt())
+            .bind("version", slideshow.getVersion())
+            .bind("existingIds", existingIds.toArray(Long[]::new))
+            .map(SlideshowInsertRepositoryImpl::toImageEntity)
+            .all()
+            .collectList()
+            .map(existingImages -> SlideshowMapper.toProjection(slideshow, newImages, existingImages));
+  }
+
+  private static ImageEntity toImageEntity(Readable row) {
+    ImageEntity image = new ImageEntity(row.get("id", Long.class), row.get("url", String.class),
+            row.get("duration", Short.class), row.get("added_at", LocalDateTime.class));
+    image.setContentType(row.get("content_type", String.class));
+    image.setContentLength(row.get("content_length", Long.class));
+    image.setEtag(row.get("etag", String.class));
+    image.setLastModified(row.get("last_modified", LocalDateTime.class));
+    image.setWidth(row.get("width", Integer.class));
+    image.setHeight(row.get("height", Integer.class));
+    return image;
+  }
+
+}
@@ -2,7 +2,6 @@ package org.slideshow.repository;
 
 import org.slideshow.model.domain.SlideshowEntity;
 import org.slideshow.model.projection.SlideshowDBProjection;
-import org.springframework.data.r2dbc.repository.Modifying;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
@@ -11,28 +10,66 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @Repository
-public interface SlideshowRepository extends ReactiveCrudRepository<SlideshowEntity, Long> {
+public interface SlideshowRepository extends ReactiveCrudRepository<SlideshowEntity, Long>,
+        SlideshowInsertRepository {
 
   //reactive repo doesn't support ORDER BY parametrization.
   // Hardcode added for same of simplicity
   //If it necessary to support ORDER BY value, then custom query with reactive databaseClient should be used instead
+  //unnest keeps one row per array element, so duplicated images are returned as many times as they were added.
+  //Position breaks ties of images with same added_at, so order is stable between reads.
+  //Rows of empty slideshow or of already deleted images have null image_id.
+  //Version counts deleted images slideshow still holds, see slideshow_version
   @Query("""
-              SELECT s.id AS slideshow_id,
-                     i.id AS image_id, i.url, i.duration, i.added_at
+              SELECT s.id AS slideshow_id, slideshow_version(s.version, s.images_ids) AS version,
+                     i.id AS image_id, i.url, i.duration, i.added_at,
+                     i.content_type, i.content_length, i.etag, i.last_modified, i.width, i.height
               FROM slideshows s
-                       LEFT JOIN images i
-                                 ON i.id = ANY(s.images_ids::bigint[])
+                       LEFT JOIN LATERAL unnest(s.images_ids) WITH ORDINALITY AS m(image_id, position) ON true
+                       LEFT JOIN images i ON i.id = m.image_id
               WHERE s.id = :slideshowId
-              ORDER BY i.added_at DESC
+              ORDER BY i.added_at DESC, m.position
           """)
   Flux<SlideshowDBProjection> findSlideshowWithImagesById(Long slideshowId);
 
-  @Modifying
+  //primary key lookup, answers conditional reads without joining images.
+  //Pending tombstones are looked up by primary key, table is empty unless compaction lags
+  @Query("SELECT slideshow_version(version, images_ids) FROM slideshows WHERE id = :slideshowId")
+  Mono<Long> findVersionById(@Param("slideshowId") Long slideshowId);
+
+  //removes all occurrences of every image in one pass, keeping order and duplicates of other images.
+  //Returns ids of updated slideshows, so exactly them can be invalidated in cache.
+  //Overlap operator is served by GIN index idx_slideshows_images_ids, unlike '= ANY(images_ids)'
+  //which scans the whole table.
+  //Version is incremented by number of removed images, so players holding ETag of old slideshow order get
+  //the new one, while version of slideshow with tombstoned images stays as it was when they were deleted
   @Query("""
               UPDATE slideshows
-              SET images_ids = array_remove(images_ids, :imageId)
-              WHERE :imageId = ANY(images_ids)
+              SET images_ids = ARRAY(
+                      SELECT m.image_id
+                      FROM unnest(images_ids) WITH ORDINALITY AS m(image_id, position)
+                      WHERE m.image_id <> ALL(:imageIds)
+                      ORDER BY m.position),
+                  version = version + (
+                      SELECT count(DISTINCT m.image_id)
+                      FROM unnest(images_ids) AS m(image_id)
+                      WHERE m.image_id = ANY(:imageIds))
+              WHERE images_ids && :imageIds
+              RETURNING id
+          """)
+  Flux<Long> removeImageIdsFromSlideshows(@Param("imageIds") Long[] imageIds);
+
+  //slideshows keep ids of deleted images until tombstones are compacted, their rows aren't locked or rewritten
+  //at deletion. Version counts tombstones, so change is published the same way the trigger publishes updates.
+  //Subquery with volatile pg_notify isn't flattened, so it's called for every slideshow.
+  //Served by GIN index idx_slideshows_images_ids, same as removal of images
+  @Query("""
+              SELECT id
+              FROM (SELECT s.id, pg_notify('slideshow_changes',
+                                   s.id || ':' || slideshow_version(s.version, s.images_ids) || ':UPDATE')
+                    FROM slideshows s
+                    WHERE s.images_ids && :imageIds) notified
           """)
-  Mono<Integer> removeImageIdFromSlideshows(@Param("imageId") Long imageId);
+  Flux<Long> notifySlideshowsWithImagesChanged(@Param("imageIds") Long[] imageIds);
 
 }
@@ -0,0 +1,101 @@
+package org.slideshow.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.slideshow.config.ImageImportProperties;
+import org.slideshow.model.domain.ImageEntity;
+import org.slideshow.model.dto.request.ImageCreateRequestDTO;
+import org.slideshow.model.dto.response.ImageImportResultDTO;
+import org.slideshow.model.dto.response.ValidationErrorResponseDTO;
+import org.slideshow.model.mapper.ImageMapper;
+import org.slideshow.validation.ImagesValidationFacade;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.slideshow.validation.ValidationErrorCodes.INTERNAL_SERVER_ERROR;
+import static org.slideshow.validation.ValidationErrorCodes.INTERNAL_VALIDATION_ERROR;
+
+/**
+ * Imports stream of images: every image is validated with bounded concurrency, valid images are
+ * written in batches with one multi-row INSERT per batch, result of every image is emitted in upload order
+ * as soon as its batch is written.
+ * Upload is pulled only as fast as batches are written, so memory is bounded by batch size and
+ * validation concurrency and doesn't depend on size of upload.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImageImportFacade {
+
+  private final ImageService imageService;
+  private final ImagesValidationFacade validationFacade;
+  private final ImageImportProperties properties;
+
+  public Flux<ImageImportResultDTO> importImages(Flux<ImageCreateRequestDTO> requests) {
+    return requests
+            .index()
+            .flatMapSequential(indexed -> validate(indexed.getT1(), indexed.getT2()),
+                    properties.validationConcurrency())
+            //fair backpressure: next batch is collected only when previous one is written
+            .bufferTimeout(properties.batchSize(), properties.linger(), true)
+            .concatMap(this::write, 1);
+  }
+
+  private Mono<PendingImage> validate(long position, ImageCreateRequestDTO request) {
+    return Mono.defer(() -> validationFacade.validateRequest(request))
+            .map(error -> new PendingImage(position, null, error))
+            //valid image is stored with metadata probed by validation of its url
+            .switchIfEmpty(Mono.defer(() -> validationFacade.findImageMetadata(request.url())
+                    .map(metadata -> new PendingImage(position, ImageMapper.toEntity(request, metadata), null))))
+            .onErrorResume(e -> {
+              log.error("Error on validating image {} of import: {}", position, e.getMessage());
+              return Mono.just(new PendingImage(position, null, new ValidationErrorResponseDTO(
+                      INTERNAL_VALIDATION_ERROR.getCode(),
+                      INTERNAL_VALIDATION_ERROR.getDefaultMessage() + e.getMessage())));
+            });
+  }
+
+  private Flux<ImageImportResultDTO> write(List<PendingImage> batch) {
+    List<ImageEntity> images = new ArrayList<>(batch.size());
+    for (PendingImage pending : batch) {
+      if (pending.image() != null) {
+        images.add(pending.image());
+      }
+    }
+
+    //ids are assigned to entities in place, so results are built from the batch itself
+    return imageService.insertAll(images)
+            .then(Mono.fromSupplier(() -> toResults(batch, null)))
+            .onErrorResume(e -> {
+              //only valid images of failed batch are reported as failed, import goes on with next batch
+              log.error("Failed to write batch of {} imported images", images.size(), e);
+              return Mono.just(toResults(batch, new ValidationErrorResponseDTO(
+                      INTERNAL_SERVER_ERROR.getCode(),
+                      INTERNAL_SERVER_ERROR.getDefaultMessage() + " Unexpected error: " + e.getMessage())));
+            })
+            .flatMapIterable(results -> results);
+  }
+
+  private List<ImageImportResultDTO> toResults(List<PendingImage> batch, ValidationErrorResponseDTO writeError) {
+    List<ImageImportResultDTO> results = new ArrayList<>(batch.size());
+    for (PendingImage pending : batch) {
+      if (pending.error() != null) {
+        results.add(new ImageImportResultDTO(pending.position(), null, List.of(pending.error())));
+      } else if (writeError != null) {
+        results.add(new ImageImportResultDTO(pending.position(), null, List.of(writeError)));
+      } else {
+        results.add(new ImageImportResultDTO(pending.position(), pending.image().getId(), null));
+      }
+    }
+    return results;
+  }
+
+  //image is set only when validation passed
+  private record PendingImage(long position, ImageEntity image, ValidationErrorResponseDTO error) {
+  }
+
+}
@@ -2,6 +2,8 @@ package org.slideshow.service;
 
 import org.slideshow.model.domain.ImageEntity;
 import org.slideshow.model.projection.ImageProjection;
+import org.slideshow.model.projection.ImageSearchCursor;
+import org.slideshow.model.projection.ImageSearchMode;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -11,14 +13,24 @@ public interface ImageService {
 
   Mono<ImageEntity> createImage(Mono<ImageEntity> imageDTO);
 
-  Flux<ImageEntity> createImages(Flux<ImageEntity> imagesDTO);
+  //one multi-row INSERT for all images, ids are assigned in place
+  Flux<ImageEntity> insertAll(List<ImageEntity> images);
 
   Mono<ImageEntity> findImageById(Long id);
 
   Flux<ImageEntity> findImagesById(List<Long> ids);
 
-  Flux<ImageProjection> findByKeywordAndDuration(String keyword, Integer duration);
+  Flux<ImageProjection> findByKeywordAndDuration(String keyword, Integer duration, ImageSearchMode mode,
+                                                 ImageSearchCursor after, int limit);
+
+  Flux<ImageProjection> streamByKeywordAndDuration(String keyword, Integer duration, ImageSearchMode mode,
+                                                   ImageSearchCursor after);
+
+  Flux<ImageProjection> findTopRankedByKeyword(String keyword, Integer duration, int limit);
 
   Mono<Void> deleteImageById(Long id);
 
+  //one DELETE for all images, returns ids of deleted ones
+  Flux<Long> deleteImagesById(List<Long> ids);
+
 }
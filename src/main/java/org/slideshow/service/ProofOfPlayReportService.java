@@ -0,0 +1,15 @@
+package org.slideshow.service;
+
+import org.slideshow.model.projection.ProofOfPlayHourlyProjection;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+
+//reports are served only from hourly rollups, so their cost doesn't grow with number of raw events
+public interface ProofOfPlayReportService {
+
+  Flux<ProofOfPlayHourlyProjection> getHourlyPlaysBySlideshow(Long slideshowId, LocalDateTime from, LocalDateTime to);
+
+  Flux<ProofOfPlayHourlyProjection> getHourlyPlaysByImage(Long imageId, LocalDateTime from, LocalDateTime to);
+
+}
@@ -1,6 +1,6 @@
 package org.slideshow.service;
 
-import org.slideshow.model.domain.SlideshowEntity;
+import org.slideshow.model.domain.ImageEntity;
 import org.slideshow.model.projection.SlideshowProjection;
 import reactor.core.publisher.Mono;
 
@@ -8,12 +8,36 @@ import java.util.List;
 
 public interface SlideshowService {
 
-  Mono<SlideshowEntity> createSlideshow(Mono<List<Long>> imageIds);
+  /**
+   * @param images images of slideshow in request order, images without id are created
+   * @return created slideshow, built without reading it back
+   */
+  Mono<SlideshowProjection> createSlideshow(List<ImageEntity> images);
 
   Mono<SlideshowProjection> getSlideshowById(Long id);
 
+  /**
+   * @param id slideshow id
+   * @return current version of slideshow, empty if slideshow doesn't exist
+   */
+  Mono<Long> getSlideshowVersion(Long id);
+
   Mono<Void> deleteSlideshowById(Mono<Long> id);
 
-  Mono<Integer> removeImagesFromSlideshow(Mono<Long> imageId);
+  /**
+   * @param imageIds ids of deleted images
+   * @return number of updated slideshows
+   */
+  Mono<Integer> removeImagesFromSlideshows(List<Long> imageIds);
+
+  /**
+   * Publishes change of slideshows which still hold ids of deleted images and invalidates them in cache.
+   * Their version already counts tombstones of the images, which must be recorded before.
+   * Images themselves are removed from slideshows later by tombstone compaction.
+   *
+   * @param imageIds ids of deleted images
+   * @return number of changed slideshows
+   */
+  Mono<Integer> markSlideshowsWithImagesChanged(List<Long> imageIds);
 
 }
@@ -3,12 +3,15 @@ package org.slideshow.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.slideshow.model.domain.ImageEntity;
+import org.slideshow.model.projection.ImageBulkDeleteResult;
 import org.slideshow.model.projection.SlideshowProjection;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 @Slf4j
 @Service
 @RequiredArgsConstructor
@@ -19,38 +22,35 @@ public class SlideshowServiceFacade {
 
   @Transactional(transactionManager = "reactiveTransactionManager")
   public Mono<SlideshowProjection> createSlideshow(Flux<ImageEntity> imagesDTO) {
-    //create new images, combine existing and new image ids, create new Slideshow
+    //request is walked once: new images and slideshow of new and existing images in request order are written
+    //with one statement, response is built from written images and existing ones read by the same statement
     return imagesDTO
-            .filter(dto -> dto.getId() == null)
-            .as(imageService::createImages)
-            .map(ImageEntity::getId)
             .collectList()
-            .flatMap(newImagesIds -> imagesDTO
-                    .filter(dto -> dto.getId() != null)
-                    .map(ImageEntity::getId)
-                    .collectList()
-                    .map(existingImagesIds -> {
-                      newImagesIds.addAll(existingImagesIds);
-                      return newImagesIds;
-                    })
-            )
-            .flatMap(ids -> slideshowService.createSlideshow(Mono.just(ids)))
-            //retrieve from DB slideshow with images as projection due to reactive repositories mapping specific
-            .flatMap(savedSlideshow -> slideshowService.getSlideshowById(savedSlideshow.getId()));
-
+            .flatMap(slideshowService::createSlideshow);
   }
 
+  //image is deleted and tombstoned at once, version of slideshows with the image counts the tombstone,
+  //so their rows aren't updated. Change of them is published and they are invalidated in cache,
+  //so reads and ETags are current. Image id is removed from their arrays in background by ImageTombstoneCompactor
   @Transactional(transactionManager = "reactiveTransactionManager")
   public Mono<Void> deleteImageAndUpdateSlideshow(Mono<Long> imageId) {
     return imageId
-            .flatMap(imageService::deleteImageById)
-            .thenReturn(imageId)
-            .doOnSuccess(id -> log.info("Deleted image {}", id))
-            .flatMap(slideshowService::removeImagesFromSlideshow)
-            .doOnSuccess(count -> log.info("Total updated slideshows {}", count))
-            .doOnError(e -> log.error("An error occurred while deleting image or updating slideshows", e))
-            .onErrorResume(e -> Mono.empty())
-            .then();
+            .flatMap(id -> imageService.deleteImageById(id)
+                    .then(Mono.defer(() -> slideshowService.markSlideshowsWithImagesChanged(List.of(id))))
+                    .doOnNext(updated -> log.info("Deleted image {}, changed slideshows {}", id, updated))
+                    .then());
+  }
+
+  //one statement per table in one transaction: images are deleted and all of them removed from slideshows at once.
+  //Every requested id is removed from slideshows, including ids of images deleted before
+  @Transactional(transactionManager = "reactiveTransactionManager")
+  public Mono<ImageBulkDeleteResult> deleteImagesAndUpdateSlideshows(List<Long> imageIds) {
+    return imageService.deleteImagesById(imageIds)
+            .collectList()
+            .zipWhen(deletedIds -> slideshowService.removeImagesFromSlideshows(imageIds))
+            .map(result -> new ImageBulkDeleteResult(result.getT1(), result.getT2()))
+            .doOnNext(result -> log.info("Deleted {} images, updated slideshows {}", result.deletedIds().size(),
+                    result.updatedSlideshows()));
   }
 
 }
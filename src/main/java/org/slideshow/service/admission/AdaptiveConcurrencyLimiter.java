@@ -0,0 +1,173 @@
+package org.slideshow.service.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.R2dbcTransientResourceException;
+import org.slideshow.config.AdmissionProperties;
+import org.slideshow.config.ProofOfPlayIngestProperties;
+import org.slideshow.config.ProofOfPlayIngestProperties.IngestMode;
+import org.slideshow.ingest.ProofOfPlayIngestException;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admission control of database bound requests with adaptive (AIMD) concurrency limit.
+ * Ingest calls are rejected once requests in flight reach the limit minus read reserve, and their latency
+ * and errors drive the limit. Reads are never rejected, they only take capacity, so under load ingest
+ * backs off before slideshow reads of players degrade.
+ * In {@link IngestMode#BATCHED} mode every admitted event waits for its batch to be written, so limit can grow
+ * at least to events of all batches in flight, otherwise batches would be flushed by linger before filling up.
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+  public static final String LIMIT_GAUGE = "admission.limit";
+  public static final String IN_FLIGHT_GAUGE = "admission.in.flight";
+  public static final String REJECTED_COUNTER = "admission.rejected";
+
+  private static final Duration MIN_RETRY_AFTER = Duration.ofSeconds(1);
+
+  public enum Priority {
+    //slideshow reads, always admitted
+    READ,
+    //proof-of-play events, rejected above limit minus read reserve
+    INGEST
+  }
+
+  private final AdmissionProperties properties;
+  private final int maxLimit;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final Map<Priority, Counter> rejected = new EnumMap<>(Priority.class);
+
+  //changed under lock of this, read without it
+  private volatile double limit;
+
+  public AdaptiveConcurrencyLimiter(AdmissionProperties properties,
+                                    ProofOfPlayIngestProperties ingestProperties,
+                                    MeterRegistry meterRegistry) {
+    this.properties = properties;
+    this.maxLimit = maxLimit(properties, ingestProperties);
+    this.limit = properties.initialLimit();
+
+    Gauge.builder(LIMIT_GAUGE, this, AdaptiveConcurrencyLimiter::getLimit)
+            .description("Current concurrency limit of database bound requests")
+            .register(meterRegistry);
+    Gauge.builder(IN_FLIGHT_GAUGE, inFlight, AtomicInteger::get)
+            .description("Database bound requests in flight")
+            .register(meterRegistry);
+    for (Priority priority : Priority.values()) {
+      rejected.put(priority, Counter.builder(REJECTED_COUNTER)
+              .tag("priority", priority.name().toLowerCase())
+              .register(meterRegistry));
+    }
+  }
+
+  /**
+   * @param priority priority of the call
+   * @param call     call to admit, subscribed only when admitted
+   * @return result of the call, or {@link AdmissionRejectedException} when it isn't admitted
+   */
+  public <T> Mono<T> execute(Priority priority, Mono<T> call) {
+    return Mono.defer(() -> {
+      int admittedInFlight = tryAcquire(priority);
+      if (admittedInFlight < 0) {
+        rejected.get(priority).increment();
+        return Mono.error(new AdmissionRejectedException("Concurrency limit of " + getLimit() + " is reached"));
+      }
+
+      Permit permit = new Permit(priority, admittedInFlight, System.nanoTime());
+      return call
+              .doOnError(e -> permit.overloaded = isOverload(e))
+              .doFinally(permit::release);
+    });
+  }
+
+  //ingest share of limit must fit all batches in flight, buffer capacity still bounds events beyond them
+  private static int maxLimit(AdmissionProperties properties, ProofOfPlayIngestProperties ingestProperties) {
+    if (ingestProperties.mode() != IngestMode.BATCHED) {
+      return properties.maxLimit();
+    }
+    ProofOfPlayIngestProperties.Batch batch = ingestProperties.batch();
+    int batchedLimit = (int) Math.ceil(batch.size() * batch.maxInFlight() / (1 - properties.readReserve()));
+    return Math.max(properties.maxLimit(), batchedLimit);
+  }
+
+  public int getLimit() {
+    return (int) limit;
+  }
+
+  //when rejected caller should retry, at least a second as Retry-After is in whole seconds
+  public Duration getRetryAfter() {
+    return properties.retryAfter().compareTo(MIN_RETRY_AFTER) < 0 ? MIN_RETRY_AFTER : properties.retryAfter();
+  }
+
+  //returns requests in flight including this one, or -1 when rejected
+  private int tryAcquire(Priority priority) {
+    if (priority == Priority.READ) {
+      return inFlight.incrementAndGet();
+    }
+    int allowed = Math.max(1, (int) (limit * (1 - properties.readReserve())));
+    while (true) {
+      int current = inFlight.get();
+      if (current >= allowed) {
+        return -1;
+      }
+      if (inFlight.compareAndSet(current, current + 1)) {
+        return current + 1;
+      }
+    }
+  }
+
+  //timely call increases limit only when it was made under load, otherwise idle instance would grow it forever
+  private synchronized void onSample(long latencyNanos, int admittedInFlight, boolean overloaded) {
+    if (overloaded || latencyNanos > properties.latencyThreshold().toNanos()) {
+      limit = Math.max(properties.minLimit(), limit * properties.backoffRatio());
+    } else if (admittedInFlight * 2 >= limit) {
+      limit = Math.min(maxLimit, limit + 1);
+    }
+  }
+
+  //errors meaning that database or write buffer can't keep up, other errors don't tell about load
+  private static boolean isOverload(Throwable e) {
+    return e instanceof ProofOfPlayIngestException
+            || e instanceof R2dbcTransientResourceException
+            || e instanceof TimeoutException;
+  }
+
+  private final class Permit {
+
+    private final Priority priority;
+    private final int admittedInFlight;
+    private final long startedAt;
+    private final AtomicBoolean released = new AtomicBoolean();
+    private volatile boolean overloaded;
+
+    private Permit(Priority priority, int admittedInFlight, long startedAt) {
+      this.priority = priority;
+      this.admittedInFlight = admittedInFlight;
+      this.startedAt = startedAt;
+    }
+
+    private void release(SignalType signal) {
+      if (!released.compareAndSet(false, true)) {
+        return;
+      }
+      inFlight.decrementAndGet();
+      //reads are mostly served from cache, their latency doesn't tell about database load.
+      //Cancelled call, e.g. by disconnected client, tells nothing either
+      if (priority == Priority.INGEST && signal != SignalType.CANCEL) {
+        onSample(System.nanoTime() - startedAt, admittedInFlight, overloaded);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,9 @@
+package org.slideshow.service.admission;
+
+public class AdmissionRejectedException extends RuntimeException {
+
+  public AdmissionRejectedException(String message) {
+    super(message);
+  }
+
+}
@@ -0,0 +1,88 @@
+package org.slideshow.service.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slideshow.config.SlideshowCacheProperties;
+import org.slideshow.model.projection.SlideshowProjection;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of slideshows by id.
+ * Concurrent misses of the same id share single load, writers invalidate changed ids explicitly.
+ */
+@Component
+public class SlideshowProjectionCache {
+
+  public static final String CACHE_NAME = "slideshow-projection";
+
+  private final AsyncCache<Long, SlideshowProjection> cache;
+
+  public SlideshowProjectionCache(SlideshowCacheProperties properties, MeterRegistry meterRegistry) {
+    this.cache = Caffeine.newBuilder()
+            .maximumSize(properties.maximumSize())
+            .expireAfterWrite(properties.ttl())
+            .recordStats()
+            .buildAsync();
+
+    //publishes cache.gets{result=hit|miss}, cache.evictions and cache.size
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    Gauge.builder("cache.hit.ratio", cache, c -> c.synchronous().stats().hitRate())
+            .tag("cache", CACHE_NAME)
+            .register(meterRegistry);
+  }
+
+  /**
+   * @param id     slideshow id
+   * @param loader loads slideshow on miss, empty result is not cached
+   * @return cached or loaded slideshow
+   */
+  public Mono<SlideshowProjection> get(Long id, Function<Long, Mono<SlideshowProjection>> loader) {
+    //cancellation of one caller must not cancel load shared with other callers, so it's suppressed
+    return Mono.fromFuture(() -> cache.get(id, (key, executor) -> loader.apply(key).toFuture()), true);
+  }
+
+  /**
+   * Invalidates slideshows now and, if called inside transaction, once more after transaction completes,
+   * so a read that raced with uncommitted change can't keep stale slideshow in cache.
+   *
+   * @param ids changed slideshow ids
+   */
+  public Mono<Void> invalidate(Collection<Long> ids) {
+    if (ids.isEmpty()) {
+      return Mono.empty();
+    }
+    return Mono.fromRunnable(() -> cache.synchronous().invalidateAll(ids))
+            .then(TransactionSynchronizationManager.forCurrentTransaction())
+            .filter(TransactionSynchronizationManager::isSynchronizationActive)
+            .doOnNext(synchronizationManager -> synchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                      @Override
+                      public Mono<Void> afterCompletion(int status) {
+                        return Mono.fromRunnable(() -> cache.synchronous().invalidateAll(ids));
+                      }
+                    }))
+            .onErrorResume(NoTransactionException.class, e -> Mono.empty())
+            .then();
+  }
+
+  //local only, for changes this instance might have missed; doesn't wait for transaction like invalidate
+  public void invalidateAll() {
+    cache.synchronous().invalidateAll();
+  }
+
+  public CacheStats stats() {
+    return cache.synchronous().stats();
+  }
+
+}
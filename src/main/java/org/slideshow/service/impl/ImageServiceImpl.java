@@ -4,10 +4,11 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.slideshow.model.domain.ImageEntity;
 import org.slideshow.model.projection.ImageProjection;
+import org.slideshow.model.projection.ImageSearchCursor;
+import org.slideshow.model.projection.ImageSearchMode;
 import org.slideshow.repository.ImageRepository;
 import org.slideshow.service.ImageService;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -23,12 +24,12 @@ public class ImageServiceImpl implements ImageService {
 
   @Transactional(transactionManager = "reactiveTransactionManager")
   public Mono<ImageEntity> createImage(Mono<ImageEntity> imageDTO) {
-    return imageDTO.flatMap(imageRepository::save);
+    return imageDTO.flatMap(image -> imageRepository.insertAll(List.of(image)).next());
   }
 
-  @Transactional(transactionManager = "reactiveTransactionManager", propagation = Propagation.REQUIRES_NEW)
-  public Flux<ImageEntity> createImages(Flux<ImageEntity> imagesDTO) {
-    return imagesDTO.as(imageRepository::saveAll);
+  @Override
+  public Flux<ImageEntity> insertAll(List<ImageEntity> images) {
+    return imageRepository.insertAll(images);
   }
 
   public Mono<ImageEntity> findImageById(Long id) {
@@ -40,13 +41,33 @@ public class ImageServiceImpl implements ImageService {
   }
 
   @Override
-  public Flux<ImageProjection> findByKeywordAndDuration(String keyword, Integer duration) {
-    return imageRepository.findByKeywordAndDuration(keyword, duration);
+  public Flux<ImageProjection> findByKeywordAndDuration(String keyword, Integer duration, ImageSearchMode mode,
+                                                        ImageSearchCursor after, int limit) {
+    return imageRepository.search(keyword, duration, mode, after, limit);
+  }
+
+  @Override
+  public Flux<ImageProjection> streamByKeywordAndDuration(String keyword, Integer duration, ImageSearchMode mode,
+                                                          ImageSearchCursor after) {
+    return imageRepository.search(keyword, duration, mode, after, null);
+  }
+
+  @Override
+  public Flux<ImageProjection> findTopRankedByKeyword(String keyword, Integer duration, int limit) {
+    return imageRepository.searchTopRanked(keyword, duration, limit);
   }
 
+  //slideshows keep id of deleted image until ImageTombstoneCompactor removes it,
+  //reads skip it meanwhile as image row is gone. Caller increments versions of these slideshows
   @Transactional(transactionManager = "reactiveTransactionManager")
   public Mono<Void> deleteImageById(Long id) {
-    return imageRepository.deleteById(id);
+    return imageRepository.deleteWithTombstones(List.of(id)).then();
+  }
+
+  //joins transaction of caller, which removes deleted images from slideshows
+  @Transactional(transactionManager = "reactiveTransactionManager")
+  public Flux<Long> deleteImagesById(List<Long> ids) {
+    return imageRepository.deleteAllByIds(ids);
   }
 
 }
@@ -2,23 +2,47 @@ package org.slideshow.service.impl;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.slideshow.config.ProofOfPlayIngestProperties;
+import org.slideshow.ingest.ProofOfPlayEventBatchWriter;
+import org.slideshow.ingest.ProofOfPlayEventPublisher;
+import org.slideshow.ingest.ProofOfPlayIngestMetrics;
+import org.slideshow.ingest.ProofOfPlayRollupAggregator;
 import org.slideshow.model.domain.ProofOfPlayEventEntity;
 import org.slideshow.repository.ProofOfPlayEventRepository;
 import org.slideshow.service.ProofOfPlayEventService;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class ProofOfPlayEventServiceImpl implements ProofOfPlayEventService {
 
   private final ProofOfPlayEventRepository eventRepository;
+  private final ProofOfPlayEventBatchWriter batchWriter;
+  private final ProofOfPlayEventPublisher eventPublisher;
+  private final ProofOfPlayRollupAggregator rollupAggregator;
+  private final ProofOfPlayIngestMetrics metrics;
+  private final ProofOfPlayIngestProperties properties;
 
-  @Transactional(transactionManager = "reactiveTransactionManager")
+  //no explicit transaction: every path is a single statement or no database call at all,
+  //so opening transaction per event would only cost extra round trips
   public Mono<ProofOfPlayEventEntity> recordProofOfPlay(Mono<ProofOfPlayEventEntity> event) {
-    return event.flatMap(eventRepository::save);
+    return switch (properties.mode()) {
+      //rollups count only events which are written
+      case DIRECT -> event.flatMap(e -> eventRepository.insertAll(List.of(e)).next())
+              .doOnNext(rollupAggregator::record)
+              .doOnNext(written -> metrics.accepted(1))
+              .doOnError(e -> metrics.failed(1));
+      //counted by batch writer per batch
+      case BATCHED -> event.flatMap(batchWriter::write).doOnNext(rollupAggregator::record);
+      //event is written to the database and counted in rollups later by ProofOfPlayEventKafkaSink
+      case KAFKA -> event.flatMap(eventPublisher::publish)
+              .doOnNext(published -> metrics.accepted(1))
+              .doOnError(e -> metrics.failed(1));
+    };
   }
 
 }
@@ -0,0 +1,31 @@
+package org.slideshow.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.slideshow.model.projection.ProofOfPlayHourlyProjection;
+import org.slideshow.repository.ProofOfPlayEventRepository;
+import org.slideshow.service.ProofOfPlayReportService;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+@Component
+@RequiredArgsConstructor
+public class ProofOfPlayReportServiceImpl implements ProofOfPlayReportService {
+
+  private final ProofOfPlayEventRepository eventRepository;
+
+  //range is widened to whole hours, rollup of an hour is returned when any part of it is requested
+  @Override
+  public Flux<ProofOfPlayHourlyProjection> getHourlyPlaysBySlideshow(Long slideshowId, LocalDateTime from,
+                                                                    LocalDateTime to) {
+    return eventRepository.findHourlyBySlideshowId(slideshowId, from.truncatedTo(ChronoUnit.HOURS), to);
+  }
+
+  @Override
+  public Flux<ProofOfPlayHourlyProjection> getHourlyPlaysByImage(Long imageId, LocalDateTime from, LocalDateTime to) {
+    return eventRepository.findHourlyByImageId(imageId, from.truncatedTo(ChronoUnit.HOURS), to);
+  }
+
+}
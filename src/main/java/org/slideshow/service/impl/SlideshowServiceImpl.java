@@ -3,17 +3,16 @@ package org.slideshow.service.impl;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.slideshow.model.domain.ImageEntity;
-import org.slideshow.model.domain.SlideshowEntity;
+import org.slideshow.model.mapper.SlideshowMapper;
 import org.slideshow.model.projection.SlideshowProjection;
 import org.slideshow.repository.SlideshowRepository;
 import org.slideshow.service.SlideshowService;
+import org.slideshow.service.cache.SlideshowProjectionCache;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Component
@@ -21,40 +20,55 @@ import java.util.stream.Collectors;
 public class SlideshowServiceImpl implements SlideshowService {
 
   private final SlideshowRepository slideshowRepository;
+  private final SlideshowProjectionCache slideshowCache;
 
-  @Transactional(transactionManager = "reactiveTransactionManager", propagation = Propagation.REQUIRES_NEW)
-  public Mono<SlideshowEntity> createSlideshow(Mono<List<Long>> imageIds) {
-    return imageIds.flatMap(ids -> {
-      SlideshowEntity slideshowEntity = new SlideshowEntity();
-      slideshowEntity.setImagesIds(ids);
-      return slideshowRepository.save(slideshowEntity);
-    });
+  //new images and slideshow are written with one statement, which also reads existing images of slideshow
+  @Transactional(transactionManager = "reactiveTransactionManager")
+  public Mono<SlideshowProjection> createSlideshow(List<ImageEntity> images) {
+    return slideshowRepository.insertWithImages(images)
+            //id may have been requested before it existed
+            .flatMap(created -> slideshowCache.invalidate(List.of(created.slideshowId())).thenReturn(created));
   }
 
   public Mono<SlideshowProjection> getSlideshowById(Long id) {
+    return slideshowCache.get(id, this::loadSlideshowById);
+  }
+
+  //read from database, so not modified answer never relies on cached slideshow
+  public Mono<Long> getSlideshowVersion(Long id) {
+    return slideshowRepository.findVersionById(id);
+  }
+
+  private Mono<SlideshowProjection> loadSlideshowById(Long id) {
     return slideshowRepository.findSlideshowWithImagesById(id)
             .collectList()
-            .map(rows -> {
-              List<ImageEntity> images = rows.stream()
-                      .map(r -> new ImageEntity(
-                              r.imageId(),
-                              r.url(),
-                              r.duration(),
-                              r.addedAt()
-                      ))
-                      .collect(Collectors.toList());
-              return new SlideshowProjection(id, images);
-            });
+            .map(rows -> SlideshowMapper.toProjection(id, rows));
   }
 
   @Transactional(transactionManager = "reactiveTransactionManager")
   public Mono<Void> deleteSlideshowById(Mono<Long> id) {
-    return slideshowRepository.deleteById(id);
+    return id.flatMap(slideshowId -> slideshowRepository.deleteById(slideshowId)
+            .then(slideshowCache.invalidate(List.of(slideshowId))));
   }
 
   @Transactional(transactionManager = "reactiveTransactionManager")
-  public Mono<Integer> removeImagesFromSlideshow(Mono<Long> imageId) {
-    return imageId.flatMap(slideshowRepository::removeImageIdFromSlideshows);
+  public Mono<Integer> removeImagesFromSlideshows(List<Long> imageIds) {
+    if (imageIds.isEmpty()) {
+      return Mono.just(0);
+    }
+    return slideshowRepository.removeImageIdsFromSlideshows(imageIds.toArray(Long[]::new))
+            .collectList()
+            .flatMap(updatedIds -> slideshowCache.invalidate(updatedIds).thenReturn(updatedIds.size()));
+  }
+
+  @Transactional(transactionManager = "reactiveTransactionManager")
+  public Mono<Integer> markSlideshowsWithImagesChanged(List<Long> imageIds) {
+    if (imageIds.isEmpty()) {
+      return Mono.just(0);
+    }
+    return slideshowRepository.notifySlideshowsWithImagesChanged(imageIds.toArray(Long[]::new))
+            .collectList()
+            .flatMap(updatedIds -> slideshowCache.invalidate(updatedIds).thenReturn(updatedIds.size()));
   }
 
 }
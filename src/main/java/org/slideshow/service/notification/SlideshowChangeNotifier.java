@@ -0,0 +1,193 @@
+package org.slideshow.service.notification;
+
+import io.r2dbc.postgresql.api.Notification;
+import io.r2dbc.postgresql.api.PostgresqlConnection;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Wrapped;
+import lombok.extern.slf4j.Slf4j;
+import org.slideshow.config.SlideshowEventsProperties;
+import org.slideshow.model.projection.SlideshowChange;
+import org.slideshow.repository.SlideshowRepository;
+import org.slideshow.service.cache.SlideshowProjectionCache;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.retry.Retry;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fans out changes of slideshows to streams of players connected to this instance.
+ * Changes are published by database trigger with NOTIFY, so changes made through any instance reach all of them.
+ * Single connection outside of pool listens for them, streams are plain reactive subscriptions,
+ * so idle streams hold neither threads nor database connections.
+ */
+@Slf4j
+@Component
+public class SlideshowChangeNotifier implements DisposableBean {
+
+  static final String CHANNEL = "slideshow_changes";
+  //versions of subscribed slideshows read at once after reconnect, rest wait for a pooled connection
+  private static final int RESYNC_CONCURRENCY = 4;
+
+  private final ConnectionFactory connectionFactory;
+  private final SlideshowProjectionCache slideshowCache;
+  private final SlideshowRepository slideshowRepository;
+  private final SlideshowEventsProperties properties;
+
+  private final Map<Long, Subscribers> subscribers = new ConcurrentHashMap<>();
+  //one timer for all streams instead of one per stream
+  private final Flux<Long> heartbeats;
+
+  private volatile Disposable listening;
+
+  public SlideshowChangeNotifier(ConnectionFactory connectionFactory,
+                                 SlideshowProjectionCache slideshowCache,
+                                 SlideshowRepository slideshowRepository,
+                                 SlideshowEventsProperties properties) {
+    this.connectionFactory = unwrap(connectionFactory);
+    this.slideshowCache = slideshowCache;
+    this.slideshowRepository = slideshowRepository;
+    this.properties = properties;
+    this.heartbeats = Flux.interval(properties.heartbeat())
+            .onBackpressureDrop()
+            .share();
+  }
+
+  //listening connection is held for the lifetime of application, so it's opened by driver directly, not taken from pool
+  private static ConnectionFactory unwrap(ConnectionFactory connectionFactory) {
+    ConnectionFactory factory = connectionFactory;
+    while (factory instanceof Wrapped<?> wrapped && wrapped.unwrap() instanceof ConnectionFactory unwrapped) {
+      factory = unwrapped;
+    }
+    return factory;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    listening = listen()
+            //connection closed by database or network is opened again
+            .concatWith(Flux.error(new IllegalStateException("Connection listening to " + CHANNEL + " is closed")))
+            .retryWhen(Retry.backoff(Long.MAX_VALUE, properties.reconnectDelay())
+                    .maxBackoff(properties.maxReconnectDelay())
+                    //delay is reset once notification is received
+                    .transientErrors(true)
+                    .doBeforeRetry(signal -> log.warn("Listening to {} failed, reconnecting", CHANNEL,
+                            signal.failure())))
+            .subscribe(this::publish);
+  }
+
+  private Flux<SlideshowChange> listen() {
+    return Flux.<Notification, Connection>usingWhen(Mono.from(connectionFactory.create()),
+                    connection -> {
+                      if (!(connection instanceof PostgresqlConnection postgresqlConnection)) {
+                        return Flux.error(new IllegalStateException("LISTEN requires postgres connection, got "
+                                + connection.getClass().getName()));
+                      }
+                      return Flux.from(postgresqlConnection.createStatement("LISTEN " + CHANNEL).execute())
+                              .flatMap(Result::getRowsUpdated)
+                              .doOnComplete(() -> log.info("Listening to {}", CHANNEL))
+                              //notifications are subscribed before versions are read, so no change is missed
+                              .thenMany(Flux.merge(
+                                      postgresqlConnection.getNotifications()
+                                              .mapNotNull(notification -> parse(notification.getParameter())),
+                                      resync()));
+                    },
+                    Connection::close);
+  }
+
+  /**
+   * Changes made while no connection was listening are not notified again.
+   * Whole cache is dropped, since any slideshow may have changed, and every subscribed stream
+   * gets the current version of its slideshow.
+   *
+   * @return current version of every subscribed slideshow, deleted ones without version
+   */
+  Flux<SlideshowChange> resync() {
+    return Flux.defer(() -> {
+      slideshowCache.invalidateAll();
+      return Flux.fromIterable(List.copyOf(subscribers.keySet()));
+    }).flatMap(id -> slideshowRepository.findVersionById(id)
+                    .map(version -> new SlideshowChange(id, version, SlideshowChange.Type.UPDATED))
+                    .defaultIfEmpty(new SlideshowChange(id, null, SlideshowChange.Type.DELETED))
+                    .onErrorResume(e -> {
+                      log.warn("Version of slideshow {} wasn't read after listening to {} again", id, CHANNEL, e);
+                      return Mono.empty();
+                    }),
+            RESYNC_CONCURRENCY);
+  }
+
+  /**
+   * @param slideshowId slideshow id
+   * @return changes of slideshow published after subscription, never completes by itself
+   */
+  public Flux<SlideshowChange> changes(Long slideshowId) {
+    return Flux.defer(() -> {
+      //subscriber is counted before subscription, so concurrent unsubscribe of the last one can't drop sink in between
+      Subscribers current = subscribers.compute(slideshowId, (id, existing) -> {
+        Subscribers result = existing == null ? new Subscribers() : existing;
+        result.count++;
+        return result;
+      });
+      return current.sink.asFlux()
+              //slow stream keeps only latest change instead of holding back others
+              .onBackpressureLatest()
+              .doFinally(signal -> subscribers.computeIfPresent(slideshowId,
+                      (id, existing) -> --existing.count == 0 ? null : existing));
+    });
+  }
+
+  public Flux<Long> heartbeats() {
+    return heartbeats;
+  }
+
+  //called by single listening connection, so sinks are never emitted to concurrently
+  void publish(SlideshowChange change) {
+    //instance which made the change has invalidated it already, others learn about it here
+    slideshowCache.invalidate(List.of(change.slideshowId())).subscribe();
+
+    Subscribers current = subscribers.get(change.slideshowId());
+    if (current != null) {
+      current.sink.tryEmitNext(change);
+    }
+  }
+
+  int subscribedSlideshows() {
+    return subscribers.size();
+  }
+
+  static SlideshowChange parse(String payload) {
+    String[] parts = payload == null ? new String[0] : payload.split(":");
+    if (parts.length != 3) {
+      log.warn("Unexpected {} notification '{}'", CHANNEL, payload);
+      return null;
+    }
+    SlideshowChange.Type type = "DELETE".equals(parts[2]) ? SlideshowChange.Type.DELETED : SlideshowChange.Type.UPDATED;
+    return new SlideshowChange(Long.valueOf(parts[0]), Long.valueOf(parts[1]), type);
+  }
+
+  @Override
+  public void destroy() {
+    if (listening != null) {
+      listening.dispose();
+    }
+  }
+
+  private static final class Subscribers {
+
+    //slideshow without subscribers drops changes instead of buffering them
+    private final Sinks.Many<SlideshowChange> sink = Sinks.many().multicast().directBestEffort();
+    //guarded by compute of subscribers map
+    private int count;
+  }
+
+}
@@ -0,0 +1,40 @@
+package org.slideshow.service.schedule;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Background task run at fixed interval, one run at a time: tick arriving while previous run is in progress
+ * is skipped. Failed run is logged and doesn't stop the next ones.
+ */
+@Slf4j
+public final class PeriodicTask {
+
+  private PeriodicTask() {
+  }
+
+  /**
+   * @param name     name of the task in log
+   * @param delay    delay of the first run
+   * @param interval interval between ticks
+   * @param run      run of the task, subscribed on every tick which isn't skipped
+   * @return schedule of the task, disposing it stops the task
+   */
+  public static Disposable schedule(String name, Duration delay, Duration interval, Supplier<Mono<?>> run) {
+    return Flux.interval(delay, interval)
+            .onBackpressureDrop()
+            .concatMap(tick -> Mono.defer(run)
+                    .then()
+                    .onErrorResume(e -> {
+                      log.error("{} failed", name, e);
+                      return Mono.empty();
+                    }), 0)
+            .subscribe();
+  }
+
+}
@@ -0,0 +1,107 @@
+package org.slideshow.service.tombstone;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.slideshow.config.ImageTombstoneProperties;
+import org.slideshow.model.projection.ImageTombstoneStats;
+import org.slideshow.repository.ImageRepository;
+import org.slideshow.service.SlideshowService;
+import org.slideshow.service.schedule.PeriodicTask;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Removes deleted images from slideshows in background: takes batches of image tombstones, oldest first,
+ * and removes every image of a batch from all slideshows with one statement.
+ * Every instance schedules compaction, a batch is compacted only by the instance holding advisory lock
+ * of tombstones, so instances never remove the same images concurrently.
+ */
+@Slf4j
+@Component
+public class ImageTombstoneCompactor implements DisposableBean {
+
+  public static final String LAG_GAUGE = "image.tombstones.lag";
+  public static final String PENDING_GAUGE = "image.tombstones.pending";
+
+  private final ImageRepository imageRepository;
+  private final SlideshowService slideshowService;
+  private final TransactionalOperator transactionalOperator;
+  private final ImageTombstoneProperties properties;
+
+  private volatile ImageTombstoneStats stats = new ImageTombstoneStats(0, 0);
+  private volatile Disposable schedule;
+
+  public ImageTombstoneCompactor(ImageRepository imageRepository,
+                                 SlideshowService slideshowService,
+                                 ReactiveTransactionManager reactiveTransactionManager,
+                                 ImageTombstoneProperties properties,
+                                 MeterRegistry meterRegistry) {
+    this.imageRepository = imageRepository;
+    this.slideshowService = slideshowService;
+    this.transactionalOperator = TransactionalOperator.create(reactiveTransactionManager);
+    this.properties = properties;
+
+    //every instance publishes the same values, read them by max
+    Gauge.builder(LAG_GAUGE, this, compactor -> compactor.stats.lagSeconds())
+            .description("Age of the oldest deleted image not yet removed from slideshows")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+    Gauge.builder(PENDING_GAUGE, this, compactor -> compactor.stats.pending())
+            .description("Deleted images not yet removed from slideshows")
+            .register(meterRegistry);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    schedule = PeriodicTask.schedule("Compaction of image tombstones", Duration.ZERO, properties.interval(),
+            this::compact);
+  }
+
+  /**
+   * Compacts batches one after another while full batches remain, then refreshes lag metrics.
+   *
+   * @return number of compacted tombstones
+   */
+  public Mono<Long> compact() {
+    return compactBatch()
+            .expand(compacted -> compacted == properties.batchSize() ? compactBatch() : Mono.empty())
+            .reduce(0L, Long::sum)
+            .flatMap(compacted -> imageRepository.findTombstoneStats()
+                    .doOnNext(current -> stats = current)
+                    .thenReturn(compacted));
+  }
+
+  //transaction per batch, so slideshow rows are locked for one batch only.
+  //Tombstones are removed in the same transaction, so failed batch is retried as a whole
+  private Mono<Long> compactBatch() {
+    return imageRepository.tryLockTombstones()
+            .filter(Boolean::booleanValue)
+            .flatMap(locked -> imageRepository.findTombstonedImageIds(properties.batchSize()).collectList())
+            .filter(imageIds -> !imageIds.isEmpty())
+            .flatMap(imageIds -> slideshowService.removeImagesFromSlideshows(imageIds)
+                    .flatMap(updated -> imageRepository.deleteTombstones(imageIds)
+                            .then(Mono.fromSupplier(() -> {
+                              log.info("Removed {} deleted images from {} slideshows", imageIds.size(), updated);
+                              return (long) imageIds.size();
+                            }))))
+            .as(transactionalOperator::transactional)
+            .defaultIfEmpty(0L);
+  }
+
+  @Override
+  public void destroy() {
+    if (schedule != null) {
+      schedule.dispose();
+    }
+  }
+
+}
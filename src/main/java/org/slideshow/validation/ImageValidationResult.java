@@ -0,0 +1,30 @@
+package org.slideshow.validation;
+
+import org.slideshow.model.dto.request.ImageDetailsRequestDTO;
+import org.slideshow.model.projection.ImageMetadata;
+
+import java.util.List;
+
+/**
+ * Result of validation of single image of request.
+ *
+ * @param position index of image in request
+ * @param image    validated image
+ * @param errors   validation errors of image, empty if image is valid
+ * @param metadata metadata probed by validation of new valid image, unknown for other images
+ */
+public record ImageValidationResult(
+        int position,
+        ImageDetailsRequestDTO image,
+        List<ValidationError> errors,
+        ImageMetadata metadata) {
+
+  public ImageValidationResult(int position, ImageDetailsRequestDTO image, List<ValidationError> errors) {
+    this(position, image, errors, ImageMetadata.UNKNOWN);
+  }
+
+  public boolean isValid() {
+    return errors.isEmpty();
+  }
+
+}
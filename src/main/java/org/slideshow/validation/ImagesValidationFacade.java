@@ -3,17 +3,22 @@ package org.slideshow.validation;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.slideshow.model.dto.request.ImageCreateRequestDTO;
+import org.slideshow.model.dto.request.ImageDetailsRequestDTO;
 import org.slideshow.model.dto.request.SlideshowRequestDTO;
 import org.slideshow.model.dto.response.ValidationErrorResponseDTO;
+import org.slideshow.model.mapper.ValidationErrorMapper;
+import org.slideshow.model.projection.ImageMetadata;
 import org.slideshow.validation.validators.ImageValidationService;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 
 import static org.slideshow.validation.ValidationErrorCodes.INTERNAL_VALIDATION_ERROR;
 
@@ -22,63 +27,102 @@ import static org.slideshow.validation.ValidationErrorCodes.INTERNAL_VALIDATION_
 @RequiredArgsConstructor
 public class ImagesValidationFacade {
 
+  //images of one request validated at once, remote checks are additionally bounded by ImageProbeClient
+  private static final int IMAGE_VALIDATION_CONCURRENCY = 16;
+
   private final ImageValidationService validator;
 
   public Mono<ValidationErrorResponseDTO> validateRequest(ImageCreateRequestDTO r) {
-    return validator.validateUrl(Mono.just(r.url()))
-            .flatMap(error -> Mono.just(new ValidationErrorResponseDTO(error.code(), error.message()))
-            )
-            .switchIfEmpty(validator.validateImageContent(Mono.just(r.url()))
-                    .flatMap(error -> Mono.just(new ValidationErrorResponseDTO(error.code(), error.message())))
+    //missing fields are validated as empty ones, so they are reported as invalid instead of failing on null
+    String url = Objects.requireNonNullElse(r.url(), "");
+    Short duration = Objects.requireNonNullElse(r.duration(), (short) 0);
+    return validator.validateUrl(Mono.just(url))
+            .map(ValidationErrorMapper::toResponse)
+            .switchIfEmpty(validator.validateImageContent(Mono.just(url))
+                    .map(ValidationErrorMapper::toResponse)
             )
-            .switchIfEmpty(validator.validateDuration(Mono.just(r.duration()))
-                    .flatMap(error -> Mono.just(new ValidationErrorResponseDTO(error.code(), error.message())))
+            .switchIfEmpty(validator.validateDuration(Mono.just(duration))
+                    .map(ValidationErrorMapper::toResponse)
             )
             .switchIfEmpty(Mono.empty());
   }
 
+  /**
+   * Returns metadata probed while image url was validated, it's served from validation cache.
+   * Image is created without metadata if it can't be retrieved.
+   *
+   * @param imageUrl url of image which passed validation
+   * @return probed metadata, never an error
+   */
+  public Mono<ImageMetadata> findImageMetadata(String imageUrl) {
+    return validator.findImageMetadata(imageUrl)
+            .defaultIfEmpty(ImageMetadata.UNKNOWN)
+            .onErrorResume(e -> {
+              log.error("Error on retrieving metadata of image: {}", e.getMessage());
+              return Mono.just(ImageMetadata.UNKNOWN);
+            });
+  }
 
-  public Mono<List<ValidationError>> validateImages(Mono<SlideshowRequestDTO> request) {
-    if (request == null) {
-      return Mono.just(
-              List.of(new ValidationError(
-                      ValidationErrorCodes.EMPTY_LIST.getCode(),
-                      ValidationErrorCodes.EMPTY_LIST.getDefaultMessage(),
-                      new HashMap<>())
-              )
-      );
+  /**
+   * Validates every image of request exactly once: existence of referenced images is checked
+   * with single query, new images are checked one by one with bounded concurrency.
+   *
+   * @param request slideshow request
+   * @return result per image, in order of images in request
+   */
+  public Mono<List<ImageValidationResult>> validateSlideshowImages(SlideshowRequestDTO request) {
+    List<ImageDetailsRequestDTO> images = request.images();
+    if (images == null || images.isEmpty()) {
+      return Mono.just(List.of());
     }
 
-    Mono<List<ValidationError>> imagesExistenceErrors = validator.validateImagesExistence(request);
-
-    Mono<List<ValidationError>> imagesIntegrityErrors = request
-            .flatMapMany(r -> Flux.fromIterable(r.images()))
-            .flatMap(image -> validator.validateImageIntegrity(Mono.just(image)))
-            .collectList();
+    return validator.findExistingImageIds(images)
+            .map(Optional::of)
+            .onErrorResume(e -> {
+              log.error("Error on retrieving images: {}", e.getMessage());
+              return Mono.just(Optional.empty());
+            })
+            .flatMap(existingImageIds -> Flux.range(0, images.size())
+                    .flatMapSequential(position -> validateImage(position, images.get(position), existingImageIds),
+                            IMAGE_VALIDATION_CONCURRENCY)
+                    .collectList());
+  }
 
+  private Mono<ImageValidationResult> validateImage(int position, ImageDetailsRequestDTO image,
+                                                    Optional<Set<Long>> existingImageIds) {
+    if (image == null) {
+      return Mono.just(new ImageValidationResult(position, null, List.of(new ValidationError(
+              ValidationErrorCodes.INVALID_IMAGE.getCode(),
+              ValidationErrorCodes.INVALID_IMAGE.getDefaultMessage(),
+              new HashMap<>()))));
+    }
 
-    return collectErrors(imagesExistenceErrors, imagesIntegrityErrors);
-  }
+    if (image.id() != null) {
+      //existence can't be confirmed if lookup failed
+      List<ValidationError> errors = existingImageIds
+              .map(ids -> validator.validateImageExistence(image.id(), ids).stream().toList())
+              .orElseGet(() -> List.of(new ValidationError(
+                      INTERNAL_VALIDATION_ERROR.getCode(),
+                      INTERNAL_VALIDATION_ERROR.getDefaultMessage() + "image existence check failed",
+                      Map.of(ImageValidationService.IMAGE_ID_KEY, image.id()))));
+      return Mono.just(new ImageValidationResult(position, image, errors));
+    }
 
-  private Mono<List<ValidationError>> collectErrors(Mono<List<ValidationError>> imagesExistenceErrors,
-                                                    Mono<List<ValidationError>> imagesIntegrityErrors) {
-    return Mono.zip(imagesExistenceErrors, imagesIntegrityErrors)
-            .map(tuple -> {
-              List<ValidationError> combinedErrors = new ArrayList<>();
-              combinedErrors.addAll(tuple.getT1());
-              combinedErrors.addAll(tuple.getT2());
-              return combinedErrors;
-            })
-            .switchIfEmpty(Mono.just(List.of()))
+    return validator.validateImageIntegrity(Mono.just(image))
+            .collectList()
             .onErrorResume(e -> {
-              log.error("Error on validating images: {}", e.getMessage());
-
+              log.error("Error on validating image: {}", e.getMessage());
               return Mono.just(List.of(new ValidationError(
                       INTERNAL_VALIDATION_ERROR.getCode(),
                       INTERNAL_VALIDATION_ERROR.getDefaultMessage() + e.getMessage(),
                       Map.of("exception", e.getClass().getSimpleName()))
               ));
-            });
+            })
+            //metadata of valid image is already cached by validation of its url
+            .flatMap(errors -> errors.isEmpty()
+                    ? findImageMetadata(image.url())
+                    .map(metadata -> new ImageValidationResult(position, image, errors, metadata))
+                    : Mono.just(new ImageValidationResult(position, image, errors)));
   }
 
 }
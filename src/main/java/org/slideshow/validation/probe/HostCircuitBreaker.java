@@ -0,0 +1,73 @@
+package org.slideshow.validation.probe;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Consecutive failures circuit breaker of one origin.
+ * Closed circuit lets every probe through. After failureThreshold consecutive failures circuit opens
+ * and probes fail fast for openDuration, then single trial probe decides whether circuit closes or opens again.
+ */
+class HostCircuitBreaker {
+
+  enum State {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+
+  private final int failureThreshold;
+  private final long openDurationNanos;
+  private final LongSupplier nanoClock;
+
+  private State state = State.CLOSED;
+  private int consecutiveFailures;
+  private long openedAt;
+  private long trialStartedAt;
+
+  HostCircuitBreaker(int failureThreshold, Duration openDuration, LongSupplier nanoClock) {
+    this.failureThreshold = failureThreshold;
+    this.openDurationNanos = openDuration.toNanos();
+    this.nanoClock = nanoClock;
+  }
+
+  synchronized boolean tryAcquire() {
+    long now = nanoClock.getAsLong();
+    switch (state) {
+      case CLOSED:
+        return true;
+      case OPEN:
+        if (now - openedAt < openDurationNanos) {
+          return false;
+        }
+        state = State.HALF_OPEN;
+        trialStartedAt = now;
+        return true;
+      default:
+        //trial which never reported result (e.g. cancelled) doesn't block the origin forever
+        if (now - trialStartedAt < openDurationNanos) {
+          return false;
+        }
+        trialStartedAt = now;
+        return true;
+    }
+  }
+
+  synchronized void onSuccess() {
+    consecutiveFailures = 0;
+    state = State.CLOSED;
+  }
+
+  synchronized void onFailure() {
+    consecutiveFailures++;
+    if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+      state = State.OPEN;
+      openedAt = nanoClock.getAsLong();
+    }
+  }
+
+  synchronized State state() {
+    return state;
+  }
+
+}
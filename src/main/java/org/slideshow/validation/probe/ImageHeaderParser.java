@@ -0,0 +1,178 @@
+package org.slideshow.validation.probe;
+
+import java.util.Set;
+
+/**
+ * Reads pixel dimensions from the first bytes of image file, without decoding the image.
+ * Supports PNG, GIF, BMP, WebP and JPEG. JPEG frame header follows metadata segments (e.g. EXIF),
+ * so it's found only if these segments fit into the bytes read.
+ */
+public final class ImageHeaderParser {
+
+  private static final Set<String> SUPPORTED_CONTENT_TYPES = Set.of(
+          "image/png", "image/gif", "image/bmp", "image/webp", "image/jpeg");
+
+  private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+  private ImageHeaderParser() {
+  }
+
+  /**
+   * @param contentType content type of image
+   * @return true if dimensions of image of this type can be read from its header
+   */
+  public static boolean isSupported(String contentType) {
+    return contentType != null && SUPPORTED_CONTENT_TYPES.contains(contentType);
+  }
+
+  /**
+   * @param header first bytes of image file
+   * @return dimensions of image, null if format isn't recognized or header is truncated
+   */
+  public static Dimensions parse(byte[] header) {
+    try {
+      if (startsWith(header, 0, PNG_SIGNATURE)) {
+        //IHDR is always the first chunk
+        return dimensions(readIntBE(header, 16), readIntBE(header, 20));
+      }
+      if (startsWith(header, 0, "GIF87a") || startsWith(header, 0, "GIF89a")) {
+        return dimensions(readShortLE(header, 6), readShortLE(header, 8));
+      }
+      if (startsWith(header, 0, "BM")) {
+        return parseBmp(header);
+      }
+      if (startsWith(header, 0, "RIFF") && startsWith(header, 8, "WEBP")) {
+        return parseWebp(header);
+      }
+      if (header.length > 1 && (header[0] & 0xFF) == 0xFF && (header[1] & 0xFF) == 0xD8) {
+        return parseJpeg(header);
+      }
+    } catch (IndexOutOfBoundsException e) {
+      //header is shorter than format requires
+    }
+    return null;
+  }
+
+  private static Dimensions parseBmp(byte[] header) {
+    int dibHeaderSize = readIntLE(header, 14);
+    if (dibHeaderSize == 12) {
+      //OS/2 BITMAPCOREHEADER has 16-bit dimensions
+      return dimensions(readShortLE(header, 18), readShortLE(header, 20));
+    }
+    //negative height means rows are stored top-down
+    return dimensions(readIntLE(header, 18), Math.abs(readIntLE(header, 22)));
+  }
+
+  private static Dimensions parseWebp(byte[] header) {
+    if (startsWith(header, 12, "VP8 ")) {
+      //lossy: key frame start code is followed by 14-bit dimensions
+      if ((header[23] & 0xFF) != 0x9D || (header[24] & 0xFF) != 0x01 || (header[25] & 0xFF) != 0x2A) {
+        return null;
+      }
+      return dimensions(readShortLE(header, 26) & 0x3FFF, readShortLE(header, 28) & 0x3FFF);
+    }
+    if (startsWith(header, 12, "VP8L")) {
+      //lossless: signature byte is followed by 14-bit width - 1 and height - 1
+      if ((header[20] & 0xFF) != 0x2F) {
+        return null;
+      }
+      int b0 = header[21] & 0xFF;
+      int b1 = header[22] & 0xFF;
+      int b2 = header[23] & 0xFF;
+      int b3 = header[24] & 0xFF;
+      return dimensions(1 + (((b1 & 0x3F) << 8) | b0),
+              1 + (((b3 & 0x0F) << 10) | (b2 << 2) | ((b1 & 0xC0) >> 6)));
+    }
+    if (startsWith(header, 12, "VP8X")) {
+      //extended: 24-bit canvas width - 1 and height - 1
+      return dimensions(1 + readInt24LE(header, 24), 1 + readInt24LE(header, 27));
+    }
+    return null;
+  }
+
+  private static Dimensions parseJpeg(byte[] header) {
+    int position = 2;
+    while (position + 3 < header.length) {
+      if ((header[position] & 0xFF) != 0xFF) {
+        return null;
+      }
+      int marker = header[position + 1] & 0xFF;
+      if (marker == 0xFF) {
+        //fill byte
+        position++;
+        continue;
+      }
+      if (marker == 0x01 || (marker >= 0xD0 && marker <= 0xD8)) {
+        //markers without segment
+        position += 2;
+        continue;
+      }
+      if (marker == 0xD9 || marker == 0xDA) {
+        //end of image or start of scan, there is no frame header before it
+        return null;
+      }
+      //start of frame markers, except DHT, JPG and DAC which share the range
+      if (marker >= 0xC0 && marker <= 0xCF && marker != 0xC4 && marker != 0xC8 && marker != 0xCC) {
+        return dimensions(readShortBE(header, position + 7), readShortBE(header, position + 5));
+      }
+      position += 2 + readShortBE(header, position + 2);
+    }
+    return null;
+  }
+
+  private static Dimensions dimensions(int width, int height) {
+    return width > 0 && height > 0 ? new Dimensions(width, height) : null;
+  }
+
+  private static boolean startsWith(byte[] header, int offset, String prefix) {
+    if (header.length < offset + prefix.length()) {
+      return false;
+    }
+    for (int i = 0; i < prefix.length(); i++) {
+      if (header[offset + i] != (byte) prefix.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean startsWith(byte[] header, int offset, byte[] prefix) {
+    if (header.length < offset + prefix.length) {
+      return false;
+    }
+    for (int i = 0; i < prefix.length; i++) {
+      if (header[offset + i] != prefix[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int readShortBE(byte[] bytes, int offset) {
+    return ((bytes[offset] & 0xFF) << 8) | (bytes[offset + 1] & 0xFF);
+  }
+
+  private static int readShortLE(byte[] bytes, int offset) {
+    return (bytes[offset] & 0xFF) | ((bytes[offset + 1] & 0xFF) << 8);
+  }
+
+  private static int readInt24LE(byte[] bytes, int offset) {
+    return readShortLE(bytes, offset) | ((bytes[offset + 2] & 0xFF) << 16);
+  }
+
+  private static int readIntBE(byte[] bytes, int offset) {
+    return (readShortBE(bytes, offset) << 16) | readShortBE(bytes, offset + 2);
+  }
+
+  private static int readIntLE(byte[] bytes, int offset) {
+    return readShortLE(bytes, offset) | (readShortLE(bytes, offset + 2) << 16);
+  }
+
+  /**
+   * @param width  width in pixels
+   * @param height height in pixels
+   */
+  public record Dimensions(int width, int height) {
+  }
+
+}
@@ -0,0 +1,305 @@
+package org.slideshow.validation.probe;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ConnectTimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import org.slideshow.config.ImageValidationProperties;
+import org.slideshow.model.projection.ImageMetadata;
+import org.slideshow.validation.probe.ImageProbeResult.ProbeOutcome;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.ConnectException;
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Probes image origins within bounded resources:
+ * - global cap of probes in flight, extra probes wait in queue;
+ * - per origin connection pool, its size caps probes in flight to one origin;
+ * - connect and response timeouts, plus total deadline of a probe;
+ * - per origin circuit breaker, so probes to unhealthy origin fail fast instead of waiting for timeouts.
+ * Slow origin therefore holds only its own connections and can't stall validation of images from other origins.
+ * Probe is a HEAD request, followed by ranged GET of the first bytes of image file to read its dimensions
+ * when its format is supported by ImageHeaderParser. Latency of every HEAD request is published as image.probe timer
+ * tagged by host and outcome.
+ */
+@Slf4j
+@Component
+public class ImageProbeClient implements DisposableBean {
+
+  public static final String PROBE_TIMER = "image.probe";
+
+  //enough for headers of all supported formats, JPEG with large EXIF segment may need more
+  static final int HEADER_BYTES = 64 * 1024;
+
+  //result must reach caller before its deadline, so header read stops a bit earlier
+  private static final Duration HEADER_READ_MARGIN = Duration.ofMillis(50);
+
+  //longer values don't fit into images.etag column
+  private static final int MAX_ETAG_LENGTH = 1024;
+
+  private final ImageValidationProperties.Outbound properties;
+  private final MeterRegistry meterRegistry;
+  private final ConnectionProvider connectionProvider;
+  private final WebClient webClient;
+  private final Cache<String, HostCircuitBreaker> circuitBreakers;
+  private final Disposable dispatcher;
+
+  private FluxSink<ProbeTask> queue;
+
+  public ImageProbeClient(WebClient.Builder webClientBuilder, ImageValidationProperties validationProperties,
+                          MeterRegistry meterRegistry) {
+    this.properties = validationProperties.outbound();
+    this.meterRegistry = meterRegistry;
+
+    //reactor-netty keeps separate pool per remote host, so limits below are per origin
+    this.connectionProvider = ConnectionProvider.builder("image-probe")
+            .maxConnections(properties.maxConnectionsPerHost())
+            .pendingAcquireMaxCount(properties.pendingAcquireMaxCount())
+            .pendingAcquireTimeout(properties.pendingAcquireTimeout())
+            .maxIdleTime(properties.maxIdleTime())
+            .evictInBackground(properties.maxIdleTime())
+            .build();
+
+    HttpClient httpClient = HttpClient.create(connectionProvider)
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.connectTimeout().toMillis())
+            .responseTimeout(properties.responseTimeout());
+
+    this.webClient = webClientBuilder.clone()
+            .clientConnector(new ReactorClientHttpConnector(httpClient))
+            .build();
+
+    ImageValidationProperties.CircuitBreaker circuitBreaker = properties.circuitBreaker();
+    this.circuitBreakers = Caffeine.newBuilder()
+            .maximumSize(circuitBreaker.maximumHosts())
+            .expireAfterAccess(Duration.ofHours(1))
+            .build();
+
+    this.dispatcher = Flux.<ProbeTask>create(sink -> this.queue = sink)
+            .flatMap(this::execute, properties.globalConcurrency())
+            .subscribe();
+  }
+
+  /**
+   * Probes image by url with HEAD request, then reads dimensions of image from header of its file.
+   * Dimensions are best effort: they are unknown if origin doesn't serve file in time or format isn't supported.
+   *
+   * @param imageUrl absolute image url
+   * @return probe result, never an error
+   */
+  public Mono<ImageProbeResult> probe(String imageUrl) {
+    return Mono.defer(() -> {
+              ProbeTask task = new ProbeTask(imageUrl, System.nanoTime() + properties.deadline().toNanos());
+              queue.next(task);
+              return task.result().asMono().doOnCancel(task::cancel);
+            })
+            .timeout(properties.deadline(), Mono.fromSupplier(() -> ImageProbeResult.of(ProbeOutcome.TIMEOUT)));
+  }
+
+  private Mono<Void> execute(ProbeTask task) {
+    //caller has already gone (e.g. deadline passed while waiting in queue), don't spend a slot on it
+    if (task.isCancelled()) {
+      return Mono.empty();
+    }
+    //error of one probe would terminate dispatcher, and every later probe would wait for its deadline
+    return Mono.defer(() -> request(task))
+            .onErrorResume(e -> {
+              log.warn("Probe of image {} failed unexpectedly", task.url(), e);
+              return Mono.just(ImageProbeResult.of(outcomeOf(e)));
+            })
+            .doOnNext(result -> task.result().tryEmitValue(result))
+            .then();
+  }
+
+  private Mono<ImageProbeResult> request(ProbeTask task) {
+    URI uri;
+    try {
+      uri = URI.create(task.url());
+    } catch (IllegalArgumentException e) {
+      return Mono.just(ImageProbeResult.of(ProbeOutcome.INVALID_URL));
+    }
+    if (uri.getHost() == null) {
+      return Mono.just(ImageProbeResult.of(ProbeOutcome.INVALID_URL));
+    }
+
+    HostCircuitBreaker circuitBreaker = circuitBreakerOf(uri);
+    Timer.Sample sample = Timer.start(meterRegistry);
+    if (!circuitBreaker.tryAcquire()) {
+      return Mono.just(record(sample, uri, ImageProbeResult.of(ProbeOutcome.CIRCUIT_OPEN)));
+    }
+
+    return webClient.head()//send head request to retrieve just lightweight headers
+            .uri(uri)
+            .exchangeToMono(response -> Mono.just(toResult(response)))
+            .onErrorResume(e -> Mono.just(ImageProbeResult.of(outcomeOf(e))))
+            .doOnNext(result -> {
+              if (result.outcome().isOriginFailure()) {
+                circuitBreaker.onFailure();
+              } else if (result.outcome() != ProbeOutcome.REJECTED) {
+                circuitBreaker.onSuccess();
+              }
+            })
+            .map(result -> record(sample, uri, result))
+            .flatMap(result -> readDimensions(uri, result, task.deadline()));
+  }
+
+  //failure to read header doesn't fail the probe and isn't counted by circuit breaker,
+  //server which ignores Range header is cut off after the first bytes
+  private Mono<ImageProbeResult> readDimensions(URI uri, ImageProbeResult result, long deadline) {
+    Duration remaining = Duration.ofNanos(deadline - System.nanoTime()).minus(HEADER_READ_MARGIN);
+    if (result.outcome() != ProbeOutcome.OK || !ImageHeaderParser.isSupported(result.contentType())
+            || remaining.isNegative() || remaining.isZero()) {
+      return Mono.just(result);
+    }
+
+    return webClient.get()
+            .uri(uri)
+            .header(HttpHeaders.RANGE, "bytes=0-" + (HEADER_BYTES - 1))
+            .exchangeToMono(response -> response.statusCode().is2xxSuccessful()
+                    ? DataBufferUtils.join(
+                            DataBufferUtils.takeUntilByteCount(response.bodyToFlux(DataBuffer.class), HEADER_BYTES))
+                    : Mono.empty())
+            .mapNotNull(buffer -> ImageHeaderParser.parse(toBytes(buffer)))
+            .map(result::withDimensions)
+            .timeout(remaining)
+            .onErrorResume(e -> {
+              log.debug("Failed to read header of image {}: {}", uri, e.getMessage());
+              return Mono.empty();
+            })
+            .defaultIfEmpty(result);
+  }
+
+  private static byte[] toBytes(DataBuffer buffer) {
+    try {
+      byte[] bytes = new byte[buffer.readableByteCount()];
+      buffer.read(bytes);
+      return bytes;
+    } finally {
+      DataBufferUtils.release(buffer);
+    }
+  }
+
+  //number of host tags is capped by MetricsConfig, probes of hosts above the cap are not published
+  private ImageProbeResult record(Timer.Sample sample, URI uri, ImageProbeResult result) {
+    sample.stop(Timer.builder(PROBE_TIMER)
+            .tag("host", uri.getHost())
+            .tag("outcome", result.outcome().name())
+            .register(meterRegistry));
+    return result;
+  }
+
+  private HostCircuitBreaker circuitBreakerOf(URI uri) {
+    ImageValidationProperties.CircuitBreaker settings = properties.circuitBreaker();
+    return circuitBreakers.get(uri.getHost() + ":" + uri.getPort(),
+            host -> new HostCircuitBreaker(settings.failureThreshold(), settings.openDuration(), System::nanoTime));
+  }
+
+  private static ImageProbeResult toResult(ClientResponse response) {
+    ImageMetadata metadata = toMetadata(response.headers().asHttpHeaders());
+    if (response.statusCode().is5xxServerError()) {
+      return new ImageProbeResult(ProbeOutcome.SERVER_ERROR, metadata);
+    }
+    if (response.statusCode().isError()) {
+      return new ImageProbeResult(ProbeOutcome.CLIENT_ERROR, metadata);
+    }
+    return new ImageProbeResult(ProbeOutcome.OK, metadata);
+  }
+
+  private static ImageMetadata toMetadata(HttpHeaders headers) {
+    MediaType contentType = headers.getContentType();
+    long contentLength = headers.getContentLength();
+    String etag = headers.getETag();
+    long lastModified = headers.getLastModified();
+    return new ImageMetadata(
+            contentType == null ? null : contentType.toString(),
+            contentLength < 0 ? null : contentLength,
+            etag == null || etag.length() > MAX_ETAG_LENGTH ? null : etag,
+            lastModified < 0 ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(lastModified), ZoneOffset.UTC),
+            null,
+            null);
+  }
+
+  private static ProbeOutcome outcomeOf(Throwable error) {
+    for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+      //pool classes are shaded inside reactor-netty, so they are matched by name
+      String name = cause.getClass().getSimpleName();
+      if (name.equals("PoolAcquireTimeoutException") || name.equals("PoolAcquirePendingLimitException")) {
+        return ProbeOutcome.REJECTED;
+      }
+      if (cause instanceof io.netty.handler.timeout.TimeoutException
+              || cause instanceof TimeoutException
+              || cause instanceof ConnectTimeoutException) {
+        return ProbeOutcome.TIMEOUT;
+      }
+      if (cause instanceof ConnectException) {
+        return ProbeOutcome.CONNECTION_FAILED;
+      }
+    }
+    log.debug("Image probe failed: {}", error.getMessage());
+    return ProbeOutcome.CONNECTION_FAILED;
+  }
+
+  @Override
+  public void destroy() {
+    dispatcher.dispose();
+    connectionProvider.disposeLater().block(Duration.ofSeconds(5));
+  }
+
+  private static final class ProbeTask {
+
+    private final String url;
+    //System.nanoTime() when caller stops waiting for result
+    private final long deadline;
+    private final Sinks.One<ImageProbeResult> result = Sinks.one();
+    private volatile boolean cancelled;
+
+    private ProbeTask(String url, long deadline) {
+      this.url = url;
+      this.deadline = deadline;
+    }
+
+    String url() {
+      return url;
+    }
+
+    long deadline() {
+      return deadline;
+    }
+
+    Sinks.One<ImageProbeResult> result() {
+      return result;
+    }
+
+    boolean isCancelled() {
+      return cancelled;
+    }
+
+    void cancel() {
+      cancelled = true;
+    }
+  }
+
+}
@@ -0,0 +1,25 @@
+package org.slideshow.validation.probe;
+
+import lombok.Getter;
+import org.slideshow.validation.probe.ImageProbeResult.ProbeOutcome;
+
+/**
+ * Probe didn't get a conclusive answer from origin, e.g. it timed out or wasn't sent at all,
+ * so it says nothing about whether url points to an image.
+ */
+@Getter
+public class ImageProbeException extends RuntimeException {
+
+  private final ProbeOutcome outcome;
+
+  public ImageProbeException(ProbeOutcome outcome) {
+    super("image origin gave no conclusive answer, probe outcome " + outcome);
+    this.outcome = outcome;
+  }
+
+  public ImageProbeException(ProbeOutcome outcome, Throwable cause) {
+    super("image origin gave no conclusive answer, probe outcome " + outcome, cause);
+    this.outcome = outcome;
+  }
+
+}
@@ -0,0 +1,51 @@
+package org.slideshow.validation.probe;
+
+import org.slideshow.model.projection.ImageMetadata;
+
+/**
+ * Result of probing remote image.
+ *
+ * @param outcome  how HEAD request to origin ended
+ * @param metadata headers of HEAD response and dimensions read from header of image file,
+ *                 unknown if origin didn't respond
+ */
+public record ImageProbeResult(
+        ProbeOutcome outcome,
+        ImageMetadata metadata) {
+
+  public static ImageProbeResult of(ProbeOutcome outcome) {
+    return new ImageProbeResult(outcome, ImageMetadata.UNKNOWN);
+  }
+
+  /**
+   * @return value of Content-Type header, null if origin didn't respond
+   */
+  public String contentType() {
+    return metadata.contentType();
+  }
+
+  public ImageProbeResult withDimensions(ImageHeaderParser.Dimensions dimensions) {
+    return new ImageProbeResult(outcome, metadata.withDimensions(dimensions.width(), dimensions.height()));
+  }
+
+  public enum ProbeOutcome {
+    OK,
+    CLIENT_ERROR,
+    SERVER_ERROR,
+    TIMEOUT,
+    CONNECTION_FAILED,
+    //origin is considered unhealthy, request wasn't sent
+    CIRCUIT_OPEN,
+    //local limits are exhausted, request wasn't sent
+    REJECTED,
+    INVALID_URL;
+
+    /**
+     * @return true if outcome says origin is unhealthy, counted by circuit breaker
+     */
+    public boolean isOriginFailure() {
+      return this == SERVER_ERROR || this == TIMEOUT || this == CONNECTION_FAILED;
+    }
+  }
+
+}
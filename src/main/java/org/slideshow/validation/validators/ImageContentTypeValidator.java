@@ -1,29 +1,93 @@
 package org.slideshow.validation.validators;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
+import org.slideshow.config.ImageValidationProperties;
+import org.slideshow.model.projection.ImageMetadata;
 import org.slideshow.validation.SupportedImageType;
+import org.slideshow.validation.probe.ImageProbeClient;
+import org.slideshow.validation.probe.ImageProbeException;
+import org.slideshow.validation.probe.ImageProbeResult.ProbeOutcome;
 import org.springframework.stereotype.Component;
-import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+
 @Slf4j
 @Component
 public class ImageContentTypeValidator {
 
-  private final WebClient webClient;
+  public static final String CACHE_NAME = "image-content-type";
+
+  private final ImageProbeClient probeClient;
+  private final AsyncCache<String, ProbedImage> validationCache;
+
+  public ImageContentTypeValidator(ImageProbeClient probeClient,
+                                   ImageValidationProperties properties,
+                                   MeterRegistry meterRegistry) {
+    this.probeClient = probeClient;
 
-  public ImageContentTypeValidator(WebClient.Builder webClientBuilder) {
-    this.webClient = webClientBuilder.baseUrl("").build();
+    ImageValidationProperties.ContentTypeCache cacheProperties = properties.contentTypeCache();
+    this.validationCache = Caffeine.newBuilder()
+            .maximumSize(cacheProperties.maximumSize())
+            .expireAfter(new ValidationResultExpiry(cacheProperties.positiveTtl(), cacheProperties.negativeTtl()))
+            .recordStats()
+            .buildAsync();
+    //publishes cache.gets{result=hit|miss}, cache.evictions and cache.size
+    CaffeineCacheMetrics.monitor(meterRegistry, validationCache, CACHE_NAME);
   }
 
+  /**
+   * @param imageUrl image url
+   * @return true if origin answered with supported image, {@link ImageProbeException} if origin gave no answer
+   */
   public Mono<Boolean> validateImageUrl(String imageUrl) {
-    return webClient.head()//send head request to retrieve just lightweight headers
-            .uri(imageUrl)
-            .exchangeToMono(response -> {
-              String contentType = response.headers().contentType().map(Object::toString).orElse(null);
-              return Mono.just(contentType != null && isSupported(contentType));
-            })
-            .onErrorResume(e -> Mono.just(false));
+    return probe(imageUrl).map(ProbedImage::valid);
+  }
+
+  /**
+   * Returns metadata of image probed by validation of its url. Image which was just validated
+   * is served from cache, so creation of image doesn't send more requests to origin.
+   *
+   * @param imageUrl image url
+   * @return probed metadata, unknown if url isn't valid image
+   */
+  public Mono<ImageMetadata> findMetadata(String imageUrl) {
+    return probe(imageUrl).map(probed -> probed.valid() ? probed.metadata() : ImageMetadata.UNKNOWN);
+  }
+
+  public CacheStats cacheStats() {
+    return validationCache.synchronous().stats();
+  }
+
+  private Mono<ProbedImage> probe(String imageUrl) {
+    //concurrent validations of the same url share single in-flight probe.
+    //cancellation of one caller must not cancel shared probe, so it's suppressed
+    return Mono.fromFuture(() -> validationCache.get(imageUrl, (url, executor) -> requestImage(url).toFuture()),
+            true);
+  }
+
+  //only answer of origin is cached: failed probe completes the cached future exceptionally,
+  //so the entry is dropped and the next validation probes again instead of reporting invalid image for negative-ttl
+  private Mono<ProbedImage> requestImage(String imageUrl) {
+    return probeClient.probe(imageUrl)
+            .flatMap(result -> isConclusive(result.outcome())
+                    ? Mono.just(new ProbedImage(result.outcome() == ProbeOutcome.OK
+                    && result.contentType() != null
+                    && isSupported(result.contentType()), result.metadata()))
+                    : Mono.error(new ImageProbeException(result.outcome())))
+            .onErrorMap(e -> !(e instanceof ImageProbeException),
+                    e -> new ImageProbeException(ProbeOutcome.CONNECTION_FAILED, e));
+  }
+
+  //origin answered, or url can never be probed
+  private static boolean isConclusive(ProbeOutcome outcome) {
+    return outcome == ProbeOutcome.OK || outcome == ProbeOutcome.CLIENT_ERROR || outcome == ProbeOutcome.INVALID_URL;
   }
 
   // This method should validate image content type.
@@ -36,4 +100,26 @@ public class ImageContentTypeValidator {
     return SupportedImageType.isTypeSupported(contentType);
   }
 
+  private record ProbedImage(boolean valid, ImageMetadata metadata) {
+  }
+
+  private record ValidationResultExpiry(Duration positiveTtl, Duration negativeTtl)
+          implements Expiry<String, ProbedImage> {
+
+    @Override
+    public long expireAfterCreate(String url, ProbedImage image, long currentTime) {
+      return (image.valid() ? positiveTtl : negativeTtl).toNanos();
+    }
+
+    @Override
+    public long expireAfterUpdate(String url, ProbedImage image, long currentTime, long currentDuration) {
+      return expireAfterCreate(url, image, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(String url, ProbedImage image, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
+  }
+
 }
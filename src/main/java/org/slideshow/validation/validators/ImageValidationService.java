@@ -1,18 +1,24 @@
 package org.slideshow.validation.validators;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.slideshow.model.domain.ImageEntity;
 import org.slideshow.model.dto.request.ImageDetailsRequestDTO;
-import org.slideshow.model.dto.request.SlideshowRequestDTO;
+import org.slideshow.model.projection.ImageMetadata;
 import org.slideshow.service.ImageService;
 import org.slideshow.validation.ValidationError;
 import org.slideshow.validation.ValidationErrorCodes;
+import org.slideshow.validation.probe.ImageProbeException;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 import static org.slideshow.validation.ValidationErrorCodes.INTERNAL_VALIDATION_ERROR;
 
@@ -22,57 +28,22 @@ import static org.slideshow.validation.ValidationErrorCodes.INTERNAL_VALIDATION_
 public class ImageValidationService {
 
   public static final String IMAGE_ID_KEY = "id";
-  public static final String IMAGE_HASH_KEY = "hash";
 
   public static final String IMAGE_ID_PLACEHOLDER = "{id}";
   public static final String IMAGE_LENGTH_PLACEHOLDER = "{length}";
   public static final String INVALID_VALUE_KEY = "invalidValue";
+  public static final String PROBE_OUTCOME_KEY = "probeOutcome";
+
+  //image.validation{stage, outcome}: url stage includes content_type stage of the same url
+  public static final String STAGE_TIMER = "image.validation";
+  public static final String EXISTENCE_STAGE = "existence";
+  public static final String URL_STAGE = "url";
+  public static final String CONTENT_TYPE_STAGE = "content_type";
+  public static final String DURATION_STAGE = "duration";
 
   private final ImageService imageService;
   private final ImageContentTypeValidator imageContentTypeValidator;
-
-  public Mono<List<ValidationError>> validateImages(Mono<SlideshowRequestDTO> request) {
-    if (request == null) {
-      return Mono.just(
-              List.of(new ValidationError(
-                      ValidationErrorCodes.EMPTY_LIST.getCode(),
-                      ValidationErrorCodes.EMPTY_LIST.getDefaultMessage(),
-                      new HashMap<>())
-              )
-      );
-    }
-
-    Mono<List<ValidationError>> imagesExistenceErrors = validateImagesExistence(request);
-
-    Mono<List<ValidationError>> imagesIntegrityErrors = request
-            .flatMapMany(r -> Flux.fromIterable(r.images()))
-            .flatMap(image -> validateImageIntegrity(Mono.just(image)))
-            .collectList();
-
-
-    return collectErrors(imagesExistenceErrors, imagesIntegrityErrors);
-  }
-
-  private Mono<List<ValidationError>> collectErrors(Mono<List<ValidationError>> imagesExistenceErrors,
-                                                    Mono<List<ValidationError>> imagesIntegrityErrors) {
-    return Mono.zip(imagesExistenceErrors, imagesIntegrityErrors)
-            .map(tuple -> {
-              List<ValidationError> combinedErrors = new ArrayList<>();
-              combinedErrors.addAll(tuple.getT1());
-              combinedErrors.addAll(tuple.getT2());
-              return combinedErrors;
-            })
-            .switchIfEmpty(Mono.just(List.of()))
-            .onErrorResume(e -> {
-              log.error("Error on validating images: {}", e.getMessage());
-
-              return Mono.just(List.of(new ValidationError(
-                      INTERNAL_VALIDATION_ERROR.getCode(),
-                      INTERNAL_VALIDATION_ERROR.getDefaultMessage() + e.getMessage(),
-                      Map.of("exception", e.getClass().getSimpleName()))
-              ));
-            });
-  }
+  private final MeterRegistry meterRegistry;
 
   public Flux<ValidationError> validateImageIntegrity(Mono<ImageDetailsRequestDTO> image) {
     return image.flatMapMany(img -> {
@@ -92,24 +63,24 @@ public class ImageValidationService {
   }
 
   public Flux<ValidationError> validateDTODuration(Mono<ImageDetailsRequestDTO> image) {
-    return image.flatMapMany(img -> {
+    return timed(DURATION_STAGE, image.flatMapMany(img -> {
       Short duration = img.duration();
 
       if (duration == null || duration < 1 || duration > 300) {
         return Flux.just(new ValidationError(
                 ValidationErrorCodes.INVALID_IMAGE_DURATION.getCode(),
                 ValidationErrorCodes.INVALID_IMAGE_DURATION.getDefaultMessage(),
-                Map.of(IMAGE_HASH_KEY, img.hashCode(), INVALID_VALUE_KEY, String.valueOf(duration))
+                Map.of(INVALID_VALUE_KEY, String.valueOf(duration))
 
         ));
       }
       return Flux.empty();
-    });
+    }));
 
   }
 
   public Mono<ValidationError> validateDuration(Mono<Short> duration) {
-    return duration.flatMap(dur -> {
+    return timed(DURATION_STAGE, duration.flatMap(dur -> {
       if (dur == null || dur < 1 || dur > 300) {
         return Mono.just(new ValidationError(
                 ValidationErrorCodes.INVALID_IMAGE_DURATION.getCode(),
@@ -119,19 +90,19 @@ public class ImageValidationService {
         ));
       }
       return Mono.empty();
-    });
+    }));
 
   }
 
   public Flux<ValidationError> validateDTOUrl(Mono<ImageDetailsRequestDTO> image) {
-    return image.flatMapMany(img -> {
+    return timed(URL_STAGE, image.flatMapMany(img -> {
       String url = img.url();
 
       if (url == null || url.isBlank()) {
         return Flux.just(new ValidationError(
                         ValidationErrorCodes.INVALID_IMAGE_URL.getCode(),
                         ValidationErrorCodes.INVALID_IMAGE_URL.getDefaultMessage(),
-                        Map.of(IMAGE_HASH_KEY, img.hashCode())
+                        Map.of()
                 )
         );
       }
@@ -141,12 +112,12 @@ public class ImageValidationService {
                         ValidationErrorCodes.INVALID_IMAGE_URL_LENGTH.getCode(),
                         ValidationErrorCodes.INVALID_IMAGE_URL_LENGTH.getDefaultMessage()
                                 .replace(IMAGE_LENGTH_PLACEHOLDER, String.valueOf(url.length())),
-                        Map.of(IMAGE_HASH_KEY, img.hashCode(), INVALID_VALUE_KEY, String.valueOf(url.length()))
+                        Map.of(INVALID_VALUE_KEY, String.valueOf(url.length()))
                 )
         );
       }
 
-      return imageContentTypeValidator.validateImageUrl(url)
+      return timed(CONTENT_TYPE_STAGE, imageContentTypeValidator.validateImageUrl(url)
               .flatMapMany(isValid -> {
                 if (isValid) {
                   return Flux.empty();
@@ -154,15 +125,17 @@ public class ImageValidationService {
                 return Flux.just(new ValidationError(
                         ValidationErrorCodes.INVALID_IMAGE_TYPE.getCode(),
                         ValidationErrorCodes.INVALID_IMAGE_TYPE.getDefaultMessage(),
-                        Map.of(IMAGE_HASH_KEY, img.hashCode(), INVALID_VALUE_KEY, url)
+                        Map.of(INVALID_VALUE_KEY, url)
                 ));
-              });
-    });
+              }))
+              //content_type stage is timed as error, image is reported with probe error instead of invalid type
+              .onErrorResume(ImageProbeException.class, e -> Flux.just(toProbeError(e)));
+    }));
   }
 
 
   public Mono<ValidationError> validateImageContent(Mono<String> imageUrl) {
-    return imageUrl
+    return timed(CONTENT_TYPE_STAGE, imageUrl
             .flatMap(imageContentTypeValidator::validateImageUrl)
             .flatMap(isValid -> {
               if (isValid) {
@@ -173,11 +146,12 @@ public class ImageValidationService {
                       ValidationErrorCodes.INVALID_IMAGE_TYPE.getDefaultMessage(),
                       null
               ));
-            });
+            }))
+            .onErrorResume(ImageProbeException.class, e -> Mono.just(toProbeError(e)));
   }
 
   public Mono<ValidationError> validateUrl(Mono<String> imageUrl) {
-    return imageUrl.flatMap(url -> {
+    return timed(URL_STAGE, imageUrl.flatMap(url -> {
 
       if (url == null || url.isBlank()) {
         return Mono.just(new ValidationError(
@@ -198,7 +172,7 @@ public class ImageValidationService {
         );
       }
 
-      return imageContentTypeValidator.validateImageUrl(url)
+      return timed(CONTENT_TYPE_STAGE, imageContentTypeValidator.validateImageUrl(url)
               .flatMap(isValid -> {
                 if (isValid) {
                   return Mono.empty();
@@ -208,76 +182,92 @@ public class ImageValidationService {
                         ValidationErrorCodes.INVALID_IMAGE_TYPE.getDefaultMessage(),
                         null
                 ));
-              });
+              }))
+              .onErrorResume(ImageProbeException.class, e -> Mono.just(toProbeError(e)));
 
-    });
+    }));
+  }
+
+  //image isn't reported as invalid when origin didn't answer, client may retry it later
+  private static ValidationError toProbeError(ImageProbeException e) {
+    return new ValidationError(
+            INTERNAL_VALIDATION_ERROR.getCode(),
+            INTERNAL_VALIDATION_ERROR.getDefaultMessage() + e.getMessage(),
+            Map.of(PROBE_OUTCOME_KEY, e.getOutcome().name()));
   }
 
   /**
-   * Method checks if specified image ids are present in DB
-   *
-   * @param imageIds ids for check
-   * @return ValidationError list or empty
+   * @param imageUrl url of image which passed validation
+   * @return metadata probed from origin by validation of url
    */
-  private Mono<List<ValidationError>> validateImageExistenceById(List<Long> imageIds) {
-    return Flux.fromIterable(imageIds)
-            .filter(Objects::nonNull)
-            .distinct()// Remove possible duplicates
-            .collectList()
-            .flatMapMany(imageService::findImagesById)
-            .map(ImageEntity::getId)
-            .collectList()
-            .map(foundIds -> {
-              List<Long> missingIds = imageIds
-                      .stream()
-                      .filter(id -> !foundIds.contains(id))
-                      .toList();
-
-              return missingIds.stream()
-                      .map(missingId ->
-                              new ValidationError(
-                                      ValidationErrorCodes.INVALID_IMAGE_INSTANCE_ID.getCode(),
-                                      ValidationErrorCodes.INVALID_IMAGE_INSTANCE_ID.getDefaultMessage()
-                                              .replace(IMAGE_ID_PLACEHOLDER, String.valueOf(missingId)),
-                                      Map.of(IMAGE_ID_KEY, missingId)
-                              )
-                      )
-                      .toList();
-
-
-            })
-            .switchIfEmpty(Mono.just(List.of()))
-            .onErrorResume(e -> {
-              log.error("Error on retrieving images: {}", e.getMessage());
-              return Mono.just(List.of(new ValidationError(
-                      INTERNAL_VALIDATION_ERROR.getCode(),
-                      INTERNAL_VALIDATION_ERROR.getDefaultMessage() + e.getMessage(),
-                      Map.of("exception", e.getClass().getSimpleName()))
-              ));
-            });
+  public Mono<ImageMetadata> findImageMetadata(String imageUrl) {
+    return imageContentTypeValidator.findMetadata(imageUrl);
   }
 
   /**
-   * Act same as CustomImageValidator#validateImageExistenceById(java.util.List),
-   * but extract image ids from SlideshowRequestDTO
+   * Looks up which of images referenced by id exist, with single query for all of them
    *
-   * @param request SlideshowRequestDTO as payload
-   * @return ValidationError list or empty
+   * @param images images of request
+   * @return ids of existing images
    */
-  public Mono<List<ValidationError>> validateImagesExistence(Mono<SlideshowRequestDTO> request) {
-
-    return request
-            .flatMap(r -> {
-              List<Long> imageIds = r.images()
-                      .stream()
-                      .map(ImageDetailsRequestDTO::id)
-                      .filter(Objects::nonNull)
-                      .distinct() // Remove possible duplicates
-                      .toList();
-
-              return validateImageExistenceById(imageIds);
-            })
-            .switchIfEmpty(Mono.just(List.of()));
+  public Mono<Set<Long>> findExistingImageIds(List<ImageDetailsRequestDTO> images) {
+    List<Long> imageIds = images.stream()
+            .filter(Objects::nonNull)
+            .map(ImageDetailsRequestDTO::id)
+            .filter(Objects::nonNull)
+            .distinct()
+            .toList();
+
+    if (imageIds.isEmpty()) {
+      return Mono.just(Set.of());
+    }
+
+    return timed(EXISTENCE_STAGE, imageService.findImagesById(imageIds)
+            .map(ImageEntity::getId)
+            .collect(Collectors.toSet()), found -> found.size() < imageIds.size());
+  }
+
+  public Optional<ValidationError> validateImageExistence(Long imageId, Set<Long> existingImageIds) {
+    if (existingImageIds.contains(imageId)) {
+      return Optional.empty();
+    }
+    return Optional.of(new ValidationError(
+            ValidationErrorCodes.INVALID_IMAGE_INSTANCE_ID.getCode(),
+            ValidationErrorCodes.INVALID_IMAGE_INSTANCE_ID.getDefaultMessage()
+                    .replace(IMAGE_ID_PLACEHOLDER, String.valueOf(imageId)),
+            Map.of(IMAGE_ID_KEY, imageId)
+    ));
+  }
+
+  private Flux<ValidationError> timed(String stage, Flux<ValidationError> check) {
+    return Flux.defer(() -> {
+      Timer.Sample sample = Timer.start(meterRegistry);
+      AtomicBoolean invalid = new AtomicBoolean();
+      return check
+              .doOnNext(error -> invalid.set(true))
+              .doOnComplete(() -> sample.stop(stageTimer(stage, invalid.get() ? "invalid" : "valid")))
+              .doOnError(e -> sample.stop(stageTimer(stage, "error")));
+    });
+  }
+
+  private Mono<ValidationError> timed(String stage, Mono<ValidationError> check) {
+    return timed(stage, check.flux()).singleOrEmpty();
+  }
+
+  private <T> Mono<T> timed(String stage, Mono<T> lookup, Predicate<T> invalid) {
+    return Mono.defer(() -> {
+      Timer.Sample sample = Timer.start(meterRegistry);
+      return lookup
+              .doOnNext(result -> sample.stop(stageTimer(stage, invalid.test(result) ? "invalid" : "valid")))
+              .doOnError(e -> sample.stop(stageTimer(stage, "error")));
+    });
+  }
+
+  private Timer stageTimer(String stage, String outcome) {
+    return Timer.builder(STAGE_TIMER)
+            .tag("stage", stage)
+            .tag("outcome", outcome)
+            .register(meterRegistry);
   }
 
 }
\ No newline at end of file
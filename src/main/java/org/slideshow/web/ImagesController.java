@@ -1,28 +1,42 @@
 package org.slideshow.web;
 
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.slideshow.model.domain.ImageEntity;
 import org.slideshow.model.dto.request.ImageCreateRequestDTO;
+import org.slideshow.model.dto.request.ImageDeleteRequestDTO;
+import org.slideshow.model.dto.response.ImageBulkDeleteResponseDTO;
 import org.slideshow.model.dto.response.ImageCreationResponseDTO;
+import org.slideshow.model.dto.response.ImageImportResultDTO;
 import org.slideshow.model.dto.response.ImageResponseDTO;
 import org.slideshow.model.dto.response.ValidationErrorResponseDTO;
+import org.slideshow.model.mapper.ImageMapper;
+import org.slideshow.model.projection.ImageProjection;
+import org.slideshow.model.projection.ImageSearchCursor;
+import org.slideshow.model.projection.ImageSearchMode;
+import org.slideshow.service.ImageImportFacade;
 import org.slideshow.service.ImageService;
 import org.slideshow.service.SlideshowServiceFacade;
 import org.slideshow.validation.ImageValidationException;
 import org.slideshow.validation.ImagesValidationFacade;
 import org.slideshow.validation.validators.ImageValidationService;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
+import java.util.Optional;
 
 import static org.slideshow.validation.ValidationErrorCodes.INTERNAL_SERVER_ERROR;
+import static org.slideshow.web.SharedConstants.DEFAULT_SEARCH_PAGE_SIZE;
 import static org.slideshow.web.SharedConstants.IMAGES_API_PATH;
+import static org.slideshow.web.SharedConstants.MAX_BULK_DELETE_SIZE;
+import static org.slideshow.web.SharedConstants.MAX_SEARCH_PAGE_SIZE;
+import static org.slideshow.web.SharedConstants.NEXT_CURSOR_HEADER;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -31,10 +45,10 @@ import static org.slideshow.web.SharedConstants.IMAGES_API_PATH;
 public class ImagesController {
 
   private final ImageService imageService;
-  private final ObjectMapper objectMapper;
   private final ImageValidationService validator;
   private final ImagesValidationFacade validationFacade;
   private final SlideshowServiceFacade slideshowServiceFacade;
+  private final ImageImportFacade imageImportFacade;
 
   @PostMapping
   public Mono<ResponseEntity<ImageCreationResponseDTO>> createImage(@RequestBody Mono<ImageCreateRequestDTO> request) {
@@ -42,11 +56,12 @@ public class ImagesController {
                     validationFacade.validateRequest(r)
                             .flatMap(error -> Mono.error(new ImageValidationException(error)))
                             .switchIfEmpty(Mono.just(r))//transfer request data to downstream if no errors found
-                            .flatMap(data ->
-                                    imageService.createImage(Mono.just(objectMapper.convertValue(data, ImageEntity.class)))
-                                            .map(image -> ResponseEntity.status(HttpStatus.CREATED).body(
-                                                    new ImageCreationResponseDTO(image.getId(), image.getUrl(), image.getDuration(), null)
-                                            ))
+                            //image is stored with metadata probed by validation of its url
+                            .flatMap(data -> validationFacade.findImageMetadata(data.url())
+                                    .flatMap(metadata ->
+                                            imageService.createImage(Mono.just(ImageMapper.toEntity(data, metadata))))
+                                    .map(image -> ResponseEntity.status(HttpStatus.CREATED)
+                                            .body(ImageMapper.toCreationResponse(image)))
                             )
             )
             .onErrorResume(ImageValidationException.class,
@@ -63,24 +78,105 @@ public class ImagesController {
                     ))));
   }
 
+  //Imports newline-delimited stream of images, result of every image is streamed back while upload is in progress
+  @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+          produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public Flux<ImageImportResultDTO> importImages(@RequestBody Flux<ImageCreateRequestDTO> images) {
+    return imageImportFacade.importImages(images);
+  }
+
+  //Returns one page of images, cursor of the next page is returned in X-Next-Cursor header while more images exist
   @GetMapping("/search")
   public Mono<ResponseEntity<List<ImageResponseDTO>>> searchImages(
           @RequestParam(value = "keyword", required = false) String keyword,
-          @RequestParam(value = "duration", required = false) Integer duration) {
-
-    return imageService.findByKeywordAndDuration(keyword, duration)
-            .map(imageProjection -> new ImageResponseDTO(
-                    imageProjection.id(),
-                    imageProjection.url(),
-                    imageProjection.duration()
-            ))
+          @RequestParam(value = "duration", required = false) Integer duration,
+          @RequestParam(value = "mode", defaultValue = "FULLTEXT") ImageSearchMode mode,
+          @RequestParam(value = "cursor", required = false) String cursor,
+          @RequestParam(value = "limit", defaultValue = "" + DEFAULT_SEARCH_PAGE_SIZE) int limit) {
+
+    if (limit < 1 || limit > MAX_SEARCH_PAGE_SIZE) {
+      return Mono.just(ResponseEntity.badRequest().build());
+    }
+
+    return Mono.fromCallable(() -> decodeCursor(cursor))
+            //one extra image tells whether next page exists
+            .flatMap(after -> imageService
+                    .findByKeywordAndDuration(keyword, duration, mode, after.orElse(null), limit + 1)
+                    .collectList())
+            .map(images -> {
+              ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+              List<ImageProjection> page = images;
+              if (images.size() > limit) {
+                page = images.subList(0, limit);
+                response.header(NEXT_CURSOR_HEADER, ImageSearchCursor.after(page.get(limit - 1)).encode());
+              }
+              return response.body(page.stream().map(ImageMapper::toResponse).toList());
+            })
+            .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().build()))
+            .onErrorResume(e -> Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build()));
+  }
+
+  //Streams all matching images as they are read from database, memory doesn't depend on size of result
+  @GetMapping(value = "/search/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public Flux<ImageResponseDTO> streamImages(
+          @RequestParam(value = "keyword", required = false) String keyword,
+          @RequestParam(value = "duration", required = false) Integer duration,
+          @RequestParam(value = "mode", defaultValue = "FULLTEXT") ImageSearchMode mode,
+          @RequestParam(value = "cursor", required = false) String cursor) {
+
+    return Mono.fromCallable(() -> decodeCursor(cursor))
+            .onErrorMap(IllegalArgumentException.class,
+                    e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e))
+            .flatMapMany(after -> imageService.streamByKeywordAndDuration(keyword, duration, mode, after.orElse(null)))
+            .map(ImageMapper::toResponse);
+  }
+
+  //Returns up to limit images matching most words of keyword, best matches first
+  @GetMapping("/search/top")
+  public Mono<ResponseEntity<List<ImageResponseDTO>>> searchTopImages(
+          @RequestParam(value = "keyword") String keyword,
+          @RequestParam(value = "duration", required = false) Integer duration,
+          @RequestParam(value = "limit", defaultValue = "" + DEFAULT_SEARCH_PAGE_SIZE) int limit) {
+
+    if (keyword.isBlank() || limit < 1 || limit > MAX_SEARCH_PAGE_SIZE) {
+      return Mono.just(ResponseEntity.badRequest().build());
+    }
+
+    return imageService.findTopRankedByKeyword(keyword, duration, limit)
+            .map(ImageMapper::toResponse)
             .collectList()
-            .flatMap(images -> Mono.just(ResponseEntity.ok(images)))
+            .map(ResponseEntity::ok)
             .onErrorResume(e -> Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build()));
   }
 
+  //Deletes images and removes them from slideshows in one transaction, reports outcome of every requested id
+  @DeleteMapping
+  public Mono<ResponseEntity<ImageBulkDeleteResponseDTO>> deleteImages(
+          @RequestBody Mono<ImageDeleteRequestDTO> request) {
+
+    return request
+            .flatMap(r -> {
+              if (r.ids() == null || r.ids().isEmpty() || r.ids().size() > MAX_BULK_DELETE_SIZE
+                      || r.ids().contains(null)) {
+                return Mono.just(ResponseEntity.badRequest().<ImageBulkDeleteResponseDTO>build());
+              }
+              List<Long> ids = r.ids().stream().distinct().toList();
+              return slideshowServiceFacade.deleteImagesAndUpdateSlideshows(ids)
+                      .map(result -> ResponseEntity.ok(ImageMapper.toBulkDeleteResponse(ids, result)));
+            })
+            .switchIfEmpty(Mono.just(ResponseEntity.badRequest().build()))
+            .onErrorResume(e -> {
+              log.error("An error occurred while deleting images", e);
+              return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
+            });
+  }
+
   @DeleteMapping("/{id}")
   public Mono<Void> deleteById(@PathVariable Long id) {
     return slideshowServiceFacade.deleteImageAndUpdateSlideshow(Mono.just(id));
   }
+
+  private Optional<ImageSearchCursor> decodeCursor(String cursor) {
+    return Optional.ofNullable(cursor).map(ImageSearchCursor::decode);
+  }
 }
@@ -0,0 +1,77 @@
+package org.slideshow.web;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.slideshow.model.dto.response.ProofOfPlayHourlyResponseDTO;
+import org.slideshow.model.mapper.ProofOfPlayEventMapper;
+import org.slideshow.model.projection.ProofOfPlayHourlyProjection;
+import org.slideshow.service.ProofOfPlayReportService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.slideshow.web.SharedConstants.MAX_REPORT_RANGE_DAYS;
+import static org.slideshow.web.SharedConstants.PROOF_OF_PLAY_API_PATH;
+
+@Slf4j
+@RequiredArgsConstructor
+@RestController
+@RequestMapping(PROOF_OF_PLAY_API_PATH)
+public class ProofOfPlayReportController {
+
+  private final ProofOfPlayReportService reportService;
+
+  //GET /proof-of-play/slideshows/{id}/hourly: plays of every image of slideshow per hour (UTC) in [from, to)
+  @GetMapping("/slideshows/{id}/hourly")
+  public Mono<ResponseEntity<List<ProofOfPlayHourlyResponseDTO>>> getSlideshowHourlyPlays(
+          @PathVariable("id") Long id,
+          @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+          @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+
+    if (!isValidRange(from, to)) {
+      return Mono.just(ResponseEntity.badRequest().build());
+    }
+    return toResponse(reportService.getHourlyPlaysBySlideshow(id, from, to));
+  }
+
+  //GET /proof-of-play/images/{id}/hourly: plays of image in every slideshow per hour (UTC) in [from, to)
+  @GetMapping("/images/{id}/hourly")
+  public Mono<ResponseEntity<List<ProofOfPlayHourlyResponseDTO>>> getImageHourlyPlays(
+          @PathVariable("id") Long id,
+          @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+          @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+
+    if (!isValidRange(from, to)) {
+      return Mono.just(ResponseEntity.badRequest().build());
+    }
+    return toResponse(reportService.getHourlyPlaysByImage(id, from, to));
+  }
+
+  //range is bounded, so size of report is bounded by number of hours and images
+  private boolean isValidRange(LocalDateTime from, LocalDateTime to) {
+    return from.isBefore(to) && !to.isAfter(from.plusDays(MAX_REPORT_RANGE_DAYS));
+  }
+
+  private Mono<ResponseEntity<List<ProofOfPlayHourlyResponseDTO>>> toResponse(
+          Flux<ProofOfPlayHourlyProjection> rollups) {
+    return rollups
+            .map(ProofOfPlayEventMapper::toResponse)
+            .collectList()
+            .map(ResponseEntity::ok)
+            .onErrorResume(e -> {
+              log.error("An error occurred while reading proof-of-play report", e);
+              return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
+            });
+  }
+
+}
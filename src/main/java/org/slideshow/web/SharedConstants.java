@@ -5,5 +5,14 @@ public class SharedConstants {
   public static final String API_V1_PATH = "/api/v1";
   public static final String SLIDESHOW_API_PATH = API_V1_PATH + "/slideshow";
   public static final String IMAGES_API_PATH = API_V1_PATH + "/images";
+  public static final String PROOF_OF_PLAY_API_PATH = API_V1_PATH + "/proof-of-play";
+
+  public static final int DEFAULT_SEARCH_PAGE_SIZE = 100;
+  public static final int MAX_SEARCH_PAGE_SIZE = 1000;
+  public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+  public static final int MAX_BULK_DELETE_SIZE = 1000;
+
+  public static final int MAX_REPORT_RANGE_DAYS = 31;
 
 }
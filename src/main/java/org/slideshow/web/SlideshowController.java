@@ -1,31 +1,43 @@
 package org.slideshow.web;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.slideshow.ingest.ProofOfPlayIngestException;
 import org.slideshow.model.domain.ImageEntity;
-import org.slideshow.model.domain.ProofOfPlayEventEntity;
-import org.slideshow.model.dto.request.ImageDetailsRequestDTO;
 import org.slideshow.model.dto.request.ProofOfPlayEventDTO;
 import org.slideshow.model.dto.request.SlideshowRequestDTO;
+import org.slideshow.model.dto.response.SlideshowChangeResponseDTO;
 import org.slideshow.model.dto.response.SlideshowResponseDTO;
 import org.slideshow.model.dto.response.ValidationErrorResponseDTO;
+import org.slideshow.model.mapper.ImageMapper;
+import org.slideshow.model.mapper.ProofOfPlayEventMapper;
+import org.slideshow.model.mapper.SlideshowMapper;
+import org.slideshow.model.mapper.ValidationErrorMapper;
+import org.slideshow.model.projection.SlideshowChange;
 import org.slideshow.service.ProofOfPlayEventService;
 import org.slideshow.service.SlideshowService;
 import org.slideshow.service.SlideshowServiceFacade;
+import org.slideshow.service.admission.AdaptiveConcurrencyLimiter;
+import org.slideshow.service.admission.AdaptiveConcurrencyLimiter.Priority;
+import org.slideshow.service.admission.AdmissionRejectedException;
+import org.slideshow.service.notification.SlideshowChangeNotifier;
+import org.slideshow.validation.ImageValidationResult;
 import org.slideshow.validation.ImagesValidationFacade;
-import org.slideshow.validation.ValidationError;
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import static org.slideshow.validation.ValidationErrorCodes.EMPTY_LIST;
 import static org.slideshow.validation.ValidationErrorCodes.INTERNAL_SERVER_ERROR;
-import static org.slideshow.validation.ValidationUtils.filterValidImages;
 import static org.slideshow.web.SharedConstants.SLIDESHOW_API_PATH;
 import static org.springframework.http.HttpStatus.NO_CONTENT;
 
@@ -35,11 +47,14 @@ import static org.springframework.http.HttpStatus.NO_CONTENT;
 @RequestMapping(SLIDESHOW_API_PATH)
 public class SlideshowController {
 
-  private final ObjectMapper objectMapper;
+  private static final String SLIDESHOW_DELETED_EVENT = SlideshowChange.Type.DELETED.name().toLowerCase();
+
   private final SlideshowService slideshowService;
   private final SlideshowServiceFacade slideshowFacade;
   private final ImagesValidationFacade validationFacade;
   private final ProofOfPlayEventService proofOfPlayEventService;
+  private final SlideshowChangeNotifier changeNotifier;
+  private final AdaptiveConcurrencyLimiter admissionLimiter;
 
   /**
    * One of the possible implementations, depends on contract and business logic.
@@ -53,24 +68,23 @@ public class SlideshowController {
   public Mono<ResponseEntity<SlideshowResponseDTO>> createSlideshow(@RequestBody Mono<SlideshowRequestDTO> request) {
 
     return request.flatMap(r -> {
-              Flux<ImageDetailsRequestDTO> images = Flux.fromIterable(r.images());
-
-              Flux<ValidationError> validationErrors = validationFacade
-                      .validateImages(Mono.just(r))
-                      .flatMapMany(Flux::fromIterable);
-
-              Flux<ValidationErrorResponseDTO> validationErrorResponses = validationErrors
-                      .map(error -> new ValidationErrorResponseDTO(error.code(), error.message()));
+              if (r.images() == null || r.images().isEmpty()) {
+                return Mono.just(ResponseEntity.badRequest().body(new SlideshowResponseDTO(null, null,
+                        List.of(new ValidationErrorResponseDTO(EMPTY_LIST.getCode(), EMPTY_LIST.getDefaultMessage())))));
+              }
 
-              Flux<ImageDetailsRequestDTO> validImages = filterValidImages(images, validationErrors);
-
-              return Mono.zip(
-                              validImages.collectList(),
-                              validationErrorResponses.collectList()
-                      )
-                      .flatMap(tuple -> {
-                        List<ImageDetailsRequestDTO> validImagesList = tuple.getT1();
-                        List<ValidationErrorResponseDTO> errors = tuple.getT2();
+              return validationFacade.validateSlideshowImages(r)
+                      .flatMap(results -> {
+                        //results are per image, so valid images and errors are split in single pass
+                        List<ImageValidationResult> validImagesList = new ArrayList<>(results.size());
+                        List<ValidationErrorResponseDTO> errors = new ArrayList<>();
+                        for (ImageValidationResult result : results) {
+                          if (result.isValid()) {
+                            validImagesList.add(result);
+                          } else {
+                            result.errors().forEach(error -> errors.add(ValidationErrorMapper.toResponse(error)));
+                          }
+                        }
 
                         //any valid image present
                         if (validImagesList.isEmpty()) {
@@ -82,13 +96,8 @@ public class SlideshowController {
                         }
 
                         return slideshowFacade.createSlideshow(convertToImageEntityList(validImagesList))
-                                .map(slideshowProjection -> ResponseEntity.ok().body(
-                                        new SlideshowResponseDTO(slideshowProjection.slideshowId(),
-                                                objectMapper.convertValue(slideshowProjection.images(),
-                                                        new TypeReference<>() {
-                                                        }),
-                                                errors)
-                                ));
+                                .map(slideshowProjection -> ResponseEntity.ok()
+                                        .body(SlideshowMapper.toResponse(slideshowProjection, errors)));
 
                       });
 
@@ -120,17 +129,31 @@ public class SlideshowController {
 
 
   //GET /slideShow/{id}/slideshowOrder: Retrieve images in a slideshow ordered by image addition date IN DESC order.
+  //Response carries version of slideshow as strong ETag. Request with matching If-None-Match gets 304
+  //after version lookup only, without reading images and serializing them
   @GetMapping("/{id}/slideshowOrder")
-  public Mono<ResponseEntity<SlideshowResponseDTO>> getSlideshow(@PathVariable("id") Long id) {
-
-    return slideshowService.getSlideshowById(id)
-            .map(slideshowProjection -> ResponseEntity.ok().body(
-                    new SlideshowResponseDTO(slideshowProjection.slideshowId(),
-                            objectMapper.convertValue(slideshowProjection.images(),
-                                    new TypeReference<>() {
-                                    }),
-                            null)
-            ))
+  public Mono<ResponseEntity<SlideshowResponseDTO>> getSlideshow(
+          @PathVariable("id") Long id,
+          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+    Mono<ResponseEntity<SlideshowResponseDTO>> notModified = ifNoneMatch == null
+            ? Mono.empty()
+            : slideshowService.getSlideshowVersion(id)
+                    .filter(version -> matches(ifNoneMatch, version))
+                    .map(version -> ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                            .eTag(toETag(version))
+                            .<SlideshowResponseDTO>build());
+
+    //reads are always admitted, they take capacity which ingest would otherwise get
+    return admissionLimiter.execute(Priority.READ, notModified
+            .switchIfEmpty(Mono.defer(() -> slideshowService.getSlideshowById(id)
+                    .map(slideshowProjection -> {
+                      ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                      if (slideshowProjection.version() != null) {
+                        response.eTag(toETag(slideshowProjection.version()));
+                      }
+                      return response.body(SlideshowMapper.toResponse(slideshowProjection, null));
+                    }))))
             .switchIfEmpty(Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).build()))
             .onErrorResume(e ->
                     Mono.just(
@@ -148,38 +171,96 @@ public class SlideshowController {
                     ));
   }
 
-  //POST /slideShow/{id}/proof-of-play/{imageId}: Record an event when an image is replaced by the next
+  //GET /slideShow/{id}/events: stream of slideshow changes as server-sent events.
+  //Starts with current version, then 'updated' on every change and 'deleted' which ends the stream.
+  //Players refetch slideshow order with If-None-Match on each event instead of polling
+  @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public Mono<ResponseEntity<Flux<ServerSentEvent<SlideshowChangeResponseDTO>>>> streamSlideshowChanges(
+          @PathVariable("id") Long id) {
+
+    return slideshowService.getSlideshowVersion(id)
+            .map(version -> ResponseEntity.ok().body(slideshowChangeEvents(id)))
+            .switchIfEmpty(Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).build()))
+            .onErrorResume(e -> {
+              log.error("An error occurred while subscribing to slideshow {} changes", id, e);
+              return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
+            });
+  }
+
+  //current version is read after subscription to changes, so change made in between isn't lost
+  private Flux<ServerSentEvent<SlideshowChangeResponseDTO>> slideshowChangeEvents(Long id) {
+    Flux<SlideshowChange> changes = Flux.merge(
+            changeNotifier.changes(id),
+            slideshowService.getSlideshowVersion(id)
+                    .map(version -> new SlideshowChange(id, version, SlideshowChange.Type.UPDATED))
+                    .defaultIfEmpty(new SlideshowChange(id, null, SlideshowChange.Type.DELETED)));
+
+    return Flux.merge(
+                    changes.map(SlideshowController::toEvent),
+                    changeNotifier.heartbeats()
+                            .map(tick -> ServerSentEvent.<SlideshowChangeResponseDTO>builder()
+                                    .comment("heartbeat")
+                                    .build()))
+            .takeUntil(event -> SLIDESHOW_DELETED_EVENT.equals(event.event()));
+  }
+
+  private static ServerSentEvent<SlideshowChangeResponseDTO> toEvent(SlideshowChange change) {
+    ServerSentEvent.Builder<SlideshowChangeResponseDTO> event = ServerSentEvent
+            .builder(SlideshowMapper.toResponse(change))
+            .event(change.type().name().toLowerCase());
+    if (change.version() != null) {
+      event.id(String.valueOf(change.version()));
+    }
+    return event.build();
+  }
+
+  //POST /slideShow/{id}/proof-of-play/{imageId}: Record an event when an image is replaced by the next.
+  //Events without userId or displayedAt are rejected with 400.
+  //Events above adaptive concurrency limit, or above write buffer capacity, are rejected with 429 and Retry-After,
+  //so players retry later instead of piling up calls while database is slow
   @PostMapping("/{id}/proof-of-play/{imageId}")
-  public Mono<Void> logEvent(@PathVariable Long id,
-                             @PathVariable Long imageId,
-                             @RequestBody Mono<ProofOfPlayEventDTO> eventDTOMono) {
+  public Mono<ResponseEntity<Void>> logEvent(@PathVariable Long id,
+                                             @PathVariable Long imageId,
+                                             @RequestBody Mono<ProofOfPlayEventDTO> eventDTOMono) {
     return eventDTOMono
-            .flatMap(dto -> Mono.just(buildProofOfPlayEvent(id, imageId, dto)))
-            .flatMap(event -> proofOfPlayEventService.recordProofOfPlay(Mono.just(event)))
+            .flatMap(dto -> {
+              //user_id is not nullable, event without it is rejected before it's queued.
+              //Missing displayedAt is defaulted to time of insert
+              if (dto.userId() == null) {
+                return Mono.just(ResponseEntity.badRequest().<Void>build());
+              }
+              return admissionLimiter.execute(Priority.INGEST,
+                              proofOfPlayEventService.recordProofOfPlay(
+                                      Mono.just(ProofOfPlayEventMapper.toEntity(id, imageId, dto))))
+                      .then(Mono.just(ResponseEntity.ok().<Void>build()));
+            })
+            .onErrorResume(e -> e instanceof AdmissionRejectedException || e instanceof ProofOfPlayIngestException,
+                    e -> {
+                      log.debug("Proof-of-play event of slideshow {} is rejected: {}", id, e.getMessage());
+                      return Mono.just(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                              .header(HttpHeaders.RETRY_AFTER,
+                                      String.valueOf(admissionLimiter.getRetryAfter().toSeconds()))
+                              .build());
+                    })
             .onErrorResume(e -> {
               log.error("An error occurred while logging event", e);
-              return Mono.empty();
-            })
-            .then();//return empty.
+              return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
+            });
   }
 
-  private ProofOfPlayEventEntity buildProofOfPlayEvent(Long id, Long imageId, ProofOfPlayEventDTO dto) {
-
-    ProofOfPlayEventEntity event = new ProofOfPlayEventEntity();
-    event.setSlideshowId(id);
-    event.setImageId(imageId);
-    event.setUserId(dto.userId());
-    event.setReplacedAt(dto.replacedAt());
-    event.setDisplayedAt(dto.displayedAt());
-    event.setActualDuration(dto.actualDuration());
-
-    return event;
+  private static String toETag(Long version) {
+    return "\"" + version + "\"";
   }
 
-  private Flux<ImageEntity> convertToImageEntityList(List<ImageDetailsRequestDTO> images) {
-    return Mono.just(images)
-            .flatMapMany(Flux::fromIterable)
-            .map(imageDTO -> objectMapper.convertValue(imageDTO, ImageEntity.class));
+  //If-None-Match uses weak comparison, so W/"5" matches version 5 too
+  private static boolean matches(String ifNoneMatch, Long version) {
+    ETag current = ETag.create(toETag(version));
+    return ETag.parse(ifNoneMatch).stream()
+            .anyMatch(tag -> tag.isWildcard() || tag.compare(current, false));
+  }
 
+  //new images are stored with metadata probed by their validation
+  private Flux<ImageEntity> convertToImageEntityList(List<ImageValidationResult> images) {
+    return Flux.fromIterable(images).map(result -> ImageMapper.toEntity(result.image(), result.metadata()));
   }
 }
@@ -0,0 +1,95 @@
+package org.slideshow.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.PoolMetrics;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.R2dbcTimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.Optional;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class GuardedConnectionPoolTest {
+
+  @Mock
+  private ConnectionPool pool;
+
+  @Mock
+  private PoolMetrics metrics;
+
+  @Mock
+  private Connection connection;
+
+  private GuardedConnectionPool guardedPool;
+
+  @BeforeEach
+  public void setUp() {
+    when(pool.getMetrics()).thenReturn(Optional.of(metrics));
+    guardedPool = new GuardedConnectionPool(pool, 2);
+  }
+
+  @Test
+  void create_ShouldAcquireConnectionOfPool() {
+    //prepare
+    when(metrics.pendingAcquireSize()).thenReturn(1);
+    when(pool.create()).thenReturn(Mono.just(connection));
+
+    //execute & verify
+    StepVerifier.create(guardedPool.create())
+            .expectNext(connection)
+            .verifyComplete();
+  }
+
+  @Test
+  void create_ShouldFailFastWhenTooManyRequestsWait() {
+    //prepare
+    when(metrics.pendingAcquireSize()).thenReturn(2);
+    when(metrics.acquiredSize()).thenReturn(20);
+    when(metrics.getMaxAllocatedSize()).thenReturn(20);
+
+    //execute & verify
+    StepVerifier.create(guardedPool.create())
+            .expectErrorMatches(e -> e instanceof DatabasePoolExhaustedException
+                    && e.getMessage().contains("20 of 20 connections in use, 2 requests waiting"))
+            .verify();
+    verify(pool, never()).create();
+  }
+
+  @Test
+  void create_ShouldReportAcquireTimeoutOfExhaustedPool() {
+    //prepare
+    when(metrics.pendingAcquireSize()).thenReturn(0);
+    when(metrics.acquiredSize()).thenReturn(20);
+    when(metrics.getMaxAllocatedSize()).thenReturn(20);
+    when(pool.create()).thenReturn(Mono.error(new R2dbcTimeoutException("Connection acquisition timed out")));
+
+    //execute & verify
+    StepVerifier.create(guardedPool.create())
+            .expectError(DatabasePoolExhaustedException.class)
+            .verify();
+  }
+
+  @Test
+  void create_ShouldKeepTimeoutWhenPoolHasFreeConnections() {
+    //prepare
+    //database doesn't accept connections, pool itself isn't exhausted
+    when(metrics.pendingAcquireSize()).thenReturn(0);
+    when(metrics.acquiredSize()).thenReturn(5);
+    when(metrics.getMaxAllocatedSize()).thenReturn(20);
+    when(pool.create()).thenReturn(Mono.error(new R2dbcTimeoutException("Connection create timed out")));
+
+    //execute & verify
+    StepVerifier.create(guardedPool.create())
+            .expectError(R2dbcTimeoutException.class)
+            .verify();
+  }
+
+}
@@ -0,0 +1,73 @@
+package org.slideshow.config;
+
+import liquibase.integration.spring.SpringLiquibase;
+import org.junit.jupiter.api.Test;
+import org.slideshow.TestcontainersConfiguration;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks skipping of applied Liquibase changelog against real postgres. Skipped when docker is not available.
+ */
+@SpringBootTest
+@Import(TestcontainersConfiguration.class)
+@Testcontainers(disabledWithoutDocker = true)
+public class LiquibaseChecksumGuardTest {
+
+  @Autowired
+  private SpringLiquibase liquibase;
+
+  @Test
+  void migrationShouldSaveChecksumOfChangelog() {
+    //execute
+    String stored = new JdbcTemplate(liquibase.getDataSource())
+            .queryForObject("SELECT checksum FROM schema_changelog_checksum WHERE id = 1", String.class);
+
+    //verify
+    assertEquals(new LiquibaseChecksumGuard(() -> false).checksum(), stored);
+  }
+
+  @Test
+  void appliedChangelogShouldBeSkipped() {
+    //prepare
+    SpringLiquibase next = new SpringLiquibase();
+    next.setDataSource(liquibase.getDataSource());
+
+    //execute
+    new LiquibaseChecksumGuard(() -> true).postProcessBeforeInitialization(next, "liquibase");
+
+    //verify
+    assertFalse(next.isShouldRun());
+  }
+
+  @Test
+  void changedChangelogShouldBeMigrated() throws IOException {
+    //prepare
+    //build without any changelog file has different checksum
+    ResourcePatternResolver resolver = mock(ResourcePatternResolver.class);
+    when(resolver.getResources(anyString())).thenReturn(new Resource[0]);
+    SpringLiquibase next = new SpringLiquibase();
+    next.setDataSource(liquibase.getDataSource());
+
+    //execute
+    new LiquibaseChecksumGuard(() -> true, resolver).postProcessBeforeInitialization(next, "liquibase");
+
+    //verify
+    assertTrue(next.isShouldRun());
+  }
+
+}
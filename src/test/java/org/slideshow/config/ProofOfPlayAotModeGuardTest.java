@@ -0,0 +1,65 @@
+package org.slideshow.config;
+
+import org.junit.jupiter.api.Test;
+import org.slideshow.config.ProofOfPlayIngestProperties.IngestMode;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+
+import java.time.Duration;
+import java.time.Period;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.slideshow.config.ProofOfPlayIngestProperties.Partitioning.Granularity.DAILY;
+import static org.slideshow.config.ProofOfPlayIngestProperties.Partitioning.RetentionAction.DETACH;
+
+public class ProofOfPlayAotModeGuardTest {
+
+  private static ProofOfPlayIngestProperties properties(IngestMode mode) {
+    return new ProofOfPlayIngestProperties(mode,
+            new ProofOfPlayIngestProperties.Batch(500, Duration.ofMillis(20), 4, 20000),
+            new ProofOfPlayIngestProperties.Kafka("proof-of-play-events", 12, (short) 1, Duration.ofSeconds(30),
+                    Duration.ofMinutes(10)),
+            new ProofOfPlayIngestProperties.Rollup(Duration.ofSeconds(10)),
+            new ProofOfPlayIngestProperties.Partitioning(DAILY, 7, Period.ofDays(90), DETACH, Duration.ofHours(1)));
+  }
+
+  private static Resource buildProperties(IngestMode mode) {
+    return new ByteArrayResource((ProofOfPlayAotModeGuard.MODE_PROPERTY + "=" + mode + "\n").getBytes());
+  }
+
+  @Test
+  void afterSingletonsInstantiated_ShouldFailWhenModeDiffersFromBuildMode() {
+    //prepare
+    ProofOfPlayAotModeGuard guard = new ProofOfPlayAotModeGuard(properties(IngestMode.KAFKA),
+            buildProperties(IngestMode.BATCHED), () -> true);
+
+    //execute
+    IllegalStateException e = assertThrows(IllegalStateException.class, guard::afterSingletonsInstantiated);
+
+    //verify
+    assertTrue(e.getMessage().contains("KAFKA differs from mode BATCHED"));
+  }
+
+  @Test
+  void afterSingletonsInstantiated_ShouldPassWhenModeMatchesBuildMode() {
+    //prepare
+    ProofOfPlayAotModeGuard guard = new ProofOfPlayAotModeGuard(properties(IngestMode.KAFKA),
+            buildProperties(IngestMode.KAFKA), () -> true);
+
+    //execute & verify
+    assertDoesNotThrow(guard::afterSingletonsInstantiated);
+  }
+
+  @Test
+  void afterSingletonsInstantiated_ShouldIgnoreBuildModeWithoutAot() {
+    //prepare
+    ProofOfPlayAotModeGuard guard = new ProofOfPlayAotModeGuard(properties(IngestMode.KAFKA),
+            new ClassPathResource("missing.properties"), () -> false);
+
+    //execute & verify
+    assertDoesNotThrow(guard::afterSingletonsInstantiated);
+  }
+}
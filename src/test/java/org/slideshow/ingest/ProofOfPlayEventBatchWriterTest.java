@@ -0,0 +1,169 @@
+package org.slideshow.ingest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slideshow.config.ProofOfPlayIngestProperties;
+import org.slideshow.model.domain.ProofOfPlayEventEntity;
+import org.slideshow.repository.ProofOfPlayEventRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Period;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+import static org.slideshow.config.ProofOfPlayIngestProperties.Partitioning.Granularity.DAILY;
+import static org.slideshow.config.ProofOfPlayIngestProperties.Partitioning.RetentionAction.DETACH;
+
+@ExtendWith(MockitoExtension.class)
+public class ProofOfPlayEventBatchWriterTest {
+
+  @Mock
+  private ProofOfPlayEventRepository eventRepository;
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private ProofOfPlayEventBatchWriter batchWriter;
+
+  @AfterEach
+  public void tearDown() throws Exception {
+    if (batchWriter != null) {
+      batchWriter.destroy();
+    }
+  }
+
+  private ProofOfPlayEventBatchWriter createWriter(int size, Duration linger, int bufferCapacity) {
+    ProofOfPlayIngestProperties properties = new ProofOfPlayIngestProperties(
+            ProofOfPlayIngestProperties.IngestMode.BATCHED,
+            new ProofOfPlayIngestProperties.Batch(size, linger, 2, bufferCapacity),
+            new ProofOfPlayIngestProperties.Kafka("proof-of-play-events", 12, (short) 1, Duration.ofSeconds(30),
+                    Duration.ofMinutes(10)),
+            new ProofOfPlayIngestProperties.Rollup(Duration.ofSeconds(10)),
+            new ProofOfPlayIngestProperties.Partitioning(DAILY, 7, Period.ofDays(90), DETACH, Duration.ofHours(1)));
+    return new ProofOfPlayEventBatchWriter(eventRepository, new ProofOfPlayIngestMetrics(meterRegistry, properties),
+            properties);
+  }
+
+  private double events(String result) {
+    return meterRegistry.get(ProofOfPlayIngestMetrics.EVENTS_COUNTER).tag("result", result).counter().count();
+  }
+
+  @Test
+  void write_ShouldFlushFullBatchesWithSingleInsert() {
+    //prepare
+    List<List<ProofOfPlayEventEntity>> batches = new CopyOnWriteArrayList<>();
+    when(eventRepository.insertAll(anyList())).thenAnswer(invocation -> {
+      List<ProofOfPlayEventEntity> batch = invocation.getArgument(0);
+      batches.add(batch);
+      return Flux.fromIterable(batch);
+    });
+    batchWriter = createWriter(10, Duration.ofSeconds(5), 1000);
+
+    //execute
+    StepVerifier.create(Flux.range(0, 30)
+                    .flatMap(i -> batchWriter.write(new ProofOfPlayEventEntity())))
+            .expectNextCount(30)
+            .verifyComplete();
+
+    //verify
+    assertEquals(3, batches.size());
+    batches.forEach(batch -> assertEquals(10, batch.size()));
+    assertEquals(30, events("accepted"));
+  }
+
+  @Test
+  void write_ShouldFlushPartialBatchAfterLinger() {
+    //prepare
+    when(eventRepository.insertAll(anyList())).thenAnswer(invocation -> Flux.fromIterable(invocation.getArgument(0)));
+    batchWriter = createWriter(100, Duration.ofMillis(50), 1000);
+    ProofOfPlayEventEntity event = new ProofOfPlayEventEntity();
+
+    //execute
+    StepVerifier.create(batchWriter.write(event))
+            .expectNext(event)
+            .expectComplete()
+            .verify(Duration.ofSeconds(5));
+  }
+
+  @Test
+  void write_ShouldPropagateInsertErrorToEveryEventOfBatch() {
+    //prepare
+    when(eventRepository.insertAll(anyList())).thenReturn(Flux.error(new RuntimeException("insert failed")));
+    batchWriter = createWriter(2, Duration.ofSeconds(5), 1000);
+
+    //execute
+    StepVerifier.create(Mono.zip(
+                    batchWriter.write(new ProofOfPlayEventEntity()),
+                    batchWriter.write(new ProofOfPlayEventEntity())))
+            .expectErrorMatches(e -> e.getMessage().contains("insert failed"))
+            .verify(Duration.ofSeconds(5));
+    assertEquals(2, events("failed"));
+  }
+
+  @Test
+  void write_ShouldFailOnlyOffendingEventWhenBatchInsertFails() {
+    //prepare
+    ProofOfPlayEventEntity bad = new ProofOfPlayEventEntity();
+    ProofOfPlayEventEntity good = new ProofOfPlayEventEntity();
+    good.setUserId(1L);
+    when(eventRepository.insertAll(anyList())).thenAnswer(invocation -> {
+      List<ProofOfPlayEventEntity> batch = invocation.getArgument(0);
+      return batch.contains(bad)
+              ? Flux.error(new RuntimeException("null value in column \"user_id\""))
+              : Flux.fromIterable(batch);
+    });
+    batchWriter = createWriter(2, Duration.ofSeconds(5), 1000);
+
+    //execute
+    Mono<ProofOfPlayEventEntity> badResult = batchWriter.write(bad).cache();
+    Mono<ProofOfPlayEventEntity> goodResult = batchWriter.write(good).cache();
+    badResult.subscribe(e -> {
+    }, e -> {
+    });
+
+    //verify
+    StepVerifier.create(goodResult)
+            .expectNext(good)
+            .expectComplete()
+            .verify(Duration.ofSeconds(5));
+    StepVerifier.create(badResult)
+            .expectErrorMatches(e -> e.getMessage().contains("user_id"))
+            .verify(Duration.ofSeconds(5));
+    assertEquals(1, events("accepted"));
+    assertEquals(1, events("failed"));
+  }
+
+  @Test
+  void write_ShouldRejectEventsAboveBufferCapacity() {
+    //prepare
+    //in-flight batches don't complete until gate is opened, so the rest of events stay in the buffer
+    Sinks.Empty<Void> gate = Sinks.empty();
+    when(eventRepository.insertAll(anyList())).thenReturn(gate.asMono().thenMany(Flux.empty()));
+    batchWriter = createWriter(1, Duration.ofSeconds(5), 1);
+    List<Throwable> errors = new CopyOnWriteArrayList<>();
+
+    //execute
+    IntStream.range(0, 10).forEach(i -> batchWriter.write(new ProofOfPlayEventEntity())
+            .subscribe(e -> {
+            }, errors::add));
+    gate.tryEmitEmpty();
+
+    //verify
+    assertFalse(errors.isEmpty());
+    assertTrue(errors.stream().allMatch(ProofOfPlayIngestException.class::isInstance));
+    assertEquals(errors.size(), events("dropped"));
+  }
+}
@@ -0,0 +1,144 @@
+package org.slideshow.ingest;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.LongDeserializer;
+import org.apache.kafka.common.serialization.LongSerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.slideshow.model.domain.ProofOfPlayEventEntity;
+import org.slideshow.repository.ProofOfPlayEventRepository;
+import org.slideshow.service.ProofOfPlayEventService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = {
+        "slideshow.proof-of-play.mode=KAFKA",
+        "slideshow.proof-of-play.kafka.partitions=3",
+        "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}"
+})
+@EmbeddedKafka(partitions = 3, topics = {"proof-of-play-events", "proof-of-play-events.DLT"})
+public class ProofOfPlayEventKafkaPipelineTest {
+
+  @Autowired
+  private ProofOfPlayEventService proofOfPlayEventService;
+
+  @Autowired
+  private EmbeddedKafkaBroker embeddedKafka;
+
+  @MockitoBean
+  private ProofOfPlayEventRepository eventRepository;
+
+  @Test
+  void recordProofOfPlay_ShouldPublishEventAndSinkItInBatches() {
+    //prepare
+    List<ProofOfPlayEventEntity> written = new CopyOnWriteArrayList<>();
+    when(eventRepository.insertAll(anyList())).thenAnswer(invocation -> {
+      List<ProofOfPlayEventEntity> batch = invocation.getArgument(0);
+      written.addAll(batch);
+      return Flux.fromIterable(batch);
+    });
+
+    //execute
+    StepVerifier.create(Flux.range(0, 50)
+                    .flatMap(i -> proofOfPlayEventService.recordProofOfPlay(Mono.just(createEvent(i)))))
+            .expectNextCount(50)
+            .verifyComplete();
+
+    //verify
+    await().atMost(Duration.ofSeconds(30)).until(() -> written.size() >= 50);
+    assertEquals(50, written.size());
+    verify(eventRepository, never()).save(any());
+  }
+
+  @Test
+  void recordProofOfPlay_ShouldRedeliverBatchWhenDatabaseWriteFails() {
+    //prepare
+    List<ProofOfPlayEventEntity> written = new CopyOnWriteArrayList<>();
+    when(eventRepository.insertAll(anyList()))
+            .thenReturn(Flux.error(new RuntimeException("database is down")))
+            .thenAnswer(invocation -> {
+              List<ProofOfPlayEventEntity> batch = invocation.getArgument(0);
+              written.addAll(batch);
+              return Flux.fromIterable(batch);
+            });
+
+    //execute
+    StepVerifier.create(proofOfPlayEventService.recordProofOfPlay(Mono.just(createEvent(1000))))
+            .expectNextCount(1)
+            .verifyComplete();
+
+    //verify
+    await().atMost(Duration.ofSeconds(30))
+            .until(() -> written.stream().anyMatch(e -> e.getUserId() == 1000L));
+  }
+
+  @Test
+  void consume_ShouldSendInvalidEventsToDeadLetterTopicAndWriteEventsAfterThem() {
+    //prepare
+    List<ProofOfPlayEventEntity> written = new CopyOnWriteArrayList<>();
+    when(eventRepository.insertAll(anyList())).thenAnswer(invocation -> {
+      List<ProofOfPlayEventEntity> batch = invocation.getArgument(0);
+      written.addAll(batch);
+      return Flux.fromIterable(batch);
+    });
+
+    //execute
+    //all records go to the same partition, valid event is behind both invalid ones.
+    //It has no displayedAt, which is defaulted by INSERT
+    try (Producer<Long, String> producer = new DefaultKafkaProducerFactory<>(
+            KafkaTestUtils.producerProps(embeddedKafka), new LongSerializer(), new StringSerializer())
+            .createProducer()) {
+      producer.send(new ProducerRecord<>("proof-of-play-events", 0, 1L, "{not a json"));
+      producer.send(new ProducerRecord<>("proof-of-play-events", 0, 1L, "{\"imageId\":1,\"slideshowId\":1}"));
+      producer.send(new ProducerRecord<>("proof-of-play-events", 0, 1L,
+              "{\"imageId\":1,\"slideshowId\":1,\"userId\":2000}"));
+    }
+
+    //verify
+    await().atMost(Duration.ofSeconds(30))
+            .until(() -> written.stream().anyMatch(e -> e.getUserId() == 2000L));
+    assertTrue(written.stream().allMatch(e -> e.getUserId() != null));
+
+    try (Consumer<Long, byte[]> consumer = new DefaultKafkaConsumerFactory<>(
+            KafkaTestUtils.consumerProps("proof-of-play-dlt-test", "false", embeddedKafka),
+            new LongDeserializer(), new ByteArrayDeserializer())
+            .createConsumer()) {
+      embeddedKafka.consumeFromAnEmbeddedTopic(consumer, "proof-of-play-events.DLT");
+      ConsumerRecords<Long, byte[]> deadLetters = KafkaTestUtils.getRecords(consumer, Duration.ofSeconds(30), 2);
+      assertEquals(2, deadLetters.count());
+    }
+  }
+
+  private ProofOfPlayEventEntity createEvent(int i) {
+    OffsetDateTime displayedAt = OffsetDateTime.now();
+    return new ProofOfPlayEventEntity(null, (long) i % 5, (long) i % 7, (long) i,
+            displayedAt.plusSeconds(10), displayedAt, (short) 10);
+  }
+}
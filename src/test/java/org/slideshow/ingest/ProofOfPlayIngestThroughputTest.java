@@ -0,0 +1,94 @@
+package org.slideshow.ingest;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slideshow.TestcontainersConfiguration;
+import org.slideshow.model.domain.ProofOfPlayEventEntity;
+import org.slideshow.repository.ProofOfPlayEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.OffsetDateTime;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Reports throughput of one INSERT per event and of micro-batched multi-row INSERTs
+ * against real postgres. Timings aren't asserted, they vary too much on shared machines.
+ * Run by loadTest task, skipped when docker is not available.
+ */
+@Tag("load")
+@SpringBootTest
+@Import(TestcontainersConfiguration.class)
+@Testcontainers(disabledWithoutDocker = true)
+public class ProofOfPlayIngestThroughputTest {
+
+  private static final Logger log = LoggerFactory.getLogger(ProofOfPlayIngestThroughputTest.class);
+
+  private static final int EVENTS = 10_000;
+  private static final int CONCURRENT_PLAYERS = 64;
+  //events are counted and removed by user id, context is shared with other tests
+  private static final long USER_ID = 7_000_000L;
+
+  @Autowired
+  private DatabaseClient databaseClient;
+
+  @Autowired
+  private ProofOfPlayEventRepository eventRepository;
+
+  @Autowired
+  private ProofOfPlayEventBatchWriter batchWriter;
+
+  @AfterEach
+  void cleanUp() {
+    databaseClient.sql("DELETE FROM proof_of_play_events WHERE user_id = :userId")
+            .bind("userId", USER_ID)
+            .then()
+            .block();
+  }
+
+  @Test
+  void reportThroughputOfInsertPerEventAndBatchedWriter() {
+    //warm up connections and prepared statements of both paths
+    measure(1_000, eventRepository::save);
+    measure(1_000, batchWriter::write);
+
+    double direct = measure(EVENTS, eventRepository::save);
+    double batched = measure(EVENTS, batchWriter::write);
+
+    log.info("Proof-of-play ingest: insert per event {} events/s, batched {} events/s, gain x{}",
+            Math.round(direct), Math.round(batched), String.format("%.1f", batched / direct));
+
+    assertEquals(2 * (EVENTS + 1_000L), databaseClient.sql(
+                    "SELECT count(*) FROM proof_of_play_events WHERE user_id = :userId")
+            .bind("userId", USER_ID)
+            .map(row -> row.get(0, Long.class))
+            .one()
+            .block());
+  }
+
+  private double measure(int events, Function<ProofOfPlayEventEntity, Mono<ProofOfPlayEventEntity>> writer) {
+    long start = System.nanoTime();
+    Flux.range(0, events)
+            .map(this::createEvent)
+            .flatMap(writer, CONCURRENT_PLAYERS)
+            .then()
+            .block();
+    return events / ((System.nanoTime() - start) / 1_000_000_000d);
+  }
+
+  private ProofOfPlayEventEntity createEvent(int i) {
+    OffsetDateTime displayedAt = OffsetDateTime.now();
+    return new ProofOfPlayEventEntity(null, (long) i % 100, (long) i % 10, USER_ID,
+            displayedAt.plusSeconds(10), displayedAt, (short) 10);
+  }
+}
@@ -0,0 +1,92 @@
+package org.slideshow.ingest;
+
+import org.junit.jupiter.api.Test;
+import org.slideshow.config.ProofOfPlayIngestProperties.Partitioning;
+import org.slideshow.ingest.ProofOfPlayPartitionMaintenance.PartitionRange;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.slideshow.config.ProofOfPlayIngestProperties.Partitioning.Granularity.DAILY;
+import static org.slideshow.config.ProofOfPlayIngestProperties.Partitioning.Granularity.MONTHLY;
+import static org.slideshow.config.ProofOfPlayIngestProperties.Partitioning.RetentionAction.DROP;
+
+public class ProofOfPlayPartitionMaintenanceTest {
+
+  private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 13, 10, 30);
+  private static final LocalDateTime JAN_13 = LocalDateTime.of(2025, 1, 13, 0, 0);
+
+  private static final Partitioning DAILY_SETTINGS = new Partitioning(DAILY, 2, Period.ofDays(30), DROP,
+          Duration.ofHours(1));
+  private static final Partitioning MONTHLY_SETTINGS = new Partitioning(MONTHLY, 1, Period.ofMonths(3), DROP,
+          Duration.ofHours(1));
+
+  @Test
+  void parse_ShouldReadRangeAndDefaultBounds() {
+    //execute & verify
+    assertEquals(new PartitionRange("p", JAN_13, JAN_13.plusDays(1)),
+            ProofOfPlayPartitionMaintenance.parse("p",
+                    "FOR VALUES FROM ('2025-01-13 00:00:00') TO ('2025-01-14 00:00:00')"));
+    assertEquals(new PartitionRange("legacy", LocalDateTime.MIN, JAN_13),
+            ProofOfPlayPartitionMaintenance.parse("legacy", "FOR VALUES FROM (MINVALUE) TO ('2025-01-13 00:00:00')"));
+    assertNull(ProofOfPlayPartitionMaintenance.parse("default", "DEFAULT").from());
+  }
+
+  @Test
+  void missingPartitions_ShouldCreateCurrentAndPremadePeriods() {
+    //execute
+    List<PartitionRange> missing = ProofOfPlayPartitionMaintenance.missingPartitions(List.of(), NOW, DAILY_SETTINGS);
+
+    //verify
+    assertEquals(List.of(
+            new PartitionRange("proof_of_play_events_p2025011300", JAN_13, JAN_13.plusDays(1)),
+            new PartitionRange("proof_of_play_events_p2025011400", JAN_13.plusDays(1), JAN_13.plusDays(2)),
+            new PartitionRange("proof_of_play_events_p2025011500", JAN_13.plusDays(2), JAN_13.plusDays(3))),
+            missing);
+  }
+
+  @Test
+  void missingPartitions_ShouldSkipCoveredRangesAndFillGaps() {
+    //prepare
+    //legacy partition ends on the next month, daily partitions start after it
+    LocalDateTime feb = LocalDateTime.of(2025, 2, 1, 0, 0);
+    List<PartitionRange> partitions = List.of(
+            new PartitionRange("legacy", LocalDateTime.MIN, feb),
+            new PartitionRange("p", feb.plusDays(1), feb.plusDays(2)));
+
+    //execute & verify
+    assertEquals(List.of(), ProofOfPlayPartitionMaintenance.missingPartitions(partitions, NOW, DAILY_SETTINGS));
+    assertEquals(List.of(
+                    new PartitionRange("proof_of_play_events_p2025020100", feb, feb.plusDays(1)),
+                    new PartitionRange("proof_of_play_events_p2025020300", feb.plusDays(2), feb.plusDays(3))),
+            ProofOfPlayPartitionMaintenance.missingPartitions(partitions, LocalDateTime.of(2025, 2, 1, 5, 0),
+                    DAILY_SETTINGS));
+    //monthly period partially covered by existing partition gets partition for the rest of it
+    assertEquals(List.of(
+                    new PartitionRange("proof_of_play_events_p2025020300", feb.plusDays(2), LocalDateTime.of(2025, 3, 1, 0, 0)),
+                    new PartitionRange("proof_of_play_events_p2025030100", LocalDateTime.of(2025, 3, 1, 0, 0),
+                            LocalDateTime.of(2025, 4, 1, 0, 0))),
+            ProofOfPlayPartitionMaintenance.missingPartitions(
+                    List.of(new PartitionRange("legacy", LocalDateTime.MIN, feb.plusDays(2))),
+                    LocalDateTime.of(2025, 2, 1, 5, 0), MONTHLY_SETTINGS));
+  }
+
+  @Test
+  void expiredPartitions_ShouldReturnPartitionsEndingBeforeRetention() {
+    //prepare
+    PartitionRange expired = new PartitionRange("expired", JAN_13.minusDays(40), JAN_13.minusDays(39));
+    PartitionRange legacy = new PartitionRange("legacy", LocalDateTime.MIN, JAN_13.minusDays(31));
+    PartitionRange kept = new PartitionRange("kept", JAN_13.minusDays(30), JAN_13.minusDays(29));
+    PartitionRange current = new PartitionRange("current", JAN_13, JAN_13.plusDays(1));
+
+    //execute & verify
+    assertEquals(List.of(expired, legacy),
+            ProofOfPlayPartitionMaintenance.expiredPartitions(List.of(expired, legacy, kept, current), NOW,
+                    DAILY_SETTINGS));
+  }
+
+}
@@ -0,0 +1,123 @@
+package org.slideshow.ingest;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slideshow.TestcontainersConfiguration;
+import org.slideshow.config.ProofOfPlayIngestProperties;
+import org.slideshow.config.ProofOfPlayIngestProperties.Partitioning;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.Period;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.slideshow.config.ProofOfPlayIngestProperties.Partitioning.Granularity.MONTHLY;
+import static org.slideshow.config.ProofOfPlayIngestProperties.Partitioning.RetentionAction.DETACH;
+
+/**
+ * Runs partition maintenance of proof_of_play_events against real postgres. Skipped when docker is not available.
+ */
+@SpringBootTest
+@Import(TestcontainersConfiguration.class)
+@Testcontainers(disabledWithoutDocker = true)
+public class ProofOfPlayPartitioningTest {
+
+  //user no other test uses, so only events of this test are read and removed
+  private static final long USER_ID = 4_000_000L;
+
+  @Autowired
+  private DatabaseClient databaseClient;
+
+  @Autowired
+  private ReactiveTransactionManager reactiveTransactionManager;
+
+  @Autowired
+  private ProofOfPlayIngestProperties properties;
+
+  @AfterEach
+  void cleanUp() {
+    databaseClient.sql("DELETE FROM proof_of_play_events WHERE user_id = :userId")
+            .bind("userId", USER_ID)
+            .then()
+            .block();
+  }
+
+  @Test
+  void maintainShouldCreatePartitionsAheadAndMoveEventsOutOfDefaultPartition() {
+    //prepare
+    //migration attaches existing table as partition ending on the next month, events after it go to default partition
+    LocalDateTime currentMonth = databaseClient.sql("SELECT date_trunc('month', LOCALTIMESTAMP)")
+            .map(row -> row.get(0, LocalDateTime.class))
+            .one()
+            .block();
+    LocalDateTime current = currentMonth.plusDays(14);
+    LocalDateTime ahead = currentMonth.plusMonths(2).plusDays(14);
+    insertEvent(current);
+    insertEvent(ahead);
+    ProofOfPlayPartitionMaintenance maintenance = new ProofOfPlayPartitionMaintenance(databaseClient,
+            reactiveTransactionManager, withPartitioning(new Partitioning(MONTHLY, 3, Period.ofYears(10), DETACH,
+            Duration.ofHours(1))));
+
+    //execute
+    maintenance.maintain().block();
+
+    //verify
+    assertEquals("proof_of_play_events_legacy", partitionOf(current));
+    String aheadPartition = partitionOf(ahead);
+    assertTrue(aheadPartition.startsWith("proof_of_play_events_p"), aheadPartition);
+    assertEquals(0L, databaseClient.sql("SELECT count(*) FROM proof_of_play_events_default WHERE user_id = :userId")
+            .bind("userId", USER_ID)
+            .map(row -> row.get(0, Long.class))
+            .one()
+            .block());
+    //indexes of partitioned table are created on every new partition
+    assertEquals(2L, databaseClient.sql("""
+                    SELECT count(*) FROM pg_indexes
+                    WHERE tablename = :partition AND (indexdef LIKE '%brin%' OR indexdef LIKE '%slideshow_id, displayed_at%')
+                    """)
+            .bind("partition", aheadPartition)
+            .map(row -> row.get(0, Long.class))
+            .one()
+            .block());
+
+    //second run finds nothing to do
+    maintenance.maintain().block();
+    assertEquals(aheadPartition, partitionOf(ahead));
+  }
+
+  private void insertEvent(LocalDateTime displayedAt) {
+    databaseClient.sql("""
+                    INSERT INTO proof_of_play_events (image_id, slideshow_id, user_id, displayed_at)
+                    VALUES (1, 1, :userId, :displayedAt)
+                    """)
+            .bind("userId", USER_ID)
+            .bind("displayedAt", displayedAt)
+            .then()
+            .block();
+  }
+
+  private String partitionOf(LocalDateTime displayedAt) {
+    return databaseClient.sql("""
+                    SELECT tableoid::regclass::text FROM proof_of_play_events
+                    WHERE user_id = :userId AND displayed_at = :displayedAt
+                    """)
+            .bind("userId", USER_ID)
+            .bind("displayedAt", displayedAt)
+            .map(row -> row.get(0, String.class))
+            .one()
+            .block();
+  }
+
+  private ProofOfPlayIngestProperties withPartitioning(Partitioning partitioning) {
+    return new ProofOfPlayIngestProperties(properties.mode(), properties.batch(), properties.kafka(),
+            properties.rollup(), partitioning);
+  }
+
+}
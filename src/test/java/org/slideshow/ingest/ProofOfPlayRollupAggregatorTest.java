@@ -0,0 +1,122 @@
+package org.slideshow.ingest;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slideshow.config.ProofOfPlayIngestProperties;
+import org.slideshow.model.domain.ProofOfPlayEventEntity;
+import org.slideshow.model.projection.ProofOfPlayHourlyProjection;
+import org.slideshow.repository.ProofOfPlayEventRepository;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.Period;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+import static org.slideshow.config.ProofOfPlayIngestProperties.Partitioning.Granularity.DAILY;
+import static org.slideshow.config.ProofOfPlayIngestProperties.Partitioning.RetentionAction.DETACH;
+
+@ExtendWith(MockitoExtension.class)
+public class ProofOfPlayRollupAggregatorTest {
+
+  private static final OffsetDateTime DISPLAYED_AT = OffsetDateTime.of(2025, 1, 13, 10, 15, 0, 0, ZoneOffset.ofHours(2));
+
+  @Mock
+  private ProofOfPlayEventRepository eventRepository;
+
+  private ProofOfPlayRollupAggregator aggregator;
+
+  @BeforeEach
+  public void setUp() {
+    //interval flush is effectively disabled, tests flush explicitly
+    aggregator = new ProofOfPlayRollupAggregator(eventRepository, new ProofOfPlayIngestProperties(
+            ProofOfPlayIngestProperties.IngestMode.BATCHED,
+            new ProofOfPlayIngestProperties.Batch(500, Duration.ofMillis(20), 4, 20000),
+            new ProofOfPlayIngestProperties.Kafka("proof-of-play-events", 12, (short) 1, Duration.ofSeconds(30),
+                    Duration.ofMinutes(10)),
+            new ProofOfPlayIngestProperties.Rollup(Duration.ofHours(1)),
+            new ProofOfPlayIngestProperties.Partitioning(DAILY, 7, Period.ofDays(90), DETACH, Duration.ofHours(1))));
+  }
+
+  @AfterEach
+  public void tearDown() {
+    aggregator.destroy();
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void flush_ShouldUpsertOneRollupPerSlideshowImageAndHour() {
+    //prepare
+    when(eventRepository.upsertHourlyRollups(anyList())).thenReturn(Mono.just(3L));
+    //1000 plays of the same image in the same hour, minutes apart
+    IntStream.range(0, 1000).parallel()
+            .forEach(i -> aggregator.record(event(1L, 10L, DISPLAYED_AT.plusSeconds(i % 60 * 30), (short) 10)));
+    aggregator.record(event(1L, 11L, DISPLAYED_AT, null));
+    aggregator.recordAll(List.of(event(2L, 10L, DISPLAYED_AT.plusHours(1), (short) 5)));
+
+    //execute
+    aggregator.flush().block();
+
+    //verify
+    ArgumentCaptor<List<ProofOfPlayHourlyProjection>> captor = ArgumentCaptor.forClass(List.class);
+    verify(eventRepository).upsertHourlyRollups(captor.capture());
+    List<ProofOfPlayHourlyProjection> rollups = captor.getValue().stream()
+            .sorted(Comparator.comparing(ProofOfPlayHourlyProjection::slideshowId)
+                    .thenComparing(ProofOfPlayHourlyProjection::imageId))
+            .toList();
+    LocalDateTime hour = LocalDateTime.of(2025, 1, 13, 8, 0);
+    assertEquals(List.of(
+            new ProofOfPlayHourlyProjection(1L, 10L, hour, 1000, 10_000,
+                    LocalDateTime.of(2025, 1, 13, 8, 15), LocalDateTime.of(2025, 1, 13, 8, 44, 30)),
+            new ProofOfPlayHourlyProjection(1L, 11L, hour, 1, 0,
+                    LocalDateTime.of(2025, 1, 13, 8, 15), LocalDateTime.of(2025, 1, 13, 8, 15)),
+            new ProofOfPlayHourlyProjection(2L, 10L, hour.plusHours(1), 1, 5,
+                    LocalDateTime.of(2025, 1, 13, 9, 15), LocalDateTime.of(2025, 1, 13, 9, 15))),
+            rollups);
+
+    //nothing is left to flush
+    aggregator.flush().block();
+    verify(eventRepository, times(1)).upsertHourlyRollups(anyList());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void flush_ShouldKeepRollupsOfFailedFlushForNextOne() {
+    //prepare
+    when(eventRepository.upsertHourlyRollups(anyList()))
+            .thenReturn(Mono.error(new RuntimeException("database is down")))
+            .thenReturn(Mono.just(1L));
+    aggregator.record(event(1L, 10L, DISPLAYED_AT, (short) 10));
+
+    //execute
+    aggregator.flush().block();
+    aggregator.record(event(1L, 10L, DISPLAYED_AT.plusMinutes(1), (short) 10));
+    aggregator.flush().block();
+
+    //verify
+    ArgumentCaptor<List<ProofOfPlayHourlyProjection>> captor = ArgumentCaptor.forClass(List.class);
+    verify(eventRepository, times(2)).upsertHourlyRollups(captor.capture());
+    ProofOfPlayHourlyProjection retried = captor.getAllValues().get(1).get(0);
+    assertEquals(2, retried.plays());
+    assertEquals(20, retried.totalDuration());
+  }
+
+  private static ProofOfPlayEventEntity event(Long slideshowId, Long imageId, OffsetDateTime displayedAt,
+                                              Short actualDuration) {
+    return new ProofOfPlayEventEntity(null, imageId, slideshowId, 1L, displayedAt.plusSeconds(10),
+            displayedAt, actualDuration);
+  }
+
+}
@@ -0,0 +1,99 @@
+package org.slideshow.model.mapper;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.slideshow.model.domain.ImageEntity;
+import org.slideshow.model.dto.request.ImageCreateRequestDTO;
+import org.slideshow.model.dto.request.ImageDetailsRequestDTO;
+import org.slideshow.model.dto.response.ImageCreationResponseDTO;
+import org.slideshow.model.dto.response.ImageResponseDTO;
+import org.slideshow.model.projection.ImageMetadata;
+import org.slideshow.model.projection.ImageProjection;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ImageMapperTest {
+
+  //mappers replaced objectMapper.convertValue, so they must give the same results
+  private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+  @Test
+  void toEntity_ShouldMapRequestsLikeObjectMapper() {
+    //prepare
+    ImageDetailsRequestDTO existing = new ImageDetailsRequestDTO(1L, null, null);
+    ImageDetailsRequestDTO created = new ImageDetailsRequestDTO(null, "test_url", (short) 10);
+    ImageCreateRequestDTO createRequest = new ImageCreateRequestDTO("test_url", (short) 10);
+
+    //execute & verify
+    assertSameImage(objectMapper.convertValue(existing, ImageEntity.class), ImageMapper.toEntity(existing));
+    assertSameImage(objectMapper.convertValue(created, ImageEntity.class), ImageMapper.toEntity(created));
+    assertSameImage(objectMapper.convertValue(createRequest, ImageEntity.class), ImageMapper.toEntity(createRequest));
+    assertNotNull(ImageMapper.toEntity(created).getAddedAt());
+    assertNull(ImageMapper.toEntity((ImageDetailsRequestDTO) null));
+  }
+
+  @Test
+  void toResponses_ShouldMapEntitiesLikeObjectMapper() {
+    //prepare
+    List<ImageEntity> entities = List.of(
+            new ImageEntity(1L, "url_1", (short) 5, LocalDateTime.now()),
+            new ImageEntity(2L, "url_2", null, LocalDateTime.now()));
+    entities.get(0).setContentType("image/png");
+    entities.get(0).setContentLength(150_000L);
+    entities.get(0).setWidth(1920);
+    entities.get(0).setHeight(1080);
+
+    //execute
+    List<ImageResponseDTO> responses = ImageMapper.toResponses(entities);
+
+    //verify
+    assertEquals(objectMapper.convertValue(entities, new TypeReference<List<ImageResponseDTO>>() {
+    }), responses);
+  }
+
+  @Test
+  void toResponse_ShouldMapProjectionAndCreatedImage() {
+    //prepare
+    LocalDateTime lastModified = LocalDateTime.of(2025, 1, 13, 10, 0);
+    ImageProjection projection = new ImageProjection(1L, "url_1", (short) 5, LocalDateTime.now(),
+            "image/png", 150_000L, "\"v1\"", lastModified, 1920, 1080);
+    ImageEntity entity = new ImageEntity(2L, "url_2", (short) 7, LocalDateTime.now());
+
+    //execute & verify
+    assertEquals(new ImageResponseDTO(1L, "url_1", (short) 5, "image/png", 150_000L, "\"v1\"", lastModified,
+            1920, 1080), ImageMapper.toResponse(projection));
+    assertEquals(new ImageCreationResponseDTO(2L, "url_2", (short) 7, null), ImageMapper.toCreationResponse(entity));
+  }
+
+  @Test
+  void toEntity_ShouldApplyProbedMetadata() {
+    //prepare
+    LocalDateTime lastModified = LocalDateTime.of(2025, 1, 13, 10, 0);
+    ImageMetadata metadata = new ImageMetadata("image/png", 150_000L, "\"v1\"", lastModified, 1920, 1080);
+
+    //execute
+    ImageEntity image = ImageMapper.toEntity(new ImageCreateRequestDTO("test_url", (short) 10), metadata);
+
+    //verify
+    assertEquals("image/png", image.getContentType());
+    assertEquals(150_000L, image.getContentLength());
+    assertEquals("\"v1\"", image.getEtag());
+    assertEquals(lastModified, image.getLastModified());
+    assertEquals(1920, image.getWidth());
+    assertEquals(1080, image.getHeight());
+    assertNull(ImageMapper.toEntity(new ImageCreateRequestDTO("test_url", (short) 10), ImageMetadata.UNKNOWN)
+            .getWidth());
+  }
+
+  private void assertSameImage(ImageEntity expected, ImageEntity actual) {
+    assertEquals(expected.getId(), actual.getId());
+    assertEquals(expected.getUrl(), actual.getUrl());
+    assertEquals(expected.getDuration(), actual.getDuration());
+  }
+
+}
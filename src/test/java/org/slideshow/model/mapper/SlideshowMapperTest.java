@@ -0,0 +1,100 @@
+package org.slideshow.model.mapper;
+
+import org.junit.jupiter.api.Test;
+import org.slideshow.model.domain.ImageEntity;
+import org.slideshow.model.domain.ProofOfPlayEventEntity;
+import org.slideshow.model.domain.SlideshowEntity;
+import org.slideshow.model.dto.request.ProofOfPlayEventDTO;
+import org.slideshow.model.dto.response.ImageResponseDTO;
+import org.slideshow.model.dto.response.SlideshowResponseDTO;
+import org.slideshow.model.projection.SlideshowDBProjection;
+import org.slideshow.model.projection.SlideshowProjection;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class SlideshowMapperTest {
+
+  @Test
+  void toProjection_ShouldFoldRowsSkippingRowsWithoutImage() {
+    //prepare
+    LocalDateTime addedAt = LocalDateTime.now();
+    List<SlideshowDBProjection> rows = List.of(
+            new SlideshowDBProjection(1L, 3L, 2L, "url_2", (short) 5, addedAt,
+                    "image/png", 150_000L, null, null, 1920, 1080),
+            new SlideshowDBProjection(1L, 3L, null, null, null, null, null, null, null, null, null, null),
+            new SlideshowDBProjection(1L, 3L, 2L, "url_2", (short) 5, addedAt,
+                    "image/png", 150_000L, null, null, 1920, 1080));
+
+    //execute
+    SlideshowProjection projection = SlideshowMapper.toProjection(1L, rows);
+
+    //verify
+    assertEquals(1L, projection.slideshowId());
+    assertEquals(3L, projection.version());
+    assertEquals(2, projection.images().size());
+    assertEquals(2L, projection.images().get(1).getId());
+    assertEquals(addedAt, projection.images().get(1).getAddedAt());
+    assertEquals(1920, projection.images().get(1).getWidth());
+    assertEquals(1080, projection.images().get(1).getHeight());
+  }
+
+  @Test
+  void toProjection_ShouldBuildCreatedSlideshowInReadOrder() {
+    //prepare
+    LocalDateTime addedAt = LocalDateTime.of(2025, 1, 13, 10, 0);
+    ImageEntity existing = new ImageEntity(1L, "url_1", (short) 5, addedAt.minusDays(1));
+    ImageEntity first = new ImageEntity(2L, "url_2", (short) 5, addedAt);
+    ImageEntity second = new ImageEntity(3L, "url_3", (short) 5, addedAt);
+    //image 4 was deleted before slideshow was created
+    SlideshowEntity slideshow = SlideshowMapper.toEntity(List.of(1L, 3L, 4L, 2L, 1L));
+    slideshow.setId(7L);
+
+    //execute
+    SlideshowProjection projection = SlideshowMapper.toProjection(slideshow, List.of(first, second), List.of(existing));
+
+    //verify
+    //newest first, images added at the same time keep slideshow order, duplicates are kept
+    assertEquals(7L, projection.slideshowId());
+    assertEquals(1L, projection.version());
+    assertEquals(List.of(second, first, existing, existing), projection.images());
+  }
+
+  @Test
+  void toResponse_ShouldMapSlideshowWithErrors() {
+    //prepare
+    SlideshowProjection projection = new SlideshowProjection(1L, 1L,
+            List.of(new ImageEntity(2L, "url_2", (short) 5, LocalDateTime.now())));
+
+    //execute
+    SlideshowResponseDTO response = SlideshowMapper.toResponse(projection, null);
+
+    //verify
+    assertEquals(new SlideshowResponseDTO(1L, List.of(new ImageResponseDTO(2L, "url_2", (short) 5,
+            null, null, null, null, null, null)), null), response);
+  }
+
+  @Test
+  void toEntity_ShouldMapProofOfPlayEvent() {
+    //prepare
+    OffsetDateTime displayedAt = OffsetDateTime.now();
+    ProofOfPlayEventDTO dto = new ProofOfPlayEventDTO(3L, displayedAt, displayedAt.plusSeconds(10), (short) 10);
+
+    //execute
+    ProofOfPlayEventEntity event = ProofOfPlayEventMapper.toEntity(1L, 2L, dto);
+
+    //verify
+    assertNull(event.getId());
+    assertEquals(1L, event.getSlideshowId());
+    assertEquals(2L, event.getImageId());
+    assertEquals(3L, event.getUserId());
+    assertEquals(displayedAt, event.getDisplayedAt());
+    assertEquals(displayedAt.plusSeconds(10), event.getReplacedAt());
+    assertEquals((short) 10, event.getActualDuration());
+  }
+
+}
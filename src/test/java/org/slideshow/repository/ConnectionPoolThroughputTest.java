@@ -0,0 +1,84 @@
+package org.slideshow.repository;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slideshow.TestcontainersConfiguration;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcConnectionDetails;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the same concurrent load against pools of different sizes, to pick spring.r2dbc.pool.max-size
+ * for given database. Throughput is only reported, it depends on the machine running the test.
+ * Run by loadTest task, skipped when docker is not available.
+ */
+@Tag("load")
+@SpringBootTest
+@Import(TestcontainersConfiguration.class)
+@Testcontainers(disabledWithoutDocker = true)
+public class ConnectionPoolThroughputTest {
+
+  private static final Logger log = LoggerFactory.getLogger(ConnectionPoolThroughputTest.class);
+
+  private static final List<Integer> POOL_SIZES = List.of(1, 2, 5, 10, 20, 50);
+  private static final int CONCURRENCY = 64;
+  private static final int QUERIES = 1000;
+  private static final String QUERY = "SELECT count(*) FROM generate_series(1, 20000)";
+
+  @Autowired
+  private R2dbcConnectionDetails connectionDetails;
+
+  @Test
+  void reportThroughputByPoolSize() {
+    //execute
+    Map<Integer, Double> throughput = new LinkedHashMap<>();
+    for (int size : POOL_SIZES) {
+      throughput.put(size, measure(size));
+    }
+
+    //report
+    throughput.forEach((size, queriesPerSecond) ->
+            log.info("Pool of {} connections: {} queries/s", size, Math.round(queriesPerSecond)));
+  }
+
+  private double measure(int poolSize) {
+    ConnectionPool pool = new ConnectionPool(ConnectionPoolConfiguration
+            .builder(ConnectionFactories.get(connectionDetails.getConnectionFactoryOptions()))
+            .initialSize(poolSize)
+            .maxSize(poolSize)
+            .maxAcquireTime(Duration.ofMinutes(1))
+            .build());
+    try {
+      DatabaseClient client = DatabaseClient.create(pool);
+      //warm up connections and server caches
+      run(client, poolSize);
+
+      long start = System.nanoTime();
+      run(client, QUERIES);
+      return QUERIES / ((System.nanoTime() - start) / 1e9);
+    } finally {
+      pool.dispose();
+    }
+  }
+
+  private static void run(DatabaseClient client, int queries) {
+    Flux.range(0, queries)
+            .flatMap(i -> client.sql(QUERY).map(row -> row.get(0, Long.class)).one(), CONCURRENCY)
+            .blockLast();
+  }
+
+}
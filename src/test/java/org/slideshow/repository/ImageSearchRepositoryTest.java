@@ -0,0 +1,230 @@
+package org.slideshow.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slideshow.TestcontainersConfiguration;
+import org.slideshow.model.projection.ImageProjection;
+import org.slideshow.model.projection.ImageSearchCursor;
+import org.slideshow.model.projection.ImageSearchMode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs image search against real postgres and checks with EXPLAIN ANALYZE that keyword search is served by indexes.
+ * Skipped when docker is not available.
+ */
+@SpringBootTest
+@Import(TestcontainersConfiguration.class)
+@Testcontainers(disabledWithoutDocker = true)
+public class ImageSearchRepositoryTest {
+
+  private static final Logger log = LoggerFactory.getLogger(ImageSearchRepositoryTest.class);
+
+  //durations no other test uses, so only images of this test match
+  private static final short DURATION = 31_999;
+  private static final short CATALOG_DURATION = 31_998;
+  private static final int IMAGES = 25;
+  private static final int CATALOG_IMAGES = 20_000;
+
+  @Autowired
+  private DatabaseClient databaseClient;
+
+  @Autowired
+  private ImageRepository imageRepository;
+
+  @BeforeEach
+  void setUp() {
+    //groups of 5 images share added_at, so pages have to break ties by id
+    databaseClient.sql("""
+                    INSERT INTO images (url, duration, added_at)
+                    SELECT 'https://example.com/keyset/' || g || '.png', :duration,
+                           TIMESTAMP '2025-01-04 10:00:00' + (g / 5) * INTERVAL '1 minute'
+                    FROM generate_series(1, :count) g
+                    """)
+            .bind("duration", DURATION)
+            .bind("count", IMAGES)
+            .then()
+            .block();
+  }
+
+  @AfterEach
+  void cleanUp() {
+    databaseClient.sql("DELETE FROM images WHERE duration IN (:duration, :catalogDuration)")
+            .bind("duration", DURATION)
+            .bind("catalogDuration", CATALOG_DURATION)
+            .then()
+            .block();
+  }
+
+  @Test
+  void pagesShouldVisitEveryImageOnceInOrder() {
+    //execute
+    List<ImageProjection> visited = new ArrayList<>();
+    ImageSearchCursor after = null;
+    List<ImageProjection> page;
+    do {
+      page = imageRepository.search(null, (int) DURATION, ImageSearchMode.FULLTEXT, after, 7).collectList().block();
+      visited.addAll(page);
+      after = page.isEmpty() ? null : ImageSearchCursor.after(page.get(page.size() - 1));
+    } while (page.size() == 7);
+
+    //verify
+    assertEquals(IMAGES, visited.size());
+    assertEquals(IMAGES, visited.stream().map(ImageProjection::id).distinct().count());
+    assertEquals(visited.stream()
+                    .sorted(Comparator.comparing(ImageProjection::addedAt).thenComparing(ImageProjection::id).reversed())
+                    .toList(),
+            visited);
+  }
+
+  @Test
+  void streamShouldEmitAllImagesOnDemand() {
+    //execute & verify
+    StepVerifier.create(imageRepository.search(null, (int) DURATION, ImageSearchMode.FULLTEXT, null, null), 0)
+            .thenRequest(1)
+            .expectNextCount(1)
+            .thenRequest(IMAGES)
+            .expectNextCount(IMAGES - 1)
+            .verifyComplete();
+  }
+
+  @Test
+  void cursorShouldSurviveEncoding() {
+    //prepare
+    ImageProjection first = imageRepository.search(null, (int) DURATION, ImageSearchMode.FULLTEXT, null, 1).blockFirst();
+
+    //execute
+    ImageSearchCursor cursor = ImageSearchCursor.decode(ImageSearchCursor.after(first).encode());
+
+    //verify
+    assertEquals(first.addedAt(), cursor.addedAt());
+    assertEquals(LocalDateTime.of(2025, 1, 4, 10, 5), cursor.addedAt());
+    assertEquals(IMAGES - 1, imageRepository.search(null, (int) DURATION, ImageSearchMode.FULLTEXT, cursor, null)
+            .count()
+            .block());
+  }
+
+  @Test
+  void keywordShouldMatchWordsOfHostAndPath() {
+    //prepare
+    insertImage("https://cdn.example.com/2022/11/star-trek_discovery.JPG");
+    insertImage("https://static.example.org/startrekdiscovery.png");
+
+    //execute & verify
+    assertEquals(1, countMatches("Star Trek", ImageSearchMode.FULLTEXT));
+    assertEquals(1, countMatches("cdn.example.com", ImageSearchMode.FULLTEXT));
+    assertEquals(2, countMatches("example", ImageSearchMode.FULLTEXT));
+    assertEquals(0, countMatches("https", ImageSearchMode.FULLTEXT));
+    //words glued together are found only by substring
+    assertEquals(0, countMatches("trekdiscovery", ImageSearchMode.FULLTEXT));
+    assertEquals(1, countMatches("TREKDISCOVERY", ImageSearchMode.SUBSTRING));
+    //like wildcards in keyword are matched literally
+    assertEquals(1, countMatches("k_d", ImageSearchMode.SUBSTRING));
+    assertEquals(0, countMatches("%", ImageSearchMode.SUBSTRING));
+  }
+
+  @Test
+  void topRankedShouldPutBestMatchesFirst() {
+    //prepare
+    insertImage("https://example.com/trek.png");
+    insertImage("https://example.com/star/trek/star.png");
+    insertImage("https://example.com/star/trek.png");
+
+    //execute
+    List<String> urls = imageRepository.searchTopRanked("star trek", (int) DURATION, 2)
+            .map(ImageProjection::url)
+            .collectList()
+            .block();
+
+    //verify
+    assertEquals(List.of("https://example.com/star/trek/star.png", "https://example.com/star/trek.png"), urls);
+  }
+
+  @Test
+  void keywordSearchShouldUseIndexes() {
+    //prepare
+    databaseClient.sql("""
+                    INSERT INTO images (url, duration)
+                    SELECT 'https://cdn' || (g % 50) || '.example.com/catalog/' || md5(g::text) || '/image-' || g || '.jpg',
+                           :duration
+                    FROM generate_series(1, :count) g
+                    """)
+            .bind("duration", CATALOG_DURATION)
+            .bind("count", CATALOG_IMAGES)
+            .then()
+            .block();
+    databaseClient.sql("ANALYZE images").then().block();
+    ImageSearchRepositoryImpl searchRepository = new ImageSearchRepositoryImpl(databaseClient);
+    String token = md5("4242");
+
+    //execute
+    String fullText = explain(searchRepository.prepareSearch("EXPLAIN ANALYZE ", token, null,
+            ImageSearchMode.FULLTEXT, null, 101));
+    String substring = explain(searchRepository.prepareSearch("EXPLAIN ANALYZE ", token.substring(3, 15), null,
+            ImageSearchMode.SUBSTRING, null, 101));
+    String topRanked = explain(searchRepository.prepareTopRanked("EXPLAIN ANALYZE ", token, null, 10));
+    log.info("Image search over {} images\nfulltext:\n{}\nsubstring:\n{}\ntop ranked:\n{}",
+            CATALOG_IMAGES, fullText, substring, topRanked);
+
+    //verify
+    assertTrue(fullText.contains("idx_images_search_vector"));
+    assertTrue(substring.contains("idx_images_url_trgm"));
+    assertTrue(topRanked.contains("idx_images_search_vector"));
+    assertFalse(fullText.contains("Seq Scan on images"));
+    assertFalse(substring.contains("Seq Scan on images"));
+    assertFalse(topRanked.contains("Seq Scan on images"));
+    assertEquals(1, imageRepository.search(token, null, ImageSearchMode.FULLTEXT, null, 101).count().block());
+  }
+
+  private void insertImage(String url) {
+    databaseClient.sql("INSERT INTO images (url, duration) VALUES (:url, :duration)")
+            .bind("url", url)
+            .bind("duration", DURATION)
+            .then()
+            .block();
+  }
+
+  private long countMatches(String keyword, ImageSearchMode mode) {
+    return imageRepository.search(keyword, (int) DURATION, mode, null, null)
+            .filter(image -> !image.url().startsWith("https://example.com/keyset/"))
+            .count()
+            .block();
+  }
+
+  private String explain(DatabaseClient.GenericExecuteSpec spec) {
+    return String.join("\n", spec
+            .map(row -> row.get(0, String.class))
+            .all()
+            .collectList()
+            .block());
+  }
+
+  private static String md5(String value) {
+    try {
+      return HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(value.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+}
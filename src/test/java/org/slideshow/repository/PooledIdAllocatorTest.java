@@ -0,0 +1,64 @@
+package org.slideshow.repository;
+
+import org.junit.jupiter.api.Test;
+import org.slideshow.TestcontainersConfiguration;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Flux;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Allocates ids from real postgres sequences. Skipped when docker is not available.
+ */
+@SpringBootTest
+@Import(TestcontainersConfiguration.class)
+@Testcontainers(disabledWithoutDocker = true)
+public class PooledIdAllocatorTest {
+
+  @Autowired
+  private DatabaseClient databaseClient;
+
+  @Test
+  void allocateShouldHandOutUniqueIdsToConcurrentRequests() {
+    //prepare
+    //separate allocator, so blocks reserved by other tests don't matter
+    PooledIdAllocator allocator = new PooledIdAllocator(databaseClient);
+
+    //execute
+    List<long[]> allocated = Flux.range(0, 20)
+            .flatMap(i -> allocator.allocate(IdSequence.IMAGES, 37))
+            .collectList()
+            .block();
+
+    //verify
+    long[] ids = allocated.stream().flatMapToLong(Arrays::stream).toArray();
+    assertEquals(20 * 37, ids.length);
+    assertEquals(ids.length, Arrays.stream(ids).distinct().count());
+    assertTrue(Arrays.stream(ids).allMatch(id -> id > 0));
+  }
+
+  @Test
+  void allocateShouldNotReserveBlockWhilePooledIdsLast() {
+    //prepare
+    PooledIdAllocator allocator = new PooledIdAllocator(databaseClient);
+    long first = allocator.allocate(IdSequence.SLIDESHOWS, 1).block()[0];
+
+    //execute
+    long[] next = allocator.allocate(IdSequence.SLIDESHOWS, 19).block();
+
+    //verify
+    //block of slideshow sequence is 20 ids
+    for (int i = 0; i < next.length; i++) {
+      assertEquals(first + i + 1, next[i]);
+    }
+  }
+
+}
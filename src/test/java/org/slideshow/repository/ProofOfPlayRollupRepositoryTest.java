@@ -0,0 +1,102 @@
+package org.slideshow.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slideshow.TestcontainersConfiguration;
+import org.slideshow.model.projection.ProofOfPlayHourlyProjection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs hourly rollup upserts and reports against real postgres. Skipped when docker is not available.
+ */
+@SpringBootTest
+@Import(TestcontainersConfiguration.class)
+@Testcontainers(disabledWithoutDocker = true)
+public class ProofOfPlayRollupRepositoryTest {
+
+  //ids no other test uses, so only rollups of this test are read and removed
+  private static final long SLIDESHOW_ID = 2_000_000L;
+  private static final long OTHER_SLIDESHOW_ID = 2_000_001L;
+  private static final long IMAGE_ID = 3_000_000L;
+  private static final LocalDateTime HOUR = LocalDateTime.of(2025, 1, 13, 8, 0);
+
+  @Autowired
+  private DatabaseClient databaseClient;
+
+  @Autowired
+  private ProofOfPlayEventRepository eventRepository;
+
+  @AfterEach
+  void cleanUp() {
+    databaseClient.sql("DELETE FROM proof_of_play_hourly WHERE slideshow_id IN (:slideshowId, :otherSlideshowId)")
+            .bind("slideshowId", SLIDESHOW_ID)
+            .bind("otherSlideshowId", OTHER_SLIDESHOW_ID)
+            .then()
+            .block();
+  }
+
+  @Test
+  void upsertShouldAddRollupsToStoredOnes() {
+    //prepare
+    eventRepository.upsertHourlyRollups(List.of(
+            rollup(SLIDESHOW_ID, IMAGE_ID, HOUR, 3, 30, 10, 40),
+            rollup(SLIDESHOW_ID, IMAGE_ID + 1, HOUR, 1, 5, 20, 20))).block();
+
+    //execute
+    long rows = eventRepository.upsertHourlyRollups(List.of(
+            rollup(SLIDESHOW_ID, IMAGE_ID, HOUR, 2, 20, 5, 30),
+            rollup(SLIDESHOW_ID, IMAGE_ID, HOUR.plusHours(1), 1, 10, 0, 0))).block();
+
+    //verify
+    assertEquals(2, rows);
+    assertEquals(List.of(
+                    rollup(SLIDESHOW_ID, IMAGE_ID, HOUR, 5, 50, 5, 40),
+                    rollup(SLIDESHOW_ID, IMAGE_ID + 1, HOUR, 1, 5, 20, 20),
+                    rollup(SLIDESHOW_ID, IMAGE_ID, HOUR.plusHours(1), 1, 10, 0, 0)),
+            eventRepository.findHourlyBySlideshowId(SLIDESHOW_ID, HOUR, HOUR.plusDays(1)).collectList().block());
+  }
+
+  @Test
+  void reportsShouldReturnOnlyRequestedHours() {
+    //prepare
+    eventRepository.upsertHourlyRollups(List.of(
+            rollup(SLIDESHOW_ID, IMAGE_ID, HOUR.minusHours(1), 1, 10, 0, 0),
+            rollup(SLIDESHOW_ID, IMAGE_ID, HOUR, 1, 10, 0, 0),
+            rollup(OTHER_SLIDESHOW_ID, IMAGE_ID, HOUR, 2, 20, 0, 0),
+            rollup(SLIDESHOW_ID, IMAGE_ID, HOUR.plusHours(2), 1, 10, 0, 0))).block();
+
+    //execute
+    List<ProofOfPlayHourlyProjection> bySlideshow = eventRepository
+            .findHourlyBySlideshowId(SLIDESHOW_ID, HOUR, HOUR.plusHours(2))
+            .collectList()
+            .block();
+    List<ProofOfPlayHourlyProjection> byImage = eventRepository
+            .findHourlyByImageId(IMAGE_ID, HOUR, HOUR.plusHours(2))
+            .collectList()
+            .block();
+
+    //verify
+    assertEquals(List.of(rollup(SLIDESHOW_ID, IMAGE_ID, HOUR, 1, 10, 0, 0)), bySlideshow);
+    assertEquals(List.of(
+                    rollup(SLIDESHOW_ID, IMAGE_ID, HOUR, 1, 10, 0, 0),
+                    rollup(OTHER_SLIDESHOW_ID, IMAGE_ID, HOUR, 2, 20, 0, 0)),
+            byImage);
+  }
+
+  private static ProofOfPlayHourlyProjection rollup(long slideshowId, long imageId, LocalDateTime hour,
+                                                    long plays, long totalDuration,
+                                                    int firstMinute, int lastMinute) {
+    return new ProofOfPlayHourlyProjection(slideshowId, imageId, hour, plays, totalDuration,
+            hour.plusMinutes(firstMinute), hour.plusMinutes(lastMinute));
+  }
+
+}
@@ -0,0 +1,90 @@
+package org.slideshow.repository;
+
+import org.junit.jupiter.api.Test;
+import org.slideshow.TestcontainersConfiguration;
+import org.slideshow.model.domain.ImageEntity;
+import org.slideshow.model.mapper.SlideshowMapper;
+import org.slideshow.model.projection.SlideshowProjection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Creates slideshows with new and existing images against real postgres. Skipped when docker is not available.
+ */
+@SpringBootTest
+@Import(TestcontainersConfiguration.class)
+@Testcontainers(disabledWithoutDocker = true)
+public class SlideshowInsertRepositoryTest {
+
+  //image id which is never allocated by sequence
+  private static final Long MISSING_IMAGE_ID = 6_000_000_000L;
+
+  @Autowired
+  private ImageRepository imageRepository;
+
+  @Autowired
+  private SlideshowRepository slideshowRepository;
+
+  @Test
+  void createdSlideshowShouldMatchSlideshowReadBack() {
+    //prepare
+    LocalDateTime addedAt = LocalDateTime.of(2025, 1, 13, 10, 0);
+    ImageEntity existing = imageRepository.insertAll(List.of(image(1, addedAt.minusDays(1)))).blockFirst();
+    ImageEntity first = image(2, addedAt);
+    ImageEntity second = image(3, addedAt);
+    first.setContentType("image/png");
+    first.setContentLength(150_000L);
+    first.setEtag("\"v1\"");
+    first.setLastModified(addedAt.minusDays(7));
+    first.setWidth(640);
+    first.setHeight(480);
+
+    //execute
+    SlideshowProjection created = slideshowRepository.insertWithImages(List.of(
+            new ImageEntity(existing.getId(), null, null, null), second,
+            new ImageEntity(MISSING_IMAGE_ID, null, null, null), first)).block();
+
+    //verify
+    assertNotNull(created);
+    assertNotNull(first.getId());
+    assertNotNull(second.getId());
+    SlideshowProjection read = slideshowRepository.findSlideshowWithImagesById(created.slideshowId())
+            .collectList()
+            .map(rows -> SlideshowMapper.toProjection(created.slideshowId(), rows))
+            .block();
+    assertEquals(read.version(), created.version());
+    assertEquals(List.of(second.getId(), first.getId(), existing.getId()), ids(read));
+    assertEquals(ids(read), ids(created));
+    assertEquals(existing.getUrl(), created.images().get(2).getUrl());
+    //probed metadata is stored with new image
+    ImageEntity stored = read.images().get(1);
+    assertEquals("image/png", stored.getContentType());
+    assertEquals(150_000L, stored.getContentLength());
+    assertEquals("\"v1\"", stored.getEtag());
+    assertEquals(addedAt.minusDays(7), stored.getLastModified());
+    assertEquals(640, stored.getWidth());
+    assertEquals(480, stored.getHeight());
+    assertEquals(List.of(existing.getId(), second.getId(), MISSING_IMAGE_ID, first.getId()),
+            slideshowRepository.findById(created.slideshowId()).block().getImagesIds());
+
+    slideshowRepository.deleteById(created.slideshowId()).block();
+    imageRepository.deleteAllByIds(List.of(existing.getId(), first.getId(), second.getId())).blockLast();
+  }
+
+  private static List<Long> ids(SlideshowProjection slideshow) {
+    return slideshow.images().stream().map(ImageEntity::getId).toList();
+  }
+
+  private static ImageEntity image(int number, LocalDateTime addedAt) {
+    return new ImageEntity(null, "https://cdn.example.com/slideshows/" + number + ".png", (short) 10, addedAt);
+  }
+
+}
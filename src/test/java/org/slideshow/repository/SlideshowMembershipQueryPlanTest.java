@@ -0,0 +1,138 @@
+package org.slideshow.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slideshow.TestcontainersConfiguration;
+import org.slideshow.model.domain.ImageEntity;
+import org.slideshow.model.projection.SlideshowDBProjection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks membership queries of slideshows against real postgres and logs EXPLAIN ANALYZE
+ * of image delete fan-out before and after GIN index. Skipped when docker is not available.
+ */
+@SpringBootTest
+@Import(TestcontainersConfiguration.class)
+@Testcontainers(disabledWithoutDocker = true)
+public class SlideshowMembershipQueryPlanTest {
+
+  private static final Logger log = LoggerFactory.getLogger(SlideshowMembershipQueryPlanTest.class);
+
+  private static final int SLIDESHOWS = 50_000;
+  private static final long FIRST_SEEDED_ID = 1_000_000L;
+
+  @Autowired
+  private DatabaseClient databaseClient;
+
+  @Autowired
+  private SlideshowRepository slideshowRepository;
+
+  @Autowired
+  private ImageRepository imageRepository;
+
+  @AfterEach
+  void cleanUp() {
+    databaseClient.sql("DELETE FROM slideshows WHERE id >= :firstId")
+            .bind("firstId", FIRST_SEEDED_ID)
+            .then()
+            .block();
+  }
+
+  @Test
+  void imageDeleteFanOutShouldUseIndexInsteadOfSeqScan() {
+    //prepare
+    //every slideshow holds 5 of 10_000 images, so any image is a member of ~25 slideshows
+    databaseClient.sql("""
+                    INSERT INTO slideshows (id, images_ids)
+                    SELECT :firstId + g,
+                           ARRAY[g % 10000, (g * 7) % 10000, (g * 13) % 10000, (g * 17) % 10000, (g * 31) % 10000]::bigint[]
+                    FROM generate_series(1, :count) g
+                    """)
+            .bind("firstId", FIRST_SEEDED_ID)
+            .bind("count", SLIDESHOWS)
+            .then()
+            .block();
+    databaseClient.sql("ANALYZE slideshows").then().block();
+
+    //execute
+    String before = explain("SELECT id FROM slideshows WHERE 4242 = ANY(images_ids)");
+    String after = explain("SELECT id FROM slideshows WHERE images_ids @> ARRAY[4242]::bigint[]");
+    log.info("Image delete fan-out over {} slideshows\nbefore (= ANY):\n{}\nafter (@> with GIN):\n{}",
+            SLIDESHOWS, before, after);
+
+    //verify
+    assertTrue(before.contains("Seq Scan on slideshows"));
+    assertFalse(after.contains("Seq Scan on slideshows"));
+    assertTrue(after.contains("idx_slideshows_images_ids"));
+    assertEquals(count("SELECT count(*) FROM slideshows WHERE 4242 = ANY(images_ids)"),
+            count("SELECT count(*) FROM slideshows WHERE images_ids @> ARRAY[4242]::bigint[]"));
+    //batch of deleted images is matched in one pass by overlap, served by the same index
+    assertTrue(explain("SELECT id FROM slideshows WHERE images_ids && ARRAY[4242, 4243]::bigint[]")
+            .contains("idx_slideshows_images_ids"));
+  }
+
+  @Test
+  void findSlideshowWithImagesByIdShouldKeepDuplicatesAndSkipDeletedImages() {
+    //prepare
+    ImageEntity first = imageRepository.save(new ImageEntity(null, "https://example.com/1.png", (short) 5, LocalDateTime.now())).block();
+    ImageEntity second = imageRepository.save(new ImageEntity(null, "https://example.com/2.png", (short) 5, LocalDateTime.now())).block();
+    long slideshowId = FIRST_SEEDED_ID;
+    databaseClient.sql("INSERT INTO slideshows (id, images_ids) VALUES (:id, :imagesIds)")
+            .bind("id", slideshowId)
+            .bind("imagesIds", new Long[]{first.getId(), second.getId(), first.getId(), -1L})
+            .then()
+            .block();
+
+    //execute
+    List<SlideshowDBProjection> rows = slideshowRepository.findSlideshowWithImagesById(slideshowId)
+            .collectList()
+            .block();
+    List<Long> updated = slideshowRepository.removeImageIdsFromSlideshows(new Long[]{first.getId()})
+            .collectList()
+            .block();
+
+    //verify
+    List<Long> imageIds = rows.stream().map(SlideshowDBProjection::imageId).filter(id -> id != null).toList();
+    assertEquals(3, imageIds.size());
+    assertEquals(2, imageIds.stream().filter(first.getId()::equals).count());
+    //one row for element pointing to missing image
+    assertEquals(4, rows.size());
+    assertEquals(List.of(slideshowId), updated);
+    assertEquals(List.of(second.getId(), -1L), databaseClient.sql("SELECT images_ids FROM slideshows WHERE id = :id")
+            .bind("id", slideshowId)
+            .map(row -> List.of(row.get(0, Long[].class)))
+            .one()
+            .block());
+
+    imageRepository.deleteAllById(List.of(first.getId(), second.getId())).block();
+  }
+
+  private String explain(String query) {
+    return String.join("\n", databaseClient.sql("EXPLAIN (ANALYZE, BUFFERS) " + query)
+            .map(row -> row.get(0, String.class))
+            .all()
+            .collectList()
+            .block());
+  }
+
+  private long count(String query) {
+    return databaseClient.sql(query)
+            .map(row -> row.get(0, Long.class))
+            .one()
+            .block();
+  }
+
+}
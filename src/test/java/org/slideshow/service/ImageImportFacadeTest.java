@@ -0,0 +1,144 @@
+package org.slideshow.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slideshow.config.ImageImportProperties;
+import org.slideshow.model.domain.ImageEntity;
+import org.slideshow.model.dto.request.ImageCreateRequestDTO;
+import org.slideshow.model.dto.response.ImageImportResultDTO;
+import org.slideshow.model.dto.response.ValidationErrorResponseDTO;
+import org.slideshow.model.projection.ImageMetadata;
+import org.slideshow.validation.ImagesValidationFacade;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.slideshow.validation.ValidationErrorCodes.INTERNAL_SERVER_ERROR;
+import static org.slideshow.validation.ValidationErrorCodes.INTERNAL_VALIDATION_ERROR;
+import static org.slideshow.validation.ValidationErrorCodes.INVALID_IMAGE_DURATION;
+
+@ExtendWith(MockitoExtension.class)
+public class ImageImportFacadeTest {
+
+  private static final int BATCH_SIZE = 3;
+  private static final int VALIDATION_CONCURRENCY = 4;
+
+  @Mock
+  private ImageService imageService;
+
+  @Mock
+  private ImagesValidationFacade validationFacade;
+
+  private ImageImportFacade importFacade;
+
+  private final List<List<ImageEntity>> writtenBatches = new CopyOnWriteArrayList<>();
+  private final AtomicLong nextId = new AtomicLong(1);
+
+  @BeforeEach
+  public void setUp() {
+    importFacade = new ImageImportFacade(imageService, validationFacade,
+            new ImageImportProperties(BATCH_SIZE, Duration.ofMillis(20), VALIDATION_CONCURRENCY));
+    //invalid images don't ask for metadata
+    lenient().when(validationFacade.findImageMetadata(any())).thenReturn(Mono.just(ImageMetadata.UNKNOWN));
+  }
+
+  @Test
+  void importImages_ShouldWriteValidImagesInBatchesAndReportEveryImageInOrder() {
+    //prepare
+    //every third image has invalid duration, validation of the first image is the slowest one
+    when(validationFacade.validateRequest(any())).thenAnswer(invocation -> {
+      ImageCreateRequestDTO request = invocation.getArgument(0);
+      if (request.duration() == 0) {
+        return Mono.just(new ValidationErrorResponseDTO(INVALID_IMAGE_DURATION.getCode(), "invalid duration"));
+      }
+      return request.url().endsWith("/0.png") ? Mono.empty().delaySubscription(Duration.ofMillis(50)) : Mono.empty();
+    });
+    mockSuccessfulWrites();
+
+    //execute
+    List<ImageImportResultDTO> results = importFacade.importImages(images(10)).collectList().block();
+
+    //verify
+    assertEquals(10, results.size());
+    for (int i = 0; i < results.size(); i++) {
+      ImageImportResultDTO result = results.get(i);
+      assertEquals(i, result.position());
+      if (i % 3 == 2) {
+        assertNull(result.id());
+        assertEquals(INVALID_IMAGE_DURATION.getCode(), result.errors().get(0).code());
+      } else {
+        assertTrue(result.id() > 0);
+        assertNull(result.errors());
+      }
+    }
+    assertEquals(7, writtenBatches.stream().mapToInt(List::size).sum());
+    assertTrue(writtenBatches.stream().allMatch(batch -> batch.size() <= BATCH_SIZE));
+  }
+
+  @Test
+  void importImages_ShouldReportFailedBatchAndContinueWithNextOne() {
+    //prepare
+    when(validationFacade.validateRequest(any())).thenAnswer(invocation -> {
+      ImageCreateRequestDTO request = invocation.getArgument(0);
+      return request.url().endsWith("/4.png")
+              ? Mono.error(new IllegalStateException("probe failed"))
+              : Mono.empty();
+    });
+    when(imageService.insertAll(any()))
+            .thenReturn(Flux.error(new RuntimeException("db is down")))
+            .thenAnswer(invocation -> write(invocation.getArgument(0)));
+
+    //execute & verify
+    StepVerifier.create(importFacade.importImages(images(6).filter(image -> image.duration() > 0)))
+            .assertNext(result -> assertEquals(INTERNAL_SERVER_ERROR.getCode(), result.errors().get(0).code()))
+            .assertNext(result -> assertEquals(INTERNAL_SERVER_ERROR.getCode(), result.errors().get(0).code()))
+            .assertNext(result -> assertEquals(INTERNAL_SERVER_ERROR.getCode(), result.errors().get(0).code()))
+            .assertNext(result -> assertEquals(INTERNAL_VALIDATION_ERROR.getCode(), result.errors().get(0).code()))
+            .verifyComplete();
+    verify(imageService, times(2)).insertAll(any());
+  }
+
+  @Test
+  void importImages_ShouldPullUploadOnlyAsFastAsResultsAreConsumed() {
+    //prepare
+    when(validationFacade.validateRequest(any())).thenReturn(Mono.empty());
+    mockSuccessfulWrites();
+    AtomicLong uploaded = new AtomicLong();
+
+    //execute & verify
+    StepVerifier.create(importFacade.importImages(images(1_000_000).doOnNext(image -> uploaded.incrementAndGet())), 1)
+            .expectNextCount(1)
+            .then(() -> assertTrue(uploaded.get() <= 10L * BATCH_SIZE + VALIDATION_CONCURRENCY,
+                    "uploaded " + uploaded.get() + " images for one result"))
+            .thenCancel()
+            .verify();
+  }
+
+  private void mockSuccessfulWrites() {
+    when(imageService.insertAll(any())).thenAnswer(invocation -> write(invocation.getArgument(0)));
+  }
+
+  private Flux<ImageEntity> write(List<ImageEntity> batch) {
+    writtenBatches.add(batch);
+    return Flux.fromIterable(batch).doOnNext(image -> image.setId(nextId.getAndIncrement()));
+  }
+
+  private static Flux<ImageCreateRequestDTO> images(int count) {
+    return Flux.range(0, count)
+            .map(i -> new ImageCreateRequestDTO("https://example.com/" + i + ".png", (short) (i % 3 == 2 ? 0 : 10)));
+  }
+
+}
@@ -7,14 +7,13 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.slideshow.model.domain.ImageEntity;
-import org.slideshow.model.domain.SlideshowEntity;
+import org.slideshow.model.projection.ImageBulkDeleteResult;
 import org.slideshow.model.projection.SlideshowProjection;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -37,71 +36,84 @@ public class SlideshowServiceFacadeTest {
   }
 
   @Test
-  @SuppressWarnings("unchecked")
   public void createSlideshow_ShouldCreateSlideshowWithNewAndExistingImages() {
     //prepare
     ImageEntity newImage = new ImageEntity();
     ImageEntity existingImage = new ImageEntity();
     existingImage.setId(1L);
 
-    ImageEntity savedNewImage = new ImageEntity();
-    savedNewImage.setId(2L);
-
-    SlideshowEntity slideshowEntity = new SlideshowEntity();
-    slideshowEntity.setId(3L);
-    slideshowEntity.setImagesIds(List.of(savedNewImage.getId(), existingImage.getId()));
-
-    SlideshowProjection slideshowProjection = mock(SlideshowProjection.class);
+    SlideshowProjection slideshowProjection = new SlideshowProjection(3L, 1L, List.of(existingImage, newImage));
 
-    when(imageService.createImages(any(Flux.class))).thenReturn(Flux.just(savedNewImage));
-    when(slideshowService.createSlideshow(any(Mono.class))).thenReturn(Mono.just(slideshowEntity));
-    when(slideshowService.getSlideshowById(any())).thenReturn(Mono.just(slideshowProjection));
+    when(slideshowService.createSlideshow(List.of(existingImage, newImage))).thenReturn(Mono.just(slideshowProjection));
 
     //execute
-    StepVerifier.create(slideshowServiceFacade.createSlideshow(Flux.just(newImage, existingImage)))
+    StepVerifier.create(slideshowServiceFacade.createSlideshow(Flux.just(existingImage, newImage)))
             .expectNext(slideshowProjection)
             .verifyComplete();
 
     //validate
-    verify(imageService).createImages(any(Flux.class));
-
-    //count how many ids propagated to createSlideshow method
-    verify(slideshowService).createSlideshow(argThat(ids -> {
-      AtomicInteger count = new AtomicInteger();
-      ids
-              .subscribe(list -> count.set(list.size()))//subscribe to stream
-              .dispose();//unsubscribe from stream
-      return count.get() == 2;
-    }));
+    //images are passed in request order and created slideshow isn't read back
+    verify(slideshowService).createSlideshow(List.of(existingImage, newImage));
+    verify(slideshowService, never()).getSlideshowById(any());
+    verifyNoInteractions(imageService);
   }
 
   @Test
   @SuppressWarnings("unchecked")
-  void deleteImageAndUpdateSlideshow_ShouldDeleteAndUpdateSuccessfully() {
+  void deleteImageAndUpdateSlideshow_ShouldDeleteImageAndChangeVersionOfItsSlideshows() {
     //prepare
-    when(imageService.deleteImageById(any())).thenReturn(Mono.empty());
-    when(slideshowService.removeImagesFromSlideshow(any(Mono.class))).thenReturn(Mono.just(1));
+    when(imageService.deleteImageById(1L)).thenReturn(Mono.empty());
+    when(slideshowService.markSlideshowsWithImagesChanged(List.of(1L))).thenReturn(Mono.just(2));
 
     //execute
     StepVerifier.create(slideshowServiceFacade.deleteImageAndUpdateSlideshow(Mono.just(1L)))
             .verifyComplete();
 
     //validate
-    verify(imageService).deleteImageById(any());
-    verify(slideshowService).removeImagesFromSlideshow(any(Mono.class));
+    verify(imageService).deleteImageById(1L);
+    verify(slideshowService).markSlideshowsWithImagesChanged(List.of(1L));
+    verify(slideshowService, never()).removeImagesFromSlideshows(any());
   }
 
   @Test
-  void deleteImageAndUpdateSlideshow_ShouldHandleErrorGracefully() {
+  void deleteImageAndUpdateSlideshow_ShouldPropagateError() {
     //prepare
     when(imageService.deleteImageById(any())).thenReturn(Mono.error(new RuntimeException("Error deleting image")));
 
     //execute
     StepVerifier.create(slideshowServiceFacade.deleteImageAndUpdateSlideshow(Mono.just(1L)))
-            .verifyComplete();
+            .expectErrorMessage("Error deleting image")
+            .verify();
 
     //validate
     verify(imageService).deleteImageById(any());
     verifyNoInteractions(slideshowService);
   }
-}
\ No newline at end of file
+
+  @Test
+  void deleteImagesAndUpdateSlideshows_ShouldRemoveAllRequestedIdsFromSlideshows() {
+    //prepare
+    //image 3 was deleted before, its id is still removed from slideshows
+    when(imageService.deleteImagesById(List.of(1L, 2L, 3L))).thenReturn(Flux.just(1L, 2L));
+    when(slideshowService.removeImagesFromSlideshows(List.of(1L, 2L, 3L))).thenReturn(Mono.just(4));
+
+    //execute
+    StepVerifier.create(slideshowServiceFacade.deleteImagesAndUpdateSlideshows(List.of(1L, 2L, 3L)))
+            .expectNext(new ImageBulkDeleteResult(List.of(1L, 2L), 4))
+            .verifyComplete();
+  }
+
+  @Test
+  void deleteImagesAndUpdateSlideshows_ShouldNotUpdateSlideshowsWhenDeleteFails() {
+    //prepare
+    when(imageService.deleteImagesById(any())).thenReturn(Flux.error(new RuntimeException("Error deleting images")));
+
+    //execute
+    StepVerifier.create(slideshowServiceFacade.deleteImagesAndUpdateSlideshows(List.of(1L)))
+            .expectErrorMessage("Error deleting images")
+            .verify();
+
+    //validate
+    verifyNoInteractions(slideshowService);
+  }
+}
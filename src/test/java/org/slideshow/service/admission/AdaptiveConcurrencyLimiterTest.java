@@ -0,0 +1,135 @@
+package org.slideshow.service.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slideshow.config.AdmissionProperties;
+import org.slideshow.config.ProofOfPlayIngestProperties;
+import org.slideshow.config.ProofOfPlayIngestProperties.IngestMode;
+import org.slideshow.ingest.ProofOfPlayIngestException;
+import org.slideshow.service.admission.AdaptiveConcurrencyLimiter.Priority;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Period;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.slideshow.config.ProofOfPlayIngestProperties.Partitioning.Granularity.DAILY;
+import static org.slideshow.config.ProofOfPlayIngestProperties.Partitioning.RetentionAction.DETACH;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+  private static final AdmissionProperties PROPERTIES =
+          new AdmissionProperties(4, 2, 6, Duration.ofHours(1), 0.5, 0.25, Duration.ofSeconds(1));
+
+  private SimpleMeterRegistry meterRegistry;
+  private AdaptiveConcurrencyLimiter limiter;
+
+  @BeforeEach
+  public void setUp() {
+    //latency threshold is never reached, limit is changed by load and errors only
+    meterRegistry = new SimpleMeterRegistry();
+    limiter = new AdaptiveConcurrencyLimiter(PROPERTIES, ingestProperties(IngestMode.DIRECT), meterRegistry);
+  }
+
+  private static ProofOfPlayIngestProperties ingestProperties(IngestMode mode) {
+    //4 batches of 3 events
+    return new ProofOfPlayIngestProperties(mode,
+            new ProofOfPlayIngestProperties.Batch(3, Duration.ofMillis(20), 4, 100),
+            new ProofOfPlayIngestProperties.Kafka("proof-of-play-events", 12, (short) 1, Duration.ofSeconds(30),
+                    Duration.ofMinutes(10)),
+            new ProofOfPlayIngestProperties.Rollup(Duration.ofSeconds(10)),
+            new ProofOfPlayIngestProperties.Partitioning(DAILY, 7, Period.ofDays(90), DETACH, Duration.ofHours(1)));
+  }
+
+  @Test
+  void execute_ShouldRejectIngestAboveLimitMinusReadReserveButAdmitReads() {
+    //prepare
+    //3 of 4 slots are available to ingest
+    Sinks.One<String> pending = Sinks.one();
+    limiter.execute(Priority.INGEST, pending.asMono()).subscribe();
+    limiter.execute(Priority.INGEST, pending.asMono()).subscribe();
+    limiter.execute(Priority.INGEST, pending.asMono()).subscribe();
+
+    //execute & verify
+    StepVerifier.create(limiter.execute(Priority.INGEST, Mono.just("event")))
+            .expectError(AdmissionRejectedException.class)
+            .verify();
+    StepVerifier.create(limiter.execute(Priority.READ, Mono.just("slideshow")))
+            .expectNext("slideshow")
+            .verifyComplete();
+
+    assertEquals(1.0, meterRegistry.get(AdaptiveConcurrencyLimiter.REJECTED_COUNTER)
+            .tag("priority", "ingest").counter().count());
+    assertEquals(3.0, meterRegistry.get(AdaptiveConcurrencyLimiter.IN_FLIGHT_GAUGE).gauge().value());
+
+    pending.tryEmitValue("written");
+    assertEquals(0.0, meterRegistry.get(AdaptiveConcurrencyLimiter.IN_FLIGHT_GAUGE).gauge().value());
+  }
+
+  @Test
+  void execute_ShouldIncreaseLimitOnlyByCallsMadeUnderLoad() {
+    //prepare
+    Sinks.One<String> first = Sinks.one();
+    Sinks.One<String> second = Sinks.one();
+    limiter.execute(Priority.INGEST, first.asMono()).subscribe();
+    limiter.execute(Priority.INGEST, second.asMono()).subscribe();
+
+    //execute
+    //second call was made with half of the limit in flight, first one alone
+    second.tryEmitValue("written");
+    first.tryEmitValue("written");
+
+    //verify
+    assertEquals(5, limiter.getLimit());
+    assertEquals(5.0, meterRegistry.get(AdaptiveConcurrencyLimiter.LIMIT_GAUGE).gauge().value());
+  }
+
+  @Test
+  void execute_ShouldDecreaseLimitOnOverloadDownToMinimum() {
+    //execute & verify
+    //errors unrelated to load don't change limit
+    StepVerifier.create(limiter.execute(Priority.INGEST, Mono.error(new IllegalArgumentException("invalid event"))))
+            .expectError(IllegalArgumentException.class)
+            .verify();
+    assertEquals(4, limiter.getLimit());
+
+    StepVerifier.create(limiter.execute(Priority.INGEST,
+                    Mono.error(new ProofOfPlayIngestException("Proof-of-play write buffer is full"))))
+            .expectError(ProofOfPlayIngestException.class)
+            .verify();
+    assertEquals(2, limiter.getLimit());
+
+    StepVerifier.create(limiter.execute(Priority.INGEST,
+                    Mono.error(new ProofOfPlayIngestException("Proof-of-play write buffer is full"))))
+            .expectError(ProofOfPlayIngestException.class)
+            .verify();
+    assertEquals(2, limiter.getLimit());
+  }
+
+  @Test
+  void execute_ShouldIncreaseLimitUntilBatchesInFlightFitIngestShareInBatchedMode() {
+    //prepare
+    //12 events of batches in flight take 0.75 of limit 16, above configured max limit 6
+    limiter = new AdaptiveConcurrencyLimiter(PROPERTIES, ingestProperties(IngestMode.BATCHED), meterRegistry);
+    Sinks.One<String> pending = Sinks.one();
+    int inFlight = 0;
+
+    //execute
+    //every call is made with all but one of ingest slots taken, so it's made under load
+    for (int i = 0; i < 30; i++) {
+      for (; inFlight < (int) (limiter.getLimit() * 0.75) - 1; inFlight++) {
+        limiter.execute(Priority.INGEST, pending.asMono()).subscribe();
+      }
+      StepVerifier.create(limiter.execute(Priority.INGEST, Mono.just("event")))
+              .expectNext("event")
+              .verifyComplete();
+    }
+
+    //verify
+    assertEquals(16, limiter.getLimit());
+  }
+
+}
@@ -6,19 +6,20 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.reactivestreams.Publisher;
 import org.slideshow.model.domain.ImageEntity;
 import org.slideshow.model.projection.ImageProjection;
+import org.slideshow.model.projection.ImageSearchCursor;
+import org.slideshow.model.projection.ImageSearchMode;
 import org.slideshow.repository.ImageRepository;
 import org.slideshow.service.ImageService;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 
-import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -44,7 +45,7 @@ public class ImageServiceTest {
   @Test
   void createImage_ShouldSaveImage() {
     //prepare
-    when(imageRepository.save(any())).thenReturn(Mono.just(imageEntity));
+    when(imageRepository.insertAll(List.of(imageEntity))).thenReturn(Flux.just(imageEntity));
 
     //execute
     StepVerifier.create(imageService.createImage(Mono.just(imageEntity)))
@@ -52,23 +53,22 @@ public class ImageServiceTest {
             .verifyComplete();
 
     //verify
-    verify(imageRepository).save(any(ImageEntity.class));
+    verify(imageRepository).insertAll(List.of(imageEntity));
   }
 
   @Test
-  @SuppressWarnings("unchecked")
-  void createImages_ShouldSaveMultipleImages() {
+  void insertAll_ShouldInsertAllImagesAtOnce() {
     //prepare
     List<ImageEntity> imageEntities = Arrays.asList(new ImageEntity(), new ImageEntity());
-    when(imageRepository.saveAll(any(Publisher.class))).thenReturn(Flux.fromIterable(imageEntities));
+    when(imageRepository.insertAll(imageEntities)).thenReturn(Flux.fromIterable(imageEntities));
 
     //execute
-    StepVerifier.create(imageService.createImages(Flux.fromIterable(imageEntities)))
+    StepVerifier.create(imageService.insertAll(imageEntities))
             .expectNextCount(2)
             .verifyComplete();
 
     //validate
-    verify(imageRepository).saveAll(any(Publisher.class));
+    verify(imageRepository).insertAll(imageEntities);
   }
 
   @Test
@@ -104,28 +104,71 @@ public class ImageServiceTest {
   void findByKeywordAndDuration_ShouldReturnMatchingImages() {
     //prepare
     ImageProjection projection = mock(ImageProjection.class);
-    when(imageRepository.findByKeywordAndDuration("test", 10))
+    ImageSearchCursor after = new ImageSearchCursor(LocalDateTime.now(), 1L);
+    when(imageRepository.search("test", 10, ImageSearchMode.FULLTEXT, after, 50))
             .thenReturn(Flux.just(projection));
 
     //execute
-    StepVerifier.create(imageService.findByKeywordAndDuration("test", 10))
+    StepVerifier.create(imageService.findByKeywordAndDuration("test", 10, ImageSearchMode.FULLTEXT, after, 50))
             .expectNext(projection)
             .verifyComplete();
 
     //verify
-    verify(imageRepository).findByKeywordAndDuration("test", 10);
+    verify(imageRepository).search("test", 10, ImageSearchMode.FULLTEXT, after, 50);
   }
 
   @Test
-  void deleteImageById_ShouldDeleteImage() {
+  void streamByKeywordAndDuration_ShouldSearchWithoutLimit() {
     //prepare
-    when(imageRepository.deleteById(1L)).thenReturn(Mono.empty());
+    ImageProjection projection = mock(ImageProjection.class);
+    when(imageRepository.search("test", null, ImageSearchMode.SUBSTRING, null, null))
+            .thenReturn(Flux.just(projection, projection));
+
+    //execute
+    StepVerifier.create(imageService.streamByKeywordAndDuration("test", null, ImageSearchMode.SUBSTRING, null))
+            .expectNextCount(2)
+            .verifyComplete();
+
+    //verify
+    verify(imageRepository).search("test", null, ImageSearchMode.SUBSTRING, null, null);
+  }
+
+  @Test
+  void findTopRankedByKeyword_ShouldReturnRankedImages() {
+    //prepare
+    ImageProjection projection = mock(ImageProjection.class);
+    when(imageRepository.searchTopRanked("test", 10, 5)).thenReturn(Flux.just(projection));
+
+    //execute
+    StepVerifier.create(imageService.findTopRankedByKeyword("test", 10, 5))
+            .expectNext(projection)
+            .verifyComplete();
+
+    //verify
+    verify(imageRepository).searchTopRanked("test", 10, 5);
+  }
+
+  @Test
+  void deleteImageById_ShouldDeleteImageAndRecordTombstone() {
+    //prepare
+    when(imageRepository.deleteWithTombstones(List.of(1L))).thenReturn(Mono.just(1L));
 
     //execute
     StepVerifier.create(imageService.deleteImageById(1L))
             .verifyComplete();
 
     //verify
-    verify(imageRepository).deleteById(1L);
+    verify(imageRepository).deleteWithTombstones(List.of(1L));
+  }
+
+  @Test
+  void deleteImagesById_ShouldReturnIdsOfDeletedImages() {
+    //prepare
+    when(imageRepository.deleteAllByIds(List.of(1L, 2L))).thenReturn(Flux.just(2L));
+
+    //execute
+    StepVerifier.create(imageService.deleteImagesById(List.of(1L, 2L)))
+            .expectNext(2L)
+            .verifyComplete();
   }
-}
\ No newline at end of file
+}
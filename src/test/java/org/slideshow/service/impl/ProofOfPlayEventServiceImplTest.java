@@ -1,20 +1,35 @@
 package org.slideshow.service.impl;
 
-import org.junit.jupiter.api.BeforeEach;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.slideshow.config.ProofOfPlayIngestProperties;
+import org.slideshow.config.ProofOfPlayIngestProperties.IngestMode;
+import org.slideshow.ingest.ProofOfPlayEventBatchWriter;
+import org.slideshow.ingest.ProofOfPlayEventPublisher;
+import org.slideshow.ingest.ProofOfPlayIngestMetrics;
+import org.slideshow.ingest.ProofOfPlayRollupAggregator;
 import org.slideshow.model.domain.ProofOfPlayEventEntity;
 import org.slideshow.repository.ProofOfPlayEventRepository;
 import org.slideshow.service.ProofOfPlayEventService;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
+import java.time.Period;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static org.slideshow.config.ProofOfPlayIngestProperties.Partitioning.Granularity.DAILY;
+import static org.slideshow.config.ProofOfPlayIngestProperties.Partitioning.RetentionAction.DETACH;
 
 @ExtendWith(MockitoExtension.class)
 public class ProofOfPlayEventServiceImplTest {
@@ -22,22 +37,59 @@ public class ProofOfPlayEventServiceImplTest {
   @Mock
   private ProofOfPlayEventRepository eventRepository;
 
-  @InjectMocks
-  private ProofOfPlayEventServiceImpl proofOfPlayEventServiceImpl;
+  @Mock
+  private ProofOfPlayEventBatchWriter batchWriter;
+
+  @Mock
+  private ProofOfPlayEventPublisher eventPublisher;
+
+  @Mock
+  private ProofOfPlayRollupAggregator rollupAggregator;
 
-  private ProofOfPlayEventService proofOfPlayEventService;
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
 
-  @BeforeEach
-  void setUp() {
-    proofOfPlayEventService = proofOfPlayEventServiceImpl;
+  private ProofOfPlayEventService createService(IngestMode mode) {
+    ProofOfPlayIngestProperties properties = new ProofOfPlayIngestProperties(mode,
+            new ProofOfPlayIngestProperties.Batch(500, Duration.ofMillis(20), 4, 20000),
+            new ProofOfPlayIngestProperties.Kafka("proof-of-play-events", 12, (short) 1, Duration.ofSeconds(30),
+                    Duration.ofMinutes(10)),
+            new ProofOfPlayIngestProperties.Rollup(Duration.ofSeconds(10)),
+            new ProofOfPlayIngestProperties.Partitioning(DAILY, 7, Period.ofDays(90), DETACH, Duration.ofHours(1)));
+    return new ProofOfPlayEventServiceImpl(eventRepository, batchWriter, eventPublisher, rollupAggregator,
+            new ProofOfPlayIngestMetrics(meterRegistry, properties), properties);
+  }
+
+  private double events(String result) {
+    return meterRegistry.get(ProofOfPlayIngestMetrics.EVENTS_COUNTER).tag("result", result).counter().count();
   }
 
   @Test
   public void recordProofOfPlay() {
     //prepare
+    ProofOfPlayEventService proofOfPlayEventService = createService(IngestMode.DIRECT);
+    ProofOfPlayEventEntity event = new ProofOfPlayEventEntity();
+    event.setId(1L);
+    when(eventRepository.insertAll(List.of(event))).thenReturn(Flux.just(event));
+
+    //execute
+    StepVerifier.create(proofOfPlayEventService.recordProofOfPlay(Mono.just(event)))
+            .expectNext(event)
+            .verifyComplete();
+
+    //verify
+    verify(eventRepository).insertAll(List.of(event));
+    verify(rollupAggregator).record(event);
+    verifyNoInteractions(batchWriter);
+    assertEquals(1, events("accepted"));
+  }
+
+  @Test
+  public void recordProofOfPlay_ShouldWriteThroughBatchWriterInBatchedMode() {
+    //prepare
+    ProofOfPlayEventService proofOfPlayEventService = createService(IngestMode.BATCHED);
     ProofOfPlayEventEntity event = new ProofOfPlayEventEntity();
     event.setId(1L);
-    when(eventRepository.save(any())).thenReturn(Mono.just(event));
+    when(batchWriter.write(event)).thenReturn(Mono.just(event));
 
     //execute
     StepVerifier.create(proofOfPlayEventService.recordProofOfPlay(Mono.just(event)))
@@ -45,7 +97,42 @@ public class ProofOfPlayEventServiceImplTest {
             .verifyComplete();
 
     //verify
-    verify(eventRepository).save(any(ProofOfPlayEventEntity.class));
+    verify(batchWriter).write(event);
+    verify(rollupAggregator).record(event);
+    verify(eventRepository, never()).insertAll(any());
+  }
+
+  @Test
+  public void recordProofOfPlay_ShouldOnlyPublishEventInKafkaMode() {
+    //prepare
+    ProofOfPlayEventService proofOfPlayEventService = createService(IngestMode.KAFKA);
+    ProofOfPlayEventEntity event = new ProofOfPlayEventEntity();
+    when(eventPublisher.publish(event)).thenReturn(Mono.just(event));
 
+    //execute
+    StepVerifier.create(proofOfPlayEventService.recordProofOfPlay(Mono.just(event)))
+            .expectNext(event)
+            .verifyComplete();
+
+    //verify
+    verify(eventPublisher).publish(event);
+    verifyNoInteractions(eventRepository, batchWriter, rollupAggregator);
+    assertEquals(1, events("accepted"));
+  }
+
+  @Test
+  public void recordProofOfPlay_ShouldCountFailedPublish() {
+    //prepare
+    ProofOfPlayEventService proofOfPlayEventService = createService(IngestMode.KAFKA);
+    ProofOfPlayEventEntity event = new ProofOfPlayEventEntity();
+    when(eventPublisher.publish(event)).thenReturn(Mono.error(new RuntimeException("broker is down")));
+
+    //execute
+    StepVerifier.create(proofOfPlayEventService.recordProofOfPlay(Mono.just(event)))
+            .verifyError(RuntimeException.class);
+
+    //verify
+    assertEquals(1, events("failed"));
+    assertEquals(0, events("accepted"));
   }
-}
\ No newline at end of file
+}
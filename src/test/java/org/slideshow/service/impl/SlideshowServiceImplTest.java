@@ -1,28 +1,34 @@
 package org.slideshow.service.impl;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.reactivestreams.Publisher;
+import org.slideshow.config.SlideshowCacheProperties;
 import org.slideshow.model.domain.ImageEntity;
 import org.slideshow.model.domain.SlideshowEntity;
 import org.slideshow.model.projection.SlideshowDBProjection;
 import org.slideshow.model.projection.SlideshowProjection;
 import org.slideshow.repository.SlideshowRepository;
 import org.slideshow.service.SlideshowService;
+import org.slideshow.service.cache.SlideshowProjectionCache;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,8 +37,7 @@ public class SlideshowServiceImplTest {
   @Mock
   private SlideshowRepository slideshowRepository;
 
-  @InjectMocks
-  private SlideshowServiceImpl slideshowServiceImpl;
+  private SlideshowProjectionCache slideshowCache;
 
   private SlideshowService slideshowService;
 
@@ -43,7 +48,9 @@ public class SlideshowServiceImplTest {
 
   @BeforeEach
   public void setUp() {
-    slideshowService = slideshowServiceImpl;
+    slideshowCache = new SlideshowProjectionCache(new SlideshowCacheProperties(100, Duration.ofMinutes(5)),
+            new SimpleMeterRegistry());
+    slideshowService = new SlideshowServiceImpl(slideshowRepository, slideshowCache);
 
     slideshowEntity = new SlideshowEntity();
     slideshowEntity.setId(1L);
@@ -56,28 +63,30 @@ public class SlideshowServiceImplTest {
     imageEntity.setUrl(url);
     imageEntity.setDuration(duration);
 
-    slideshowDBProjection = new SlideshowDBProjection(slideshowEntity.getId(), 1L, url, duration, LocalDateTime.now());
-    slideshowProjection = new SlideshowProjection(slideshowEntity.getId(), List.of(imageEntity));
+    slideshowDBProjection = new SlideshowDBProjection(slideshowEntity.getId(), 1L, 1L, url, duration, LocalDateTime.now(),
+            null, null, null, null, null, null);
+    slideshowProjection = new SlideshowProjection(slideshowEntity.getId(), 1L, List.of(imageEntity));
 
 //    slideshowProjection = mock(SlideshowProjection.class);
 
   }
 
   @Test
-  public void createSlideshow_ShouldSaveSlideshowAndReturnProjection() {
+  public void createSlideshow_ShouldInsertSlideshowWithImagesAndReturnProjection() {
     //prepare
-    List<Long> imageIds = Arrays.asList(1L, 2L);
+    List<ImageEntity> images = List.of(new ImageEntity(1L, null, null, null),
+            new ImageEntity(null, "test_url", (short) 10, LocalDateTime.now()));
 
-    when(slideshowRepository.save(any(SlideshowEntity.class)))
-            .thenReturn(Mono.just(slideshowEntity));
+    when(slideshowRepository.insertWithImages(images))
+            .thenReturn(Mono.just(slideshowProjection));
 
     //execute
-    StepVerifier.create(slideshowService.createSlideshow(Mono.just(imageIds)))
-            .expectNext(slideshowEntity)
+    StepVerifier.create(slideshowService.createSlideshow(images))
+            .expectNext(slideshowProjection)
             .verifyComplete();
 
     //verify
-    verify(slideshowRepository).save(any(SlideshowEntity.class));
+    verify(slideshowRepository).insertWithImages(images);
   }
 
   @Test
@@ -100,30 +109,122 @@ public class SlideshowServiceImplTest {
   }
 
   @Test
-  @SuppressWarnings("unchecked")
+  public void getSlideshowById_ShouldServeRepeatedAndConcurrentReadsFromSingleQuery() {
+    //prepare
+    when(slideshowRepository.findSlideshowWithImagesById(1L))
+            .thenReturn(Flux.just(slideshowDBProjection).delayElements(Duration.ofMillis(50)));
+
+    //execute
+    StepVerifier.create(Flux.range(0, 5).flatMap(i -> slideshowService.getSlideshowById(1L)))
+            .expectNextCount(5)
+            .verifyComplete();
+    StepVerifier.create(slideshowService.getSlideshowById(1L))
+            .expectNextCount(1)
+            .verifyComplete();
+
+    //verify
+    verify(slideshowRepository, times(1)).findSlideshowWithImagesById(1L);
+    assertEquals(1, slideshowCache.stats().missCount());
+    assertEquals(5, slideshowCache.stats().hitCount());
+  }
+
+  @Test
+  public void getSlideshowVersion_ShouldReadVersionBypassingCache() {
+    //prepare
+    when(slideshowRepository.findSlideshowWithImagesById(1L)).thenReturn(Flux.just(slideshowDBProjection));
+    when(slideshowRepository.findVersionById(1L)).thenReturn(Mono.just(2L));
+    slideshowService.getSlideshowById(1L).block();
+
+    //execute
+    StepVerifier.create(slideshowService.getSlideshowVersion(1L))
+            .expectNext(2L)
+            .verifyComplete();
+
+    //verify
+    verify(slideshowRepository).findVersionById(1L);
+  }
+
+  @Test
   public void deleteSlideshowById_ShouldDeleteSlideshow() {
     //prepare
-    when(slideshowRepository.deleteById(any(Publisher.class))).thenReturn(Mono.empty());
+    when(slideshowRepository.findSlideshowWithImagesById(1L)).thenReturn(Flux.just(slideshowDBProjection));
+    when(slideshowRepository.deleteById(1L)).thenReturn(Mono.empty());
+    slideshowService.getSlideshowById(1L).block();
 
     //execute
     StepVerifier.create(slideshowService.deleteSlideshowById(Mono.just(1L)))
             .verifyComplete();
+    slideshowService.getSlideshowById(1L).block();
+
+    //verify
+    verify(slideshowRepository).deleteById(1L);
+    //cached slideshow was invalidated, so second read went to repository
+    verify(slideshowRepository, times(2)).findSlideshowWithImagesById(1L);
+  }
+
+  @Test
+  public void removeImagesFromSlideshows_ShouldRemoveImagesAndReturnCount() {
+    //prepare
+    when(slideshowRepository.removeImageIdsFromSlideshows(new Long[]{1L, 2L})).thenReturn(Flux.just(1L, 3L));
+
+    //execute
+    StepVerifier.create(slideshowService.removeImagesFromSlideshows(List.of(1L, 2L)))
+            .expectNext(2)
+            .verifyComplete();
+
+    //verify
+    verify(slideshowRepository).removeImageIdsFromSlideshows(new Long[]{1L, 2L});
+  }
+
+  @Test
+  public void removeImagesFromSlideshows_ShouldSkipEmptyBatch() {
+    //execute
+    StepVerifier.create(slideshowService.removeImagesFromSlideshows(List.of()))
+            .expectNext(0)
+            .verifyComplete();
+
+    //verify
+    verifyNoInteractions(slideshowRepository);
+  }
+
+  @Test
+  public void removeImagesFromSlideshows_ShouldInvalidateOnlyUpdatedSlideshows() {
+    //prepare
+    SlideshowDBProjection otherSlideshowRow = new SlideshowDBProjection(2L, 1L, 3L, "other_url", (short) 5,
+            LocalDateTime.now(), null, null, null, null, null, null);
+    when(slideshowRepository.findSlideshowWithImagesById(1L)).thenReturn(Flux.just(slideshowDBProjection));
+    when(slideshowRepository.findSlideshowWithImagesById(2L)).thenReturn(Flux.just(otherSlideshowRow));
+    when(slideshowRepository.removeImageIdsFromSlideshows(new Long[]{1L})).thenReturn(Flux.just(1L));
+    slideshowService.getSlideshowById(1L).block();
+    slideshowService.getSlideshowById(2L).block();
+
+    //execute
+    StepVerifier.create(slideshowService.removeImagesFromSlideshows(List.of(1L)))
+            .expectNext(1)
+            .verifyComplete();
+    slideshowService.getSlideshowById(1L).block();
+    slideshowService.getSlideshowById(2L).block();
 
     //verify
-    verify(slideshowRepository).deleteById(any(Publisher.class));
+    verify(slideshowRepository, times(2)).findSlideshowWithImagesById(1L);
+    verify(slideshowRepository, times(1)).findSlideshowWithImagesById(2L);
   }
 
   @Test
-  public void removeImagesFromSlideshow_ShouldRemoveImageAndReturnCount() {
+  public void markSlideshowsWithImagesChanged_ShouldInvalidateSlideshowsHoldingImages() {
     //prepare
-    when(slideshowRepository.removeImageIdFromSlideshows(1L)).thenReturn(Mono.just(1));
+    when(slideshowRepository.findSlideshowWithImagesById(1L)).thenReturn(Flux.just(slideshowDBProjection));
+    when(slideshowRepository.notifySlideshowsWithImagesChanged(new Long[]{1L})).thenReturn(Flux.just(1L));
+    slideshowService.getSlideshowById(1L).block();
 
     //execute
-    StepVerifier.create(slideshowService.removeImagesFromSlideshow(Mono.just(1L)))
+    StepVerifier.create(slideshowService.markSlideshowsWithImagesChanged(List.of(1L)))
             .expectNext(1)
             .verifyComplete();
+    slideshowService.getSlideshowById(1L).block();
 
     //verify
-    verify(slideshowRepository).removeImageIdFromSlideshows(1L);
+    verify(slideshowRepository, times(2)).findSlideshowWithImagesById(1L);
+    verify(slideshowRepository, never()).removeImageIdsFromSlideshows(any());
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,98 @@
+package org.slideshow.service.notification;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slideshow.TestcontainersConfiguration;
+import org.slideshow.model.domain.ImageEntity;
+import org.slideshow.model.projection.SlideshowChange;
+import org.slideshow.repository.SlideshowRepository;
+import org.slideshow.service.SlideshowServiceFacade;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Publishes slideshow changes through real postgres NOTIFY. Skipped when docker is not available.
+ */
+@SpringBootTest
+@Import(TestcontainersConfiguration.class)
+@Testcontainers(disabledWithoutDocker = true)
+public class SlideshowChangeNotificationTest {
+
+  //ids no other test uses
+  private static final long IMAGE_ID = 5_000_000L;
+  private static final long DELETED_IMAGE_ID = 5_000_001L;
+
+  @Autowired
+  private DatabaseClient databaseClient;
+
+  @Autowired
+  private SlideshowRepository slideshowRepository;
+
+  @Autowired
+  private SlideshowServiceFacade slideshowFacade;
+
+  @Autowired
+  private SlideshowChangeNotifier notifier;
+
+  //listening connection is opened once application is ready, changes before it aren't delivered
+  @BeforeEach
+  void awaitListening() {
+    Flux.interval(Duration.ofMillis(100))
+            .concatMap(tick -> databaseClient.sql("""
+                        SELECT count(*) FROM pg_stat_activity WHERE query = 'LISTEN %s'
+                    """.formatted(SlideshowChangeNotifier.CHANNEL))
+                    .map(row -> row.get(0, Long.class))
+                    .one())
+            .filter(listening -> listening > 0)
+            .next()
+            .block(Duration.ofSeconds(30));
+  }
+
+  @Test
+  void changesShouldBeDeliveredForImageRemovalAndSlideshowDeletion() {
+    //prepare
+    //images are referenced by id only, notification doesn't depend on them existing
+    Long id = slideshowRepository.insertWithImages(List.of(
+                    new ImageEntity(IMAGE_ID, null, null, null), new ImageEntity(1L, null, null, null)))
+            .block()
+            .slideshowId();
+
+    //execute & verify
+    StepVerifier.create(notifier.changes(id).take(2))
+            .then(() -> slideshowRepository.removeImageIdsFromSlideshows(new Long[]{IMAGE_ID})
+                    .then(slideshowRepository.deleteById(id))
+                    .block())
+            .expectNext(new SlideshowChange(id, 2L, SlideshowChange.Type.UPDATED))
+            .expectNext(new SlideshowChange(id, 2L, SlideshowChange.Type.DELETED))
+            .expectComplete()
+            .verify(Duration.ofSeconds(10));
+  }
+
+  @Test
+  void changeShouldBeDeliveredWhenImageIsDeletedBeforeCompaction() {
+    //prepare
+    Long id = slideshowRepository.insertWithImages(List.of(new ImageEntity(DELETED_IMAGE_ID, null, null, null)))
+            .block()
+            .slideshowId();
+
+    //execute & verify
+    //tombstone is counted in version at once, slideshow row is updated later by compaction
+    StepVerifier.create(notifier.changes(id).take(1))
+            .then(() -> slideshowFacade.deleteImageAndUpdateSlideshow(Mono.just(DELETED_IMAGE_ID)).block())
+            .expectNext(new SlideshowChange(id, 2L, SlideshowChange.Type.UPDATED))
+            .expectComplete()
+            .verify(Duration.ofSeconds(10));
+
+    slideshowRepository.deleteById(id).block();
+  }
+
+}
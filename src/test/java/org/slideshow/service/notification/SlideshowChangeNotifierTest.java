@@ -0,0 +1,150 @@
+package org.slideshow.service.notification;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slideshow.config.SlideshowCacheProperties;
+import org.slideshow.config.SlideshowEventsProperties;
+import org.slideshow.model.projection.SlideshowChange;
+import org.slideshow.model.projection.SlideshowProjection;
+import org.slideshow.repository.SlideshowRepository;
+import org.slideshow.service.cache.SlideshowProjectionCache;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class SlideshowChangeNotifierTest {
+
+  private static final SlideshowChange UPDATED = new SlideshowChange(1L, 2L, SlideshowChange.Type.UPDATED);
+
+  @Mock
+  private ConnectionFactory connectionFactory;
+
+  @Mock
+  private SlideshowRepository slideshowRepository;
+
+  private SlideshowProjectionCache slideshowCache;
+
+  private SlideshowChangeNotifier notifier;
+
+  @BeforeEach
+  public void setUp() {
+    slideshowCache = new SlideshowProjectionCache(new SlideshowCacheProperties(100, Duration.ofMinutes(5)),
+            new SimpleMeterRegistry());
+    //listening isn't started, tests publish changes directly
+    notifier = new SlideshowChangeNotifier(connectionFactory, slideshowCache, slideshowRepository,
+            new SlideshowEventsProperties(Duration.ofSeconds(15), Duration.ofSeconds(1), Duration.ofSeconds(30)));
+  }
+
+  @Test
+  void parse_ShouldReadTriggerPayload() {
+    //execute & verify
+    assertEquals(UPDATED, SlideshowChangeNotifier.parse("1:2:UPDATE"));
+    assertEquals(new SlideshowChange(1L, 3L, SlideshowChange.Type.DELETED), SlideshowChangeNotifier.parse("1:3:DELETE"));
+    assertNull(SlideshowChangeNotifier.parse("unexpected"));
+  }
+
+  @Test
+  void changes_ShouldDeliverOnlyChangesOfSubscribedSlideshow() {
+    //execute & verify
+    StepVerifier.create(notifier.changes(1L))
+            .then(() -> {
+              assertEquals(1, notifier.subscribedSlideshows());
+              notifier.publish(new SlideshowChange(2L, 5L, SlideshowChange.Type.UPDATED));
+              notifier.publish(UPDATED);
+            })
+            .expectNext(UPDATED)
+            .thenCancel()
+            .verify();
+
+    //sink of slideshow without subscribers is dropped
+    assertEquals(0, notifier.subscribedSlideshows());
+  }
+
+  @Test
+  void changes_ShouldFanOutToEverySubscriber() {
+    //prepare
+    List<SlideshowChange> first = new ArrayList<>();
+    List<SlideshowChange> second = new ArrayList<>();
+    Disposable firstSubscription = notifier.changes(1L).subscribe(first::add);
+    Disposable secondSubscription = notifier.changes(1L).subscribe(second::add);
+
+    //execute
+    notifier.publish(UPDATED);
+    firstSubscription.dispose();
+    notifier.publish(new SlideshowChange(1L, 3L, SlideshowChange.Type.DELETED));
+    secondSubscription.dispose();
+
+    //verify
+    assertEquals(List.of(UPDATED), first);
+    assertEquals(List.of(UPDATED, new SlideshowChange(1L, 3L, SlideshowChange.Type.DELETED)), second);
+    assertEquals(0, notifier.subscribedSlideshows());
+  }
+
+  @Test
+  void publish_ShouldInvalidateCachedSlideshow() {
+    //prepare
+    AtomicInteger loads = new AtomicInteger();
+    slideshowCache.get(1L, id -> Mono.fromSupplier(() -> {
+      loads.incrementAndGet();
+      return new SlideshowProjection(id, 1L, List.of());
+    })).block();
+
+    //execute
+    notifier.publish(UPDATED);
+    slideshowCache.get(1L, id -> Mono.fromSupplier(() -> {
+      loads.incrementAndGet();
+      return new SlideshowProjection(id, 2L, List.of());
+    })).block();
+
+    //verify
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  void resync_ShouldInvalidateWholeCacheAndReadVersionOfEverySubscribedSlideshow() {
+    //prepare
+    AtomicInteger loads = new AtomicInteger();
+    slideshowCache.get(3L, id -> Mono.fromSupplier(() -> {
+      loads.incrementAndGet();
+      return new SlideshowProjection(id, 1L, List.of());
+    })).block();
+    List<SlideshowChange> first = new ArrayList<>();
+    List<SlideshowChange> second = new ArrayList<>();
+    Disposable firstSubscription = notifier.changes(1L).subscribe(first::add);
+    Disposable secondSubscription = notifier.changes(2L).subscribe(second::add);
+    when(slideshowRepository.findVersionById(1L)).thenReturn(Mono.just(7L));
+    //slideshow deleted while no connection was listening
+    when(slideshowRepository.findVersionById(2L)).thenReturn(Mono.empty());
+
+    //execute
+    notifier.resync().subscribe(notifier::publish);
+    slideshowCache.get(3L, id -> Mono.fromSupplier(() -> {
+      loads.incrementAndGet();
+      return new SlideshowProjection(id, 2L, List.of());
+    })).block();
+    firstSubscription.dispose();
+    secondSubscription.dispose();
+
+    //verify
+    assertEquals(List.of(new SlideshowChange(1L, 7L, SlideshowChange.Type.UPDATED)), first);
+    assertEquals(List.of(new SlideshowChange(2L, null, SlideshowChange.Type.DELETED)), second);
+    //slideshow nobody is subscribed to is reloaded as well
+    assertEquals(2, loads.get());
+  }
+
+}
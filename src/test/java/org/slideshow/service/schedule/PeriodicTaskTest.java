@@ -0,0 +1,52 @@
+package org.slideshow.service.schedule;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PeriodicTaskTest {
+
+  @AfterEach
+  void tearDown() {
+    VirtualTimeScheduler.reset();
+  }
+
+  @Test
+  void schedule_ShouldSkipTicksWhileRunIsInProgressAndContinueAfterFailedRun() {
+    //prepare
+    VirtualTimeScheduler scheduler = VirtualTimeScheduler.getOrSet();
+    AtomicInteger runs = new AtomicInteger();
+    Sinks.Empty<Void> firstRun = Sinks.empty();
+
+    //execute & verify
+    Disposable schedule = PeriodicTask.schedule("Test task", Duration.ZERO, Duration.ofSeconds(1), () ->
+            switch (runs.incrementAndGet()) {
+              case 1 -> firstRun.asMono();
+              case 2 -> Mono.error(new IllegalStateException("run failed"));
+              default -> Mono.empty();
+            });
+
+    scheduler.advanceTimeBy(Duration.ofSeconds(5));
+    assertEquals(1, runs.get());
+
+    firstRun.tryEmitEmpty();
+    scheduler.advanceTimeBy(Duration.ofSeconds(1));
+    assertEquals(2, runs.get());
+
+    scheduler.advanceTimeBy(Duration.ofSeconds(1));
+    assertEquals(3, runs.get());
+
+    schedule.dispose();
+    scheduler.advanceTimeBy(Duration.ofSeconds(5));
+    assertEquals(3, runs.get());
+  }
+
+}
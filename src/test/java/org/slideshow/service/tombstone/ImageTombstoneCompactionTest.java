@@ -0,0 +1,123 @@
+package org.slideshow.service.tombstone;
+
+import org.junit.jupiter.api.Test;
+import org.slideshow.TestcontainersConfiguration;
+import org.slideshow.model.domain.ImageEntity;
+import org.slideshow.model.projection.SlideshowDBProjection;
+import org.slideshow.repository.ImageRepository;
+import org.slideshow.repository.SlideshowRepository;
+import org.slideshow.service.SlideshowServiceFacade;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Deletes images and compacts their tombstones against real postgres. Skipped when docker is not available.
+ */
+@SpringBootTest
+@Import(TestcontainersConfiguration.class)
+@Testcontainers(disabledWithoutDocker = true)
+public class ImageTombstoneCompactionTest {
+
+  @Autowired
+  private DatabaseClient databaseClient;
+
+  @Autowired
+  private ImageRepository imageRepository;
+
+  @Autowired
+  private SlideshowRepository slideshowRepository;
+
+  @Autowired
+  private SlideshowServiceFacade slideshowFacade;
+
+  @Autowired
+  private ImageTombstoneCompactor compactor;
+
+  @Test
+  void deletedImagesShouldBeSkippedByReadsAndRemovedFromSlideshowsByCompactor() {
+    //prepare
+    List<Long> ids = imageRepository.insertAll(List.of(image(1), image(2), image(3)))
+            .map(ImageEntity::getId)
+            .collectList()
+            .block();
+    Long kept = ids.get(0);
+    Long deleted = ids.get(1);
+    Long otherDeleted = ids.get(2);
+    Long slideshowId = slideshowRepository.insertWithImages(Stream.of(deleted, kept, otherDeleted, kept, deleted)
+                    .map(ImageTombstoneCompactionTest::existing)
+                    .toList())
+            .block()
+            .slideshowId();
+    Long initialVersion = slideshowRepository.findVersionById(slideshowId).block();
+
+    //execute
+    slideshowFacade.deleteImageAndUpdateSlideshow(Mono.just(deleted)).block();
+    slideshowFacade.deleteImageAndUpdateSlideshow(Mono.just(otherDeleted)).block();
+
+    //verify
+    //every delete changes version at once, ETags of players holding deleted images don't match anymore
+    assertEquals(initialVersion + 2, slideshowRepository.findVersionById(slideshowId).block());
+    //deleted images aren't read even before slideshow is compacted
+    assertEquals(List.of(kept, kept), slideshowRepository.findSlideshowWithImagesById(slideshowId)
+            .filter(row -> row.imageId() != null)
+            .map(SlideshowDBProjection::imageId)
+            .collectList()
+            .block());
+
+    //background compaction may have run already, then this one has nothing to do
+    compactor.compact().block();
+
+    assertEquals(List.of(kept, kept), imagesIds(slideshowId));
+    //content read by players didn't change, neither did version, whether compacted in one batch or two
+    assertEquals(initialVersion + 2, slideshowRepository.findVersionById(slideshowId).block());
+    assertEquals(initialVersion + 2, storedVersion(slideshowId));
+    assertEquals(0L, databaseClient.sql("""
+                        SELECT count(*) FROM image_tombstones WHERE image_id IN (:deleted, :otherDeleted)
+                    """)
+            .bind("deleted", deleted)
+            .bind("otherDeleted", otherDeleted)
+            .map(row -> row.get(0, Long.class))
+            .one()
+            .block());
+
+    slideshowRepository.deleteById(slideshowId).block();
+    imageRepository.deleteById(kept).block();
+  }
+
+  private Long storedVersion(Long slideshowId) {
+    return databaseClient.sql("SELECT version FROM slideshows WHERE id = :id")
+            .bind("id", slideshowId)
+            .map(row -> row.get(0, Long.class))
+            .one()
+            .block();
+  }
+
+  private List<Long> imagesIds(Long slideshowId) {
+    return databaseClient.sql("SELECT images_ids FROM slideshows WHERE id = :id")
+            .bind("id", slideshowId)
+            .map(row -> Arrays.asList(row.get(0, Long[].class)))
+            .one()
+            .block();
+  }
+
+  private static ImageEntity image(int number) {
+    return new ImageEntity(null, "https://cdn.example.com/tombstones/" + number + ".png", (short) 10,
+            LocalDateTime.now());
+  }
+
+  private static ImageEntity existing(Long id) {
+    return new ImageEntity(id, null, null, null);
+  }
+
+}
@@ -0,0 +1,188 @@
+package org.slideshow.validation;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slideshow.model.domain.ImageEntity;
+import org.slideshow.model.dto.request.ImageDetailsRequestDTO;
+import org.slideshow.model.dto.request.SlideshowRequestDTO;
+import org.slideshow.model.projection.ImageMetadata;
+import org.slideshow.service.ImageService;
+import org.slideshow.validation.probe.ImageProbeException;
+import org.slideshow.validation.probe.ImageProbeResult.ProbeOutcome;
+import org.slideshow.validation.validators.ImageContentTypeValidator;
+import org.slideshow.validation.validators.ImageValidationService;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+import static org.slideshow.validation.ValidationErrorCodes.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ImagesValidationFacadeTest {
+
+  @Mock
+  private ImageService imageService;
+
+  @Mock
+  private ImageContentTypeValidator contentTypeValidator;
+
+  private SimpleMeterRegistry meterRegistry;
+
+  private ImagesValidationFacade validationFacade;
+
+  @BeforeEach
+  public void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    validationFacade = new ImagesValidationFacade(new ImageValidationService(imageService, contentTypeValidator,
+            meterRegistry));
+  }
+
+  @Test
+  void validateSlideshowImages_ShouldValidateEveryImageOnceAndKeepRequestOrder() {
+    //prepare
+    ImageDetailsRequestDTO existing = new ImageDetailsRequestDTO(1L, null, null);
+    ImageDetailsRequestDTO missing = new ImageDetailsRequestDTO(2L, null, null);
+    ImageDetailsRequestDTO slowValid = new ImageDetailsRequestDTO(null, "https://slow.example.com/a.png", (short) 10);
+    ImageDetailsRequestDTO notImage = new ImageDetailsRequestDTO(null, "https://example.com/a.html", (short) 10);
+    ImageDetailsRequestDTO invalidDuration = new ImageDetailsRequestDTO(null, "https://example.com/b.png", (short) 0);
+    //same image twice is validated twice, results are per position
+    SlideshowRequestDTO request = new SlideshowRequestDTO(
+            Arrays.asList(existing, missing, slowValid, notImage, invalidDuration, existing, null));
+
+    when(imageService.findImagesById(List.of(1L, 2L)))
+            .thenReturn(Flux.just(new ImageEntity(1L, "https://example.com/1.png", (short) 5, LocalDateTime.now())));
+    //slowest check finishes last, order of results must not depend on it
+    when(contentTypeValidator.validateImageUrl("https://slow.example.com/a.png"))
+            .thenReturn(Mono.just(true).delayElement(Duration.ofMillis(50)));
+    when(contentTypeValidator.validateImageUrl("https://example.com/a.html")).thenReturn(Mono.just(false));
+    when(contentTypeValidator.validateImageUrl("https://example.com/b.png")).thenReturn(Mono.just(true));
+    //metadata is looked up for valid new images only
+    ImageMetadata metadata = new ImageMetadata("image/png", 150_000L, null, null, 1920, 1080);
+    when(contentTypeValidator.findMetadata("https://slow.example.com/a.png")).thenReturn(Mono.just(metadata));
+
+    //execute
+    List<ImageValidationResult> results = validationFacade.validateSlideshowImages(request).block();
+
+    //verify
+    assertEquals(7, results.size());
+    for (int i = 0; i < results.size(); i++) {
+      assertEquals(i, results.get(i).position());
+      assertEquals(request.images().get(i), results.get(i).image());
+    }
+    assertTrue(results.get(0).isValid());
+    assertEquals(INVALID_IMAGE_INSTANCE_ID.getCode(), results.get(1).errors().get(0).code());
+    assertTrue(results.get(2).isValid());
+    assertEquals(metadata, results.get(2).metadata());
+    assertEquals(ImageMetadata.UNKNOWN, results.get(0).metadata());
+    assertEquals(INVALID_IMAGE_TYPE.getCode(), results.get(3).errors().get(0).code());
+    assertEquals(INVALID_IMAGE_DURATION.getCode(), results.get(4).errors().get(0).code());
+    assertTrue(results.get(5).isValid());
+    assertEquals(INVALID_IMAGE.getCode(), results.get(6).errors().get(0).code());
+
+    verify(imageService, times(1)).findImagesById(any());
+    verify(contentTypeValidator, times(3)).validateImageUrl(anyString());
+    verify(contentTypeValidator, times(1)).findMetadata(anyString());
+  }
+
+  @Test
+  void validateSlideshowImages_ShouldValidateLargeRequestInLinearNumberOfChecks() {
+    //prepare
+    List<ImageDetailsRequestDTO> images = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      images.add(new ImageDetailsRequestDTO(null, "https://example.com/" + i + ".png", (short) (i % 2 == 0 ? 10 : 0)));
+    }
+    when(contentTypeValidator.validateImageUrl(anyString())).thenReturn(Mono.just(true));
+    when(contentTypeValidator.findMetadata(anyString())).thenReturn(Mono.just(ImageMetadata.UNKNOWN));
+
+    //execute
+    List<ImageValidationResult> results = validationFacade.validateSlideshowImages(new SlideshowRequestDTO(images))
+            .block();
+
+    //verify
+    assertEquals(250, results.stream().filter(ImageValidationResult::isValid).count());
+    verify(contentTypeValidator, times(500)).validateImageUrl(anyString());
+    verifyNoInteractions(imageService);
+  }
+
+  @Test
+  void validateSlideshowImages_ShouldMarkOnlyReferencedImagesWhenLookupFails() {
+    //prepare
+    ImageDetailsRequestDTO existing = new ImageDetailsRequestDTO(1L, null, null);
+    ImageDetailsRequestDTO created = new ImageDetailsRequestDTO(null, "https://example.com/a.png", (short) 10);
+    when(imageService.findImagesById(List.of(1L))).thenReturn(Flux.error(new RuntimeException("db is down")));
+    when(contentTypeValidator.validateImageUrl("https://example.com/a.png")).thenReturn(Mono.just(true));
+    when(contentTypeValidator.findMetadata("https://example.com/a.png"))
+            .thenReturn(Mono.error(new IllegalStateException("cache failed")));
+
+    //execute & verify
+    StepVerifier.create(validationFacade.validateSlideshowImages(new SlideshowRequestDTO(List.of(existing, created))))
+            .assertNext(results -> {
+              assertEquals(INTERNAL_VALIDATION_ERROR.getCode(), results.get(0).errors().get(0).code());
+              assertTrue(results.get(1).isValid());
+              //image is still created, without metadata
+              assertEquals(ImageMetadata.UNKNOWN, results.get(1).metadata());
+            })
+            .verifyComplete();
+  }
+
+  @Test
+  void validateSlideshowImages_ShouldTimeEveryStageByOutcome() {
+    //prepare
+    ImageDetailsRequestDTO existing = new ImageDetailsRequestDTO(1L, null, null);
+    ImageDetailsRequestDTO notImage = new ImageDetailsRequestDTO(null, "https://example.com/a.html", (short) 10);
+    when(imageService.findImagesById(List.of(1L))).thenReturn(Flux.empty());
+    when(contentTypeValidator.validateImageUrl("https://example.com/a.html")).thenReturn(Mono.just(false));
+
+    //execute
+    validationFacade.validateSlideshowImages(new SlideshowRequestDTO(List.of(existing, notImage))).block();
+
+    //verify
+    assertEquals(1, stageCount(ImageValidationService.EXISTENCE_STAGE, "invalid"));
+    assertEquals(1, stageCount(ImageValidationService.URL_STAGE, "invalid"));
+    assertEquals(1, stageCount(ImageValidationService.CONTENT_TYPE_STAGE, "invalid"));
+    assertEquals(1, stageCount(ImageValidationService.DURATION_STAGE, "valid"));
+  }
+
+  @Test
+  void validateSlideshowImages_ShouldNotReportImageAsInvalidTypeWhenOriginDidNotAnswer() {
+    //prepare
+    ImageDetailsRequestDTO slow = new ImageDetailsRequestDTO(null, "https://slow.example.com/a.png", (short) 10);
+    when(contentTypeValidator.validateImageUrl("https://slow.example.com/a.png"))
+            .thenReturn(Mono.error(new ImageProbeException(ProbeOutcome.TIMEOUT)));
+
+    //execute
+    List<ImageValidationResult> results = validationFacade
+            .validateSlideshowImages(new SlideshowRequestDTO(List.of(slow))).block();
+
+    //verify
+    assertEquals(1, results.size());
+    assertEquals(1, results.get(0).errors().size());
+    ValidationError error = results.get(0).errors().get(0);
+    assertEquals(INTERNAL_VALIDATION_ERROR.getCode(), error.code());
+    assertEquals(ProbeOutcome.TIMEOUT.name(), error.exchangeContext().get(ImageValidationService.PROBE_OUTCOME_KEY));
+    assertEquals(1, stageCount(ImageValidationService.CONTENT_TYPE_STAGE, "error"));
+  }
+
+  private long stageCount(String stage, String outcome) {
+    return meterRegistry.get(ImageValidationService.STAGE_TIMER)
+            .tags("stage", stage, "outcome", outcome)
+            .timer()
+            .count();
+  }
+
+}
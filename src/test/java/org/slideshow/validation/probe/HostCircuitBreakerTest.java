@@ -0,0 +1,56 @@
+package org.slideshow.validation.probe;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HostCircuitBreakerTest {
+
+  private final AtomicLong clock = new AtomicLong();
+  private final HostCircuitBreaker circuitBreaker = new HostCircuitBreaker(2, Duration.ofSeconds(10), clock::get);
+
+  @Test
+  void shouldOpenAfterConsecutiveFailuresAndCloseAfterSuccessfulTrial() {
+    assertTrue(circuitBreaker.tryAcquire());
+    circuitBreaker.onFailure();
+    assertTrue(circuitBreaker.tryAcquire());
+    circuitBreaker.onFailure();
+
+    assertEquals(HostCircuitBreaker.State.OPEN, circuitBreaker.state());
+    assertFalse(circuitBreaker.tryAcquire());
+
+    clock.addAndGet(Duration.ofSeconds(10).toNanos());
+    assertTrue(circuitBreaker.tryAcquire());
+    //only single trial is allowed while half-open
+    assertFalse(circuitBreaker.tryAcquire());
+
+    circuitBreaker.onSuccess();
+    assertEquals(HostCircuitBreaker.State.CLOSED, circuitBreaker.state());
+    assertTrue(circuitBreaker.tryAcquire());
+  }
+
+  @Test
+  void shouldReopenWhenTrialFails() {
+    circuitBreaker.onFailure();
+    circuitBreaker.onFailure();
+    clock.addAndGet(Duration.ofSeconds(10).toNanos());
+
+    assertTrue(circuitBreaker.tryAcquire());
+    circuitBreaker.onFailure();
+
+    assertEquals(HostCircuitBreaker.State.OPEN, circuitBreaker.state());
+    assertFalse(circuitBreaker.tryAcquire());
+  }
+
+  @Test
+  void shouldResetFailuresAfterSuccess() {
+    circuitBreaker.onFailure();
+    circuitBreaker.onSuccess();
+    circuitBreaker.onFailure();
+
+    assertEquals(HostCircuitBreaker.State.CLOSED, circuitBreaker.state());
+  }
+}
@@ -0,0 +1,113 @@
+package org.slideshow.validation.probe;
+
+import org.junit.jupiter.api.Test;
+import org.slideshow.validation.probe.ImageHeaderParser.Dimensions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ImageHeaderParserTest {
+
+  @Test
+  void parse_ShouldReadDimensionsOfPng() {
+    byte[] header = bytes(0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n',
+            0, 0, 0, 13, 'I', 'H', 'D', 'R',
+            0, 0, 0x07, 0x80, 0, 0, 0x04, 0x38);
+
+    assertEquals(new Dimensions(1920, 1080), ImageHeaderParser.parse(header));
+  }
+
+  @Test
+  void parse_ShouldReadDimensionsOfGif() {
+    byte[] header = bytes('G', 'I', 'F', '8', '9', 'a', 0x80, 0x02, 0xE0, 0x01);
+
+    assertEquals(new Dimensions(640, 480), ImageHeaderParser.parse(header));
+  }
+
+  @Test
+  void parse_ShouldReadDimensionsOfBottomUpAndTopDownBmp() {
+    byte[] header = new byte[26];
+    header[0] = 'B';
+    header[1] = 'M';
+    header[14] = 40;
+    header[18] = (byte) 0x80;
+    header[19] = 0x02;
+    header[22] = (byte) 0xE0;
+    header[23] = 0x01;
+
+    assertEquals(new Dimensions(640, 480), ImageHeaderParser.parse(header));
+
+    //-480
+    header[22] = 0x20;
+    header[23] = (byte) 0xFE;
+    header[24] = (byte) 0xFF;
+    header[25] = (byte) 0xFF;
+    assertEquals(new Dimensions(640, 480), ImageHeaderParser.parse(header));
+  }
+
+  @Test
+  void parse_ShouldReadDimensionsOfEveryWebpFlavour() {
+    byte[] lossy = webp("VP8 ", 0, 0, 0, 0x9D, 0x01, 0x2A, 0x80, 0x02, 0xE0, 0x01);
+    //width - 1 = 639 and height - 1 = 479 packed in 14 bits each
+    byte[] lossless = webp("VP8L", 0x2F, 0x7F, 0xC2, 0x77, 0x00);
+    byte[] extended = webp("VP8X", 0, 0, 0, 0, 0x7F, 0x02, 0x00, 0xDF, 0x01, 0x00);
+
+    assertEquals(new Dimensions(640, 480), ImageHeaderParser.parse(lossy));
+    assertEquals(new Dimensions(640, 480), ImageHeaderParser.parse(lossless));
+    assertEquals(new Dimensions(640, 480), ImageHeaderParser.parse(extended));
+  }
+
+  @Test
+  void parse_ShouldFindJpegFrameHeaderAfterOtherSegments() {
+    byte[] header = bytes(0xFF, 0xD8,
+            //APP0 segment of 16 bytes
+            0xFF, 0xE0, 0x00, 0x10, 'J', 'F', 'I', 'F', 0, 1, 1, 0, 0, 1, 0, 1, 0, 0,
+            //DHT segment, shares range with frame markers
+            0xFF, 0xC4, 0x00, 0x03, 0,
+            //baseline frame header: length, precision, height, width
+            0xFF, 0xC0, 0x00, 0x11, 8, 0x04, 0x38, 0x07, 0x80);
+
+    assertEquals(new Dimensions(1920, 1080), ImageHeaderParser.parse(header));
+  }
+
+  @Test
+  void parse_ShouldReturnNullForTruncatedOrUnknownHeader() {
+    byte[] png = bytes(0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 0, 0, 0, 13);
+    //frame header is beyond bytes read
+    byte[] jpeg = bytes(0xFF, 0xD8, 0xFF, 0xE1, 0xFF, 0xFF, 0, 0);
+
+    assertNull(ImageHeaderParser.parse(png));
+    assertNull(ImageHeaderParser.parse(jpeg));
+    assertNull(ImageHeaderParser.parse("<svg xmlns=\"http://www.w3.org/2000/svg\"/>".getBytes()));
+    assertNull(ImageHeaderParser.parse(new byte[0]));
+  }
+
+  @Test
+  void isSupported_ShouldAcceptOnlyTypesWithKnownHeader() {
+    assertTrue(ImageHeaderParser.isSupported("image/jpeg"));
+    assertTrue(ImageHeaderParser.isSupported("image/webp"));
+    assertFalse(ImageHeaderParser.isSupported("image/svg+xml"));
+    assertFalse(ImageHeaderParser.isSupported(null));
+  }
+
+  private static byte[] webp(String chunk, int... payload) {
+    byte[] header = new byte[20 + payload.length];
+    System.arraycopy("RIFF".getBytes(), 0, header, 0, 4);
+    System.arraycopy("WEBP".getBytes(), 0, header, 8, 4);
+    System.arraycopy(chunk.getBytes(), 0, header, 12, 4);
+    byte[] bytes = bytes(payload);
+    System.arraycopy(bytes, 0, header, 20, bytes.length);
+    return header;
+  }
+
+  private static byte[] bytes(int... values) {
+    byte[] bytes = new byte[values.length];
+    for (int i = 0; i < values.length; i++) {
+      bytes[i] = (byte) values[i];
+    }
+    return bytes;
+  }
+
+}
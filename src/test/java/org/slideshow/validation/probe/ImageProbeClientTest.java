@@ -0,0 +1,251 @@
+package org.slideshow.validation.probe;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slideshow.config.ImageValidationProperties;
+import org.slideshow.model.projection.ImageMetadata;
+import org.slideshow.validation.probe.ImageProbeResult.ProbeOutcome;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs probes against local stub origin with injected latency.
+ */
+public class ImageProbeClientTest {
+
+  private static final Duration SLOW_ORIGIN_LATENCY = Duration.ofMillis(300);
+
+  //signature and IHDR chunk of 640x480 PNG
+  private static final byte[] PNG_HEADER = {
+          (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n',
+          0, 0, 0, 13, 'I', 'H', 'D', 'R',
+          0, 0, 0x02, (byte) 0x80, 0, 0, 0x01, (byte) 0xE0,
+          8, 6, 0, 0, 0};
+
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicInteger maxInFlight = new AtomicInteger();
+  private final AtomicInteger requests = new AtomicInteger();
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final AtomicReference<String> requestedRange = new AtomicReference<>();
+
+  private DisposableServer server;
+  private ImageProbeClient probeClient;
+
+  @BeforeEach
+  public void setUp() {
+    server = HttpServer.create()
+            .port(0)
+            .route(routes -> routes
+                    .head("/slow.png", (request, response) -> {
+                      requests.incrementAndGet();
+                      maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                      return Mono.delay(SLOW_ORIGIN_LATENCY)
+                              .doFinally(signal -> inFlight.decrementAndGet())
+                              .then(response.header("Content-Type", "image/png").send());
+                    })
+                    .head("/hanging.png", (request, response) -> {
+                      requests.incrementAndGet();
+                      return Mono.delay(Duration.ofSeconds(10)).then(response.send());
+                    })
+                    .head("/broken.png", (request, response) -> {
+                      requests.incrementAndGet();
+                      return response.status(503).send();
+                    })
+                    .head("/photo.png", (request, response) -> response
+                            .header("Content-Type", "image/png")
+                            .header("Content-Length", "150000")
+                            .header("ETag", "\"v1\"")
+                            .header("Last-Modified", "Mon, 13 Jan 2025 10:00:00 GMT")
+                            .send())
+                    .get("/photo.png", (request, response) -> {
+                      requestedRange.set(request.requestHeaders().get("Range"));
+                      return response.status(206)
+                              .header("Content-Type", "image/png")
+                              .sendByteArray(Mono.just(PNG_HEADER));
+                    })
+                    .head("/hanging-body.png", (request, response) -> response
+                            .header("Content-Type", "image/png")
+                            .send())
+                    .get("/hanging-body.png", (request, response) ->
+                            Mono.delay(Duration.ofSeconds(10)).then(response.send())))
+            .bindNow();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    probeClient.destroy();
+    server.disposeNow();
+  }
+
+  private ImageProbeClient createClient(int globalConcurrency, int maxConnectionsPerHost,
+                                        Duration responseTimeout, Duration deadline, int failureThreshold) {
+    return new ImageProbeClient(WebClient.builder(), new ImageValidationProperties(
+            new ImageValidationProperties.ContentTypeCache(100, Duration.ofMinutes(10), Duration.ofSeconds(30)),
+            new ImageValidationProperties.Outbound(Duration.ofSeconds(1), responseTimeout, deadline,
+                    globalConcurrency, maxConnectionsPerHost, 100, Duration.ofSeconds(5), Duration.ofSeconds(30),
+                    new ImageValidationProperties.CircuitBreaker(failureThreshold, Duration.ofMinutes(1), 100))),
+            meterRegistry);
+  }
+
+  private String url(String host, String path) {
+    return "http://" + host + ":" + server.port() + path;
+  }
+
+  @Test
+  void probe_ShouldReturnContentTypeOfOrigin() {
+    probeClient = createClient(16, 4, Duration.ofSeconds(1), Duration.ofSeconds(2), 5);
+
+    StepVerifier.create(probeClient.probe(url("localhost", "/slow.png")))
+            .expectNextMatches(r -> r.outcome() == ProbeOutcome.OK && "image/png".equals(r.contentType()))
+            .verifyComplete();
+
+    //latency is published per host and outcome
+    assertEquals(1, meterRegistry.get(ImageProbeClient.PROBE_TIMER)
+            .tags("host", "localhost", "outcome", "OK")
+            .timer()
+            .count());
+  }
+
+  @Test
+  void probe_ShouldKeepProbingAfterProbeFailedUnexpectedly() {
+    //prepare
+    //timer of one host can't be registered, so its probe fails after request is answered
+    meterRegistry.config().meterFilter(new MeterFilter() {
+      @Override
+      public Meter.Id map(Meter.Id id) {
+        if ("127.0.0.1".equals(id.getTag("host"))) {
+          throw new IllegalStateException("meter registry failed");
+        }
+        return id;
+      }
+    });
+    probeClient = createClient(1, 4, Duration.ofSeconds(1), Duration.ofSeconds(2), 5);
+
+    //execute & verify
+    StepVerifier.create(probeClient.probe(url("127.0.0.1", "/slow.png")))
+            .expectNextMatches(r -> r.outcome() == ProbeOutcome.CONNECTION_FAILED)
+            .verifyComplete();
+    StepVerifier.create(probeClient.probe(url("localhost", "/slow.png")))
+            .expectNextMatches(r -> r.outcome() == ProbeOutcome.OK)
+            .verifyComplete();
+  }
+
+  @Test
+  void probe_ShouldCapConcurrentRequestsToOneOrigin() {
+    probeClient = createClient(64, 2, Duration.ofSeconds(2), Duration.ofSeconds(10), 5);
+
+    StepVerifier.create(Flux.range(0, 10).flatMap(i -> probeClient.probe(url("localhost", "/slow.png"))))
+            .expectNextCount(10)
+            .verifyComplete();
+
+    assertEquals(10, requests.get());
+    assertTrue(maxInFlight.get() <= 2, "max in flight " + maxInFlight.get());
+  }
+
+  @Test
+  void probe_ShouldCapConcurrentRequestsGlobally() {
+    probeClient = createClient(3, 8, Duration.ofSeconds(2), Duration.ofSeconds(10), 5);
+
+    //localhost and 127.0.0.1 are different origins with separate pools, global cap still applies
+    StepVerifier.create(Flux.range(0, 12)
+                    .flatMap(i -> probeClient.probe(url(i % 2 == 0 ? "localhost" : "127.0.0.1", "/slow.png"))))
+            .expectNextCount(12)
+            .verifyComplete();
+
+    assertTrue(maxInFlight.get() <= 3, "max in flight " + maxInFlight.get());
+  }
+
+  @Test
+  void probe_ShouldTimeOutSlowOriginWithoutStallingOthers() {
+    probeClient = createClient(16, 2, Duration.ofMillis(200), Duration.ofSeconds(2), 100);
+
+    long start = System.nanoTime();
+    List<ImageProbeResult> results = Flux.merge(
+                    Flux.range(0, 4).flatMap(i -> probeClient.probe(url("localhost", "/hanging.png"))),
+                    probeClient.probe(url("127.0.0.1", "/slow.png")))
+            .collectList()
+            .block();
+    Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+    assertNotNull(results);
+    assertEquals(4, results.stream().filter(r -> r.outcome() == ProbeOutcome.TIMEOUT).count());
+    assertEquals(1, results.stream().filter(r -> r.outcome() == ProbeOutcome.OK).count());
+    //4 hanging probes over 2 connections take 2 response timeouts, far less than origin latency
+    assertTrue(elapsed.compareTo(Duration.ofSeconds(3)) < 0, "elapsed " + elapsed);
+  }
+
+  @Test
+  void probe_ShouldRespectDeadlineWhileWaitingForSlot() {
+    probeClient = createClient(1, 1, Duration.ofSeconds(5), Duration.ofMillis(100), 5);
+
+    StepVerifier.create(Flux.range(0, 3).flatMap(i -> probeClient.probe(url("localhost", "/slow.png"))))
+            .expectNextMatches(r -> r.outcome() == ProbeOutcome.TIMEOUT)
+            .expectNextMatches(r -> r.outcome() == ProbeOutcome.TIMEOUT)
+            .expectNextMatches(r -> r.outcome() == ProbeOutcome.TIMEOUT)
+            .expectComplete()
+            .verify(Duration.ofSeconds(2));
+  }
+
+  @Test
+  void probe_ShouldFailFastWhenCircuitOfOriginIsOpen() {
+    probeClient = createClient(16, 4, Duration.ofSeconds(1), Duration.ofSeconds(2), 3);
+
+    StepVerifier.create(Flux.range(0, 3).concatMap(i -> probeClient.probe(url("localhost", "/broken.png"))))
+            .expectNextCount(3)
+            .verifyComplete();
+
+    StepVerifier.create(probeClient.probe(url("localhost", "/slow.png")))
+            .expectNext(ImageProbeResult.of(ProbeOutcome.CIRCUIT_OPEN))
+            .verifyComplete();
+    assertEquals(3, meterRegistry.get(ImageProbeClient.PROBE_TIMER)
+            .tags("host", "localhost", "outcome", "SERVER_ERROR")
+            .timer()
+            .count());
+
+    //open circuit is per origin, other origins are still probed
+    StepVerifier.create(probeClient.probe(url("127.0.0.1", "/slow.png")))
+            .expectNextMatches(r -> r.outcome() == ProbeOutcome.OK && "image/png".equals(r.contentType()))
+            .verifyComplete();
+
+    assertEquals(4, requests.get());
+  }
+
+  @Test
+  void probe_ShouldReadHeadersAndDimensionsFromHeaderOfFile() {
+    probeClient = createClient(16, 4, Duration.ofSeconds(1), Duration.ofSeconds(2), 5);
+
+    StepVerifier.create(probeClient.probe(url("localhost", "/photo.png")))
+            .expectNext(new ImageProbeResult(ProbeOutcome.OK, new ImageMetadata("image/png", 150_000L, "\"v1\"",
+                    LocalDateTime.of(2025, 1, 13, 10, 0), 640, 480)))
+            .verifyComplete();
+
+    //only the first bytes of file are requested
+    assertEquals("bytes=0-" + (ImageProbeClient.HEADER_BYTES - 1), requestedRange.get());
+  }
+
+  @Test
+  void probe_ShouldKeepHeadResultWhenFileIsNotServedBeforeDeadline() {
+    probeClient = createClient(16, 4, Duration.ofSeconds(5), Duration.ofMillis(500), 5);
+
+    StepVerifier.create(probeClient.probe(url("localhost", "/hanging-body.png")))
+            .expectNextMatches(r -> r.outcome() == ProbeOutcome.OK && r.metadata().width() == null)
+            .expectComplete()
+            .verify(Duration.ofSeconds(2));
+  }
+}
@@ -0,0 +1,149 @@
+package org.slideshow.validation.validators;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slideshow.config.ImageValidationProperties;
+import org.slideshow.model.projection.ImageMetadata;
+import org.slideshow.validation.probe.ImageProbeClient;
+import org.slideshow.validation.probe.ImageProbeException;
+import org.slideshow.validation.probe.ImageProbeResult.ProbeOutcome;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ImageContentTypeValidatorTest {
+
+  private final AtomicInteger headRequests = new AtomicInteger();
+
+  private DisposableServer server;
+  private SimpleMeterRegistry meterRegistry;
+  private ImageProbeClient probeClient;
+  private ImageContentTypeValidator validator;
+
+  @BeforeEach
+  public void setUp() {
+    //stub origin answers after a delay, so concurrent validations overlap in time
+    server = HttpServer.create()
+            .port(0)
+            .route(routes -> routes
+                    .head("/image.png", (request, response) -> {
+                      headRequests.incrementAndGet();
+                      return Mono.delay(Duration.ofMillis(200))
+                              .then(response.header("Content-Type", "image/png").send());
+                    })
+                    .head("/document.pdf", (request, response) -> {
+                      headRequests.incrementAndGet();
+                      return response.header("Content-Type", "application/pdf").send();
+                    }))
+            .bindNow();
+
+    meterRegistry = new SimpleMeterRegistry();
+    ImageValidationProperties properties = new ImageValidationProperties(
+            new ImageValidationProperties.ContentTypeCache(100, Duration.ofMinutes(10), Duration.ofMillis(200)),
+            new ImageValidationProperties.Outbound(Duration.ofSeconds(1), Duration.ofSeconds(1), Duration.ofSeconds(2),
+                    16, 4, 16, Duration.ofSeconds(1), Duration.ofSeconds(30),
+                    new ImageValidationProperties.CircuitBreaker(5, Duration.ofSeconds(30), 100)));
+    probeClient = new ImageProbeClient(WebClient.builder(), properties, meterRegistry);
+    validator = new ImageContentTypeValidator(probeClient, properties, meterRegistry);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    probeClient.destroy();
+    server.disposeNow();
+  }
+
+  private String url(String path) {
+    return "http://localhost:" + server.port() + path;
+  }
+
+  @Test
+  void validateImageUrl_ShouldShareInFlightRequestForSameUrl() {
+    //execute
+    StepVerifier.create(Flux.range(0, 10).flatMap(i -> validator.validateImageUrl(url("/image.png"))))
+            .expectNext(true, true, true, true, true, true, true, true, true, true)
+            .verifyComplete();
+
+    //verify
+    assertEquals(1, headRequests.get());
+  }
+
+  @Test
+  void validateImageUrl_ShouldServeRepeatedValidationFromCache() {
+    //execute
+    StepVerifier.create(validator.validateImageUrl(url("/image.png"))).expectNext(true).verifyComplete();
+    StepVerifier.create(validator.validateImageUrl(url("/image.png"))).expectNext(true).verifyComplete();
+
+    //verify
+    assertEquals(1, headRequests.get());
+    assertEquals(1, validator.cacheStats().hitCount());
+    assertEquals(1, validator.cacheStats().missCount());
+    assertEquals(1.0, meterRegistry.get("cache.gets")
+            .tag("cache", ImageContentTypeValidator.CACHE_NAME)
+            .tag("result", "hit")
+            .functionCounter()
+            .count());
+  }
+
+  @Test
+  void validateImageUrl_ShouldExpireNegativeResultSooner() throws InterruptedException {
+    //execute
+    StepVerifier.create(validator.validateImageUrl(url("/document.pdf"))).expectNext(false).verifyComplete();
+    StepVerifier.create(validator.validateImageUrl(url("/document.pdf"))).expectNext(false).verifyComplete();
+    Thread.sleep(300);
+    StepVerifier.create(validator.validateImageUrl(url("/document.pdf"))).expectNext(false).verifyComplete();
+
+    //verify
+    assertEquals(2, headRequests.get());
+  }
+
+  @Test
+  void validateImageUrl_ShouldNotCacheUnreachableUrl() {
+    //execute
+    StepVerifier.create(validator.validateImageUrl("http://localhost:1/missing.png"))
+            .expectErrorMatches(e -> e instanceof ImageProbeException probe
+                    && probe.getOutcome() == ProbeOutcome.CONNECTION_FAILED)
+            .verify();
+    StepVerifier.create(validator.validateImageUrl("http://localhost:1/missing.png"))
+            .expectError(ImageProbeException.class)
+            .verify();
+
+    //verify
+    assertEquals(2, validator.cacheStats().missCount());
+  }
+
+  @Test
+  void validateImageUrl_ShouldCacheClientErrorAsInvalid() {
+    //execute
+    StepVerifier.create(validator.validateImageUrl(url("/missing.png"))).expectNext(false).verifyComplete();
+    StepVerifier.create(validator.validateImageUrl(url("/missing.png"))).expectNext(false).verifyComplete();
+
+    //verify
+    assertEquals(1, validator.cacheStats().hitCount());
+  }
+
+  @Test
+  void findMetadata_ShouldServeMetadataOfValidatedImageFromCache() {
+    //execute
+    StepVerifier.create(validator.validateImageUrl(url("/image.png"))).expectNext(true).verifyComplete();
+    StepVerifier.create(validator.findMetadata(url("/image.png")))
+            .expectNextMatches(metadata -> "image/png".equals(metadata.contentType()))
+            .verifyComplete();
+    StepVerifier.create(validator.findMetadata(url("/document.pdf")))
+            .expectNext(ImageMetadata.UNKNOWN)
+            .verifyComplete();
+
+    //verify
+    assertEquals(2, headRequests.get());
+  }
+}
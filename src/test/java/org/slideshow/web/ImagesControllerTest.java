@@ -5,12 +5,23 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.slideshow.model.domain.ImageEntity;
 import org.slideshow.model.dto.request.ImageCreateRequestDTO;
+import org.slideshow.model.dto.request.ImageDeleteRequestDTO;
+import org.slideshow.model.dto.response.ImageBulkDeleteResponseDTO;
 import org.slideshow.model.dto.response.ImageCreationResponseDTO;
+import org.slideshow.model.dto.response.ImageDeleteResultDTO;
+import org.slideshow.model.dto.response.ImageImportResultDTO;
 import org.slideshow.model.dto.response.ImageResponseDTO;
 import org.slideshow.model.dto.response.ValidationErrorResponseDTO;
+import org.slideshow.model.projection.ImageBulkDeleteResult;
+import org.slideshow.model.projection.ImageDeleteStatus;
+import org.slideshow.model.projection.ImageMetadata;
 import org.slideshow.model.projection.ImageProjection;
+import org.slideshow.model.projection.ImageSearchCursor;
+import org.slideshow.model.projection.ImageSearchMode;
+import org.slideshow.service.ImageImportFacade;
 import org.slideshow.service.ImageService;
 import org.slideshow.service.SlideshowServiceFacade;
 import org.slideshow.validation.ImagesValidationFacade;
@@ -18,18 +29,30 @@ import org.slideshow.validation.ValidationErrorCodes;
 import org.slideshow.validation.validators.ImageValidationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.slideshow.validation.ValidationErrorCodes.INTERNAL_SERVER_ERROR;
+import static org.slideshow.web.SharedConstants.DEFAULT_SEARCH_PAGE_SIZE;
 import static org.slideshow.web.SharedConstants.IMAGES_API_PATH;
+import static org.slideshow.web.SharedConstants.MAX_BULK_DELETE_SIZE;
+import static org.slideshow.web.SharedConstants.MAX_SEARCH_PAGE_SIZE;
+import static org.slideshow.web.SharedConstants.NEXT_CURSOR_HEADER;
 
 @ExtendWith(SpringExtension.class)
 @WebFluxTest(ImagesController.class)
@@ -53,9 +76,13 @@ public class ImagesControllerTest {
   @MockitoBean
   private SlideshowServiceFacade slideshowServiceFacade;
 
+  @MockitoBean
+  private ImageImportFacade imageImportFacade;
+
 
   @BeforeEach
   public void setUp() {
+    doReturn(Mono.just(ImageMetadata.UNKNOWN)).when(validationFacade).findImageMetadata(any());
   }
 
   @AfterEach
@@ -63,6 +90,7 @@ public class ImagesControllerTest {
   }
 
   @Test
+  @SuppressWarnings("unchecked")
   void shouldCreateNewImage() {
     //prepare
     short duration = 10;
@@ -73,7 +101,10 @@ public class ImagesControllerTest {
     imageEntity.setDuration(duration);
     imageEntity.setUrl(url);
 
+    ImageMetadata metadata = new ImageMetadata("image/png", 150_000L, "\"v1\"", null, 1920, 1080);
+
     doReturn(Mono.empty()).when(validationFacade).validateRequest(any());
+    doReturn(Mono.just(metadata)).when(validationFacade).findImageMetadata(url);
     doReturn(Mono.just(imageEntity)).when(imageService).createImage(any());
 
     //execute
@@ -96,7 +127,14 @@ public class ImagesControllerTest {
     assertEquals(url, result.url());
 
     verify(validationFacade).validateRequest(any());
-    verify(imageService).createImage(any());
+    ArgumentCaptor<Mono<ImageEntity>> created = ArgumentCaptor.forClass(Mono.class);
+    verify(imageService).createImage(created.capture());
+    //image is stored with metadata probed by validation
+    ImageEntity stored = created.getValue().block();
+    assertEquals("image/png", stored.getContentType());
+    assertEquals(150_000L, stored.getContentLength());
+    assertEquals(1920, stored.getWidth());
+    assertEquals(1080, stored.getHeight());
 
   }
 
@@ -217,9 +255,73 @@ public class ImagesControllerTest {
     verify(slideshowServiceFacade, times(1)).deleteImageAndUpdateSlideshow(any());
   }
 
+  @Test
+  void shouldDeleteImagesInBulkReportingEveryRequestedId() {
+    // prepare
+    when(slideshowServiceFacade.deleteImagesAndUpdateSlideshows(List.of(3L, 1L, 2L)))
+            .thenReturn(Mono.just(new ImageBulkDeleteResult(List.of(1L, 3L), 2)));
+
+    // execute
+    //duplicate ids are reported once
+    ImageBulkDeleteResponseDTO response = webTestClient.method(HttpMethod.DELETE)
+            .uri(IMAGES_API_PATH)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(new ImageDeleteRequestDTO(List.of(3L, 1L, 2L, 1L)))
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(ImageBulkDeleteResponseDTO.class)
+            .returnResult()
+            .getResponseBody();
+
+    // verify
+    assertNotNull(response);
+    assertEquals(List.of(
+            new ImageDeleteResultDTO(3L, ImageDeleteStatus.DELETED),
+            new ImageDeleteResultDTO(1L, ImageDeleteStatus.DELETED),
+            new ImageDeleteResultDTO(2L, ImageDeleteStatus.NOT_FOUND)), response.results());
+    assertEquals(2, response.updatedSlideshows());
+  }
+
+  @Test
+  void shouldRejectEmptyOrOversizedBulkDelete() {
+    // execute & verify
+    webTestClient.method(HttpMethod.DELETE)
+            .uri(IMAGES_API_PATH)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(new ImageDeleteRequestDTO(List.of()))
+            .exchange()
+            .expectStatus().isBadRequest();
+
+    webTestClient.method(HttpMethod.DELETE)
+            .uri(IMAGES_API_PATH)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(new ImageDeleteRequestDTO(
+                    LongStream.rangeClosed(1, MAX_BULK_DELETE_SIZE + 1).boxed().toList()))
+            .exchange()
+            .expectStatus().isBadRequest();
+
+    verify(slideshowServiceFacade, never()).deleteImagesAndUpdateSlideshows(any());
+  }
+
+  @Test
+  void shouldHandleFailureWhenDeletingImagesInBulk() {
+    // prepare
+    when(slideshowServiceFacade.deleteImagesAndUpdateSlideshows(any()))
+            .thenReturn(Mono.error(new RuntimeException("some runtime exception")));
+
+    // execute & verify
+    webTestClient.method(HttpMethod.DELETE)
+            .uri(IMAGES_API_PATH)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(new ImageDeleteRequestDTO(List.of(1L)))
+            .exchange()
+            .expectStatus().is5xxServerError();
+  }
+
   @Test
   void shouldSuccessfullySearchImages() {
     // prepare
+    LocalDateTime lastModified = LocalDateTime.of(2025, 1, 4, 10, 0);
     long imageId = 1L;
     short duration = 10;
     String url = "test_url";
@@ -230,8 +332,9 @@ public class ImagesControllerTest {
     imageEntity.setDuration(duration);
     imageEntity.setUrl(url);
 
-    when(imageService.findByKeywordAndDuration(anyString(), anyInt()))
-            .thenReturn(Flux.just(new ImageProjection(imageId, url, duration)));
+    when(imageService.findByKeywordAndDuration(anyString(), anyInt(), eq(ImageSearchMode.FULLTEXT), isNull(), anyInt()))
+            .thenReturn(Flux.just(new ImageProjection(imageId, url, duration, LocalDateTime.now(),
+                    "image/png", 150_000L, "\"v1\"", lastModified, 1920, 1080)));
 
     // execute
     webTestClient.get()
@@ -243,12 +346,15 @@ public class ImagesControllerTest {
             )
             .exchange()
             .expectStatus().isOk()
+            .expectHeader().doesNotExist(NEXT_CURSOR_HEADER)
             .expectBodyList(ImageResponseDTO.class)
             .hasSize(1)
-            .contains(new ImageResponseDTO(imageId, url, duration));
+            .contains(new ImageResponseDTO(imageId, url, duration,
+                    "image/png", 150_000L, "\"v1\"", lastModified, 1920, 1080));
 
     // verify
-    verify(imageService).findByKeywordAndDuration(keyword, 10);
+    verify(imageService).findByKeywordAndDuration(keyword, 10, ImageSearchMode.FULLTEXT, null,
+            DEFAULT_SEARCH_PAGE_SIZE + 1);
   }
 
   @Test
@@ -264,7 +370,7 @@ public class ImagesControllerTest {
     imageEntity.setDuration(duration);
     imageEntity.setUrl(url);
 
-    when(imageService.findByKeywordAndDuration(anyString(), anyInt()))
+    when(imageService.findByKeywordAndDuration(anyString(), anyInt(), eq(ImageSearchMode.FULLTEXT), isNull(), anyInt()))
             .thenReturn(Flux.error(new RuntimeException()));
 
     // execute
@@ -281,7 +387,163 @@ public class ImagesControllerTest {
             .hasSize(0);
 
     // verify
-    verify(imageService).findByKeywordAndDuration(keyword, 10);
+    verify(imageService).findByKeywordAndDuration(keyword, 10, ImageSearchMode.FULLTEXT, null,
+            DEFAULT_SEARCH_PAGE_SIZE + 1);
+  }
+
+  @Test
+  void shouldReturnNextCursorWhenMoreImagesExist() {
+    // prepare
+    LocalDateTime addedAt = LocalDateTime.of(2025, 1, 4, 10, 0);
+    ImageSearchCursor previousPage = new ImageSearchCursor(addedAt.plusDays(1), 9L);
+
+    when(imageService.findByKeywordAndDuration(isNull(), isNull(), eq(ImageSearchMode.FULLTEXT), eq(previousPage), eq(3)))
+            .thenReturn(Flux.just(
+                    projection(3L, "url_3", (short) 5, addedAt),
+                    projection(2L, "url_2", (short) 5, addedAt),
+                    projection(1L, "url_1", (short) 5, addedAt)));
+
+    // execute
+    String nextCursor = webTestClient.get()
+            .uri(uriBuilder -> uriBuilder
+                    .path(IMAGES_API_PATH + "/search")
+                    .queryParam("cursor", previousPage.encode())
+                    .queryParam("limit", "2")
+                    .build()
+            )
+            .exchange()
+            .expectStatus().isOk()
+            .expectBodyList(ImageResponseDTO.class)
+            .hasSize(2)
+            .returnResult()
+            .getResponseHeaders()
+            .getFirst(NEXT_CURSOR_HEADER);
+
+    // verify
+    assertEquals(new ImageSearchCursor(addedAt, 2L), ImageSearchCursor.decode(nextCursor));
+  }
+
+  @Test
+  void shouldRejectMalformedCursorAndLimit() {
+    // execute
+    webTestClient.get()
+            .uri(IMAGES_API_PATH + "/search?cursor=not-a-cursor")
+            .exchange()
+            .expectStatus().isBadRequest();
+    webTestClient.get()
+            .uri(IMAGES_API_PATH + "/search?limit=" + (MAX_SEARCH_PAGE_SIZE + 1))
+            .exchange()
+            .expectStatus().isBadRequest();
+    webTestClient.get()
+            .uri(IMAGES_API_PATH + "/search/stream?cursor=not-a-cursor")
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus().isBadRequest();
+
+    // verify
+    verifyNoInteractions(imageService);
   }
 
+  @Test
+  void shouldStreamImagesAsNdjson() {
+    // prepare
+    LocalDateTime addedAt = LocalDateTime.of(2025, 1, 4, 10, 0);
+    when(imageService.streamByKeywordAndDuration("test", null, ImageSearchMode.SUBSTRING, null))
+            .thenReturn(Flux.range(1, 3)
+                    .map(i -> projection((long) i, "url_" + i, (short) 5, addedAt)));
+
+    // execute
+    Flux<ImageResponseDTO> body = webTestClient.get()
+            .uri(IMAGES_API_PATH + "/search/stream?keyword=test&mode=SUBSTRING")
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+            .returnResult(ImageResponseDTO.class)
+            .getResponseBody();
+
+    // verify
+    StepVerifier.create(body)
+            .expectNext(response(1L, "url_1", (short) 5))
+            .expectNextCount(2)
+            .verifyComplete();
+  }
+
+  @Test
+  void shouldReturnTopRankedImages() {
+    // prepare
+    LocalDateTime addedAt = LocalDateTime.of(2025, 1, 4, 10, 0);
+    when(imageService.findTopRankedByKeyword("star trek", null, 2))
+            .thenReturn(Flux.just(
+                    projection(7L, "star-trek-star.png", (short) 5, addedAt),
+                    projection(3L, "star-trek.png", (short) 5, addedAt)));
+
+    // execute
+    webTestClient.get()
+            .uri(IMAGES_API_PATH + "/search/top?keyword=star trek&limit=2")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBodyList(ImageResponseDTO.class)
+            .isEqualTo(List.of(
+                    response(7L, "star-trek-star.png", (short) 5),
+                    response(3L, "star-trek.png", (short) 5)));
+
+    webTestClient.get()
+            .uri(IMAGES_API_PATH + "/search/top?keyword= ")
+            .exchange()
+            .expectStatus().isBadRequest();
+
+    // verify
+    verify(imageService).findTopRankedByKeyword("star trek", null, 2);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void shouldImportNdjsonStreamOfImages() {
+    // prepare
+    when(imageImportFacade.importImages(any())).thenAnswer(invocation ->
+            ((Flux<ImageCreateRequestDTO>) invocation.getArgument(0))
+                    .index()
+                    .map(indexed -> indexed.getT2().duration() > 0
+                            ? new ImageImportResultDTO(indexed.getT1(), 100 + indexed.getT1(), null)
+                            : new ImageImportResultDTO(indexed.getT1(), null, List.of(new ValidationErrorResponseDTO(
+                            ValidationErrorCodes.INVALID_IMAGE_DURATION.getCode(), "invalid duration")))));
+    String body = """
+            {"url":"https://example.com/1.png","duration":10}
+            {"url":"https://example.com/2.png","duration":0}
+            {"url":"https://example.com/3.png","duration":5}
+            """;
+
+    // execute
+    Flux<ImageImportResultDTO> results = webTestClient.post()
+            .uri(IMAGES_API_PATH + "/bulk")
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .accept(MediaType.APPLICATION_NDJSON)
+            .bodyValue(body)
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+            .returnResult(ImageImportResultDTO.class)
+            .getResponseBody();
+
+    // verify
+    StepVerifier.create(results)
+            .expectNext(new ImageImportResultDTO(0, 100L, null))
+            .assertNext(result -> {
+              assertEquals(1, result.position());
+              assertNull(result.id());
+              assertEquals(ValidationErrorCodes.INVALID_IMAGE_DURATION.getCode(), result.errors().get(0).code());
+            })
+            .expectNext(new ImageImportResultDTO(2, 102L, null))
+            .verifyComplete();
+    verifyNoInteractions(imageService);
+  }
+
+  private static ImageProjection projection(Long id, String url, short duration, LocalDateTime addedAt) {
+    return new ImageProjection(id, url, duration, addedAt, null, null, null, null, null, null);
+  }
+
+  private static ImageResponseDTO response(Long id, String url, short duration) {
+    return new ImageResponseDTO(id, url, duration, null, null, null, null, null, null);
+  }
 }
@@ -0,0 +1,93 @@
+package org.slideshow.web;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.slideshow.model.dto.response.ProofOfPlayHourlyResponseDTO;
+import org.slideshow.model.projection.ProofOfPlayHourlyProjection;
+import org.slideshow.service.ProofOfPlayReportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.slideshow.web.SharedConstants.PROOF_OF_PLAY_API_PATH;
+
+@ExtendWith(SpringExtension.class)
+@WebFluxTest(ProofOfPlayReportController.class)
+public class ProofOfPlayReportControllerTest {
+
+  private static final LocalDateTime FROM = LocalDateTime.of(2025, 1, 13, 0, 0);
+  private static final LocalDateTime TO = LocalDateTime.of(2025, 1, 14, 0, 0);
+
+  @Autowired
+  private WebTestClient webTestClient;
+
+  @MockitoBean
+  private ProofOfPlayReportService reportService;
+
+  @Test
+  void shouldReturnHourlyPlaysOfSlideshow() {
+    // prepare
+    LocalDateTime hour = LocalDateTime.of(2025, 1, 13, 8, 0);
+    when(reportService.getHourlyPlaysBySlideshow(1L, FROM, TO)).thenReturn(Flux.just(
+            new ProofOfPlayHourlyProjection(1L, 10L, hour, 3, 30, hour.plusMinutes(1), hour.plusMinutes(50)),
+            new ProofOfPlayHourlyProjection(1L, 11L, hour, 1, 10, hour.plusMinutes(5), hour.plusMinutes(5))));
+
+    // execute
+    webTestClient.get()
+            .uri(PROOF_OF_PLAY_API_PATH + "/slideshows/1/hourly?from=2025-01-13T00:00:00&to=2025-01-14T00:00:00")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBodyList(ProofOfPlayHourlyResponseDTO.class)
+            .isEqualTo(List.of(
+                    new ProofOfPlayHourlyResponseDTO(1L, 10L, hour, 3, 30, hour.plusMinutes(1), hour.plusMinutes(50)),
+                    new ProofOfPlayHourlyResponseDTO(1L, 11L, hour, 1, 10, hour.plusMinutes(5), hour.plusMinutes(5))));
+
+    // verify
+    verify(reportService).getHourlyPlaysBySlideshow(1L, FROM, TO);
+  }
+
+  @Test
+  void shouldReturnHourlyPlaysOfImage() {
+    // prepare
+    when(reportService.getHourlyPlaysByImage(10L, FROM, TO)).thenReturn(Flux.empty());
+
+    // execute
+    webTestClient.get()
+            .uri(PROOF_OF_PLAY_API_PATH + "/images/10/hourly?from=2025-01-13T00:00:00&to=2025-01-14T00:00:00")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBodyList(ProofOfPlayHourlyResponseDTO.class)
+            .hasSize(0);
+
+    // verify
+    verify(reportService).getHourlyPlaysByImage(10L, FROM, TO);
+  }
+
+  @Test
+  void shouldRejectEmptyOrTooLongRange() {
+    // execute
+    webTestClient.get()
+            .uri(PROOF_OF_PLAY_API_PATH + "/slideshows/1/hourly?from=2025-01-14T00:00:00&to=2025-01-13T00:00:00")
+            .exchange()
+            .expectStatus().isBadRequest();
+    webTestClient.get()
+            .uri(PROOF_OF_PLAY_API_PATH + "/images/10/hourly?from=2025-01-01T00:00:00&to=2025-03-01T00:00:00")
+            .exchange()
+            .expectStatus().isBadRequest();
+    webTestClient.get()
+            .uri(PROOF_OF_PLAY_API_PATH + "/images/10/hourly?from=2025-01-01T00:00:00")
+            .exchange()
+            .expectStatus().isBadRequest();
+
+    // verify
+    verifyNoInteractions(reportService);
+  }
+
+}
@@ -6,28 +6,44 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.slideshow.model.domain.ImageEntity;
 import org.slideshow.model.domain.ProofOfPlayEventEntity;
 import org.slideshow.model.dto.request.ImageDetailsRequestDTO;
 import org.slideshow.model.dto.request.ProofOfPlayEventDTO;
 import org.slideshow.model.dto.request.SlideshowRequestDTO;
 import org.slideshow.model.dto.response.ImageResponseDTO;
+import org.slideshow.model.dto.response.SlideshowChangeResponseDTO;
 import org.slideshow.model.dto.response.SlideshowResponseDTO;
 import org.slideshow.model.dto.response.ValidationErrorResponseDTO;
+import org.slideshow.model.projection.ImageMetadata;
+import org.slideshow.model.projection.SlideshowChange;
 import org.slideshow.model.projection.SlideshowProjection;
 import org.slideshow.service.ProofOfPlayEventService;
 import org.slideshow.service.SlideshowService;
 import org.slideshow.service.SlideshowServiceFacade;
+import org.slideshow.service.admission.AdaptiveConcurrencyLimiter;
+import org.slideshow.service.admission.AdaptiveConcurrencyLimiter.Priority;
+import org.slideshow.service.admission.AdmissionRejectedException;
+import org.slideshow.service.notification.SlideshowChangeNotifier;
+import org.slideshow.validation.ImageValidationResult;
 import org.slideshow.validation.ImagesValidationFacade;
 import org.slideshow.validation.ValidationError;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
 
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.util.Collections;
 import java.util.List;
@@ -36,9 +52,11 @@ import java.util.Map;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
+import static org.slideshow.validation.ValidationErrorCodes.EMPTY_LIST;
 import static org.slideshow.validation.ValidationErrorCodes.INTERNAL_SERVER_ERROR;
+import static org.slideshow.validation.ValidationErrorCodes.INVALID_IMAGE_DURATION;
+import static org.slideshow.validation.ValidationErrorCodes.INVALID_IMAGE_INSTANCE_ID;
 import static org.slideshow.validation.ValidationErrorCodes.INVALID_IMAGE_TYPE;
-import static org.slideshow.validation.validators.ImageValidationService.IMAGE_HASH_KEY;
 import static org.slideshow.validation.validators.ImageValidationService.INVALID_VALUE_KEY;
 import static org.slideshow.web.SharedConstants.SLIDESHOW_API_PATH;
 
@@ -64,9 +82,17 @@ public class SlideshowControllerTest {
   @MockitoBean
   private ProofOfPlayEventService proofOfPlayEventService;
 
+  @MockitoBean
+  private SlideshowChangeNotifier changeNotifier;
+
+  @MockitoBean
+  private AdaptiveConcurrencyLimiter admissionLimiter;
+
 
   @BeforeEach
   public void setUp() {
+    //every call is admitted unless test says otherwise
+    when(admissionLimiter.execute(any(), any())).thenAnswer(invocation -> invocation.getArgument(1));
   }
 
   @AfterEach
@@ -86,9 +112,10 @@ public class SlideshowControllerTest {
 
     List<ImageDetailsRequestDTO> imageDetailsList = List.of(new ImageDetailsRequestDTO(null, url, duration));
     SlideshowRequestDTO request = new SlideshowRequestDTO(imageDetailsList);
-    SlideshowProjection slideshowDBProjection = new SlideshowProjection(1L, List.of(imageEntity));
+    SlideshowProjection slideshowDBProjection = new SlideshowProjection(1L, 1L, List.of(imageEntity));
 
-    doReturn(Mono.empty()).when(validationFacade).validateImages(any());
+    doReturn(Mono.just(List.of(new ImageValidationResult(0, imageDetailsList.get(0), List.of()))))
+            .when(validationFacade).validateSlideshowImages(any());
     doReturn(Mono.just(slideshowDBProjection)).when(slideshowFacade).createSlideshow(any());
 
     //execute
@@ -111,7 +138,7 @@ public class SlideshowControllerTest {
     }), result.images());
     assertEquals(Collections.emptyList(), result.errors());
 
-    verify(validationFacade).validateImages(any());
+    verify(validationFacade).validateSlideshowImages(any());
     verify(slideshowFacade).createSlideshow(any());
   }
 
@@ -130,10 +157,11 @@ public class SlideshowControllerTest {
     SlideshowRequestDTO request = new SlideshowRequestDTO(imageDetailsList);
     ValidationError error = new ValidationError(INVALID_IMAGE_TYPE.getCode(),
             INVALID_IMAGE_TYPE.getDefaultMessage(),
-            Map.of(IMAGE_HASH_KEY, imageEntity.hashCode(), INVALID_VALUE_KEY, url)
+            Map.of(INVALID_VALUE_KEY, url)
     );
 
-    doReturn(Mono.just(List.of(error))).when(validationFacade).validateImages(any());
+    doReturn(Mono.just(List.of(new ImageValidationResult(0, imageDetailsList.get(0), List.of(error)))))
+            .when(validationFacade).validateSlideshowImages(any());
 
     //execute
     SlideshowResponseDTO result = webTestClient.post()
@@ -155,7 +183,7 @@ public class SlideshowControllerTest {
     assertEquals(1, result.errors().size());
     assertEquals(new ValidationErrorResponseDTO(error.code(), error.message()), result.errors().get(0));
 
-    verify(validationFacade).validateImages(any());
+    verify(validationFacade).validateSlideshowImages(any());
     verify(slideshowFacade, never()).createSlideshow(any());
   }
 
@@ -172,7 +200,7 @@ public class SlideshowControllerTest {
     List<ImageDetailsRequestDTO> imageDetailsList = List.of(new ImageDetailsRequestDTO(null, url, duration));
     SlideshowRequestDTO request = new SlideshowRequestDTO(imageDetailsList);
 
-    doReturn(Mono.error(new RuntimeException())).when(validationFacade).validateImages(any());
+    doReturn(Mono.error(new RuntimeException())).when(validationFacade).validateSlideshowImages(any());
 
     //execute
     SlideshowResponseDTO result = webTestClient.post()
@@ -195,10 +223,77 @@ public class SlideshowControllerTest {
     assertEquals(INTERNAL_SERVER_ERROR.getCode(), result.errors().get(0).code());
     assertEquals("Something went wrong. Unexpected error: null", result.errors().get(0).message());
 
-    verify(validationFacade).validateImages(any());
+    verify(validationFacade).validateSlideshowImages(any());
     verify(slideshowFacade, never()).createSlideshow(any());
   }
 
+  @Test
+  @SuppressWarnings("unchecked")
+  void shouldCreateSlideshowFromValidImagesAndReturnErrorsOfInvalidOnes() {
+    //prepare
+    ImageDetailsRequestDTO existing = new ImageDetailsRequestDTO(1L, null, null);
+    ImageDetailsRequestDTO missing = new ImageDetailsRequestDTO(2L, null, null);
+    ImageDetailsRequestDTO created = new ImageDetailsRequestDTO(null, "test_url", (short) 10);
+    ImageDetailsRequestDTO invalid = new ImageDetailsRequestDTO(null, "test_url", (short) 0);
+    SlideshowRequestDTO request = new SlideshowRequestDTO(List.of(existing, missing, created, invalid));
+
+    ValidationError missingError = new ValidationError(INVALID_IMAGE_INSTANCE_ID.getCode(), "missing", Map.of());
+    ValidationError durationError = new ValidationError(INVALID_IMAGE_DURATION.getCode(), "duration", Map.of());
+    doReturn(Mono.just(List.of(
+            new ImageValidationResult(0, existing, List.of()),
+            new ImageValidationResult(1, missing, List.of(missingError)),
+            new ImageValidationResult(2, created, List.of(),
+                    new ImageMetadata("image/png", 150_000L, null, null, 1920, 1080)),
+            new ImageValidationResult(3, invalid, List.of(durationError))
+    ))).when(validationFacade).validateSlideshowImages(request);
+    ArgumentCaptor<Flux<ImageEntity>> images = ArgumentCaptor.forClass(Flux.class);
+    doReturn(Mono.just(new SlideshowProjection(1L, 1L, List.of()))).when(slideshowFacade).createSlideshow(images.capture());
+
+    //execute
+    SlideshowResponseDTO result = webTestClient.post()
+            .uri(SLIDESHOW_API_PATH)
+            .body(Mono.just(request), SlideshowRequestDTO.class)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(SlideshowResponseDTO.class)
+            .returnResult()
+            .getResponseBody();
+
+    //verify
+    assertNotNull(result);
+    assertEquals(List.of(
+            new ValidationErrorResponseDTO(missingError.code(), missingError.message()),
+            new ValidationErrorResponseDTO(durationError.code(), durationError.message())
+    ), result.errors());
+    //valid images are passed in request order
+    List<ImageEntity> createdFrom = images.getValue().collectList().block();
+    assertEquals(2, createdFrom.size());
+    assertEquals(1L, createdFrom.get(0).getId());
+    assertEquals("test_url", createdFrom.get(1).getUrl());
+    //new image is stored with metadata probed by validation
+    assertEquals(1920, createdFrom.get(1).getWidth());
+    assertEquals(1080, createdFrom.get(1).getHeight());
+    verify(validationFacade, times(1)).validateSlideshowImages(any());
+  }
+
+  @Test
+  void shouldRejectSlideshowWithoutImages() {
+    //execute
+    SlideshowResponseDTO result = webTestClient.post()
+            .uri(SLIDESHOW_API_PATH)
+            .body(Mono.just(new SlideshowRequestDTO(List.of())), SlideshowRequestDTO.class)
+            .exchange()
+            .expectStatus().isBadRequest()
+            .expectBody(SlideshowResponseDTO.class)
+            .returnResult()
+            .getResponseBody();
+
+    //verify
+    assertNotNull(result);
+    assertEquals(EMPTY_LIST.getCode(), result.errors().get(0).code());
+    verifyNoInteractions(validationFacade, slideshowFacade);
+  }
+
   @Test
   void shouldDeleteExistingSlideshow() {
     Long slideshowId = 1L;
@@ -228,7 +323,7 @@ public class SlideshowControllerTest {
     imageEntity.setDuration(duration);
     imageEntity.setUrl(url);
 
-    SlideshowProjection slideshowDBProjection = new SlideshowProjection(slideshowId, List.of(imageEntity));
+    SlideshowProjection slideshowDBProjection = new SlideshowProjection(slideshowId, 1L, List.of(imageEntity));
 
     doReturn(Mono.just(slideshowDBProjection)).when(slideshowService).getSlideshowById(slideshowId);
 
@@ -292,6 +387,106 @@ public class SlideshowControllerTest {
 
   }
 
+  @Test
+  void getSlideshow_ShouldReturnVersionAsETag() {
+    //prepare
+    long slideshowId = 1L;
+    doReturn(Mono.just(new SlideshowProjection(slideshowId, 7L, List.of())))
+            .when(slideshowService).getSlideshowById(slideshowId);
+
+    //execute & verify
+    webTestClient.get()
+            .uri(SLIDESHOW_API_PATH + "/{id}/slideshowOrder", slideshowId)
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().valueEquals(HttpHeaders.ETAG, "\"7\"");
+
+    verify(slideshowService, never()).getSlideshowVersion(any());
+  }
+
+  @Test
+  void getSlideshow_ShouldAnswerNotModifiedWithoutReadingSlideshow() {
+    //prepare
+    long slideshowId = 1L;
+    doReturn(Mono.just(7L)).when(slideshowService).getSlideshowVersion(slideshowId);
+
+    //execute & verify
+    webTestClient.get()
+            .uri(SLIDESHOW_API_PATH + "/{id}/slideshowOrder", slideshowId)
+            .header(HttpHeaders.IF_NONE_MATCH, "\"6\", W/\"7\"")
+            .exchange()
+            .expectStatus().isNotModified()
+            .expectHeader().valueEquals(HttpHeaders.ETAG, "\"7\"")
+            .expectBody().isEmpty();
+
+    verify(slideshowService, never()).getSlideshowById(any());
+  }
+
+  @Test
+  void getSlideshow_ShouldReturnChangedSlideshowForStaleETag() {
+    //prepare
+    long slideshowId = 1L;
+    doReturn(Mono.just(8L)).when(slideshowService).getSlideshowVersion(slideshowId);
+    doReturn(Mono.just(new SlideshowProjection(slideshowId, 8L, List.of())))
+            .when(slideshowService).getSlideshowById(slideshowId);
+
+    //execute & verify
+    webTestClient.get()
+            .uri(SLIDESHOW_API_PATH + "/{id}/slideshowOrder", slideshowId)
+            .header(HttpHeaders.IF_NONE_MATCH, "\"7\"")
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().valueEquals(HttpHeaders.ETAG, "\"8\"")
+            .expectBody(SlideshowResponseDTO.class)
+            .isEqualTo(new SlideshowResponseDTO(slideshowId, List.of(), null));
+  }
+
+  @Test
+  void streamSlideshowChanges_ShouldSendCurrentVersionAndChangesUntilDeleted() {
+    //prepare
+    long slideshowId = 1L;
+    doReturn(Mono.just(7L)).when(slideshowService).getSlideshowVersion(slideshowId);
+    doReturn(Flux.just(new SlideshowChange(slideshowId, 8L, SlideshowChange.Type.UPDATED),
+            new SlideshowChange(slideshowId, 9L, SlideshowChange.Type.DELETED),
+            new SlideshowChange(slideshowId, 10L, SlideshowChange.Type.UPDATED))
+            .delaySubscription(Duration.ofMillis(100)))
+            .when(changeNotifier).changes(slideshowId);
+    doReturn(Flux.never()).when(changeNotifier).heartbeats();
+
+    //execute
+    Flux<ServerSentEvent<SlideshowChangeResponseDTO>> events = webTestClient.get()
+            .uri(SLIDESHOW_API_PATH + "/{id}/events", slideshowId)
+            .accept(MediaType.TEXT_EVENT_STREAM)
+            .exchange()
+            .expectStatus().isOk()
+            .returnResult(new ParameterizedTypeReference<ServerSentEvent<SlideshowChangeResponseDTO>>() {
+            })
+            .getResponseBody();
+
+    //verify
+    StepVerifier.create(events)
+            .expectNextMatches(event -> "updated".equals(event.event()) && "7".equals(event.id())
+                    && new SlideshowChangeResponseDTO(slideshowId, 7L).equals(event.data()))
+            .expectNextMatches(event -> "updated".equals(event.event()) && "8".equals(event.id()))
+            .expectNextMatches(event -> "deleted".equals(event.event()) && "9".equals(event.id()))
+            .verifyComplete();
+  }
+
+  @Test
+  void streamSlideshowChanges_ShouldReturnNotFoundForUnknownSlideshow() {
+    //prepare
+    doReturn(Mono.empty()).when(slideshowService).getSlideshowVersion(1L);
+
+    //execute & verify
+    webTestClient.get()
+            .uri(SLIDESHOW_API_PATH + "/{id}/events", 1L)
+            .accept(MediaType.TEXT_EVENT_STREAM)
+            .exchange()
+            .expectStatus().isNotFound();
+
+    verify(changeNotifier, never()).changes(any());
+  }
+
   @Test
   void proofOfPlay_ShouldLogEvent() {
     //prepare
@@ -323,4 +518,71 @@ public class SlideshowControllerTest {
     //verify
     verify(proofOfPlayEventService).recordProofOfPlay(any());
   }
+
+  @Test
+  void proofOfPlay_ShouldRejectEventWithoutUserId() {
+    //prepare
+    ProofOfPlayEventDTO eventDTO = new ProofOfPlayEventDTO(null, OffsetDateTime.now(), OffsetDateTime.now(), (short) 10);
+
+    //execute
+    webTestClient.post()
+            .uri(SLIDESHOW_API_PATH + "/1/proof-of-play/1")
+            .body(Mono.just(eventDTO), ProofOfPlayEventDTO.class)
+            .exchange()
+            .expectStatus().isBadRequest();
+
+    //verify
+    verifyNoInteractions(proofOfPlayEventService);
+  }
+
+  @Test
+  void proofOfPlay_ShouldLogEventWithoutDisplayedAt() {
+    //prepare
+    ProofOfPlayEventDTO eventDTO = new ProofOfPlayEventDTO(1L, null, OffsetDateTime.now(), (short) 10);
+    when(proofOfPlayEventService.recordProofOfPlay(any())).thenReturn(Mono.empty());
+
+    //execute
+    webTestClient.post()
+            .uri(SLIDESHOW_API_PATH + "/1/proof-of-play/1")
+            .body(Mono.just(eventDTO), ProofOfPlayEventDTO.class)
+            .exchange()
+            .expectStatus().isOk();
+
+    //verify
+    verify(proofOfPlayEventService).recordProofOfPlay(any());
+  }
+
+  @Test
+  void proofOfPlay_ShouldRejectEventAboveConcurrencyLimit() {
+    //prepare
+    ProofOfPlayEventDTO eventDTO = new ProofOfPlayEventDTO(1L, OffsetDateTime.now(), OffsetDateTime.now(), (short) 10);
+
+    when(admissionLimiter.execute(eq(Priority.INGEST), any()))
+            .thenReturn(Mono.error(new AdmissionRejectedException("Concurrency limit of 4 is reached")));
+    when(admissionLimiter.getRetryAfter()).thenReturn(Duration.ofSeconds(2));
+
+    //execute
+    webTestClient.post()
+            .uri(SLIDESHOW_API_PATH + "/1/proof-of-play/1")
+            .body(Mono.just(eventDTO), ProofOfPlayEventDTO.class)
+            .exchange()
+            .expectStatus().isEqualTo(HttpStatus.TOO_MANY_REQUESTS)
+            .expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "2");
+  }
+
+  @Test
+  void proofOfPlay_ShouldReportFailedEvent() {
+    //prepare
+    ProofOfPlayEventDTO eventDTO = new ProofOfPlayEventDTO(1L, OffsetDateTime.now(), OffsetDateTime.now(), (short) 10);
+
+    when(proofOfPlayEventService.recordProofOfPlay(any()))
+            .thenReturn(Mono.error(new RuntimeException("database is down")));
+
+    //execute
+    webTestClient.post()
+            .uri(SLIDESHOW_API_PATH + "/1/proof-of-play/1")
+            .body(Mono.just(eventDTO), ProofOfPlayEventDTO.class)
+            .exchange()
+            .expectStatus().is5xxServerError();
+  }
 }